@@ -375,7 +375,7 @@ public class RunnerParameter {
 
         oneParameter.put(CherryInput.PARAMETER_MAP_VISIBLE_IN_TEMPLATE, visibleInTemplate);
 
-        logger.info("Parameters getMap:{}", oneParameter);
+        logger.debug("Parameters getMap:{}", oneParameter);
 
         return oneParameter;
     }
@@ -0,0 +1,274 @@
+package io.camunda.connector.filestorage;
+
+/* ******************************************************************** */
+/*                                                                      */
+/*  FileArrivalConnector                                                */
+/*                                                                      */
+/*  Inbound connector: watch a folder, and start or correlate a process */
+/*  each time a new file arrives. The file is saved in the storage      */
+/*  definition like the upload function, then the policy is applied     */
+/*  when the correlation succeeds.                                      */
+/* ******************************************************************** */
+
+import io.camunda.connector.api.annotation.InboundConnector;
+import io.camunda.connector.api.error.ConnectorException;
+import io.camunda.connector.api.inbound.Activity;
+import io.camunda.connector.api.inbound.CorrelationRequest;
+import io.camunda.connector.api.inbound.CorrelationResult;
+import io.camunda.connector.api.inbound.Health;
+import io.camunda.connector.api.inbound.InboundConnectorContext;
+import io.camunda.connector.api.inbound.InboundConnectorDefinition;
+import io.camunda.connector.api.inbound.InboundConnectorExecutable;
+import io.camunda.connector.api.inbound.ProcessElement;
+import io.camunda.connector.api.inbound.Severity;
+import io.camunda.connector.api.outbound.JobContext;
+import io.camunda.connector.api.outbound.OutboundConnectorContext;
+import io.camunda.connector.filestorage.toolbox.ExecutionTrace;
+import io.camunda.connector.filestorage.toolbox.FileStorageToolbox;
+import io.camunda.connector.filestorage.upload.FolderScanner;
+import io.camunda.connector.filestorage.upload.FolderWatcher;
+import io.camunda.connector.filestorage.upload.ProcessedFileIndex;
+import io.camunda.connector.filestorage.upload.UploadFile;
+import io.camunda.document.Document;
+import io.camunda.document.reference.DocumentReference;
+import io.camunda.document.store.DocumentCreationRequest;
+import io.camunda.filestorage.storage.StorageDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+@InboundConnector(name = "fileArrivalConnector", type = "c-filestorage-arrival")
+public class FileArrivalConnector implements InboundConnectorExecutable<InboundConnectorContext>,
+        FolderWatcher.StableFileListener {
+
+    private final Logger logger = LoggerFactory.getLogger(FileArrivalConnector.class.getName());
+    private final UploadFile uploadFile = new UploadFile();
+
+    private InboundConnectorContext context;
+    private FileArrivalInput input;
+    private StorageDefinition storageDefinition;
+    private File archiveFolder;
+    private ProcessedFileIndex processedFileIndex;
+    private OutboundConnectorContext documentContext;
+    private FolderWatcher folderWatcher;
+
+    @Override
+    public void activate(InboundConnectorContext context) throws Exception {
+        this.context = context;
+        this.input = context.bindProperties(FileArrivalInput.class);
+        this.documentContext = new InboundDocumentContext(context);
+
+        File folder = FileStorageToolbox.getFolderFileFromName(input.getFolderToRead());
+        if (folder == null) {
+            throw new ConnectorException(FileStorageError.BPMNERROR_FOLDER_NOT_EXIST,
+                    "FileArrival folder[" + input.getFolderToRead() + "] does not exist");
+        }
+        storageDefinition = input.getStorageDefinitionObject();
+        archiveFolder = FileStorageToolbox.getFolderFileFromName(input.getArchiveFolder());
+        if (FileStorageInput.POLICY_V_ARCHIVE.equals(input.getPolicy()) && archiveFolder == null) {
+            throw new ConnectorException(FileStorageError.BPMNERROR_FOLDER_NOT_EXIST,
+                    "FileArrival archiveFolder[" + input.getArchiveFolder() + "] does not exist");
+        }
+        if (input.getProcessedIndexFile() != null && FileStorageInput.POLICY_V_UNCHANGE.equals(input.getPolicy())) {
+            processedFileIndex = ProcessedFileIndex.getInstance(Path.of(input.getProcessedIndexFile()));
+        }
+
+        List<Path> existingFiles = Collections.emptyList();
+        if (input.isProcessExistingFiles()) {
+            FolderScanner folderScanner = new FolderScanner(null, input.getFilterFile(), input.getExcludeFilter(), 0, 0)
+                    .setProcessedFileIndex(processedFileIndex);
+            existingFiles = folderScanner.scan(folder.toPath()).stream().map(File::toPath).toList();
+        }
+
+        folderWatcher = new FolderWatcher(folder.toPath(), input.getFilterFile(), input.getExcludeFilter(),
+                input.getStabilityDelay(), this);
+        try {
+            folderWatcher.start(existingFiles);
+        } catch (IOException e) {
+            throw new ConnectorException(FileStorageError.BPMNERROR_WATCH_FOLDER_ERROR,
+                    "FileArrival can't watch folder[" + folder.getAbsolutePath() + "] : " + e);
+        }
+        context.reportHealth(Health.up("folder", folder.getAbsolutePath()));
+        logger.info("FileArrivalConnector activated on folder[{}] storage[{}] policy[{}]", folder.getAbsolutePath(),
+                storageDefinition.getInformation(), input.getPolicy());
+    }
+
+    @Override
+    public void deactivate() {
+        if (folderWatcher != null)
+            folderWatcher.close();
+        logger.info("FileArrivalConnector deactivated on folder[{}]", input == null ? null : input.getFolderToRead());
+    }
+
+    /**
+     * A new file is stable: save it, correlate it, then apply the policy.
+     * If the correlation fails or throws, the saved file is purged: the file stays in the folder, and it is processed
+     * again when it is modified.
+     */
+    @Override
+    public void onStableFile(Path file, BasicFileAttributes attributes) {
+        // a file modified, or found again by a rescan, may be already processed with this content
+        if (processedFileIndex != null && processedFileIndex.isProcessed(file, attributes)) {
+            logger.debug("FileArrival file[{}] already processed", file);
+            return;
+        }
+        ExecutionTrace traceExecution = ExecutionTrace.start(logger, "FileArrival");
+        UploadFile.FileLoadedRecord fileLoaded = null;
+        boolean correlated = false;
+        try {
+            fileLoaded = uploadFile.loadFile(file.toFile(), storageDefinition, traceExecution, documentContext);
+
+            FileArrivalEvent event = new FileArrivalEvent();
+            event.fileLoaded = fileLoaded.fileVariableReference();
+            event.fileNameLoaded = fileLoaded.fileVariable().getName();
+            event.fileMimeTypeLoaded = fileLoaded.fileVariable().getMimeType();
+            event.fileSize = attributes.size();
+            event.folder = input.getFolderToRead();
+
+            // one file version is correlated once
+            String messageId = file.toAbsolutePath() + ":" + attributes.size() + ":" + attributes.lastModifiedTime().toMillis();
+            CorrelationResult result = context.correlate(
+                    CorrelationRequest.builder().variables(event).messageId(messageId).build());
+            if (result instanceof CorrelationResult.Failure failure) {
+                logger.error("FileArrival correlation failed for file[{}] {} : {}", file, traceExecution, failure.message());
+                context.log(Activity.level(Severity.WARNING)
+                        .tag("FileArrival")
+                        .message("Correlation failed for file[" + file.getFileName() + "] : " + failure.message()));
+                return;
+            }
+            correlated = true;
+            if (processedFileIndex != null)
+                processedFileIndex.markProcessed(file);
+            uploadFile.applyPolicy(file.toFile(), input.getPolicy(), archiveFolder, traceExecution);
+            context.log(Activity.level(Severity.INFO).tag("FileArrival").message("File[" + file.getFileName() + "] processed"));
+            traceExecution.log();
+        } catch (IOException | RuntimeException e) {
+            logger.error("FileArrival error on file[{}] {} : {}", file, traceExecution, e.toString());
+            context.log(Activity.level(Severity.ERROR)
+                    .tag("FileArrival")
+                    .message("Error on file[" + file.getFileName() + "] : " + e.getMessage()));
+        } finally {
+            // not correlated (failure, or error): no process references the saved file
+            if (fileLoaded != null && !correlated)
+                purgeFileLoaded(file, fileLoaded);
+        }
+    }
+
+    /**
+     * The saved file is not given to a process: remove it from the storage, else each new try leaves one more copy
+     *
+     * @param file       file in the folder
+     * @param fileLoaded file saved in the storage
+     */
+    private void purgeFileLoaded(Path file, UploadFile.FileLoadedRecord fileLoaded) {
+        try {
+            FileStorageToolbox.purgeFileVariable(fileLoaded.fileVariableReference(), documentContext);
+        } catch (Exception e) {
+            logger.error("FileArrival can't purge the saved file for file[{}] : {}", file, e.toString());
+        }
+    }
+
+    @Override
+    public void onWatchError(Exception e) {
+        context.reportHealth(Health.down(e));
+        context.cancel(e);
+    }
+
+    /**
+     * The storage CAMUNDA creates documents through an OutboundConnectorContext. In an inbound connector, the
+     * documents are created by the inbound context. There is no job: the job context describes the element of the
+     * connector, with no process instance and no variables.
+     */
+    private record InboundDocumentContext(InboundConnectorContext inboundContext) implements OutboundConnectorContext {
+
+        @Override
+        public JobContext getJobContext() {
+            return new InboundJobContext(inboundContext.getDefinition());
+        }
+
+        /**
+         * No job variables in an inbound connector: the properties of the connector are bound
+         */
+        @Override
+        public <T> T bindVariables(Class<T> cls) {
+            return inboundContext.bindProperties(cls);
+        }
+
+        @Override
+        public Document resolve(DocumentReference reference) {
+            return inboundContext.resolve(reference);
+        }
+
+        @Override
+        public Document create(DocumentCreationRequest request) {
+            return inboundContext.create(request);
+        }
+    }
+
+    /**
+     * Job context of the inbound connector. The process instance does not exist yet: its keys are 0
+     */
+    private record InboundJobContext(InboundConnectorDefinition definition) implements JobContext {
+
+        private ProcessElement element() {
+            return definition.elements() == null || definition.elements().isEmpty() ? null : definition.elements().get(0);
+        }
+
+        @Override
+        public Map<String, String> getCustomHeaders() {
+            return Collections.emptyMap();
+        }
+
+        @Override
+        public String getVariables() {
+            return "{}";
+        }
+
+        @Override
+        public String getType() {
+            return definition.type();
+        }
+
+        @Override
+        public long getProcessInstanceKey() {
+            return 0;
+        }
+
+        @Override
+        public String getBpmnProcessId() {
+            return element() == null ? null : element().bpmnProcessId();
+        }
+
+        @Override
+        public int getProcessDefinitionVersion() {
+            return element() == null ? 0 : element().version();
+        }
+
+        @Override
+        public long getProcessDefinitionKey() {
+            return element() == null ? 0 : element().processDefinitionKey();
+        }
+
+        @Override
+        public String getElementId() {
+            return element() == null ? null : element().elementId();
+        }
+
+        @Override
+        public long getElementInstanceKey() {
+            return 0;
+        }
+
+        @Override
+        public String getTenantId() {
+            return definition.tenantId();
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package io.camunda.connector.filestorage;
+
+/**
+ * Variables given to the process when a file arrives
+ */
+public class FileArrivalEvent {
+
+    public static final String EVENT_FILE_LOADED = "fileLoaded";
+    public static final String EVENT_FILE_NAME_LOADED = "fileNameLoaded";
+    public static final String EVENT_FILE_MIMETYPE_LOADED = "fileMimeTypeLoaded";
+    public static final String EVENT_FILE_SIZE = "fileSize";
+    public static final String EVENT_FOLDER = "folder";
+
+    public Object fileLoaded;
+    public String fileNameLoaded;
+    public String fileMimeTypeLoaded;
+    public long fileSize;
+    public String folder;
+}
@@ -0,0 +1,38 @@
+package io.camunda.connector.filestorage;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * Properties of the FileArrivalConnector. The source (folder, filter), the storage definition and the policy are the
+ * same as the upload function.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class FileArrivalInput extends FileStorageInput {
+
+    public static final String INPUT_STABILITY_DELAY = "stabilityDelay";
+    public static final String INPUT_PROCESS_EXISTING_FILES = "processExistingFiles";
+
+    /**
+     * Default stability delay, in milliseconds
+     */
+    public static final long DEFAULT_STABILITY_DELAY = 1000;
+
+    public Long stabilityDelay;
+    public Boolean processExistingFiles;
+
+    /**
+     * A file is processed when its size and last modification did not change during this delay
+     *
+     * @return the delay in milliseconds
+     */
+    public long getStabilityDelay() {
+        return stabilityDelay == null || stabilityDelay < 0 ? DEFAULT_STABILITY_DELAY : stabilityDelay;
+    }
+
+    /**
+     * @return true if files present in the folder at the activation are processed
+     */
+    public boolean isProcessExistingFiles() {
+        return Boolean.TRUE.equals(processExistingFiles);
+    }
+}
@@ -28,6 +28,21 @@ public class FileStorageError {
 
     public static final String BPMNERROR_SAVE_FILEVARIABLE = "SAVE_FILEVARIABLE";
 
+    public static final String BPMNERROR_PROCESSED_INDEX_ERROR = "PROCESSED_INDEX_ERROR";
+    public static final String BPMNERROR_PROCESSED_INDEX_ERROR_EXPL = "The index of processed files can't be read";
+
+    public static final String BPMNERROR_WATCH_FOLDER_ERROR = "WATCH_FOLDER_ERROR";
+    public static final String BPMNERROR_WATCH_FOLDER_ERROR_EXPL = "The folder can't be watched";
+
+    public static final String BPMNERROR_CHECKSUM_MISMATCH = "CHECKSUM_MISMATCH";
+    public static final String BPMNERROR_CHECKSUM_MISMATCH_EXPL = "The checksum of the content is not the expected one";
+
+    public static final String BPMNERROR_INCORRECT_CHECKSUM_ALGORITHM = "INCORRECT_CHECKSUM_ALGORITHM";
+    public static final String BPMNERROR_INCORRECT_CHECKSUM_ALGORITHM_EXPL = "Checksum algorithm is unknown: SHA256 or CRC32C expected";
+
+    public static final String BPMNERROR_INCORRECT_COMPRESSION = "INCORRECT_COMPRESSION";
+    public static final String BPMNERROR_INCORRECT_COMPRESSION_EXPL = "Compression is unknown (GZIP or DEFLATE expected), or the storage can't save a compressed content";
+
     public static final String ERROR_INCORRECT_STORAGEDEFINITION = "INCORRECT_STORAGEDEFINITION";
     public static final String ERROR_INCORRECT_STORAGEDEFINITION_EXPL = "Storage definition is incorrect";
 }
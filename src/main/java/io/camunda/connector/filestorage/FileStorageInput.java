@@ -1,9 +1,12 @@
 package io.camunda.connector.filestorage;
 
+import com.fasterxml.jackson.annotation.JsonAlias;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import io.camunda.connector.api.error.ConnectorException;
 import io.camunda.connector.cherrytemplate.CherryInput;
+import io.camunda.connector.filestorage.toolbox.CompressionToolbox;
 import io.camunda.connector.filestorage.toolbox.ParameterToolbox;
+import io.camunda.connector.filestorage.toolbox.StorageDefinitionCache;
 import io.camunda.filestorage.storage.StorageDefinition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -24,8 +27,27 @@ public class FileStorageInput implements CherryInput {
     public static final String INPUT_FOLDER_TO_READ = "folderToRead";
     public static final String INPUT_FILE_NAME = "fileName";
     public static final String INPUT_FILE_NAME_TOWRITE = "fileNameToWrite";
+    public static final String INPUT_WRITE_MODE = "writeMode";
     public static final String INPUT_FILTER_FILE = "filterFile";
     public static final String INPUT_MAXIMUM_FILES_TO_PROCESS = "maximumFilesToProcess";
+    public static final String INPUT_PARALLELISM = "parallelism";
+    public static final String INPUT_RECURSIVE = "recursive";
+    public static final String INPUT_MAXIMUM_DEPTH = "maximumDepth";
+    public static final String INPUT_EXCLUDE_FILTER = "excludeFilter";
+    public static final String INPUT_PROCESSED_INDEX_FILE = "processedIndexFile";
+    public static final String INPUT_DEDUPLICATE = "deduplicate";
+    public static final String INPUT_CHECKSUM_ALGORITHM = "checksumAlgorithm";
+    public static final String INPUT_EXPECTED_CHECKSUM = "expectedChecksum";
+    public static final String INPUT_VERIFY_CHECKSUM = "verifyChecksum";
+    public static final String INPUT_COMPRESSION = "compression";
+    public static final String INPUT_COMPRESSION_LEVEL = "compressionLevel";
+    public static final String INPUT_SPILL_STORAGEDEFINITION = "spillStorageDefinition";
+    public static final String INPUT_SPILL_FOLDER = "spillFolder";
+    public static final String INPUT_SPILL_THRESHOLD = "spillThreshold";
+    public static final String INPUT_CHUNKED_UPLOAD = "chunkedUpload";
+    public static final String INPUT_CHUNK_SIZE = "chunkSize";
+    public static final String INPUT_RANGE_COUNT = "rangeCount";
+    public static final String INPUT_RANGE_SIZE = "rangeSize";
     public static final String INPUT_POLICY = "policy";
     public static final String POLICY_V_DELETE = "DELETE";
     public static final String POLICY_V_ARCHIVE = "ARCHIVE";
@@ -46,11 +68,34 @@ public class FileStorageInput implements CherryInput {
     public String folderToRead;
     public String fileName;
     public String fileNameToWrite;
+    public String writeMode;
     public String filterFile;
     public String policy;
     public Integer maximumFilesToProcess;
+    public Integer parallelism;
+    public Boolean recursive;
+    public Integer maximumDepth;
+    public String excludeFilter;
+    public String processedIndexFile;
+    public Boolean deduplicate;
+    public String checksumAlgorithm;
+    public String expectedChecksum;
+    public Boolean verifyChecksum;
+    public String compression;
+    public Integer compressionLevel;
+    public String spillStorageDefinition;
+    public String spillFolder;
+    public Integer spillThreshold;
+    public Boolean chunkedUpload;
+    public Integer chunkSize;
+    public Integer rangeCount;
+    public Integer rangeSize;
     public String jsonStorageDefinition;
     public String storageDefinition;
+    /**
+     * The element template gives the variable storageDefinitionFolderComplement
+     */
+    @JsonAlias(INPUT_STORAGEDEFINITION_FOLDER_COMPLEMENT)
     public String storageDefinitionFolderCompletement;
     public String storageDefinitionCmisComplement;
     public String archiveFolder;
@@ -85,6 +130,10 @@ public class FileStorageInput implements CherryInput {
         return fileNameToWrite;
     }
 
+    public String getWriteMode() {
+        return writeMode;
+    }
+
     public String getFilterFile() {
         return filterFile;
     }
@@ -109,6 +158,110 @@ public class FileStorageInput implements CherryInput {
         return maximumFilesToProcess;
     }
 
+    /**
+     * Number of files processed at the same time
+     *
+     * @return the parallelism, 1 if not given
+     */
+    public int getParallelism() {
+        return parallelism == null || parallelism < 1 ? 1 : parallelism;
+    }
+
+    public boolean isRecursive() {
+        return Boolean.TRUE.equals(recursive);
+    }
+
+    /**
+     * @return number of sub-folder levels explored in recursive mode. 0 means no limit
+     */
+    public int getMaximumDepth() {
+        return maximumDepth == null || maximumDepth < 0 ? 0 : maximumDepth;
+    }
+
+    public String getExcludeFilter() {
+        return excludeFilter;
+    }
+
+    /**
+     * @return file to save the index of processed files, null if no index is used
+     */
+    public String getProcessedIndexFile() {
+        return processedIndexFile == null || processedIndexFile.trim().isEmpty() ? null : processedIndexFile;
+    }
+
+    /**
+     * @return true if a content already in a FOLDER/TEMPFOLDER storage is shared instead of saved again
+     */
+    public boolean isDeduplicate() {
+        return Boolean.TRUE.equals(deduplicate);
+    }
+
+    public String getChecksumAlgorithm() {
+        return checksumAlgorithm;
+    }
+
+    /**
+     * @return the checksum to verify, null if no value is given
+     */
+    public String getExpectedChecksum() {
+        return expectedChecksum == null || expectedChecksum.trim().isEmpty() ? null : expectedChecksum.trim();
+    }
+
+    public boolean isVerifyChecksum() {
+        return Boolean.TRUE.equals(verifyChecksum);
+    }
+
+    public String getCompression() {
+        return compression;
+    }
+
+    /**
+     * @return the compression level, 0 (fastest) to 9 (smallest)
+     */
+    public int getCompressionLevel() {
+        return compressionLevel == null ? CompressionToolbox.DEFAULT_COMPRESSION_LEVEL : compressionLevel;
+    }
+
+    public String getSpillStorageDefinition() {
+        return spillStorageDefinition;
+    }
+
+    public String getSpillFolder() {
+        return spillFolder;
+    }
+
+    /**
+     * @return the threshold in KB: a larger content is spilled from JSON. Null if the job does not give it
+     */
+    public Integer getSpillThreshold() {
+        return spillThreshold;
+    }
+
+    public boolean isChunkedUpload() {
+        return Boolean.TRUE.equals(chunkedUpload);
+    }
+
+    /**
+     * @return the chunk size in MB of a chunked upload to CMIS. Null if the job does not give it
+     */
+    public Integer getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * @return the number of ranges downloaded at the same time. 1 if the job does not give it: one stream
+     */
+    public int getRangeCount() {
+        return rangeCount == null ? 1 : rangeCount;
+    }
+
+    /**
+     * @return the range size in MB. Null if the job does not give it
+     */
+    public Integer getRangeSize() {
+        return rangeSize;
+    }
+
     //* if jsonStorageDefinition is provided, return it, else compose it from the storage + Folder qnd CMIS complement
     public String getCompleteStorageDefinition() {
         if (jsonStorageDefinition == null || jsonStorageDefinition.isEmpty()) {
@@ -135,22 +288,17 @@ public class FileStorageInput implements CherryInput {
 
 
     /**
-     * Return a Storage definition
+     * Return a Storage definition. Parsed definitions are cached: the object is shared and must not be modified.
      *
      * @return the storage definition
      * @throws ConnectorException if the connection
      */
     public StorageDefinition getStorageDefinitionObject() throws ConnectorException {
         try {
-            StorageDefinition storageDefinition = StorageDefinition.getFromString(isJsonStorageDefinition() ?
-                    getJsonStorageDefinition() : getStorageDefinition());
-
-            storageDefinition.complement = getStorageDefinitionFolderCompletement();
-            if (storageDefinition.complement != null && storageDefinition.complement.isEmpty())
-                storageDefinition.complement = null;
-
-            storageDefinition.complementInObject = getStorageDefinitionCmisComplement();
-            return storageDefinition;
+            return StorageDefinitionCache.getInstance().get(isJsonStorageDefinition() ?
+                            getJsonStorageDefinition() : getStorageDefinition(),
+                    getStorageDefinitionFolderCompletement(),
+                    getStorageDefinitionCmisComplement());
         } catch (Exception e) {
             logger.error("Can't get the FileStorage - bad Gson value :" + getStorageDefinition());
             throw new ConnectorException(FileStorageError.BPMNERROR_INCORRECT_FILESTORAGE,
@@ -17,15 +17,70 @@ public class FileStorageOutput implements CherryOutput {
     public static final String OUTPUT_FILE_IS_PURGED = "fileIsPurged";
     public static final String OUTPUT_NB_FILES_PROCESSED = "nbFilesProcessed";
     public static final String OUTPUT_LIST_FILE_LOADED = "listFilesLoaded";
+    public static final String OUTPUT_LIST_FILE_NAME_LOADED = "listFileNamesLoaded";
+    public static final String OUTPUT_LIST_FILE_MIMETYPE_LOADED = "listFileMimeTypesLoaded";
+    public static final String OUTPUT_COPY_PATH = "copyPath";
+    public static final String OUTPUT_NB_FILES_DEDUPLICATED = "nbFilesDeduplicated";
+    public static final String OUTPUT_CHECKSUM = "checksum";
+    public static final String OUTPUT_LIST_CHECKSUMS = "listChecksums";
+    public static final String OUTPUT_COMPRESSION_RATIO = "compressionRatio";
+    public static final String OUTPUT_NB_FILES_SPILLED = "nbFilesSpilled";
+    public static final String OUTPUT_COMPRESSION_THROUGHPUT = "compressionThroughput";
     public Object fileLoaded;
     public String fileNameLoaded;
     public String fileMimeTypeLoaded;
     public boolean fileIsDownloaded;
     public boolean fileIsPurged;
     public int nbFilesProcessed = 0;
+    /**
+     * Number of files processed whose content was already in the storage
+     */
+    public int nbFilesDeduplicated = 0;
+    /**
+     * Number of files saved in the spill storage instead of the JSON storage, because they are too large
+     */
+    public int nbFilesSpilled = 0;
+    /**
+     * Checksum of the content transferred, "sha256:<hex>" or "crc32c:<hex>". Null if no checksum is asked
+     */
+    public String checksum;
+    /**
+     * Copy: how the content was copied (SHARED, LOCAL_FILE, STREAM)
+     */
+    public String copyPath;
+    /**
+     * Original size / stored size. Null if no compression is asked
+     */
+    public Double compressionRatio;
+    /**
+     * Original content compressed per second, in MB/s. Null if no compression is asked
+     */
+    public Double compressionThroughput;
+    /**
+     * Bytes read or written by the job, for the metrics. Not a process variable
+     */
+    @JsonIgnore
+    public long bytesTransferred = 0;
 
 
+    /**
+     * One item per file loaded, in the same order: the reference (JSON), the name, the mime type
+     */
     public List<String> listFilesLoaded = new ArrayList<>();
+    public List<String> listFileNamesLoaded = new ArrayList<>();
+    public List<String> listFileMimeTypesLoaded = new ArrayList<>();
+    public List<String> listChecksums = new ArrayList<>();
+
+    /**
+     * @param size          original size of the contents
+     * @param storedSize    size of the contents saved
+     * @param durationNanos duration of the operation
+     */
+    public void setCompressionStatistics(long size, long storedSize, long durationNanos) {
+        compressionRatio = storedSize <= 0 ? null : Math.round(100.0 * size / storedSize) / 100.0;
+        compressionThroughput = durationNanos <= 0 ? null :
+                Math.round(100.0 * size / (1024.0 * 1024.0) / (durationNanos / 1_000_000_000.0)) / 100.0;
+    }
 
     @JsonIgnore
     @Override
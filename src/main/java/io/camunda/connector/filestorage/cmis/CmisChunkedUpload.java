@@ -0,0 +1,281 @@
+/* ******************************************************************** */
+/*                                                                      */
+/*  CmisChunkedUpload                                                   */
+/*                                                                      */
+/*  Upload a large content to CMIS in chunks, with the CMIS 1.1        */
+/*  appendContentStream. The memory is bounded (two chunks per          */
+/*  transfer), and a transient error does not restart the upload: the  */
+/*  length committed by the repository tells if the failed chunk must  */
+/*  be sent again. The session comes from the CmisSessionPool; a       */
+/*  failed session is replaced before the retry.                        */
+/* ******************************************************************** */
+package io.camunda.connector.filestorage.cmis;
+
+import io.camunda.connector.filestorage.toolbox.ReferenceSummary;
+import io.camunda.filestorage.FileVariable;
+import io.camunda.filestorage.FileVariableReference;
+import io.camunda.filestorage.storage.StorageDefinition;
+import org.apache.chemistry.opencmis.client.api.CmisObject;
+import org.apache.chemistry.opencmis.client.api.Document;
+import org.apache.chemistry.opencmis.client.api.ObjectId;
+import org.apache.chemistry.opencmis.client.api.OperationContext;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.ContentStreamImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+
+public class CmisChunkedUpload {
+
+    /**
+     * Size of one chunk, in MB, when the job does not give one
+     */
+    public static final String PROPERTY_CHUNK_SIZE_MB = "filestorage.cmis.chunkSizeMb";
+    public static final int DEFAULT_CHUNK_SIZE_MB = 8;
+    /**
+     * Number of retries of one chunk
+     */
+    public static final String PROPERTY_MAXIMUM_RETRIES = "filestorage.cmis.chunk.maximumRetries";
+    public static final int DEFAULT_MAXIMUM_RETRIES = 3;
+    public static final String PROPERTY_RETRY_DELAY_MS = "filestorage.cmis.chunk.retryDelayMs";
+    public static final int DEFAULT_RETRY_DELAY_MS = 500;
+
+    private static final Logger logger = LoggerFactory.getLogger(CmisChunkedUpload.class.getName());
+
+    private final CmisSessionPool cmisSessionPool;
+    private final CmisConnectionParameters parameters;
+    private final int chunkSize;
+    private final int maximumRetries;
+    private final long retryDelayMs;
+
+    private CmisSessionPool.Lease lease;
+    private String documentId;
+    private long committedSize = 0;
+    private int nbChunks = 0;
+    private int nbRetries = 0;
+
+    /**
+     * @param cmisSessionPool pool giving the sessions
+     * @param parameters      connection
+     * @param chunkSize       size of one chunk, in bytes
+     * @param maximumRetries  number of retries of one chunk
+     * @param retryDelayMs    delay before the first retry, doubled at each retry
+     */
+    public CmisChunkedUpload(CmisSessionPool cmisSessionPool,
+                             CmisConnectionParameters parameters,
+                             int chunkSize,
+                             int maximumRetries,
+                             long retryDelayMs) {
+        this.cmisSessionPool = cmisSessionPool;
+        this.parameters = parameters;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.maximumRetries = Math.max(0, maximumRetries);
+        this.retryDelayMs = Math.max(0, retryDelayMs);
+    }
+
+    /**
+     * @param chunkSizeMb chunk size given by the job, may be null
+     * @return the chunk size in bytes
+     */
+    public static int getChunkSize(Integer chunkSizeMb) {
+        int sizeMb = chunkSizeMb != null && chunkSizeMb > 0 ? chunkSizeMb :
+                Integer.getInteger(PROPERTY_CHUNK_SIZE_MB, DEFAULT_CHUNK_SIZE_MB);
+        return (int) Math.min(1024L * 1024 * sizeMb, Integer.MAX_VALUE - 8);
+    }
+
+    /**
+     * Save a content in a CMIS storage, in chunks. The document is created empty with a session of the pool, then the
+     * content is appended.
+     *
+     * @param fileVariable      name, mime type and content. The stream is not read if the storage is not CMIS
+     * @param storageDefinition storage
+     * @param chunkSize         size of one chunk, in bytes
+     * @return the result, null if the storage is not CMIS: save the content as usual. The reference carries the id of
+     * the last append: a versioned repository gives a new id.
+     * @throws Exception if the upload failed. The document is purged.
+     */
+    public static ChunkedResult save(FileVariable fileVariable,
+                                     StorageDefinition storageDefinition,
+                                     int chunkSize) throws Exception {
+        if (!CmisFileRepository.isCmis(storageDefinition))
+            return null;
+        CmisConnectionParameters parameters = CmisConnectionParameters.getFromStorageDefinition(storageDefinition);
+        CmisFileRepository cmisFileRepository = CmisFileRepository.getInstance();
+        FileVariable emptyFileVariable = new FileVariable();
+        emptyFileVariable.setName(fileVariable.getName());
+        emptyFileVariable.setMimeType(fileVariable.getMimeType());
+        emptyFileVariable.setValueStream(new ByteArrayInputStream(new byte[0]));
+        FileVariableReference fileVariableReference = cmisFileRepository.saveFileVariable(emptyFileVariable,
+                storageDefinition);
+
+        CmisChunkedUpload chunkedUpload = new CmisChunkedUpload(CmisSessionPool.getInstance(), parameters, chunkSize,
+                Integer.getInteger(PROPERTY_MAXIMUM_RETRIES, DEFAULT_MAXIMUM_RETRIES),
+                Integer.getInteger(PROPERTY_RETRY_DELAY_MS, DEFAULT_RETRY_DELAY_MS));
+        boolean success = false;
+        try {
+            chunkedUpload.append(String.valueOf(fileVariableReference.content), fileVariable.getName(),
+                    fileVariable.getMimeType(), fileVariable.getValueStream());
+            success = true;
+            return new ChunkedResult(fileVariableReference, chunkedUpload.getCommittedSize(),
+                    chunkedUpload.getNbChunks(), chunkedUpload.getNbRetries());
+        } finally {
+            chunkedUpload.close();
+            // the reference given to the job, and the one purged, is the last version saved
+            if (chunkedUpload.getDocumentId() != null)
+                fileVariableReference.content = chunkedUpload.getDocumentId();
+            if (!success) {
+                try {
+                    cmisFileRepository.purgeFileVariable(fileVariableReference);
+                } catch (Exception e) {
+                    logger.error("CmisChunkedUpload: can't purge reference[{}] : {}",
+                            ReferenceSummary.summarize(fileVariableReference), e.toString());
+                }
+            }
+        }
+    }
+
+    /**
+     * Append a content to an empty document. The next chunk is read before the current one is sent, to mark the last
+     * one: two chunks are in memory.
+     *
+     * @param documentId document, without content
+     * @param name       name of the content
+     * @param mimeType   mime type of the content
+     * @param content    content, not closed
+     * @return the size of the content
+     * @throws IOException if a chunk can't be saved after the retries
+     */
+    public long append(String documentId, String name, String mimeType, InputStream content) throws IOException {
+        this.documentId = documentId;
+        byte[] current = new byte[chunkSize];
+        byte[] next = new byte[chunkSize];
+        int currentLength = content.readNBytes(current, 0, chunkSize);
+        while (true) {
+            int nextLength = currentLength < chunkSize ? 0 : content.readNBytes(next, 0, chunkSize);
+            boolean isLastChunk = nextLength == 0;
+            appendChunk(name, mimeType, current, currentLength, isLastChunk);
+            if (isLastChunk)
+                return committedSize;
+            byte[] swap = current;
+            current = next;
+            next = swap;
+            currentLength = nextLength;
+        }
+    }
+
+    private void appendChunk(String name, String mimeType, byte[] chunk, int length, boolean isLastChunk)
+            throws IOException {
+        long expectedBefore = committedSize;
+        for (int attempt = 0; ; attempt++) {
+            try {
+                ObjectId objectId = getDocument(documentId).appendContentStream(
+                        new ContentStreamImpl(name, BigInteger.valueOf(length), mimeType,
+                                new ByteArrayInputStream(chunk, 0, length)), isLastChunk, false);
+                // a versioned repository may give a new id
+                if (objectId != null && objectId.getId() != null)
+                    documentId = objectId.getId();
+                committedSize = expectedBefore + length;
+                nbChunks++;
+                return;
+            } catch (RuntimeException e) {
+                if (attempt >= maximumRetries)
+                    throw new IOException("Chunk at offset " + expectedBefore + " not saved after " + attempt
+                            + " retries : " + e.getMessage(), e);
+                nbRetries++;
+                logger.info("CmisChunkedUpload: chunk at offset {} failed, retry {} : {}", expectedBefore, attempt + 1,
+                        e.toString());
+                waitBeforeRetry(attempt);
+                // the session may be the cause: the next attempt uses a new one
+                if (lease != null) {
+                    lease.invalidate();
+                    lease = null;
+                }
+                // the repository may have saved the chunk before the error
+                long committed = getCommittedLength();
+                if (committed == expectedBefore + length) {
+                    committedSize = committed;
+                    nbChunks++;
+                    return;
+                }
+                if (committed != expectedBefore)
+                    throw new IOException("Document [" + documentId + "] contains " + committed + " bytes, expected "
+                            + expectedBefore + " : can't resume", e);
+            }
+        }
+    }
+
+    private long getCommittedLength() throws IOException {
+        try {
+            return Math.max(0, getDocument(documentId).getContentStreamLength());
+        } catch (RuntimeException e) {
+            throw new IOException("Document [" + documentId + "] can't be read to resume : " + e.getMessage(), e);
+        }
+    }
+
+    private Document getDocument(String id) {
+        if (lease == null) {
+            try {
+                lease = cmisSessionPool.acquire(parameters);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException("No CMIS session for " + parameters + " : " + e.getMessage(), e);
+            }
+        }
+        // not from the cache of the session: the committed length must be the one of the repository
+        OperationContext operationContext = lease.getSession().createOperationContext();
+        operationContext.setCacheEnabled(false);
+        CmisObject cmisObject = lease.getSession().getObject(id, operationContext);
+        return cmisObject instanceof Document document ? document : null;
+    }
+
+    private void waitBeforeRetry(int attempt) throws IOException {
+        try {
+            Thread.sleep(retryDelayMs << Math.min(attempt, 10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted during the retry", e);
+        }
+    }
+
+    /**
+     * Give back the session
+     */
+    public void close() {
+        if (lease != null) {
+            lease.close();
+            lease = null;
+        }
+    }
+
+    /**
+     * @return id of the document after the last append saved: a versioned repository gives a new id at each append
+     */
+    public String getDocumentId() {
+        return documentId;
+    }
+
+    public long getCommittedSize() {
+        return committedSize;
+    }
+
+    public int getNbChunks() {
+        return nbChunks;
+    }
+
+    public int getNbRetries() {
+        return nbRetries;
+    }
+
+    /**
+     * @param fileVariableReference reference of the document
+     * @param size                  size of the content
+     * @param nbChunks              number of chunks saved
+     * @param nbRetries             number of chunks sent again after an error
+     */
+    public record ChunkedResult(FileVariableReference fileVariableReference, long size, int nbChunks, int nbRetries) {
+    }
+}
@@ -0,0 +1,88 @@
+/* ******************************************************************** */
+/*                                                                      */
+/*  CmisConnectionParameters                                            */
+/*                                                                      */
+/*  Connection to a CMIS repository, read from the CMIS complement of  */
+/*  the storage definition. The values are normalized: two jobs with   */
+/*  the same repository get the same key in the CmisSessionPool.       */
+/* ******************************************************************** */
+package io.camunda.connector.filestorage.cmis;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.camunda.filestorage.storage.StorageDefinition;
+
+import java.util.Map;
+
+/**
+ * @param url            URL of the repository (browser or AtomPub binding)
+ * @param repositoryName name or id of the repository
+ * @param userName       user
+ * @param password       password
+ * @param folder         folder where the documents are saved
+ */
+public record CmisConnectionParameters(String url, String repositoryName, String userName, String password,
+                                       String folder) {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    public CmisConnectionParameters {
+        url = normalize(url);
+        // "http://host/cmis/browser/" and "http://host/cmis/browser" are the same repository
+        while (url != null && url.endsWith("/"))
+            url = url.substring(0, url.length() - 1);
+        repositoryName = normalize(repositoryName);
+        userName = normalize(userName);
+        folder = normalize(folder);
+    }
+
+    /**
+     * @param storageDefinition storage definition
+     * @return the parameters, null if the storage is not CMIS
+     * @throws IllegalArgumentException if the CMIS complement can't be read
+     */
+    public static CmisConnectionParameters getFromStorageDefinition(StorageDefinition storageDefinition) {
+        if (storageDefinition == null || storageDefinition.type != StorageDefinition.StorageDefinitionType.CMIS)
+            return null;
+        // a storage definition read from a reference keeps the complement as a string
+        return getFromComplement(storageDefinition.complementInObject != null ?
+                storageDefinition.complementInObject : storageDefinition.complement);
+    }
+
+    /**
+     * @param complement CMIS complement: a JSON string, or a map
+     * @return the parameters
+     * @throws IllegalArgumentException if the complement can't be read
+     */
+    public static CmisConnectionParameters getFromComplement(Object complement) {
+        Map<?, ?> values;
+        try {
+            values = complement instanceof Map<?, ?> map ? map :
+                    objectMapper.readValue(String.valueOf(complement), Map.class);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("CMIS complement is not a JSON: " + e.getMessage());
+        }
+        CmisConnectionParameters parameters = new CmisConnectionParameters(getString(values, "url"),
+                getString(values, "repositoryName"), getString(values, "userName"), getString(values, "password"),
+                getString(values, "storageDefinitionFolder"));
+        if (parameters.url() == null || parameters.repositoryName() == null)
+            throw new IllegalArgumentException("CMIS complement: url and repositoryName are required");
+        return parameters;
+    }
+
+    private static String getString(Map<?, ?> values, String name) {
+        Object value = values.get(name);
+        return value == null ? null : value.toString();
+    }
+
+    private static String normalize(String value) {
+        return value == null || value.trim().isEmpty() ? null : value.trim();
+    }
+
+    /**
+     * The password is never written in the logs
+     */
+    @Override
+    public String toString() {
+        return "Cmis[" + url + "/" + repositoryName + " user:" + userName + "]";
+    }
+}
@@ -0,0 +1,195 @@
+/* ******************************************************************** */
+/*                                                                      */
+/*  CmisFileRepository                                                  */
+/*                                                                      */
+/*  Save, load and purge the documents of a CMIS storage with a        */
+/*  session of the CmisSessionPool. The filestorage library opens a    */
+/*  new session at each call, and takes no session from outside: the   */
+/*  connector does the CMIS calls itself.                               */
+/*  The reference keeps the format of the library: the storage         */
+/*  definition "CMIS:<complement>", and the id of the document as      */
+/*  content. A reference saved by the library is loaded here, and the  */
+/*  other way.                                                          */
+/* ******************************************************************** */
+package io.camunda.connector.filestorage.cmis;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.camunda.connector.filestorage.copy.LocalFileCopy;
+import io.camunda.connector.filestorage.toolbox.ReferenceSummary;
+import io.camunda.filestorage.FileVariable;
+import io.camunda.filestorage.FileVariableReference;
+import io.camunda.filestorage.storage.StorageDefinition;
+import org.apache.chemistry.opencmis.client.api.CmisObject;
+import org.apache.chemistry.opencmis.client.api.Document;
+import org.apache.chemistry.opencmis.client.api.Folder;
+import org.apache.chemistry.opencmis.commons.PropertyIds;
+import org.apache.chemistry.opencmis.commons.data.ContentStream;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisConnectionException;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisObjectNotFoundException;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.ContentStreamImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+public class CmisFileRepository {
+
+    private static final CmisFileRepository INSTANCE = new CmisFileRepository(CmisSessionPool.getInstance());
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Logger logger = LoggerFactory.getLogger(CmisFileRepository.class.getName());
+
+    private final CmisSessionPool cmisSessionPool;
+
+    public CmisFileRepository(CmisSessionPool cmisSessionPool) {
+        this.cmisSessionPool = cmisSessionPool;
+    }
+
+    public static CmisFileRepository getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @param storageDefinition storage definition
+     * @return true if the storage is a CMIS repository
+     */
+    public static boolean isCmis(StorageDefinition storageDefinition) {
+        return storageDefinition != null && storageDefinition.type == StorageDefinition.StorageDefinitionType.CMIS;
+    }
+
+    /**
+     * Save a content as a new document in the folder of the storage
+     *
+     * @param fileVariable      name, mime type and content. The stream is not closed
+     * @param storageDefinition CMIS storage
+     * @return the reference of the document
+     * @throws Exception if the document can't be created
+     */
+    public FileVariableReference saveFileVariable(FileVariable fileVariable, StorageDefinition storageDefinition)
+            throws Exception {
+        CmisConnectionParameters parameters = CmisConnectionParameters.getFromStorageDefinition(storageDefinition);
+        try (CmisSessionPool.Lease lease = cmisSessionPool.acquire(parameters)) {
+            try {
+                CmisObject folderObject = lease.getSession().getObjectByPath(
+                        parameters.folder() == null ? "/" : parameters.folder());
+                if (!(folderObject instanceof Folder folder))
+                    throw new CmisObjectNotFoundException("Folder [" + parameters.folder() + "] not found");
+
+                Map<String, Object> properties = new LinkedHashMap<>();
+                properties.put(PropertyIds.OBJECT_TYPE_ID, "cmis:document");
+                // two files with the same name may be saved in the folder: the name of the content is kept in the stream
+                properties.put(PropertyIds.NAME, UUID.randomUUID() + "_" + fileVariable.getName());
+                ContentStream contentStream = new ContentStreamImpl(fileVariable.getName(), null,
+                        fileVariable.getMimeType(), fileVariable.getValueStream());
+                Document document = folder.createDocument(properties, contentStream, null);
+                return getReference(storageDefinition, document.getId());
+            } catch (CmisConnectionException e) {
+                lease.invalidate();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Load a document. The session is kept by the stream: close the stream of the file variable.
+     *
+     * @param fileVariableReference reference of the document
+     * @return the file variable, null if the document does not exist
+     * @throws Exception if the repository can't be reached
+     */
+    public FileVariable loadFileVariable(FileVariableReference fileVariableReference) throws Exception {
+        CmisConnectionParameters parameters = CmisConnectionParameters.getFromStorageDefinition(
+                LocalFileCopy.getStorageDefinition(fileVariableReference));
+        CmisSessionPool.Lease lease = cmisSessionPool.acquire(parameters);
+        try {
+            CmisObject cmisObject = lease.getSession().getObject(String.valueOf(fileVariableReference.content));
+            if (!(cmisObject instanceof Document document)) {
+                lease.close();
+                return null;
+            }
+            ContentStream contentStream = document.getContentStream();
+            FileVariable fileVariable = new FileVariable();
+            fileVariable.setName(document.getContentStreamFileName());
+            fileVariable.setMimeType(document.getContentStreamMimeType());
+            fileVariable.setValueStream(new LeaseInputStream(contentStream.getStream(), lease));
+            return fileVariable;
+        } catch (CmisObjectNotFoundException e) {
+            lease.close();
+            return null;
+        } catch (CmisConnectionException e) {
+            lease.invalidate();
+            throw e;
+        } catch (Exception e) {
+            lease.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Delete a document, with all its versions
+     *
+     * @param fileVariableReference reference of the document
+     * @return true if the document is deleted, or does not exist
+     * @throws Exception if the repository can't be reached
+     */
+    public boolean purgeFileVariable(FileVariableReference fileVariableReference) throws Exception {
+        CmisConnectionParameters parameters = CmisConnectionParameters.getFromStorageDefinition(
+                LocalFileCopy.getStorageDefinition(fileVariableReference));
+        try (CmisSessionPool.Lease lease = cmisSessionPool.acquire(parameters)) {
+            try {
+                lease.getSession().getObject(String.valueOf(fileVariableReference.content)).delete(true);
+                return true;
+            } catch (CmisObjectNotFoundException e) {
+                logger.debug("CmisFileRepository: reference[{}] already purged",
+                        ReferenceSummary.summarize(fileVariableReference));
+                return true;
+            } catch (CmisConnectionException e) {
+                lease.invalidate();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * @param storageDefinition CMIS storage
+     * @param documentId        id of the document
+     * @return the reference, in the format of the library
+     * @throws Exception if the reference can't be built
+     */
+    private FileVariableReference getReference(StorageDefinition storageDefinition, String documentId) throws Exception {
+        Object complement = storageDefinition.complementInObject != null ?
+                storageDefinition.complementInObject : storageDefinition.complement;
+        String complementJson = complement instanceof String complementString ? complementString :
+                objectMapper.writeValueAsString(complement);
+        Map<String, Object> reference = new LinkedHashMap<>();
+        reference.put("storageDefinition", StorageDefinition.StorageDefinitionType.CMIS + ":" + complementJson);
+        reference.put("content", documentId);
+        return FileVariableReference.fromObject(objectMapper.writeValueAsString(reference));
+    }
+
+    /**
+     * The content of a document: the session goes back to the pool when the stream is closed
+     */
+    private static class LeaseInputStream extends FilterInputStream {
+        private final CmisSessionPool.Lease lease;
+
+        private LeaseInputStream(InputStream in, CmisSessionPool.Lease lease) {
+            super(in);
+            this.lease = lease;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                lease.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/* ******************************************************************** */
+/*                                                                      */
+/*  CmisRangeSource                                                     */
+/*                                                                      */
+/*  The content of a CMIS document, read by ranges                      */
+/*  (getContentStream(offset, length)). The session is taken from the  */
+/*  CmisSessionPool for the whole transfer, and shared by the ranges:  */
+/*  an OpenCMIS session is thread safe.                                 */
+/* ******************************************************************** */
+package io.camunda.connector.filestorage.cmis;
+
+import io.camunda.connector.filestorage.toolbox.RangedTransfer;
+import org.apache.chemistry.opencmis.client.api.CmisObject;
+import org.apache.chemistry.opencmis.client.api.Document;
+import org.apache.chemistry.opencmis.client.api.OperationContext;
+import org.apache.chemistry.opencmis.commons.data.ContentStream;
+import org.apache.chemistry.opencmis.commons.data.PartialContentStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+
+public class CmisRangeSource implements RangedTransfer.RangeSource {
+
+    private final CmisSessionPool.Lease lease;
+    private final Document document;
+    private final long size;
+
+    /**
+     * @param cmisSessionPool pool giving the session
+     * @param parameters      connection
+     * @param documentId      id of the document
+     * @throws IOException if the document can't be read
+     */
+    public CmisRangeSource(CmisSessionPool cmisSessionPool, CmisConnectionParameters parameters, String documentId)
+            throws IOException {
+        try {
+            lease = cmisSessionPool.acquire(parameters);
+        } catch (Exception e) {
+            throw new IOException("No CMIS session for " + parameters + " : " + e.getMessage(), e);
+        }
+        try {
+            OperationContext operationContext = lease.getSession().createOperationContext();
+            operationContext.setCacheEnabled(false);
+            CmisObject cmisObject = lease.getSession().getObject(documentId, operationContext);
+            if (!(cmisObject instanceof Document documentObject))
+                throw new IOException("Reference [" + documentId + "] is not a CMIS document");
+            document = documentObject;
+            size = document.getContentStreamLength();
+            if (size < 0)
+                throw new IOException("Document [" + documentId + "] does not give its size");
+        } catch (IOException | RuntimeException e) {
+            lease.close();
+            throw e instanceof IOException ioException ? ioException :
+                    new IOException("Document [" + documentId + "] can't be read : " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public String name() {
+        String name = document.getContentStreamFileName();
+        return name != null ? name : document.getName();
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public ReadableByteChannel open(long offset, long length) throws IOException {
+        ContentStream contentStream;
+        try {
+            contentStream = document.getContentStream(BigInteger.valueOf(offset), BigInteger.valueOf(length));
+        } catch (RuntimeException e) {
+            throw new IOException("Range at offset " + offset + " can't be read : " + e.getMessage(), e);
+        }
+        InputStream stream = contentStream == null ? null : contentStream.getStream();
+        if (stream == null)
+            throw new IOException("Range at offset " + offset + ": no content");
+        // a repository may ignore the range and send the whole content
+        if (offset > 0 && !(contentStream instanceof PartialContentStream)) {
+            stream.close();
+            throw new IOException("The repository does not support ranges");
+        }
+        return Channels.newChannel(stream);
+    }
+
+    @Override
+    public void close() {
+        lease.close();
+    }
+}
@@ -0,0 +1,45 @@
+/* ******************************************************************** */
+/*                                                                      */
+/*  CmisSessionFactory                                                  */
+/*                                                                      */
+/*  Open, check and close the sessions of the CmisSessionPool. The     */
+/*  default implementation uses OpenCMIS; a stand-in can be given to   */
+/*  the pool to measure it without a repository.                        */
+/* ******************************************************************** */
+package io.camunda.connector.filestorage.cmis;
+
+import org.apache.chemistry.opencmis.client.api.Session;
+
+public interface CmisSessionFactory {
+
+    /**
+     * @param parameters connection
+     * @return a new session
+     * @throws Exception if the repository can't be reached
+     */
+    Session create(CmisConnectionParameters parameters) throws Exception;
+
+    /**
+     * Check a session which was not used for a while: the server may have dropped it
+     *
+     * @param session session
+     * @return true if the session can be used
+     */
+    default boolean isHealthy(Session session) {
+        try {
+            // one round trip to the repository, not the cached information of the session
+            session.getBinding().getRepositoryService().getRepositoryInfo(session.getRepositoryInfo().getId(), null);
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * @param session session no longer used
+     */
+    default void close(Session session) {
+        session.clear();
+        session.getBinding().close();
+    }
+}
@@ -0,0 +1,283 @@
+/* ******************************************************************** */
+/*                                                                      */
+/*  CmisSessionPool                                                     */
+/*                                                                      */
+/*  Opening a CMIS session costs several round trips (repositories,    */
+/*  repository info, types). An OpenCMIS session is thread safe: one   */
+/*  session per connection is shared by all jobs, and kept between     */
+/*  jobs. The pool is bounded (least recently used session evicted),   */
+/*  a session idle for too long is closed, and a session not used for  */
+/*  a while is checked before it is given.                              */
+/* ******************************************************************** */
+package io.camunda.connector.filestorage.cmis;
+
+import org.apache.chemistry.opencmis.client.api.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class CmisSessionPool {
+
+    /**
+     * Maximum number of sessions kept. May be overridden by the system property
+     */
+    public static final String PROPERTY_MAXIMUM_SIZE = "filestorage.cmis.pool.maximumSize";
+    public static final int DEFAULT_MAXIMUM_SIZE = 16;
+    /**
+     * A session not used during this time is closed
+     */
+    public static final String PROPERTY_IDLE_TIMEOUT_MS = "filestorage.cmis.pool.idleTimeoutMs";
+    public static final int DEFAULT_IDLE_TIMEOUT_MS = 5 * 60 * 1000;
+    /**
+     * A session not used during this time is checked before it is given
+     */
+    public static final String PROPERTY_VALIDATION_INTERVAL_MS = "filestorage.cmis.pool.validationIntervalMs";
+    public static final int DEFAULT_VALIDATION_INTERVAL_MS = 30 * 1000;
+
+    private static final CmisSessionPool INSTANCE = new CmisSessionPool(new OpenCmisSessionFactory(),
+            Integer.getInteger(PROPERTY_MAXIMUM_SIZE, DEFAULT_MAXIMUM_SIZE),
+            Integer.getInteger(PROPERTY_IDLE_TIMEOUT_MS, DEFAULT_IDLE_TIMEOUT_MS),
+            Integer.getInteger(PROPERTY_VALIDATION_INTERVAL_MS, DEFAULT_VALIDATION_INTERVAL_MS));
+
+    private final Logger logger = LoggerFactory.getLogger(CmisSessionPool.class.getName());
+
+    private final CmisSessionFactory sessionFactory;
+    private final int maximumSize;
+    private final long idleTimeoutMs;
+    private final long validationIntervalMs;
+    /**
+     * access-order: the eldest entry is the least recently used
+     */
+    private final Map<CmisConnectionParameters, PooledSession> sessions = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong reusedCount = new AtomicLong();
+    private final AtomicLong evictedCount = new AtomicLong();
+    private final AtomicLong healthCheckFailureCount = new AtomicLong();
+
+    public CmisSessionPool(CmisSessionFactory sessionFactory, int maximumSize, long idleTimeoutMs, long validationIntervalMs) {
+        this.sessionFactory = sessionFactory;
+        this.maximumSize = Math.max(1, maximumSize);
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.validationIntervalMs = validationIntervalMs;
+    }
+
+    public static CmisSessionPool getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Give a session for this connection. Close the lease when the operation is done: the session stays open for the
+     * next job.
+     *
+     * @param parameters connection
+     * @return the lease on the session
+     * @throws Exception if no session can be opened
+     */
+    public Lease acquire(CmisConnectionParameters parameters) throws Exception {
+        List<PooledSession> toClose = new ArrayList<>();
+        PooledSession pooled;
+        long lastUsed = 0;
+        synchronized (sessions) {
+            evictIdle(System.currentTimeMillis(), toClose);
+            pooled = sessions.get(parameters);
+            if (pooled != null) {
+                lastUsed = pooled.lastUsed;
+                pooled.leases++;
+            }
+        }
+        closeAll(toClose);
+
+        if (pooled != null) {
+            // checked out of the lock: the check is a round trip to the repository
+            if (System.currentTimeMillis() - lastUsed < validationIntervalMs || sessionFactory.isHealthy(pooled.session)) {
+                reusedCount.incrementAndGet();
+                return new Lease(pooled);
+            }
+            healthCheckFailureCount.incrementAndGet();
+            logger.info("CmisSessionPool: session {} is not valid, open a new one", parameters);
+            new Lease(pooled).invalidate();
+        }
+
+        // opened out of the lock: two jobs may open the same session, the first one registered is kept
+        Session session = sessionFactory.create(parameters);
+        createdCount.incrementAndGet();
+        synchronized (sessions) {
+            PooledSession registered = sessions.get(parameters);
+            if (registered != null) {
+                registered.leases++;
+                toClose.add(new PooledSession(parameters, session));
+                pooled = registered;
+            } else {
+                pooled = new PooledSession(parameters, session);
+                pooled.leases = 1;
+                sessions.put(parameters, pooled);
+                evictOverSize(toClose);
+            }
+        }
+        closeAll(toClose);
+        return new Lease(pooled);
+    }
+
+    /**
+     * Close the sessions idle for too long. Called at each acquire; may be called by a scheduler.
+     */
+    public void evictIdle() {
+        List<PooledSession> toClose = new ArrayList<>();
+        synchronized (sessions) {
+            evictIdle(System.currentTimeMillis(), toClose);
+        }
+        closeAll(toClose);
+    }
+
+    /**
+     * Close all sessions not in use, and forget the others: they are closed at the end of their lease
+     */
+    public void clear() {
+        List<PooledSession> toClose = new ArrayList<>();
+        synchronized (sessions) {
+            for (PooledSession pooled : sessions.values())
+                discard(pooled, toClose);
+            sessions.clear();
+        }
+        closeAll(toClose);
+    }
+
+    private void evictIdle(long now, List<PooledSession> toClose) {
+        Iterator<PooledSession> iterator = sessions.values().iterator();
+        while (iterator.hasNext()) {
+            PooledSession pooled = iterator.next();
+            if (pooled.leases == 0 && now - pooled.lastUsed > idleTimeoutMs) {
+                iterator.remove();
+                evictedCount.incrementAndGet();
+                discard(pooled, toClose);
+            }
+        }
+    }
+
+    private void evictOverSize(List<PooledSession> toClose) {
+        Iterator<PooledSession> iterator = sessions.values().iterator();
+        while (sessions.size() > maximumSize && iterator.hasNext()) {
+            PooledSession pooled = iterator.next();
+            iterator.remove();
+            evictedCount.incrementAndGet();
+            discard(pooled, toClose);
+        }
+    }
+
+    /**
+     * The session is no longer given. It is closed now if no job uses it, else at the end of the last lease.
+     */
+    private void discard(PooledSession pooled, List<PooledSession> toClose) {
+        pooled.discarded = true;
+        if (pooled.leases == 0)
+            toClose.add(pooled);
+    }
+
+    private void closeAll(List<PooledSession> toClose) {
+        for (PooledSession pooled : toClose) {
+            try {
+                sessionFactory.close(pooled.session);
+            } catch (Exception e) {
+                logger.debug("CmisSessionPool: error when closing session {} : {}", pooled.parameters, e.toString());
+            }
+        }
+        toClose.clear();
+    }
+
+    public int size() {
+        synchronized (sessions) {
+            return sessions.size();
+        }
+    }
+
+    /**
+     * @return number of leases not closed
+     */
+    public int getActiveLeases() {
+        synchronized (sessions) {
+            return sessions.values().stream().mapToInt(pooled -> pooled.leases).sum();
+        }
+    }
+
+    public long getCreatedCount() {
+        return createdCount.get();
+    }
+
+    public long getReusedCount() {
+        return reusedCount.get();
+    }
+
+    public long getEvictedCount() {
+        return evictedCount.get();
+    }
+
+    public long getHealthCheckFailureCount() {
+        return healthCheckFailureCount.get();
+    }
+
+    private static class PooledSession {
+        private final CmisConnectionParameters parameters;
+        private final Session session;
+        /**
+         * Protected by the lock of the pool
+         */
+        private int leases = 0;
+        private long lastUsed = System.currentTimeMillis();
+        private boolean discarded = false;
+
+        private PooledSession(CmisConnectionParameters parameters, Session session) {
+            this.parameters = parameters;
+            this.session = session;
+        }
+    }
+
+    /**
+     * A session given to a job. Close is idempotent.
+     */
+    public class Lease implements AutoCloseable {
+        private final PooledSession pooled;
+        private boolean closed = false;
+
+        private Lease(PooledSession pooled) {
+            this.pooled = pooled;
+        }
+
+        public Session getSession() {
+            return pooled.session;
+        }
+
+        /**
+         * The session failed (connection lost, authentication expired): it is not given again. The lease is closed.
+         */
+        public void invalidate() {
+            synchronized (sessions) {
+                if (sessions.get(pooled.parameters) == pooled)
+                    sessions.remove(pooled.parameters);
+                pooled.discarded = true;
+            }
+            close();
+        }
+
+        @Override
+        public void close() {
+            List<PooledSession> toClose = new ArrayList<>();
+            synchronized (sessions) {
+                if (closed)
+                    return;
+                closed = true;
+                pooled.leases--;
+                pooled.lastUsed = System.currentTimeMillis();
+                if (pooled.discarded && pooled.leases == 0)
+                    toClose.add(pooled);
+            }
+            closeAll(toClose);
+        }
+    }
+}
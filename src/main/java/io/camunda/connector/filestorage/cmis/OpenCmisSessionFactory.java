@@ -0,0 +1,44 @@
+/* ******************************************************************** */
+/*                                                                      */
+/*  OpenCmisSessionFactory                                              */
+/*                                                                      */
+/*  Sessions opened by OpenCMIS. The binding is given by the URL:      */
+/*  AtomPub when it contains "/atom", else browser.                     */
+/* ******************************************************************** */
+package io.camunda.connector.filestorage.cmis;
+
+import org.apache.chemistry.opencmis.client.api.Repository;
+import org.apache.chemistry.opencmis.client.api.Session;
+import org.apache.chemistry.opencmis.client.runtime.SessionFactoryImpl;
+import org.apache.chemistry.opencmis.commons.SessionParameter;
+import org.apache.chemistry.opencmis.commons.enums.BindingType;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisObjectNotFoundException;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class OpenCmisSessionFactory implements CmisSessionFactory {
+
+    @Override
+    public Session create(CmisConnectionParameters parameters) {
+        Map<String, String> sessionParameters = new HashMap<>();
+        if (parameters.userName() != null)
+            sessionParameters.put(SessionParameter.USER, parameters.userName());
+        if (parameters.password() != null)
+            sessionParameters.put(SessionParameter.PASSWORD, parameters.password());
+        if (parameters.url().contains("/atom")) {
+            sessionParameters.put(SessionParameter.BINDING_TYPE, BindingType.ATOMPUB.value());
+            sessionParameters.put(SessionParameter.ATOMPUB_URL, parameters.url());
+        } else {
+            sessionParameters.put(SessionParameter.BINDING_TYPE, BindingType.BROWSER.value());
+            sessionParameters.put(SessionParameter.BROWSER_URL, parameters.url());
+        }
+        // the repository is given by its name: the list of repositories is read once, when the session is created
+        for (Repository repository : SessionFactoryImpl.newInstance().getRepositories(sessionParameters)) {
+            if (parameters.repositoryName().equals(repository.getName())
+                    || parameters.repositoryName().equals(repository.getId()))
+                return repository.createSession();
+        }
+        throw new CmisObjectNotFoundException("Repository [" + parameters.repositoryName() + "] not found");
+    }
+}
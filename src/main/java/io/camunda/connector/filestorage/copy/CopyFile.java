@@ -15,9 +15,19 @@
     import io.camunda.connector.filestorage.FileStorageError;
     import io.camunda.connector.filestorage.FileStorageInput;
     import io.camunda.connector.filestorage.FileStorageOutput;
+    import io.camunda.connector.filestorage.cmis.CmisChunkedUpload;
+    import io.camunda.connector.filestorage.toolbox.ChecksumInputStream;
+    import io.camunda.connector.filestorage.toolbox.CompressingInputStream;
+    import io.camunda.connector.filestorage.toolbox.CompressionToolbox;
+    import io.camunda.connector.filestorage.toolbox.ContentAddressedStore;
+    import io.camunda.connector.filestorage.toolbox.CountingInputStream;
+    import io.camunda.connector.filestorage.toolbox.ExecutionTrace;
+    import io.camunda.connector.filestorage.toolbox.FileHandleBudget;
+    import io.camunda.connector.filestorage.toolbox.FileStorageMetrics;
     import io.camunda.connector.filestorage.toolbox.FileStorageSubFunction;
     import io.camunda.connector.filestorage.toolbox.FileStorageToolbox;
-    import io.camunda.filestorage.FileRepoFactory;
+    import io.camunda.connector.filestorage.toolbox.ReferenceSummary;
+    import io.camunda.connector.filestorage.toolbox.StorageTier;
     import io.camunda.filestorage.FileVariable;
     import io.camunda.filestorage.FileVariableReference;
     import io.camunda.filestorage.cmis.CmisParameters;
@@ -25,6 +35,10 @@
     import org.slf4j.Logger;
     import org.slf4j.LoggerFactory;
 
+    import java.io.IOException;
+    import java.io.InputStream;
+    import java.nio.file.Files;
+    import java.nio.file.Path;
     import java.util.Arrays;
     import java.util.Collections;
     import java.util.List;
@@ -51,12 +65,23 @@
             return "copy";
         }
 
+        /**
+         * @param file local file
+         * @return the size of the file, 0 if it can't be read: the size is used only by the metrics
+         */
+        private long getSize(Path file) {
+            try {
+                return Files.size(file);
+            } catch (IOException e) {
+                return 0;
+            }
+        }
+
         @Override
         public FileStorageOutput executeSubFunction(FileStorageInput input,
                                                     OutboundConnectorContext outboundConnectorContext) {
 
-            StringBuilder traceExecution = new StringBuilder();
-            traceExecution.append("---CopyFile:");
+            ExecutionTrace traceExecution = ExecutionTrace.start(logger, "CopyFile");
 
             FileVariable sourceFileVariable = null;
 
@@ -64,67 +89,225 @@
             FileVariableReference sourceFileVariableReference = null;
             try {
                 sourceFileVariableReference = FileVariableReference.fromObject(input.getSourceFile());
-                FileStorageToolbox.traceValue(traceExecution, "load fileReference ", sourceFileVariableReference.toJson());
+                traceExecution.context("fileReference", sourceFileVariableReference);
             } catch (Exception e) {
                 throw new ConnectorException(FileStorageError.BPMNERROR_ACCESS_FILEVARIABLE,
-                        "Worker [" + getSubFunctionName() + "] error during access fileVariableReference[" + input.getSourceFile()
+                        "Worker [" + getSubFunctionName() + "] error during access fileVariableReference[" + ReferenceSummary.summarize(input.getSourceFile())
                                 + "] :" + e);
             }
-            try {
-                long beginOperation = System.currentTimeMillis();
-                FileRepoFactory fileRepoFactory = FileRepoFactory.getInstance();
-                sourceFileVariable = fileRepoFactory.loadFileVariable(sourceFileVariableReference, outboundConnectorContext);
-                FileStorageToolbox.traceValue(traceExecution, "load File ", sourceFileVariable.getName());
-                FileStorageToolbox.traceValue(traceExecution, " in (ms)", String.valueOf(System.currentTimeMillis() - beginOperation));
-            } catch (Exception e) {
-                logger.error("Can't read file[{}] {} : {}", sourceFileVariableReference, traceExecution, e);
-                throw new ConnectorException(FileStorageError.BPMNERROR_INCORRECT_FILESTORAGE,
-                        "Worker [" + getSubFunctionName() + "] FileReference[" + sourceFileVariableReference.content + "] can't access");
-            }
-            if (sourceFileVariable == null) {
-                logger.error("Input file variable does not exist {}", traceExecution);
-                throw new ConnectorException(FileStorageError.BPMNERROR_LOAD_FILE_ERROR, " file Input does not exist");
-            }
-
-            // ------------ destination File
+            ChecksumInputStream.Algorithm checksumAlgorithm = FileStorageToolbox.getChecksumAlgorithm(
+                    input.getChecksumAlgorithm(), getSubFunctionName());
             FileStorageOutput fileStorageOutput = new FileStorageOutput();
-
-            FileVariable destinationFileVariable = new FileVariable();
-
-            destinationFileVariable.setValueStream(sourceFileVariable.getValueStream());
-            destinationFileVariable.setName(sourceFileVariable.getName());
-            destinationFileVariable.setMimeType(sourceFileVariable.getMimeType());
-
-
-            //------ Storage Definition
-            // Move to the FileStorage
-            StorageDefinition destinationStorageDefinition = input.getStorageDefinitionObject();
-            // Move to the file storage
-            FileStorageToolbox.traceValue(traceExecution, "Move to FileStorage", destinationStorageDefinition.getInformation());
-
-
-            try {
-                destinationFileVariable.setStorageDefinition(destinationStorageDefinition);
-                FileRepoFactory fileRepoFactory = FileRepoFactory.getInstance();
-
-                long beginOperation = System.currentTimeMillis();
-                FileVariableReference fileVariableReference = fileRepoFactory.saveFileVariable(destinationFileVariable, outboundConnectorContext);
-                FileStorageToolbox.traceValue(traceExecution, "Loaded in (ms)", String.valueOf(System.currentTimeMillis() - beginOperation));
-
-                fileStorageOutput.fileLoaded = fileVariableReference;
-                fileStorageOutput.nbFilesProcessed++;
-
-            } catch (Exception e) {
-                logger.error("Error during setFileVariableReference: {} : {} ", traceExecution, e);
-                throw new ConnectorException(FileStorageError.BPMNERROR_SAVE_FILEVARIABLE,
-                        "Worker [" + getSubFunctionName() + "] error during access storageDefinition[" + destinationStorageDefinition + "] :"
-                                + e);
+            // the handles are reserved before the storage opens the stream: the source read, the target written
+            try (FileHandleBudget.Handle fileHandle = FileStorageToolbox.acquireFileHandles(getSubFunctionName(), 2)) {
+                try {
+                    long beginOperation = System.nanoTime();
+                    sourceFileVariable = FileStorageToolbox.loadFileVariable(sourceFileVariableReference, outboundConnectorContext);
+                    long operationNanos = System.nanoTime() - beginOperation;
+                    traceExecution.value("fileLoaded", sourceFileVariable.getName());
+                    traceExecution.value("loadedMs", operationNanos / 1_000_000);
+                    FileStorageMetrics.recordOperation(getSubFunctionType(),
+                            FileStorageMetrics.getStorageDefinition(sourceFileVariableReference),
+                            FileStorageMetrics.OPERATION_LOAD, operationNanos);
+                } catch (Exception e) {
+                    logger.error("Can't read file[{}] {} : {}", ReferenceSummary.summarize(sourceFileVariableReference), traceExecution,
+                            e);
+                    throw new ConnectorException(FileStorageError.BPMNERROR_INCORRECT_FILESTORAGE,
+                            "Worker [" + getSubFunctionName() + "] FileReference[" + ReferenceSummary.summarize(sourceFileVariableReference) + "] can't access");
+                }
+                if (sourceFileVariable == null) {
+                    logger.error("Input file variable does not exist {}", traceExecution);
+                    throw new ConnectorException(FileStorageError.BPMNERROR_LOAD_FILE_ERROR, " file Input does not exist");
+                }
+                // the stream is owned by this function: closed when the copy is saved
+                fileHandle.attach(sourceFileVariable.getValueStream());
+
+                //------ Storage Definition
+                StorageDefinition destinationStorageDefinition = input.getStorageDefinitionObject();
+                traceExecution.context("storageDefinition", destinationStorageDefinition);
+
+                // ------------ a JSON destination keeps a small content inline, and spills a large one to a file storage
+                StorageTier storageTier = FileStorageToolbox.getStorageTier(destinationStorageDefinition,
+                        input.getSpillStorageDefinition(), input.getSpillFolder(), input.getSpillThreshold(),
+                        getSubFunctionName());
+
+                // ------------ compression: the source may be compressed, the destination may ask a compression
+                CompressionToolbox.Compression sourceCompression = CompressionToolbox.getCompression(sourceFileVariable.getName());
+                CompressionToolbox.Compression destinationCompression = input.isDeduplicate() ?
+                        CompressionToolbox.Compression.NONE :
+                        FileStorageToolbox.getCompression(input.getCompression(),
+                                storageTier != null ? storageTier.getSpillStorageDefinition() : destinationStorageDefinition,
+                                getSubFunctionName());
+                // name and mime type of the content, before the compression
+                String originalName = CompressionToolbox.getOriginalName(sourceFileVariable.getName());
+                String originalMimeType = sourceCompression == CompressionToolbox.Compression.NONE ?
+                        sourceFileVariable.getMimeType() : FileVariable.getMimeTypeFromName(originalName);
+
+                // ------------ deduplication: the content is saved only if the storage does not contain it
+                Path sourceLocalFile = LocalFileCopy.getLocalFile(sourceFileVariableReference);
+                ContentAddressedStore contentAddressedStore = input.isDeduplicate() ?
+                        ContentAddressedStore.getInstance(destinationStorageDefinition) : null;
+                if (contentAddressedStore != null) {
+                    try {
+                        long beginOperation = System.nanoTime();
+                        // a reference holding a content of the store is given again: nothing is read
+                        ContentAddressedStore.StoreResult storeResult = contentAddressedStore.share(sourceFileVariableReference);
+                        CountingInputStream countingStream = null;
+                        if (storeResult == null) {
+                            InputStream content = countingStream = new CountingInputStream(sourceFileVariable.getValueStream());
+                            // the store shares the original content: the compressed file is not used as it is
+                            if (sourceCompression != CompressionToolbox.Compression.NONE)
+                                content = fileHandle.attach(CompressionToolbox.decompress(content, sourceCompression));
+                            FileVariable destinationFileVariable = new FileVariable();
+                            destinationFileVariable.setName(originalName);
+                            destinationFileVariable.setMimeType(originalMimeType);
+                            destinationFileVariable.setValueStream(content);
+                            storeResult = contentAddressedStore.save(destinationFileVariable, destinationStorageDefinition,
+                                    outboundConnectorContext);
+                        }
+                        long operationNanos = System.nanoTime() - beginOperation;
+                        traceExecution.value("deduplicated", storeResult.deduplicated());
+                        traceExecution.value("savedMs", operationNanos / 1_000_000);
+                        FileStorageMetrics.recordOperation(getSubFunctionType(), destinationStorageDefinition,
+                                FileStorageMetrics.OPERATION_SAVE, operationNanos);
+                        fileStorageOutput.fileLoaded = storeResult.fileVariableReference();
+                        fileStorageOutput.nbFilesProcessed++;
+                        // a shared content is not read
+                        if (countingStream != null)
+                            fileStorageOutput.bytesTransferred = countingStream.getCount();
+                        if (storeResult.deduplicated())
+                            fileStorageOutput.nbFilesDeduplicated++;
+                        if (checksumAlgorithm != null)
+                            fileStorageOutput.checksum = storeResult.getChecksum();
+                        fileStorageOutput.copyPath = (storeResult.deduplicated() ? LocalFileCopy.CopyPath.SHARED :
+                                LocalFileCopy.CopyPath.STREAM).toString();
+                        fileStorageOutput.fileNameLoaded = originalName;
+                        fileStorageOutput.fileMimeTypeLoaded = originalMimeType;
+                    } catch (Exception e) {
+                        logger.error("Error during deduplicated copy: {} : {} ", traceExecution, e);
+                        throw new ConnectorException(FileStorageError.BPMNERROR_SAVE_FILEVARIABLE,
+                                "Worker [" + getSubFunctionName() + "] error during access storageDefinition["
+                                        + destinationStorageDefinition + "] :" + e);
+                    }
+                    traceExecution.log();
+                    return fileStorageOutput;
+                }
+
+                // ------------ local copy: the source file is given as it is to the destination storage.
+                // A checksum needs to read the content: the copy is streamed
+                if (sourceLocalFile != null && LocalFileCopy.getLocalFolder(destinationStorageDefinition) != null
+                        && checksumAlgorithm == null
+                        && (destinationCompression == CompressionToolbox.Compression.NONE
+                        || destinationCompression == sourceCompression)) {
+                    try {
+                        long beginOperation = System.nanoTime();
+                        // the stream opened by the storage is not used: its handle is given back to the copy
+                        sourceFileVariable.getValueStream().close();
+                        FileVariableReference fileVariableReference = LocalFileCopy.copy(sourceLocalFile, sourceFileVariable,
+                                destinationStorageDefinition, outboundConnectorContext);
+                        long operationNanos = System.nanoTime() - beginOperation;
+                        traceExecution.value("copyPath", LocalFileCopy.CopyPath.LOCAL_FILE);
+                        traceExecution.value("copiedMs", operationNanos / 1_000_000);
+                        FileStorageMetrics.recordOperation(getSubFunctionType(), destinationStorageDefinition,
+                                FileStorageMetrics.OPERATION_COPY, operationNanos);
+                        fileStorageOutput.bytesTransferred = getSize(sourceLocalFile);
+                        fileStorageOutput.fileLoaded = fileVariableReference;
+                        fileStorageOutput.nbFilesProcessed++;
+                        fileStorageOutput.copyPath = LocalFileCopy.CopyPath.LOCAL_FILE.toString();
+                        fileStorageOutput.fileNameLoaded = originalName;
+                        fileStorageOutput.fileMimeTypeLoaded = originalMimeType;
+                    } catch (Exception e) {
+                        logger.error("Error during the copy of [{}] {} : {}", sourceLocalFile, traceExecution, e);
+                        throw new ConnectorException(FileStorageError.BPMNERROR_SAVE_FILEVARIABLE,
+                                "Worker [" + getSubFunctionName() + "] error during access storageDefinition["
+                                        + destinationStorageDefinition + "] :" + e);
+                    }
+                    traceExecution.log();
+                    return fileStorageOutput;
+                }
+
+                // ------------ destination File
+
+                FileVariable destinationFileVariable = new FileVariable();
+
+                ChecksumInputStream checksumStream = null;
+                CompressingInputStream compressingStream = null;
+                CountingInputStream countingStream = null;
+                try {
+                    // the size of a stored content is not known: it is counted while it is read
+                    InputStream content = countingStream = new CountingInputStream(sourceFileVariable.getValueStream());
+                    if (sourceCompression != CompressionToolbox.Compression.NONE)
+                        content = fileHandle.attach(CompressionToolbox.decompress(content, sourceCompression));
+                    // the checksum is computed while the destination storage reads the content
+                    if (checksumAlgorithm != null)
+                        content = checksumStream = new ChecksumInputStream(content, checksumAlgorithm);
+                    destinationFileVariable.setName(originalName);
+                    destinationFileVariable.setMimeType(originalMimeType);
+                    if (storageTier != null) {
+                        // the size is not known: the beginning of the content decides
+                        StorageTier.Selection selection = storageTier.select(content);
+                        content = selection.content();
+                        destinationStorageDefinition = selection.storageDefinition();
+                        if (selection.spilled()) {
+                            fileStorageOutput.nbFilesSpilled++;
+                            traceExecution.value("spilledTo", destinationStorageDefinition.type);
+                        }
+                    }
+                    if (destinationCompression != CompressionToolbox.Compression.NONE
+                            && CompressionToolbox.isCompressionSupported(destinationStorageDefinition)
+                            && CompressionToolbox.isCompressible(originalMimeType)) {
+                        content = compressingStream = fileHandle.attach(
+                                CompressionToolbox.compress(content, destinationCompression, input.getCompressionLevel()));
+                        destinationFileVariable.setName(originalName + destinationCompression.getSuffix());
+                        destinationFileVariable.setMimeType(destinationCompression.getMimeType());
+                    }
+                    destinationFileVariable.setValueStream(content);
+
+                    long beginOperation = System.nanoTime();
+                    FileVariableReference fileVariableReference = null;
+                    if (input.isChunkedUpload() && compressingStream == null) {
+                        // the size is not known: a content smaller than one chunk is sent in one append
+                        CmisChunkedUpload.ChunkedResult chunkedResult = CmisChunkedUpload.save(destinationFileVariable,
+                                destinationStorageDefinition, CmisChunkedUpload.getChunkSize(input.getChunkSize()));
+                        if (chunkedResult != null) {
+                            fileVariableReference = chunkedResult.fileVariableReference();
+                            traceExecution.value("chunks", chunkedResult.nbChunks());
+                            if (chunkedResult.nbRetries() > 0)
+                                traceExecution.value("chunksRetried", chunkedResult.nbRetries());
+                        }
+                    }
+                    if (fileVariableReference == null)
+                        fileVariableReference = FileStorageToolbox.saveFileVariable(destinationFileVariable,
+                                destinationStorageDefinition, outboundConnectorContext);
+                    long operationNanos = System.nanoTime() - beginOperation;
+                    traceExecution.value("savedMs", operationNanos / 1_000_000);
+                    FileStorageMetrics.recordOperation(getSubFunctionType(), destinationStorageDefinition,
+                            FileStorageMetrics.OPERATION_SAVE, operationNanos);
+                    fileStorageOutput.bytesTransferred = countingStream.getCount();
+
+                    fileStorageOutput.fileLoaded = fileVariableReference;
+                    fileStorageOutput.nbFilesProcessed++;
+                    fileStorageOutput.copyPath = LocalFileCopy.CopyPath.STREAM.toString();
+                    if (checksumStream != null)
+                        fileStorageOutput.checksum = checksumStream.getChecksum();
+                    if (compressingStream != null) {
+                        fileStorageOutput.setCompressionStatistics(compressingStream.getInputSize(),
+                                compressingStream.getOutputSize(), operationNanos);
+                        traceExecution.value("compressionRatio", fileStorageOutput.compressionRatio);
+                    }
+
+                } catch (Exception e) {
+                    logger.error("Error during setFileVariableReference: {} : {} ", traceExecution, e);
+                    throw new ConnectorException(FileStorageError.BPMNERROR_SAVE_FILEVARIABLE,
+                            "Worker [" + getSubFunctionName() + "] error during access storageDefinition[" + destinationStorageDefinition + "] :"
+                                    + e);
+                }
+                fileStorageOutput.fileNameLoaded = originalName;
+                fileStorageOutput.fileMimeTypeLoaded = originalMimeType;
             }
-            fileStorageOutput.fileNameLoaded = destinationFileVariable.getName();
-            fileStorageOutput.fileMimeTypeLoaded = destinationFileVariable.getMimeType();
 
 
-            logger.info(traceExecution.toString());
+            traceExecution.log();
             return fileStorageOutput;
         }
 
@@ -176,6 +359,87 @@
                                     Collections.singletonList(StorageDefinition.StorageDefinitionType.CMIS.toString()))
                             .setGroup(GROUP_STORAGE_DEFINITION),
 
+                    RunnerParameter.getInstance(FileStorageInput.INPUT_CHUNKED_UPLOAD, "Chunked upload", Boolean.class,
+                                    RunnerParameter.Level.OPTIONAL, // level
+                                    "The content is sent in chunks (CMIS 1.1 append). A failed chunk is sent again, not the whole content") //
+                            .setDefaultValue(Boolean.FALSE) //
+                            .addCondition(FileStorageInput.INPUT_STORAGEDEFINITION,
+                                    Collections.singletonList(StorageDefinition.StorageDefinitionType.CMIS.toString()))
+                            .setGroup(GROUP_STORAGE_DEFINITION),
+
+                    RunnerParameter.getInstance(FileStorageInput.INPUT_CHUNK_SIZE, "Chunk size (MB)", Integer.class,
+                                    RunnerParameter.Level.OPTIONAL, // level
+                                    "Size of one chunk. Two chunks are in memory per copy") //
+                            .setDefaultValue(CmisChunkedUpload.DEFAULT_CHUNK_SIZE_MB) //
+                            .addCondition(FileStorageInput.INPUT_CHUNKED_UPLOAD, Collections.singletonList(Boolean.TRUE.toString()))
+                            .setGroup(GROUP_STORAGE_DEFINITION),
+
+                    RunnerParameter.getInstance(FileStorageInput.INPUT_DEDUPLICATE, "Deduplicate", Boolean.class,
+                                    RunnerParameter.Level.OPTIONAL, // level
+                                    "A content already present in the storage is not saved again: the file references share it") //
+                            .setDefaultValue(Boolean.FALSE) //
+                            .addCondition(FileStorageInput.INPUT_STORAGEDEFINITION,
+                                    Arrays.asList(StorageDefinition.StorageDefinitionType.FOLDER.toString(),
+                                            StorageDefinition.StorageDefinitionType.TEMPFOLDER.toString()))
+                            .setGroup(GROUP_STORAGE_DEFINITION),
+
+                    RunnerParameter.getInstance(FileStorageInput.INPUT_COMPRESSION, "Compression", String.class,
+                                    RunnerParameter.Level.OPTIONAL, // level
+                                    "Content compressed while it is saved in the destination storage. Already compressed contents (zip, pdf, images...) are saved as they are") //
+                            .addChoice("", "None")
+                            .addChoice(CompressionToolbox.Compression.GZIP.toString(), "GZIP")
+                            .addChoice(CompressionToolbox.Compression.DEFLATE.toString(), "Deflate")
+                            .addCondition(FileStorageInput.INPUT_STORAGEDEFINITION,
+                                    Arrays.asList(StorageDefinition.StorageDefinitionType.FOLDER.toString(),
+                                            StorageDefinition.StorageDefinitionType.TEMPFOLDER.toString()))
+                            .setGroup(GROUP_STORAGE_DEFINITION),
+
+                    RunnerParameter.getInstance(FileStorageInput.INPUT_COMPRESSION_LEVEL, "Compression level", Integer.class,
+                                    RunnerParameter.Level.OPTIONAL, // level
+                                    "0 (fastest) to 9 (smallest)") //
+                            .setDefaultValue(CompressionToolbox.DEFAULT_COMPRESSION_LEVEL) //
+                            .addCondition(FileStorageInput.INPUT_STORAGEDEFINITION,
+                                    Arrays.asList(StorageDefinition.StorageDefinitionType.FOLDER.toString(),
+                                            StorageDefinition.StorageDefinitionType.TEMPFOLDER.toString()))
+                            .setGroup(GROUP_STORAGE_DEFINITION),
+
+                    RunnerParameter.getInstance(FileStorageInput.INPUT_SPILL_STORAGEDEFINITION, "Spill storage", String.class,
+                                    RunnerParameter.Level.OPTIONAL, // level
+                                    "JSON storage: a content larger than the spill threshold is saved in this storage, not in the process variable") //
+                            .addChoice("", "None")
+                            .addChoice(StorageDefinition.StorageDefinitionType.TEMPFOLDER.toString(),
+                                    StorageDefinition.StorageDefinitionType.TEMPFOLDER.toString())
+                            .addChoice(StorageDefinition.StorageDefinitionType.FOLDER.toString(),
+                                    StorageDefinition.StorageDefinitionType.FOLDER.toString())
+                            .addChoice(StorageDefinition.StorageDefinitionType.CAMUNDA.toString(),
+                                    StorageDefinition.StorageDefinitionType.CAMUNDA.toString())
+                            .addCondition(FileStorageInput.INPUT_STORAGEDEFINITION,
+                                    Collections.singletonList(StorageDefinition.StorageDefinitionType.JSON.toString()))
+                            .setGroup(GROUP_STORAGE_DEFINITION),
+
+                    RunnerParameter.getInstance(FileStorageInput.INPUT_SPILL_FOLDER, "Spill folder", String.class,
+                                    RunnerParameter.Level.OPTIONAL, // level
+                                    "Folder of the FOLDER spill storage") //
+                            .addCondition(FileStorageInput.INPUT_SPILL_STORAGEDEFINITION,
+                                    Collections.singletonList(StorageDefinition.StorageDefinitionType.FOLDER.toString()))
+                            .setGroup(GROUP_STORAGE_DEFINITION),
+
+                    RunnerParameter.getInstance(FileStorageInput.INPUT_SPILL_THRESHOLD, "Spill threshold (KB)", Integer.class,
+                                    RunnerParameter.Level.OPTIONAL, // level
+                                    "A content larger than this size is saved in the spill storage") //
+                            .setDefaultValue(StorageTier.DEFAULT_SPILL_THRESHOLD_KB) //
+                            .addCondition(FileStorageInput.INPUT_STORAGEDEFINITION,
+                                    Collections.singletonList(StorageDefinition.StorageDefinitionType.JSON.toString()))
+                            .setGroup(GROUP_STORAGE_DEFINITION),
+
+                    RunnerParameter.getInstance(FileStorageInput.INPUT_CHECKSUM_ALGORITHM, "Checksum algorithm", String.class,
+                                    RunnerParameter.Level.OPTIONAL, // level
+                                    "Checksum computed during the copy. With the deduplication, the checksum is always SHA256") //
+                            .addChoice("", "None")
+                            .addChoice(ChecksumInputStream.Algorithm.SHA256.toString(), "SHA-256")
+                            .addChoice(ChecksumInputStream.Algorithm.CRC32C.toString(), "CRC32C")
+                            .setGroup(GROUP_STORAGE_DEFINITION),
+
                     RunnerParameter.getInstance(FileStorageInput.INPUT_JSONSTORAGEDEFINITION, // name
                                     "Storage definition in JSON", // label
                                     Object.class, // type
@@ -195,7 +459,40 @@
                             "Nb files processed", //
                             Integer.class, //
                             RunnerParameter.Level.REQUIRED, //
-                            "Number of files processed. May be 1 or 0 (no file found)"));
+                            "Number of files processed. May be 1 or 0 (no file found)"),
+                    RunnerParameter.getInstance(FileStorageOutput.OUTPUT_COPY_PATH, //
+                            "Copy path", //
+                            String.class, //
+                            RunnerParameter.Level.OPTIONAL, //
+                            "How the content was copied: SHARED (the deduplicated reference is given again), LOCAL_FILE (the source file is given to the storage, between FOLDER/TEMPFOLDER storages), STREAM (through the connector)"),
+                    RunnerParameter.getInstance(FileStorageOutput.OUTPUT_NB_FILES_DEDUPLICATED, //
+                            "Nb files deduplicated", //
+                            Integer.class, //
+                            RunnerParameter.Level.OPTIONAL, //
+                            "1 if the content was already in the storage, with the deduplication"),
+                    RunnerParameter.getInstance(FileStorageOutput.OUTPUT_CHECKSUM, //
+                            "Checksum", //
+                            String.class, //
+                            RunnerParameter.Level.OPTIONAL, //
+                            "Checksum of the content, algorithm:hex"),
+
+                    RunnerParameter.getInstance(FileStorageOutput.OUTPUT_COMPRESSION_RATIO, //
+                            "Compression ratio", //
+                            Double.class, //
+                            RunnerParameter.Level.OPTIONAL, //
+                            "Original size / stored size. Empty if no compression is asked"),
+
+                    RunnerParameter.getInstance(FileStorageOutput.OUTPUT_COMPRESSION_THROUGHPUT, //
+                            "Compression throughput", //
+                            Double.class, //
+                            RunnerParameter.Level.OPTIONAL, //
+                            "Original content compressed and saved per second, in MB/s. Empty if no compression is asked"),
+
+                    RunnerParameter.getInstance(FileStorageOutput.OUTPUT_NB_FILES_SPILLED, //
+                            "Nb files spilled", //
+                            Integer.class, //
+                            RunnerParameter.Level.OPTIONAL, //
+                            "1 if the content is saved in the spill storage, because it is larger than the spill threshold"));
         }
 
         public Map<String, String> getBpmnErrors() {
@@ -203,7 +500,9 @@
                     FileStorageError.BPMNERROR_LOAD_FILE_ERROR, FileStorageError.BPMNERROR_LOAD_FILE_ERROR_EXPL, //
                     FileStorageError.BPMNERROR_COPY_FILE_ERROR, FileStorageError.BPMNERROR_COPY_FILE_ERROR_EXPL, //
                     FileStorageError.ERROR_INCORRECT_STORAGEDEFINITION, FileStorageError.ERROR_INCORRECT_STORAGEDEFINITION_EXPL, //
-                    FileStorageError.BPMNERROR_BAD_CMIS_PARAMETERS, FileStorageError.BPMNERROR_BAD_CMIS_PARAMETERS_EXPL); //
+                    FileStorageError.BPMNERROR_BAD_CMIS_PARAMETERS, FileStorageError.BPMNERROR_BAD_CMIS_PARAMETERS_EXPL, //
+                    FileStorageError.BPMNERROR_INCORRECT_CHECKSUM_ALGORITHM, FileStorageError.BPMNERROR_INCORRECT_CHECKSUM_ALGORITHM_EXPL, //
+                    FileStorageError.BPMNERROR_INCORRECT_COMPRESSION, FileStorageError.BPMNERROR_INCORRECT_COMPRESSION_EXPL); //
 
         }
 
@@ -0,0 +1,112 @@
+/* ******************************************************************** */
+/*                                                                      */
+/*  LocalFileCopy                                                       */
+/*                                                                      */
+/* Copy a file between two local storages (FOLDER, TEMPFOLDER). The     */
+/* storage library has no copy operation, and the connector does not    */
+/* write behind it: the destination is saved by the library, with the  */
+/* source file given as it is. When the storage writes the file with    */
+/* transferTo, the JDK lets the kernel copy the content (sendfile,      */
+/* copy_file_range): it does not go through the buffers of the worker.  */
+/* ******************************************************************** */
+package io.camunda.connector.filestorage.copy;
+
+import io.camunda.connector.api.outbound.OutboundConnectorContext;
+import io.camunda.filestorage.FileRepoFactory;
+import io.camunda.filestorage.FileVariable;
+import io.camunda.filestorage.FileVariableReference;
+import io.camunda.filestorage.storage.StorageDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.FileInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class LocalFileCopy {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalFileCopy.class.getName());
+
+    /**
+     * This is a toolbox, only static method
+     */
+    private LocalFileCopy() {
+    }
+
+    /**
+     * Return the local file behind a reference
+     *
+     * @param fileVariableReference reference
+     * @return the file, null if the reference is not a local storage, or the file is not found
+     */
+    public static Path getLocalFile(FileVariableReference fileVariableReference) {
+        try {
+            Path folder = getLocalFolder(getStorageDefinition(fileVariableReference));
+            if (folder == null || fileVariableReference.content == null)
+                return null;
+            Path file = folder.resolve(String.valueOf(fileVariableReference.content));
+            return Files.isRegularFile(file) ? file : null;
+        } catch (Exception e) {
+            logger.debug("LocalFileCopy: reference is not a local file : {}", e.toString());
+            return null;
+        }
+    }
+
+    /**
+     * @param fileVariableReference reference
+     * @return the storage definition of the reference
+     * @throws Exception if the storage definition can't be parsed
+     */
+    public static StorageDefinition getStorageDefinition(FileVariableReference fileVariableReference) throws Exception {
+        Object storageDefinitionValue = fileVariableReference.getStorageDefinition();
+        return storageDefinitionValue instanceof StorageDefinition storageDefinitionObject ?
+                storageDefinitionObject :
+                StorageDefinition.getFromString(String.valueOf(storageDefinitionValue));
+    }
+
+    /**
+     * @param storageDefinition storage definition
+     * @return the folder where the storage saves the files, null if the storage is not local
+     */
+    public static Path getLocalFolder(StorageDefinition storageDefinition) {
+        if (storageDefinition == null || storageDefinition.type == null)
+            return null;
+        return switch (storageDefinition.type) {
+            case FOLDER -> storageDefinition.complement == null ? null : Path.of(storageDefinition.complement);
+            case TEMPFOLDER -> Path.of(System.getProperty("java.io.tmpdir"));
+            default -> null;
+        };
+    }
+
+    /**
+     * Copy the source file to the destination storage
+     *
+     * @param sourceFile                   local file to copy
+     * @param sourceFileVariable           source, to get the name and the mime type. Its stream is not read
+     * @param destinationStorageDefinition destination
+     * @param outboundConnectorContext     context
+     * @return the reference of the copy
+     * @throws Exception if the source can't be read, or the destination can't be saved
+     */
+    public static FileVariableReference copy(Path sourceFile,
+                                             FileVariable sourceFileVariable,
+                                             StorageDefinition destinationStorageDefinition,
+                                             OutboundConnectorContext outboundConnectorContext) throws Exception {
+        FileVariable destinationFileVariable = new FileVariable();
+        destinationFileVariable.setName(sourceFileVariable.getName());
+        destinationFileVariable.setMimeType(sourceFileVariable.getMimeType());
+        destinationFileVariable.setStorageDefinition(destinationStorageDefinition);
+        // the stream is not wrapped: a wrapper hides the file from the transferTo of the JDK
+        try (FileInputStream sourceStream = new FileInputStream(sourceFile.toFile())) {
+            destinationFileVariable.setValueStream(sourceStream);
+            return FileRepoFactory.getInstance().saveFileVariable(destinationFileVariable, outboundConnectorContext);
+        }
+    }
+
+    /**
+     * How CopyFile copied the content: SHARED, the reference holding the same content in the deduplication store is
+     * given again; LOCAL_FILE, the source file is given to the storage as it is; STREAM, the content is read and written
+     * through the connector.
+     */
+    public enum CopyPath {SHARED, LOCAL_FILE, STREAM}
+}
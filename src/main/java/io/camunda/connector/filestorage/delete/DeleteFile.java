@@ -12,9 +12,12 @@ import io.camunda.connector.cherrytemplate.RunnerParameter;
 import io.camunda.connector.filestorage.FileStorageError;
 import io.camunda.connector.filestorage.FileStorageInput;
 import io.camunda.connector.filestorage.FileStorageOutput;
+import io.camunda.connector.filestorage.toolbox.ContentAddressedStore;
+import io.camunda.connector.filestorage.toolbox.ExecutionTrace;
+import io.camunda.connector.filestorage.toolbox.FileStorageMetrics;
 import io.camunda.connector.filestorage.toolbox.FileStorageSubFunction;
 import io.camunda.connector.filestorage.toolbox.FileStorageToolbox;
-import io.camunda.filestorage.FileRepoFactory;
+import io.camunda.connector.filestorage.toolbox.ReferenceSummary;
 import io.camunda.filestorage.FileVariableReference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -45,37 +48,48 @@ public class DeleteFile implements FileStorageSubFunction {
     @Override
     public FileStorageOutput executeSubFunction(FileStorageInput input,
                                                 OutboundConnectorContext outboundConnectorContext) {
-        StringBuilder traceExecution = new StringBuilder();
-        traceExecution.append("---DeleteFile:");
+        ExecutionTrace traceExecution = ExecutionTrace.start(logger, "DeleteFile");
 
         FileVariableReference fileVariableReference;
         try {
             fileVariableReference = FileVariableReference.fromObject(input.getSourceFile());
         } catch (Exception e) {
             throw new ConnectorException(FileStorageError.BPMNERROR_ACCESS_FILEVARIABLE,
-                    "Worker [" + getSubFunctionName() + "] error during access fileVariableReference[" + input.getSourceFile()
+                    "Worker [" + getSubFunctionName() + "] error during access fileVariableReference[" + ReferenceSummary.summarize(input.getSourceFile())
                             + "] :" + e);
         }
         FileStorageOutput output = new FileStorageOutput();
         try {
-            FileRepoFactory fileRepoFactory = FileRepoFactory.getInstance();
-            FileStorageToolbox.traceValue(traceExecution, "StorageDefinition", fileVariableReference.getStorageDefinition());
-
-
-            boolean filePurged = fileRepoFactory.purgeFileVariable(fileVariableReference, outboundConnectorContext);
-            FileStorageToolbox.traceValue(traceExecution, "Purged[", String.valueOf(filePurged));
+            traceExecution.context("fileReference", fileVariableReference);
+            traceExecution.context("storageDefinition", fileVariableReference.getStorageDefinition());
+
+
+            boolean filePurged;
+            // a deduplicated content is purged when its last reference is deleted
+            if (ContentAddressedStore.release(fileVariableReference)) {
+                long beginOperation = System.nanoTime();
+                filePurged = FileStorageToolbox.purgeFileVariable(fileVariableReference, outboundConnectorContext);
+                FileStorageMetrics.recordOperation(getSubFunctionType(),
+                        FileStorageMetrics.getStorageDefinition(fileVariableReference), FileStorageMetrics.OPERATION_PURGE,
+                        System.nanoTime() - beginOperation);
+            } else {
+                // other references use the content: this reference is released, the file stays
+                filePurged = true;
+                traceExecution.value("shared", true);
+            }
+            traceExecution.value("purged", filePurged);
 
 
             output.fileIsPurged = filePurged;
             output.nbFilesProcessed = 1;
 
         } catch (Exception e) {
-            logger.error("Can't purge file {}", e);
+            logger.error("Can't purge file {} : {}", traceExecution, e);
             output.fileIsPurged = false;
             throw new ConnectorException(FileStorageError.BPMNERROR_INCORRECT_FILESTORAGE,
-                    "Worker [" + getSubFunctionName() + "] FileReference[" + fileVariableReference.content + "] can't purge");
+                    "Worker [" + getSubFunctionName() + "] FileReference[" + ReferenceSummary.summarize(fileVariableReference) + "] can't purge");
         }
-        logger.info(traceExecution.toString());
+        traceExecution.log();
 
         return output;
     }
@@ -14,24 +14,38 @@ import io.camunda.connector.cherrytemplate.RunnerParameter;
 import io.camunda.connector.filestorage.FileStorageError;
 import io.camunda.connector.filestorage.FileStorageInput;
 import io.camunda.connector.filestorage.FileStorageOutput;
+import io.camunda.connector.filestorage.cmis.CmisConnectionParameters;
+import io.camunda.connector.filestorage.cmis.CmisRangeSource;
+import io.camunda.connector.filestorage.cmis.CmisSessionPool;
+import io.camunda.connector.filestorage.copy.LocalFileCopy;
+import io.camunda.connector.filestorage.toolbox.ChecksumInputStream;
+import io.camunda.connector.filestorage.toolbox.CompressionToolbox;
+import io.camunda.connector.filestorage.toolbox.ContentAddressedStore;
+import io.camunda.connector.filestorage.toolbox.ExecutionTrace;
+import io.camunda.connector.filestorage.toolbox.FileHandleBudget;
+import io.camunda.connector.filestorage.toolbox.FileStorageMetrics;
 import io.camunda.connector.filestorage.toolbox.FileStorageSubFunction;
 import io.camunda.connector.filestorage.toolbox.FileStorageToolbox;
-import io.camunda.filestorage.FileRepoFactory;
+import io.camunda.connector.filestorage.toolbox.RangedTransfer;
+import io.camunda.connector.filestorage.toolbox.ReferenceSummary;
+import io.camunda.connector.filestorage.toolbox.TransferToolbox;
 import io.camunda.filestorage.FileVariable;
 import io.camunda.filestorage.FileVariableReference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
-import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
 import java.nio.file.FileSystems;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 
 public class DownloadFile implements FileStorageSubFunction {
 
@@ -54,73 +68,217 @@ public class DownloadFile implements FileStorageSubFunction {
     public FileStorageOutput executeSubFunction(FileStorageInput input,
                                                 OutboundConnectorContext outboundConnectorContext) {
 
-        StringBuilder traceExecution = new StringBuilder();
-        traceExecution.append("---DownloadFile:");
+        ExecutionTrace traceExecution = ExecutionTrace.start(logger, "DownloadFile");
 
         //----- Source file
         FileVariable fileVariable;
         FileVariableReference fileVariableReference = null;
         try {
             fileVariableReference = FileVariableReference.fromObject(input.getSourceFile());
-            FileStorageToolbox.traceValue(traceExecution, "load fileReference", fileVariableReference.toJson());
+            traceExecution.context("fileReference", fileVariableReference);
 
         } catch (Exception e) {
             throw new ConnectorException(FileStorageError.BPMNERROR_ACCESS_FILEVARIABLE,
-                    "Worker [" + getSubFunctionName() + "] error during access fileVariableReference[" + input.getSourceFile()
+                    "Worker [" + getSubFunctionName() + "] error during access fileVariableReference[" + ReferenceSummary.summarize(input.getSourceFile())
                             + "] :" + e);
         }
+        //----- checksum: the expected value is given by the process, or stored with a deduplicated content
+        String expectedChecksum = null;
+        if (input.isVerifyChecksum()) {
+            expectedChecksum = input.getExpectedChecksum() != null ? input.getExpectedChecksum() :
+                    ContentAddressedStore.getStoredChecksum(fileVariableReference);
+            if (expectedChecksum == null)
+                throw new ConnectorException(FileStorageError.BPMNERROR_CHECKSUM_MISMATCH,
+                        "Worker [" + getSubFunctionName() + "] verifyChecksum: no expected checksum is given or stored");
+        }
+        ChecksumInputStream.Algorithm checksumAlgorithm;
         try {
-            FileRepoFactory fileRepoFactory = FileRepoFactory.getInstance();
-            fileVariable = fileRepoFactory.loadFileVariable(fileVariableReference, outboundConnectorContext);
-            FileStorageToolbox.traceValue(traceExecution, "load file", fileVariable.getName());
+            checksumAlgorithm = expectedChecksum != null ? ChecksumInputStream.Algorithm.fromChecksum(expectedChecksum) :
+                    ChecksumInputStream.Algorithm.fromValue(input.getChecksumAlgorithm());
+        } catch (IllegalArgumentException e) {
+            throw new ConnectorException(FileStorageError.BPMNERROR_INCORRECT_CHECKSUM_ALGORITHM,
+                    "Worker [" + getSubFunctionName() + "] unknown checksum algorithm[" + input.getChecksumAlgorithm() + "]");
+        }
+
+        FileStorageOutput output = new FileStorageOutput();
+        // a large content is fetched as ranges at the same time: the storage does not open the whole stream
+        long rangeSize = RangedTransfer.getRangeSize(input.getRangeSize());
+        RangedTransfer.RangeSource rangeSource = input.getRangeCount() > 1 ?
+                getRangeSource(fileVariableReference, rangeSize) : null;
+        // the handles are reserved before the storage opens the stream: one per range read at the same time and the
+        // file written. Read as one stream: the stream of the storage, the file written, and the local file when the
+        // kernel copies it
+        int handles = rangeSource != null ? input.getRangeCount() + 1 :
+                LocalFileCopy.getLocalFile(fileVariableReference) == null ? 2 : 3;
+        try (FileHandleBudget.Handle fileHandle = FileStorageToolbox.acquireFileHandles(getSubFunctionName(), handles)) {
+            // a content read by ranges is not compressed: the name is the one of the file
+            fileVariable = rangeSource == null ? loadFileVariable(fileVariableReference, outboundConnectorContext,
+                    traceExecution) : null;
+            String contentName = rangeSource != null ? rangeSource.name() : fileVariable.getName();
+            CompressionToolbox.Compression compression = CompressionToolbox.getCompression(contentName);
+
+            // ----- folder to save
+            String folderToSave = input.getFolderToSave();
+            String fileName = input.getFileNameToWrite();
+            if (fileName == null || fileName.isEmpty()) {
+                fileName = fileVariable == null ? null : CompressionToolbox.getOriginalName(fileVariable.getOriginalName());
+                if (fileName == null || fileName.isEmpty())
+                    fileName = CompressionToolbox.getOriginalName(contentName);
+            }
+
+            traceExecution.context("folderToSave", folderToSave);
+            traceExecution.context("fileName", fileName);
+
+            File folder = new File(folderToSave);
+            if (!(folder.exists() && folder.isDirectory())) {
+                logger.error("Folder[{}] does not exist {}", folder.getAbsolutePath(), traceExecution);
+                throw new ConnectorException(FileStorageError.BPMNERROR_FOLDER_NOT_EXIST,
+                        " folder[" + folder.getAbsolutePath() + "] does not exist");
+            }
+            DurableFileWriter.WriteMode writeMode;
+            try {
+                writeMode = DurableFileWriter.WriteMode.fromValue(input.getWriteMode());
+            } catch (IllegalArgumentException e) {
+                throw new ConnectorException(FileStorageError.BPMNERROR_WRITE_FILE_ERROR,
+                        "Worker [" + getSubFunctionName() + "] unknown writeMode[" + input.getWriteMode() + "]");
+            }
+            traceExecution.value("writeMode", writeMode);
+
+            Path fileToWrite = Paths.get(folder.getAbsolutePath() + FileSystems.getDefault().getSeparator() + fileName);
+            try {
+                long beginOperation = System.nanoTime();
+                TransferToolbox.TransferResult transferResult = null;
+                String checksum = null;
+                if (rangeSource != null) {
+                    // ranges arrive in any order: their checksum is computed on the file written
+                    AtomicReference<String> rangedChecksum = new AtomicReference<>();
+                    transferResult = writeRanges(rangeSource, fileVariableReference, input.getRangeCount(), rangeSize,
+                            checksumAlgorithm, rangedChecksum, fileToWrite, writeMode,
+                            getContentCheck(rangedChecksum::get, expectedChecksum), traceExecution);
+                    checksum = rangedChecksum.get();
+                }
+                if (transferResult == null) {
+                    // not read by ranges, or a range failed: the content is read as one stream
+                    if (fileVariable == null)
+                        fileVariable = loadFileVariable(fileVariableReference, outboundConnectorContext, traceExecution);
+                    InputStream content = getContent(fileVariable, fileVariableReference, compression, fileHandle,
+                            traceExecution);
+                    // the checksum is computed during the write, on the decompressed content: the content is not read twice
+                    ChecksumInputStream checksumStream = checksumAlgorithm == null ? null :
+                            new ChecksumInputStream(content, checksumAlgorithm);
+                    DurableFileWriter.ContentCheck contentCheck = checksumStream == null ? null :
+                            getContentCheck(checksumStream::getChecksum, expectedChecksum);
+                    // a local stored file is copied by the kernel, other contents through pooled buffers. A checksum
+                    // or a decompression needs to read the content
+                    Path localFile = compression == CompressionToolbox.Compression.NONE && checksumStream == null ?
+                            LocalFileCopy.getLocalFile(fileVariableReference) : null;
+                    if (localFile != null)
+                        transferResult = DurableFileWriter.write((channel, file) -> TransferToolbox.copy(localFile, channel),
+                                fileToWrite, writeMode, contentCheck);
+                    else
+                        transferResult = DurableFileWriter.write(checksumStream == null ? content : checksumStream,
+                                fileToWrite, writeMode, contentCheck);
+                    checksum = checksumStream == null ? null : checksumStream.getChecksum();
+                }
+                traceExecution.value("fileWritten", fileToWrite.getFileName());
+                traceExecution.value("size", transferResult.size());
+                traceExecution.value("mode", transferResult.mode());
+                long operationNanos = System.nanoTime() - beginOperation;
+                traceExecution.value("writtenMs", operationNanos / 1_000_000);
+                FileStorageMetrics.recordOperation(getSubFunctionType(), FileStorageMetrics.LOCAL_STORAGE,
+                        FileStorageMetrics.OPERATION_WRITE, writeMode.toString(), operationNanos);
+                output.bytesTransferred = transferResult.size();
+                output.fileIsDownloaded = true;
+                output.fileNameLoaded = fileName;
+                output.nbFilesProcessed = 1;
+                if (checksumAlgorithm != null) {
+                    output.checksum = checksum;
+                    traceExecution.value("checksum", output.checksum);
+                }
+            } catch (ConnectorException e) {
+                throw e;
+            } catch (ChecksumMismatchException e) {
+                // the file is not kept: a corrupted content is never visible in the folder
+                logger.error("Checksum mismatch for [{}] {} : {}", fileToWrite, traceExecution, e.getMessage());
+                throw new ConnectorException(FileStorageError.BPMNERROR_CHECKSUM_MISMATCH,
+                        "Worker [" + getSubFunctionName() + "] " + e.getMessage());
+            } catch (Exception e) {
+                logger.error("Cannot save to folder[{} {} : {} ", folderToSave, traceExecution, e);
+                throw new ConnectorException(FileStorageError.BPMNERROR_WRITE_FILE_ERROR,
+                        "Cannot save to folder[" + folderToSave + "] :" + e);
+            }
+        } finally {
+            closeRangeSource(rangeSource);
+        }
+        traceExecution.log();
+        return output;
+    }
+
+    /**
+     * Load the file variable: the storage opens the stream of the content
+     *
+     * @return the file variable
+     * @throws ConnectorException if the content can't be loaded
+     */
+    private FileVariable loadFileVariable(FileVariableReference fileVariableReference,
+                                          OutboundConnectorContext outboundConnectorContext,
+                                          ExecutionTrace traceExecution) {
+        FileVariable fileVariable;
+        try {
+            long beginOperation = System.nanoTime();
+            fileVariable = FileStorageToolbox.loadFileVariable(fileVariableReference, outboundConnectorContext);
+            FileStorageMetrics.recordOperation(getSubFunctionType(),
+                    FileStorageMetrics.getStorageDefinition(fileVariableReference), FileStorageMetrics.OPERATION_LOAD,
+                    System.nanoTime() - beginOperation);
         } catch (Exception e) {
-            logger.error("Can't read file[{}] {} : {}", fileVariableReference, traceExecution, e);
+            logger.error("Can't read file[{}] {} : {}", ReferenceSummary.summarize(fileVariableReference), traceExecution, e);
             throw new ConnectorException(FileStorageError.BPMNERROR_INCORRECT_FILESTORAGE,
-                    "Worker [" + getSubFunctionName() + "] FileReference[" + fileVariableReference.content + "] can't access");
+                    "Worker [" + getSubFunctionName() + "] FileReference[" + ReferenceSummary.summarize(fileVariableReference) + "] can't access");
         }
         if (fileVariable == null) {
             logger.error("Input file variable does not exist {}", traceExecution);
             throw new ConnectorException(FileStorageError.BPMNERROR_LOAD_FILE_ERROR, " file Input does not exist");
         }
+        traceExecution.value("fileLoaded", fileVariable.getName());
+        return fileVariable;
+    }
 
-        // ----- folder to save
-        String folderToSave = input.getFolderToSave();
-        String fileName = input.getFileNameToWrite();
-        if (fileName == null || fileName.isEmpty()) {
-            fileName = fileVariable.getOriginalName();
-            if (fileName == null || fileName.isEmpty())
-                fileName = fileVariable.getName();
+    /**
+     * @return the content of the file variable, decompressed. The stream is owned by this function: closed with the
+     * handle
+     * @throws ConnectorException if the content can't be decompressed
+     */
+    private InputStream getContent(FileVariable fileVariable,
+                                   FileVariableReference fileVariableReference,
+                                   CompressionToolbox.Compression compression,
+                                   FileHandleBudget.Handle fileHandle,
+                                   ExecutionTrace traceExecution) {
+        InputStream content = fileHandle.attach(fileVariable.getValueStream());
+        // a compressed content is written as the original file
+        if (compression == CompressionToolbox.Compression.NONE)
+            return content;
+        traceExecution.value("decompress", compression);
+        try {
+            return fileHandle.attach(CompressionToolbox.decompress(content, compression));
+        } catch (IOException e) {
+            logger.error("Can't decompress file[{}] {} : {}", ReferenceSummary.summarize(fileVariableReference),
+                    traceExecution, e);
+            throw new ConnectorException(FileStorageError.BPMNERROR_LOAD_FILE_ERROR,
+                    "Worker [" + getSubFunctionName() + "] FileReference[" + ReferenceSummary.summarize(fileVariableReference)
+                            + "] can't decompress : " + e);
         }
+    }
 
-        FileStorageToolbox.traceValue(traceExecution, "TargetFolder to download", folderToSave);
-        FileStorageToolbox.traceValue(traceExecution, "fileName", fileName);
-
-        File folder = new File(folderToSave);
-        if (!(folder.exists() && folder.isDirectory())) {
-            logger.error("Folder[{}] does not exist {}", folder.getAbsolutePath(), traceExecution);
-            throw new ConnectorException(FileStorageError.BPMNERROR_FOLDER_NOT_EXIST,
-                    " folder[" + folder.getAbsolutePath() + "] does not exist");
-        }
-        FileStorageOutput output = new FileStorageOutput();
-        Path fileToWrite = Paths.get(folder.getAbsolutePath() + FileSystems.getDefault().getSeparator() + fileName);
-        try (OutputStream outputStream = new FileOutputStream(fileToWrite.toFile())) {
-            byte[] buffer = new byte[8192];  // 8 KB buffer
-            int bytesRead;
-            InputStream inputStream = fileVariable.getValueStream();
-            while ((bytesRead = inputStream.read(buffer)) != -1) {
-                outputStream.write(buffer, 0, bytesRead);
-            }
-            FileStorageToolbox.traceValue(traceExecution, "Write file", fileToWrite.getFileName().toString());
-            output.fileIsDownloaded = true;
-            output.fileNameLoaded = fileName;
-            output.nbFilesProcessed = 1;
-        } catch (Exception e) {
-            logger.error("Cannot save to folder[{} {} : {} ", folderToSave, traceExecution, e);
-            throw new ConnectorException(FileStorageError.BPMNERROR_WRITE_FILE_ERROR,
-                    "Cannot save to folder[" + folderToSave + "] :" + e);
-        }
-        logger.info(traceExecution.toString());
-        return output;
+    /**
+     * @return the check of the content written against the expected checksum, null if no checksum is expected
+     */
+    private static DurableFileWriter.ContentCheck getContentCheck(Supplier<String> checksum, String expectedChecksum) {
+        if (expectedChecksum == null)
+            return null;
+        return () -> {
+            if (!ChecksumInputStream.isSame(checksum.get(), expectedChecksum))
+                throw new ChecksumMismatchException(checksum.get(), expectedChecksum);
+        };
     }
 
     public List<RunnerParameter> getInputsParameter() {
@@ -140,7 +298,49 @@ public class DownloadFile implements FileStorageSubFunction {
                         "File name of the new file",// label
                         String.class,// type
                         RunnerParameter.Level.OPTIONAL, // level
-                        "Name of the file to write. If no value is given, the name of the file in the store is used"));
+                        "Name of the file to write. If no value is given, the name of the file in the store is used"),
+
+                RunnerParameter.getInstance(FileStorageInput.INPUT_WRITE_MODE, // name
+                                "Write mode",// label
+                                String.class,// type
+                                RunnerParameter.Level.OPTIONAL, // level
+                                "How the file is written. " + DurableFileWriter.WriteMode.ATOMIC
+                                        + ": readers never see a partial file. " + DurableFileWriter.WriteMode.DURABLE
+                                        + ": the file is on the disk when the task completes. "
+                                        + DurableFileWriter.WriteMode.GROUP_COMMIT
+                                        + ": durable, cheaper for bulk downloads in the same folder") //
+                        .addChoice(DurableFileWriter.WriteMode.DIRECT.toString(), "Direct")
+                        .addChoice(DurableFileWriter.WriteMode.ATOMIC.toString(), "Atomic")
+                        .addChoice(DurableFileWriter.WriteMode.DURABLE.toString(), "Durable")
+                        .addChoice(DurableFileWriter.WriteMode.GROUP_COMMIT.toString(), "Group commit")
+                        .setDefaultValue(DurableFileWriter.WriteMode.DIRECT.toString()),
+
+                RunnerParameter.getInstance(FileStorageInput.INPUT_CHECKSUM_ALGORITHM, "Checksum algorithm", String.class,
+                                RunnerParameter.Level.OPTIONAL, // level
+                                "Checksum computed during the download") //
+                        .addChoice("", "None")
+                        .addChoice(ChecksumInputStream.Algorithm.SHA256.toString(), "SHA-256")
+                        .addChoice(ChecksumInputStream.Algorithm.CRC32C.toString(), "CRC32C"),
+
+                RunnerParameter.getInstance(FileStorageInput.INPUT_VERIFY_CHECKSUM, "Verify checksum", Boolean.class,
+                                RunnerParameter.Level.OPTIONAL, // level
+                                "Check the content against the expected checksum. The file is not kept if the checksum is different") //
+                        .setDefaultValue(Boolean.FALSE),
+
+                RunnerParameter.getInstance(FileStorageInput.INPUT_EXPECTED_CHECKSUM, "Expected checksum", String.class,
+                                RunnerParameter.Level.OPTIONAL, // level
+                                "Checksum given by the upload (algorithm:hex). If empty, the checksum stored with a deduplicated content is used") //
+                        .addCondition(FileStorageInput.INPUT_VERIFY_CHECKSUM, Collections.singletonList(Boolean.TRUE.toString())),
+
+                RunnerParameter.getInstance(FileStorageInput.INPUT_RANGE_COUNT, "Range count", Integer.class,
+                                RunnerParameter.Level.OPTIONAL, // level
+                                "A large file in a CMIS or FOLDER storage is downloaded as ranges at the same time. 1: one stream") //
+                        .setDefaultValue(1),
+
+                RunnerParameter.getInstance(FileStorageInput.INPUT_RANGE_SIZE, "Range size (MB)", Integer.class,
+                                RunnerParameter.Level.OPTIONAL, // level
+                                "Size of one range. A file smaller than one range is read as one stream") //
+                        .setDefaultValue(RangedTransfer.DEFAULT_RANGE_SIZE_MB));
 
     }
 
@@ -151,7 +351,9 @@ public class DownloadFile implements FileStorageSubFunction {
                 RunnerParameter.getInstance(FileStorageOutput.OUTPUT_FILE_NAME_LOADED, "File name downloaded", String.class,
                         RunnerParameter.Level.OPTIONAL, "File name of the file downloaded"),
                 RunnerParameter.getInstance(FileStorageOutput.OUTPUT_NB_FILES_PROCESSED, "Nv files processed", Integer.class,
-                        RunnerParameter.Level.REQUIRED, "Number of file processed. May be 1 or 0 (no file found)"));
+                        RunnerParameter.Level.REQUIRED, "Number of file processed. May be 1 or 0 (no file found)"),
+                RunnerParameter.getInstance(FileStorageOutput.OUTPUT_CHECKSUM, "Checksum", String.class,
+                        RunnerParameter.Level.OPTIONAL, "Checksum of the content downloaded, algorithm:hex"));
 
     }
 
@@ -160,8 +362,98 @@ public class DownloadFile implements FileStorageSubFunction {
                 FileStorageError.BPMNERROR_INCORRECT_FILESTORAGE, FileStorageError.BPMNERROR_INCORRECT_FILESTORAGE_EXPL, //
                 FileStorageError.BPMNERROR_LOAD_FILE_ERROR, FileStorageError.BPMNERROR_LOAD_FILE_ERROR_EXPL, //
                 FileStorageError.BPMNERROR_FOLDER_NOT_EXIST, FileStorageError.BPMNERROR_FOLDER_NOT_EXIST_EXPL, //
-                FileStorageError.BPMNERROR_WRITE_FILE_ERROR, FileStorageError.BPMNERROR_WRITE_FILE_ERROR_EXPL);
+                FileStorageError.BPMNERROR_WRITE_FILE_ERROR, FileStorageError.BPMNERROR_WRITE_FILE_ERROR_EXPL, //
+                FileStorageError.BPMNERROR_CHECKSUM_MISMATCH, FileStorageError.BPMNERROR_CHECKSUM_MISMATCH_EXPL, //
+                FileStorageError.BPMNERROR_INCORRECT_CHECKSUM_ALGORITHM, FileStorageError.BPMNERROR_INCORRECT_CHECKSUM_ALGORITHM_EXPL);
+
+    }
+
+    /**
+     * Write the content as ranges fetched at the same time
+     *
+     * @return the transfer done, null if a range failed: the caller reads the stream
+     * @throws ChecksumMismatchException if the content written is not the expected one
+     */
+    private TransferToolbox.TransferResult writeRanges(RangedTransfer.RangeSource rangeSource,
+                                                       FileVariableReference fileVariableReference,
+                                                       int rangeCount,
+                                                       long rangeSize,
+                                                       ChecksumInputStream.Algorithm checksumAlgorithm,
+                                                       AtomicReference<String> rangedChecksum,
+                                                       Path fileToWrite,
+                                                       DurableFileWriter.WriteMode writeMode,
+                                                       DurableFileWriter.ContentCheck contentCheck,
+                                                       ExecutionTrace traceExecution) throws ChecksumMismatchException {
+        traceExecution.value("rangeCount", rangeCount);
+        traceExecution.value("rangeSize", rangeSize);
+        try {
+            return DurableFileWriter.write((channel, file) -> {
+                TransferToolbox.TransferResult transferResult = RangedTransfer.copy(rangeSource, channel, rangeCount,
+                        rangeSize);
+                if (checksumAlgorithm != null)
+                    rangedChecksum.set(ChecksumInputStream.compute(file, checksumAlgorithm));
+                return transferResult;
+            }, fileToWrite, writeMode, contentCheck);
+        } catch (ChecksumMismatchException e) {
+            throw e;
+        } catch (Exception e) {
+            // a range failed: the content is read as one stream
+            logger.info("DownloadFile: ranged download failed for [{}], read one stream : {}",
+                    ReferenceSummary.summarize(fileVariableReference), e.toString());
+            rangedChecksum.set(null);
+            return null;
+        }
+    }
 
+    /**
+     * @return the content behind the reference, to read by ranges. Null if the storage can't read by ranges, or if the
+     * content is not larger than one range, compressed or without a name: the caller loads the content as one stream
+     */
+    private RangedTransfer.RangeSource getRangeSource(FileVariableReference fileVariableReference, long rangeSize) {
+        RangedTransfer.RangeSource rangeSource = null;
+        try {
+            rangeSource = openRangeSource(fileVariableReference);
+            if (rangeSource != null && rangeSource.size() > rangeSize && rangeSource.name() != null
+                    && CompressionToolbox.getCompression(rangeSource.name()) == CompressionToolbox.Compression.NONE)
+                return rangeSource;
+        } catch (Exception e) {
+            // the repository does not support ranges
+            logger.info("DownloadFile: ranged download not possible for [{}], read one stream : {}",
+                    ReferenceSummary.summarize(fileVariableReference), e.toString());
+        }
+        closeRangeSource(rangeSource);
+        return null;
+    }
+
+    private RangedTransfer.RangeSource openRangeSource(FileVariableReference fileVariableReference) throws Exception {
+        Path localFile = LocalFileCopy.getLocalFile(fileVariableReference);
+        if (localFile != null)
+            return new RangedTransfer.LocalFileSource(localFile);
+        CmisConnectionParameters parameters = CmisConnectionParameters.getFromStorageDefinition(
+                LocalFileCopy.getStorageDefinition(fileVariableReference));
+        if (parameters != null)
+            return new CmisRangeSource(CmisSessionPool.getInstance(), parameters,
+                    String.valueOf(fileVariableReference.content));
+        return null;
+    }
+
+    private void closeRangeSource(RangedTransfer.RangeSource rangeSource) {
+        if (rangeSource == null)
+            return;
+        try {
+            rangeSource.close();
+        } catch (Exception e) {
+            logger.debug("DownloadFile: error when closing the range source : {}", e.toString());
+        }
+    }
+
+    /**
+     * The content written is not the expected one
+     */
+    private static class ChecksumMismatchException extends IOException {
+        ChecksumMismatchException(String checksum, String expectedChecksum) {
+            super("checksum[" + checksum + "] expected[" + expectedChecksum + "]");
+        }
     }
 
 
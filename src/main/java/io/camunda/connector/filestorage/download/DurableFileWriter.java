@@ -0,0 +1,255 @@
+/* ******************************************************************** */
+/*                                                                      */
+/*  DurableFileWriter                                                   */
+/*                                                                      */
+/* Write a downloaded content to its final path, according to a write   */
+/* mode. Each mode is a trade-off between speed and what a reader, or a */
+/* crash, can see:                                                      */
+/*  DIRECT       written in place: a reader may see a partial file     */
+/*  ATOMIC       temp file + atomic rename: a reader sees all or nothing*/
+/*  DURABLE      ATOMIC + file and folder synced to the disk            */
+/*  GROUP_COMMIT DURABLE, the folder sync is shared by the downloads    */
+/*               done at the same time (bulk downloads). Only the     */
+/*               rename sync is grouped: the content of each file is  */
+/*               still synced by its own download, as in DURABLE.     */
+/* ******************************************************************** */
+package io.camunda.connector.filestorage.download;
+
+import io.camunda.connector.filestorage.toolbox.TransferToolbox;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class DurableFileWriter {
+
+    /**
+     * Maximum time a download waits for the other downloads of its group. May be overridden by the system property
+     */
+    public static final String PROPERTY_GROUP_COMMIT_DELAY_MS = "filestorage.groupCommit.delayMs";
+    public static final int DEFAULT_GROUP_COMMIT_DELAY_MS = 5;
+    private static final String TEMP_SUFFIX = ".part";
+    private static final AtomicLong tempCounter = new AtomicLong(System.nanoTime());
+    private static final Logger logger = LoggerFactory.getLogger(DurableFileWriter.class.getName());
+
+    private static final GroupCommitter groupCommitter = new GroupCommitter(
+            Integer.getInteger(PROPERTY_GROUP_COMMIT_DELAY_MS, DEFAULT_GROUP_COMMIT_DELAY_MS));
+
+    /**
+     * This is a toolbox, only static method
+     */
+    private DurableFileWriter() {
+    }
+
+    /**
+     * Write the content to the target. The source is not closed.
+     *
+     * @param source    content to write
+     * @param target    final path
+     * @param writeMode how to write
+     * @return the transfer done
+     * @throws IOException in case of error. With a temp file, the target is not modified.
+     */
+    public static TransferToolbox.TransferResult write(InputStream source, Path target, WriteMode writeMode)
+            throws IOException {
+        return write(source, target, writeMode, null);
+    }
+
+    /**
+     * Write the content to the target, and check it before it is visible. The source is not closed.
+     *
+     * @param source       content to write
+     * @param target       final path
+     * @param writeMode    how to write
+     * @param contentCheck called when the content is written, before the rename. May be null
+     * @return the transfer done
+     * @throws IOException in case of error, or if the check fails. With a temp file, the target is not modified. In
+     *                     DIRECT mode, the target is deleted when the check fails.
+     */
+    public static TransferToolbox.TransferResult write(InputStream source, Path target, WriteMode writeMode,
+                                                       ContentCheck contentCheck) throws IOException {
+        return write((channel, file) -> TransferToolbox.copy(source, channel), target, writeMode, contentCheck);
+    }
+
+    /**
+     * Write the content to the target with a writer, and check it before it is visible
+     *
+     * @param contentWriter writes the content in the file
+     * @param target        final path
+     * @param writeMode     how to write
+     * @param contentCheck  called when the content is written, before the rename. May be null
+     * @return the transfer done
+     * @throws IOException in case of error, or if the check fails. With a temp file, the target is not modified. In
+     *                     DIRECT mode, the target is deleted when the check fails.
+     */
+    public static TransferToolbox.TransferResult write(ContentWriter contentWriter, Path target, WriteMode writeMode,
+                                                       ContentCheck contentCheck) throws IOException {
+        if (writeMode == WriteMode.DIRECT) {
+            TransferToolbox.TransferResult transferResult;
+            try (FileChannel channel = openForWrite(target)) {
+                transferResult = contentWriter.write(channel, target);
+            }
+            if (contentCheck != null) {
+                try {
+                    contentCheck.check();
+                } catch (IOException e) {
+                    Files.deleteIfExists(target);
+                    throw e;
+                }
+            }
+            return transferResult;
+        }
+        // the temp file is in the same folder: the rename is atomic. Not createTempFile(): it restricts the permissions
+        Path tempFile = target.resolveSibling("." + target.getFileName() + "." + tempCounter.incrementAndGet() + TEMP_SUFFIX);
+        try {
+            TransferToolbox.TransferResult transferResult;
+            try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                transferResult = contentWriter.write(channel, tempFile);
+                if (contentCheck != null)
+                    contentCheck.check();
+                if (writeMode != WriteMode.ATOMIC) {
+                    // the content must be on the disk before the rename is. GROUP_COMMIT too: a file can't be synced
+                    // by an other download, only the folder sync is shared
+                    channel.force(true);
+                }
+            }
+            Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            if (writeMode == WriteMode.DURABLE)
+                syncFolder(target.toAbsolutePath().getParent());
+            else if (writeMode == WriteMode.GROUP_COMMIT)
+                groupCommitter.syncFolder(target.toAbsolutePath().getParent());
+            return transferResult;
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    private static FileChannel openForWrite(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Sync the folder, so the rename is on the disk
+     */
+    private static void syncFolder(Path folder) throws IOException {
+        try (FileChannel channel = FileChannel.open(folder, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // some systems (Windows) can't open a folder: the rename is synced by the file system
+            logger.debug("Can't sync folder[{}] : {}", folder, e.toString());
+        }
+    }
+
+    /**
+     * Write the content in the file
+     */
+    @FunctionalInterface
+    public interface ContentWriter {
+        /**
+         * @param channel channel on the file, at position 0
+         * @param file    the file written: the temp file, or the target in DIRECT mode
+         * @return the transfer done
+         * @throws IOException in case of error
+         */
+        TransferToolbox.TransferResult write(FileChannel channel, Path file) throws IOException;
+    }
+
+    /**
+     * Check the content written, before it is visible
+     */
+    @FunctionalInterface
+    public interface ContentCheck {
+        /**
+         * @throws IOException if the content is not correct: it is not kept
+         */
+        void check() throws IOException;
+    }
+
+    public enum WriteMode {
+        DIRECT, ATOMIC, DURABLE, GROUP_COMMIT;
+
+        /**
+         * @param value value given by the process, may be null
+         * @return the mode, DIRECT if no value is given
+         * @throws IllegalArgumentException if the value is unknown
+         */
+        public static WriteMode fromValue(String value) {
+            if (value == null || value.trim().isEmpty())
+                return DIRECT;
+            return valueOf(value.trim().toUpperCase());
+        }
+    }
+
+    /**
+     * Folder syncs requested during the delay are done once per folder, by one thread. Each download waits for the sync
+     * of its folder.
+     */
+    private static class GroupCommitter {
+        private final long delayMs;
+        private final LinkedBlockingQueue<SyncRequest> requests = new LinkedBlockingQueue<>();
+
+        GroupCommitter(long delayMs) {
+            this.delayMs = Math.max(0, delayMs);
+            Thread thread = new Thread(this::run, "filestorage-groupcommit");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        void syncFolder(Path folder) throws IOException {
+            SyncRequest request = new SyncRequest(folder, new CompletableFuture<>());
+            requests.add(request);
+            try {
+                request.done().get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted during the sync of folder[" + folder + "]");
+            } catch (ExecutionException e) {
+                throw new IOException("Sync of folder[" + folder + "] failed", e.getCause());
+            }
+        }
+
+        private void run() {
+            List<SyncRequest> group = new ArrayList<>();
+            while (true) {
+                try {
+                    group.add(requests.take());
+                    // let the other downloads join the group
+                    if (delayMs > 0)
+                        TimeUnit.MILLISECONDS.sleep(delayMs);
+                    requests.drainTo(group);
+                    Set<Path> syncedFolders = new HashSet<>();
+                    for (SyncRequest request : group) {
+                        if (syncedFolders.add(request.folder()))
+                            DurableFileWriter.syncFolder(request.folder());
+                    }
+                    group.forEach(request -> request.done().complete(null));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (Exception e) {
+                    group.forEach(request -> request.done().completeExceptionally(e));
+                }
+                group.clear();
+            }
+        }
+
+        private record SyncRequest(Path folder, CompletableFuture<Void> done) {
+        }
+    }
+}
@@ -0,0 +1,197 @@
+/* ******************************************************************** */
+/*                                                                      */
+/*  ChecksumInputStream                                                 */
+/*                                                                      */
+/*  Compute the checksum of a content while it is transferred: no      */
+/*  second read of the data. The checksum is given with its algorithm, */
+/*  "sha256:<hex>" or "crc32c:<hex>", so a reader knows how to check it.*/
+/* ******************************************************************** */
+package io.camunda.connector.filestorage.toolbox;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.zip.CRC32C;
+
+public class ChecksumInputStream extends FilterInputStream {
+
+    private final Algorithm algorithm;
+    private final MessageDigest messageDigest;
+    private final CRC32C crc32c;
+    private long size = 0;
+    private String checksum;
+
+    public ChecksumInputStream(InputStream in, Algorithm algorithm) {
+        super(in);
+        this.algorithm = algorithm;
+        this.messageDigest = algorithm == Algorithm.SHA256 ? newSha256() : null;
+        this.crc32c = algorithm == Algorithm.CRC32C ? new CRC32C() : null;
+    }
+
+    /**
+     * Compute the checksum of a local file
+     *
+     * @param file      file to read
+     * @param algorithm algorithm
+     * @return the checksum
+     * @throws IOException in case of error
+     */
+    public static String compute(Path file, Algorithm algorithm) throws IOException {
+        return compute(Files.newInputStream(file), algorithm);
+    }
+
+    /**
+     * Compute the checksum of a content
+     *
+     * @param content   content to read. It is closed
+     * @param algorithm algorithm
+     * @return the checksum
+     * @throws IOException in case of error
+     */
+    public static String compute(InputStream content, Algorithm algorithm) throws IOException {
+        try (ChecksumInputStream in = new ChecksumInputStream(content, algorithm)) {
+            in.transferTo(OutputStream.nullOutputStream());
+            return in.getChecksum();
+        }
+    }
+
+    /**
+     * @param checksum checksum to compare
+     * @param expected expected value, with or without the algorithm
+     * @return true if the checksums are the same
+     */
+    public static boolean isSame(String checksum, String expected) {
+        if (checksum == null || expected == null)
+            return false;
+        String expectedValue = expected.trim().toLowerCase();
+        return expectedValue.indexOf(':') >= 0 ? checksum.equals(expectedValue) :
+                checksum.substring(checksum.indexOf(':') + 1).equals(expectedValue);
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is mandatory in all JVM
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        int value = in.read();
+        if (value != -1)
+            update(new byte[]{(byte) value}, 0, 1);
+        return value;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int count = in.read(buffer, offset, length);
+        if (count > 0)
+            update(buffer, offset, count);
+        return count;
+    }
+
+    /**
+     * Skipped bytes are part of the content: they are read
+     */
+    @Override
+    public long skip(long n) throws IOException {
+        byte[] buffer = new byte[(int) Math.min(8192, Math.max(1, n))];
+        long skipped = 0;
+        while (skipped < n) {
+            int count = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+            if (count < 0)
+                break;
+            skipped += count;
+        }
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public synchronized void mark(int readLimit) {
+        // not supported: the checksum can't go back
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        throw new IOException("reset is not supported");
+    }
+
+    private void update(byte[] buffer, int offset, int length) {
+        size += length;
+        if (messageDigest != null)
+            messageDigest.update(buffer, offset, length);
+        else
+            crc32c.update(buffer, offset, length);
+    }
+
+    /**
+     * Call it when the content is read: the checksum is computed at the first call
+     *
+     * @return the checksum, "algorithm:hex"
+     */
+    public String getChecksum() {
+        if (checksum == null) {
+            String hex = messageDigest != null ? HexFormat.of().formatHex(messageDigest.digest()) :
+                    String.format("%08x", crc32c.getValue());
+            checksum = algorithm.getPrefix() + ":" + hex;
+        }
+        return checksum;
+    }
+
+    /**
+     * @return number of bytes read
+     */
+    public long getSize() {
+        return size;
+    }
+
+    public enum Algorithm {
+        SHA256("sha256"), CRC32C("crc32c");
+
+        private final String prefix;
+
+        Algorithm(String prefix) {
+            this.prefix = prefix;
+        }
+
+        /**
+         * @param value value given by the process, may be null
+         * @return the algorithm, null if no value is given
+         * @throws IllegalArgumentException if the value is unknown
+         */
+        public static Algorithm fromValue(String value) {
+            if (value == null || value.trim().isEmpty())
+                return null;
+            String name = value.trim().toUpperCase().replace("-", "");
+            return valueOf(name);
+        }
+
+        /**
+         * @param checksum a checksum "algorithm:hex"
+         * @return the algorithm of the checksum, SHA256 if the checksum does not give it
+         * @throws IllegalArgumentException if the algorithm is unknown
+         */
+        public static Algorithm fromChecksum(String checksum) {
+            int separator = checksum.indexOf(':');
+            return separator < 0 ? SHA256 : fromValue(checksum.substring(0, separator));
+        }
+
+        public String getPrefix() {
+            return prefix;
+        }
+    }
+}
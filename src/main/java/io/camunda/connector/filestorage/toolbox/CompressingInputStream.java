@@ -0,0 +1,127 @@
+/* ******************************************************************** */
+/*                                                                      */
+/*  CompressingInputStream                                              */
+/*                                                                      */
+/*  Give the compressed version of a stream, while it is read: the     */
+/*  storage reads the compressed content, no temporary file is needed. */
+/*  GZIP produces a standard .gz content (header, deflate, CRC32 and   */
+/*  size trailer), DEFLATE a zlib content.                              */
+/* ******************************************************************** */
+package io.camunda.connector.filestorage.toolbox;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterInputStream;
+
+public class CompressingInputStream extends InputStream {
+
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final CheckedInputStream source;
+    private final Deflater deflater;
+    private final DeflaterInputStream deflaterStream;
+    private final boolean gzip;
+    private byte[] header;
+    private byte[] trailer;
+    private int position = 0;
+    private long outputSize = 0;
+    private long inputSize = -1;
+
+    /**
+     * @param source source to compress
+     * @param gzip   true for a GZIP content, false for a zlib content
+     * @param level  compression level, 0 (none) to 9 (best)
+     */
+    public CompressingInputStream(InputStream source, boolean gzip, int level) {
+        this.source = new CheckedInputStream(source, new CRC32());
+        this.gzip = gzip;
+        // GZIP has its own header and trailer around the raw deflate content
+        this.deflater = new Deflater(Math.max(Deflater.NO_COMPRESSION, Math.min(Deflater.BEST_COMPRESSION, level)), gzip);
+        this.deflaterStream = new DeflaterInputStream(this.source, deflater, BUFFER_SIZE);
+        this.header = gzip ? GZIP_HEADER : new byte[0];
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        int count = read(single, 0, 1);
+        return count <= 0 ? -1 : single[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        if (length == 0)
+            return 0;
+        if (header != null) {
+            if (position < header.length)
+                return copy(header, buffer, offset, length);
+            header = null;
+            position = 0;
+        }
+        if (trailer == null) {
+            int count = deflaterStream.read(buffer, offset, length);
+            if (count > 0) {
+                outputSize += count;
+                return count;
+            }
+            trailer = buildTrailer();
+            position = 0;
+        }
+        return position < trailer.length ? copy(trailer, buffer, offset, length) : -1;
+    }
+
+    private int copy(byte[] part, byte[] buffer, int offset, int length) {
+        int count = Math.min(length, part.length - position);
+        System.arraycopy(part, position, buffer, offset, count);
+        position += count;
+        outputSize += count;
+        return count;
+    }
+
+    private byte[] buildTrailer() {
+        if (!gzip)
+            return new byte[0];
+        long crc = source.getChecksum().getValue();
+        long size = deflater.getBytesRead();
+        byte[] gzipTrailer = new byte[8];
+        for (int i = 0; i < 4; i++) {
+            gzipTrailer[i] = (byte) (crc >>> (8 * i));
+            gzipTrailer[4 + i] = (byte) (size >>> (8 * i));
+        }
+        return gzipTrailer;
+    }
+
+    /**
+     * @return number of bytes read from the source
+     */
+    public long getInputSize() {
+        // the compressor can't be read once it is closed
+        return inputSize >= 0 ? inputSize : deflater.getBytesRead();
+    }
+
+    /**
+     * @return number of compressed bytes given
+     */
+    public long getOutputSize() {
+        return outputSize;
+    }
+
+    /**
+     * Close the source, and free the native memory of the compressor
+     */
+    @Override
+    public void close() throws IOException {
+        if (inputSize >= 0)
+            return;
+        inputSize = deflater.getBytesRead();
+        try {
+            deflaterStream.close();
+        } finally {
+            deflater.end();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/* ******************************************************************** */
+/*                                                                      */
+/*  CompressionToolbox                                                  */
+/*                                                                      */
+/*  Compression of the contents saved in a FOLDER, TEMPFOLDER storage. */
+/*  A compressed content is saved with a suffix on its name            */
+/*  (report.csv.fsz.gz): the reader knows it must decompress it, and a */
+/*  .gz file uploaded by a process is never decompressed by mistake.   */
+/* ******************************************************************** */
+package io.camunda.connector.filestorage.toolbox;
+
+import io.camunda.filestorage.storage.StorageDefinition;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+public class CompressionToolbox {
+
+    public static final int DEFAULT_COMPRESSION_LEVEL = 6;
+    private static final String MARKER = ".fsz";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * These contents are already compressed: a second compression costs CPU and saves nothing
+     */
+    private static final List<String> COMPRESSED_MIME_TYPES = List.of("application/zip", "application/gzip",
+            "application/x-gzip", "application/x-7z-compressed", "application/x-rar-compressed", "application/x-bzip2",
+            "application/x-xz", "application/zstd", "application/pdf", "application/vnd.openxmlformats",
+            "application/vnd.oasis.opendocument", "application/java-archive", "image/jpeg", "image/png", "image/gif",
+            "image/webp", "image/avif", "image/heic", "video/", "audio/");
+
+    /**
+     * This is a toolbox, only static method
+     */
+    private CompressionToolbox() {
+    }
+
+    /**
+     * @param storageDefinition storage where the content is saved
+     * @return true if the storage can save a compressed content
+     */
+    public static boolean isCompressionSupported(StorageDefinition storageDefinition) {
+        return storageDefinition != null && (storageDefinition.type == StorageDefinition.StorageDefinitionType.FOLDER
+                || storageDefinition.type == StorageDefinition.StorageDefinitionType.TEMPFOLDER);
+    }
+
+    /**
+     * @param mimeType mime type of the content, may be null
+     * @return false if the content is already compressed
+     */
+    public static boolean isCompressible(String mimeType) {
+        if (mimeType == null)
+            return true;
+        String mimeTypeLower = mimeType.toLowerCase();
+        return COMPRESSED_MIME_TYPES.stream().noneMatch(mimeTypeLower::startsWith);
+    }
+
+    /**
+     * @param name name of the content
+     * @return the compression of a content saved with this name, NONE if it is not compressed
+     */
+    public static Compression getCompression(String name) {
+        if (name != null) {
+            for (Compression compression : Compression.values()) {
+                if (compression != Compression.NONE && name.endsWith(compression.getSuffix()))
+                    return compression;
+            }
+        }
+        return Compression.NONE;
+    }
+
+    /**
+     * @param name name of the content, as saved
+     * @return the name of the content before the compression
+     */
+    public static String getOriginalName(String name) {
+        Compression compression = getCompression(name);
+        return compression == Compression.NONE ? name : name.substring(0, name.length() - compression.getSuffix().length());
+    }
+
+    /**
+     * @param source      content, read while the result is read
+     * @param compression compression
+     * @param level       compression level, 0 to 9
+     * @return the compressed content
+     */
+    public static CompressingInputStream compress(InputStream source, Compression compression, int level) {
+        return new CompressingInputStream(source, compression == Compression.GZIP, level);
+    }
+
+    /**
+     * @param source      content saved
+     * @param compression compression of the content
+     * @return the decompressed content. Closing it closes the source
+     * @throws IOException if the content is not correct
+     */
+    public static InputStream decompress(InputStream source, Compression compression) throws IOException {
+        return switch (compression) {
+            case GZIP -> new GZIPInputStream(source, BUFFER_SIZE);
+            case DEFLATE -> new InflaterInputStream(source, new Inflater(), BUFFER_SIZE) {
+                // the inflater is given: it is not freed by the stream
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        inf.end();
+                    }
+                }
+            };
+            case NONE -> source;
+        };
+    }
+
+    public enum Compression {
+        NONE(""), GZIP(MARKER + ".gz"), DEFLATE(MARKER + ".zz");
+
+        private final String suffix;
+
+        Compression(String suffix) {
+            this.suffix = suffix;
+        }
+
+        /**
+         * @param value value given by the process, may be null
+         * @return the compression, NONE if no value is given
+         * @throws IllegalArgumentException if the value is unknown
+         */
+        public static Compression fromValue(String value) {
+            if (value == null || value.trim().isEmpty())
+                return NONE;
+            return valueOf(value.trim().toUpperCase());
+        }
+
+        /**
+         * @return suffix added to the name of a compressed content
+         */
+        public String getSuffix() {
+            return suffix;
+        }
+
+        /**
+         * @return mime type of the compressed content
+         */
+        public String getMimeType() {
+            return this == GZIP ? "application/gzip" : "application/zlib";
+        }
+    }
+}
@@ -0,0 +1,299 @@
+/* ******************************************************************** */
+/*                                                                      */
+/*  ContentAddressedStore                                               */
+/*                                                                      */
+/* Deduplication for the local storages (FOLDER, TEMPFOLDER). Each      */
+/* unique content is kept once, as one file of the storage: the first   */
+/* reference saved with this content. The sub-folder                    */
+/* .filestorage-contents of the storage records, for each SHA-256, this */
+/* reference and how many times it was given. An other save of the      */
+/* same content returns the recorded reference, and the file just       */
+/* written is purged. Everything is saved and purged by the storage     */
+/* library: the store does not depend on how the library names files.  */
+/* The records are updated under a file lock (.filestorage-contents/    */
+/* .lock): several runtimes may share the storage.                      */
+/* ******************************************************************** */
+package io.camunda.connector.filestorage.toolbox;
+
+import io.camunda.connector.api.outbound.OutboundConnectorContext;
+import io.camunda.connector.filestorage.copy.LocalFileCopy;
+import io.camunda.filestorage.FileRepoFactory;
+import io.camunda.filestorage.FileVariable;
+import io.camunda.filestorage.FileVariableReference;
+import io.camunda.filestorage.storage.StorageDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class ContentAddressedStore {
+
+    public static final String STORE_FOLDER = ".filestorage-contents";
+    /**
+     * For each SHA-256, the reference count and the reference holding the content
+     */
+    private static final String CONTENT_FOLDER = "contents";
+    /**
+     * For each reference holding a content, its SHA-256
+     */
+    private static final String REFERENCE_FOLDER = "references";
+    private static final String LOCK_FILE = ".lock";
+    private static final Map<Path, ContentAddressedStore> allStores = new ConcurrentHashMap<>();
+    private static final Logger logger = LoggerFactory.getLogger(ContentAddressedStore.class.getName());
+
+    private final Path contentFolder;
+    private final Path referenceFolder;
+    private final Path lockFile;
+    private FileChannel lockChannel;
+
+    private ContentAddressedStore(Path storageFolder) {
+        Path storeFolder = storageFolder.resolve(STORE_FOLDER);
+        this.contentFolder = storeFolder.resolve(CONTENT_FOLDER);
+        this.referenceFolder = storeFolder.resolve(REFERENCE_FOLDER);
+        this.lockFile = storeFolder.resolve(LOCK_FILE);
+    }
+
+    /**
+     * @param storageDefinition storage definition
+     * @return the store of this storage, null if the storage can't be deduplicated (not local)
+     */
+    public static ContentAddressedStore getInstance(StorageDefinition storageDefinition) {
+        Path storageFolder = LocalFileCopy.getLocalFolder(storageDefinition);
+        if (storageFolder == null || !Files.isDirectory(storageFolder))
+            return null;
+        return allStores.computeIfAbsent(storageFolder.toAbsolutePath().normalize(), ContentAddressedStore::new);
+    }
+
+    /**
+     * Release a reference. Call it before the reference is purged: a content still given to other references must
+     * not be purged.
+     *
+     * @param fileVariableReference reference to purge
+     * @return true if the reference can be purged: it is not in a store, or it was its last use
+     * @throws Exception if the store can't be updated: the reference must not be purged
+     */
+    public static boolean release(FileVariableReference fileVariableReference) throws Exception {
+        ContentAddressedStore store = getInstance(LocalFileCopy.getStorageDefinition(fileVariableReference));
+        if (store == null || fileVariableReference.content == null)
+            return true;
+        synchronized (store) {
+            try (FileLock ignored = store.lock()) {
+                Path referenceFile = store.getReferenceFile(fileVariableReference);
+                if (!Files.exists(referenceFile))
+                    return true;
+                Path contentFile = store.contentFolder.resolve(Files.readString(referenceFile, StandardCharsets.UTF_8).trim());
+                ContentRecord contentRecord = ContentRecord.read(contentFile);
+                if (contentRecord != null && contentRecord.nbReferences() > 1) {
+                    store.write(contentFile, new ContentRecord(contentRecord.nbReferences() - 1,
+                            contentRecord.referenceJson()));
+                    return false;
+                }
+                Files.deleteIfExists(contentFile);
+                Files.delete(referenceFile);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @param fileVariableReference reference
+     * @return the checksum of the content saved in the store, null if the reference is not in a store
+     */
+    public static String getStoredChecksum(FileVariableReference fileVariableReference) {
+        try {
+            ContentAddressedStore store = getInstance(LocalFileCopy.getStorageDefinition(fileVariableReference));
+            if (store == null || fileVariableReference.content == null)
+                return null;
+            Path referenceFile = store.getReferenceFile(fileVariableReference);
+            if (!Files.exists(referenceFile))
+                return null;
+            return ChecksumInputStream.Algorithm.SHA256.getPrefix() + ":"
+                    + Files.readString(referenceFile, StandardCharsets.UTF_8).trim();
+        } catch (Exception e) {
+            logger.debug("ContentAddressedStore: no checksum for reference[{}] : {}", ReferenceSummary.summarize(fileVariableReference),
+                    e.toString());
+            return null;
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is mandatory in all JVM
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Save a content in the storage. The content is hashed while the storage writes it, so the source is read once.
+     * When the store already holds this content, the copy just written is purged, and the reference holding the content
+     * is returned.
+     *
+     * @param fileVariable             name, mime type and stream to save. The stream is not closed.
+     * @param storageDefinition        storage where the content is saved
+     * @param outboundConnectorContext context
+     * @return the reference
+     * @throws Exception in case of error
+     */
+    public StoreResult save(FileVariable fileVariable,
+                            StorageDefinition storageDefinition,
+                            OutboundConnectorContext outboundConnectorContext) throws Exception {
+        MessageDigest digest = newDigest();
+        fileVariable.setValueStream(new DigestInputStream(fileVariable.getValueStream(), digest));
+        fileVariable.setStorageDefinition(storageDefinition);
+        FileRepoFactory fileRepoFactory = FileRepoFactory.getInstance();
+        FileVariableReference savedReference = fileRepoFactory.saveFileVariable(fileVariable, outboundConnectorContext);
+        String hash = HexFormat.of().formatHex(digest.digest());
+
+        FileVariableReference contentReference = addReference(hash, savedReference);
+        if (contentReference == savedReference)
+            return new StoreResult(savedReference, false, hash);
+
+        // the content was already in the store: the copy is not kept
+        try {
+            fileRepoFactory.purgeFileVariable(savedReference, outboundConnectorContext);
+        } catch (Exception e) {
+            logger.error("ContentAddressedStore: can't purge the duplicate reference[{}] : {}",
+                    ReferenceSummary.summarize(savedReference), e.toString());
+        }
+        return new StoreResult(contentReference, true, hash);
+    }
+
+    /**
+     * Give one more time a reference holding a content of the store. Nothing is read nor written in the storage.
+     *
+     * @param fileVariableReference reference to share
+     * @return the result, null if the reference does not hold a content of this store
+     * @throws Exception if the store can't be updated
+     */
+    public StoreResult share(FileVariableReference fileVariableReference) throws Exception {
+        if (fileVariableReference.content == null)
+            return null;
+        synchronized (this) {
+            try (FileLock ignored = lock()) {
+                Path referenceFile = getReferenceFile(fileVariableReference);
+                if (!Files.exists(referenceFile))
+                    return null;
+                String hash = Files.readString(referenceFile, StandardCharsets.UTF_8).trim();
+                Path contentFile = contentFolder.resolve(hash);
+                ContentRecord contentRecord = ContentRecord.read(contentFile);
+                if (contentRecord == null || LocalFileCopy.getLocalFile(fileVariableReference) == null)
+                    return null;
+                write(contentFile, new ContentRecord(contentRecord.nbReferences() + 1, contentRecord.referenceJson()));
+                return new StoreResult(FileVariableReference.fromObject(contentRecord.referenceJson()), true, hash);
+            }
+        }
+    }
+
+    /**
+     * Register a reference saved with this content
+     *
+     * @param hash           SHA-256 of the content
+     * @param savedReference reference just saved
+     * @return the reference holding the content: the saved reference if the content is new
+     * @throws Exception if the store can't be updated
+     */
+    private FileVariableReference addReference(String hash, FileVariableReference savedReference) throws Exception {
+        synchronized (this) {
+            try (FileLock ignored = lock()) {
+                Path contentFile = contentFolder.resolve(hash);
+                ContentRecord contentRecord = ContentRecord.read(contentFile);
+                if (contentRecord != null) {
+                    FileVariableReference contentReference = FileVariableReference.fromObject(contentRecord.referenceJson());
+                    // the file holding the content may have been purged without the store
+                    if (LocalFileCopy.getLocalFile(contentReference) != null) {
+                        write(contentFile, new ContentRecord(contentRecord.nbReferences() + 1, contentRecord.referenceJson()));
+                        return contentReference;
+                    }
+                    Files.deleteIfExists(getReferenceFile(contentReference));
+                }
+                write(contentFile, new ContentRecord(1, savedReference.toJson()));
+                write(getReferenceFile(savedReference), hash);
+                return savedReference;
+            }
+        }
+    }
+
+    /**
+     * Lock the store against the other runtimes. Called under the monitor of the store.
+     *
+     * @return the lock to release
+     * @throws IOException the lock file can't be created
+     */
+    private FileLock lock() throws IOException {
+        if (lockChannel == null) {
+            Files.createDirectories(contentFolder);
+            Files.createDirectories(referenceFolder);
+            lockChannel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        }
+        return lockChannel.lock();
+    }
+
+    private void write(Path file, ContentRecord contentRecord) throws IOException {
+        write(file, contentRecord.nbReferences() + "\n" + contentRecord.referenceJson());
+    }
+
+    /**
+     * Write a record: a stop during the write does not leave a partial record
+     */
+    private void write(Path file, String value) throws IOException {
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.writeString(tempFile, value, StandardCharsets.UTF_8);
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Path getReferenceFile(FileVariableReference fileVariableReference) {
+        // the reference may contain a path: keep only a valid file name
+        return referenceFolder.resolve(String.valueOf(fileVariableReference.content).replaceAll("[^A-Za-z0-9._-]", "_"));
+    }
+
+    /**
+     * @param fileVariableReference reference saved
+     * @param deduplicated          true if the content was already in the store
+     * @param sha256                SHA-256 of the content, in hexadecimal
+     */
+    public record StoreResult(FileVariableReference fileVariableReference, boolean deduplicated, String sha256) {
+
+        /**
+         * @return the checksum of the content, with the format of ChecksumInputStream
+         */
+        public String getChecksum() {
+            return ChecksumInputStream.Algorithm.SHA256.getPrefix() + ":" + sha256;
+        }
+    }
+
+    /**
+     * @param nbReferences  number of times the reference was given
+     * @param referenceJson reference holding the content
+     */
+    private record ContentRecord(int nbReferences, String referenceJson) {
+
+        static ContentRecord read(Path file) throws IOException {
+            if (!Files.exists(file))
+                return null;
+            List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+            if (lines.size() < 2)
+                return null;
+            try {
+                return new ContentRecord(Integer.parseInt(lines.get(0).trim()), lines.get(1));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+}
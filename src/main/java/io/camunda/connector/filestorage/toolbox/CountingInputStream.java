@@ -0,0 +1,66 @@
+/* ******************************************************************** */
+/*                                                                      */
+/*  CountingInputStream                                                 */
+/*                                                                      */
+/*  Count the bytes of a content while it is transferred, when the     */
+/*  size is not known before (a stored content read as a stream).      */
+/* ******************************************************************** */
+package io.camunda.connector.filestorage.toolbox;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+public class CountingInputStream extends FilterInputStream {
+
+    private long count = 0;
+
+    public CountingInputStream(InputStream in) {
+        super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+        int value = in.read();
+        if (value != -1)
+            count++;
+        return value;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int read = in.read(buffer, offset, length);
+        if (read > 0)
+            count += read;
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = in.skip(n);
+        count += skipped;
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public synchronized void mark(int readLimit) {
+        // not supported: the count can't go back
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        throw new IOException("reset is not supported");
+    }
+
+    /**
+     * @return number of bytes read
+     */
+    public long getCount() {
+        return count;
+    }
+}
@@ -0,0 +1,241 @@
+/* ******************************************************************** */
+/*                                                                      */
+/*  ExecutionTrace                                                      */
+/*                                                                      */
+/*  Trace of one job: typed key/values recorded in a buffer reused by  */
+/*  the thread, logged at INFO at the end of the job.                   */
+/*  When INFO is disabled, the trace records only the context of the   */
+/*  job (its key inputs), for the error messages: no string is built,  */
+/*  no value is boxed or formatted. A value is formatted only when the */
+/*  trace is logged, or given to an error message.                      */
+/* ******************************************************************** */
+package io.camunda.connector.filestorage.toolbox;
+
+import io.camunda.filestorage.FileVariableReference;
+import io.camunda.filestorage.storage.StorageDefinition;
+import org.slf4j.Logger;
+import org.slf4j.spi.LoggingEventBuilder;
+
+import java.util.Arrays;
+
+public class ExecutionTrace {
+
+    private static final int INITIAL_CAPACITY = 32;
+    /**
+     * A trace which records only the context keeps a few values
+     */
+    private static final int CONTEXT_CAPACITY = 4;
+    private static final int MAXIMUM_KEPT_MESSAGE = 64 * 1024;
+
+    /**
+     * One job runs on one thread: the thread reuses its buffers from one job to the next
+     */
+    private static final ThreadLocal<ExecutionTrace> PER_THREAD = ThreadLocal.withInitial(
+            () -> new ExecutionTrace(null, null, true));
+    /**
+     * The trace when INFO is disabled: it records only the context
+     */
+    private static final ThreadLocal<ExecutionTrace> PER_THREAD_CONTEXT = ThreadLocal.withInitial(
+            () -> new ExecutionTrace(null, null, false));
+
+    private enum Kind {LONG, DOUBLE, BOOLEAN, OBJECT}
+
+    private final boolean enabled;
+    private Logger logger;
+    private String name;
+
+    private String[] keys;
+    private Kind[] kinds;
+    private long[] numbers;
+    private Object[] objects;
+    private int size = 0;
+    private final StringBuilder message;
+
+    private ExecutionTrace(Logger logger, String name, boolean enabled) {
+        this.logger = logger;
+        this.name = name;
+        this.enabled = enabled;
+        int capacity = enabled ? INITIAL_CAPACITY : 0;
+        keys = new String[capacity];
+        kinds = new Kind[capacity];
+        numbers = new long[capacity];
+        objects = new Object[capacity];
+        message = new StringBuilder(enabled ? 256 : 0);
+    }
+
+    /**
+     * Start the trace of a job. The previous trace of the thread is reset.
+     *
+     * @param logger logger of the sub-function
+     * @param name   name of the sub-function
+     * @return the trace, which records only the context if INFO is disabled
+     */
+    public static ExecutionTrace start(Logger logger, String name) {
+        ExecutionTrace trace = logger.isInfoEnabled() ? PER_THREAD.get() : PER_THREAD_CONTEXT.get();
+        trace.clear();
+        trace.logger = logger;
+        trace.name = name;
+        return trace;
+    }
+
+    /**
+     * A trace for a part of the job executed by another thread, added with append() at the end
+     *
+     * @return a new trace, which records only the context if this one does
+     */
+    public ExecutionTrace newChild() {
+        return new ExecutionTrace(logger, name, enabled);
+    }
+
+    /**
+     * @return false if the trace records only the context: a value expensive to compute is not computed
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void value(String key, long value) {
+        if (enabled)
+            add(key, Kind.LONG, value, null);
+    }
+
+    public void value(String key, double value) {
+        if (enabled)
+            add(key, Kind.DOUBLE, Double.doubleToRawLongBits(value), null);
+    }
+
+    public void value(String key, boolean value) {
+        if (enabled)
+            add(key, Kind.BOOLEAN, value ? 1 : 0, null);
+    }
+
+    /**
+     * The value is formatted when the trace is logged: a FileVariableReference by its summary, a StorageDefinition with
+     * getInformation(), other values with String.valueOf(). The value must not change before.
+     *
+     * @param key   key
+     * @param value value
+     */
+    public void value(String key, Object value) {
+        if (enabled)
+            add(key, Kind.OBJECT, 0, value);
+    }
+
+    /**
+     * A key input of the job (the file, the folder, the storage), recorded as a value. It is kept when INFO is
+     * disabled, for the error messages: a new value of the key then replaces the previous one.
+     *
+     * @param key   key
+     * @param value value, formatted as by value(String, Object)
+     */
+    public void context(String key, Object value) {
+        if (!enabled) {
+            for (int i = 0; i < size; i++) {
+                if (keys[i].equals(key)) {
+                    objects[i] = value;
+                    return;
+                }
+            }
+        }
+        add(key, Kind.OBJECT, 0, value);
+    }
+
+    /**
+     * Add the values of a child trace
+     *
+     * @param child trace given by newChild()
+     */
+    public void append(ExecutionTrace child) {
+        if (!enabled || child == this)
+            return;
+        for (int i = 0; i < child.size; i++)
+            add(child.keys[i], child.kinds[i], child.numbers[i], child.objects[i]);
+    }
+
+    /**
+     * Log the trace at INFO: the message gives all the values, and each value is a key/value of the event
+     * for a structured backend. The trace is cleared.
+     */
+    public void log() {
+        if (!enabled) {
+            clear();
+            return;
+        }
+        LoggingEventBuilder event = logger.atInfo();
+        for (int i = 0; i < size; i++)
+            event.addKeyValue(keys[i], getValue(i));
+        event.log(format());
+        clear();
+    }
+
+    /**
+     * @return the values, for an error message. Only the context if INFO is disabled
+     */
+    @Override
+    public String toString() {
+        return format();
+    }
+
+    private void add(String key, Kind kind, long number, Object object) {
+        if (size == keys.length) {
+            int capacity = Math.max(enabled ? INITIAL_CAPACITY : CONTEXT_CAPACITY, size * 2);
+            keys = Arrays.copyOf(keys, capacity);
+            kinds = Arrays.copyOf(kinds, capacity);
+            numbers = Arrays.copyOf(numbers, capacity);
+            objects = Arrays.copyOf(objects, capacity);
+        }
+        keys[size] = key;
+        kinds[size] = kind;
+        numbers[size] = number;
+        objects[size] = object;
+        size++;
+    }
+
+    private Object getValue(int index) {
+        return switch (kinds[index]) {
+            case LONG -> numbers[index];
+            case DOUBLE -> Double.longBitsToDouble(numbers[index]);
+            case BOOLEAN -> numbers[index] != 0;
+            case OBJECT -> formatObject(index);
+        };
+    }
+
+    private String format() {
+        message.setLength(0);
+        message.append("---").append(name).append(":");
+        for (int i = 0; i < size; i++) {
+            message.append(i == 0 ? " " : ", ").append(keys[i]).append('=');
+            switch (kinds[i]) {
+                case LONG -> message.append(numbers[i]);
+                case DOUBLE -> message.append(Double.longBitsToDouble(numbers[i]));
+                case BOOLEAN -> message.append(numbers[i] != 0);
+                case OBJECT -> message.append(formatObject(i));
+            }
+        }
+        return message.toString();
+    }
+
+    private String formatObject(int index) {
+        Object object = objects[index];
+        try {
+            // a reference on a JSON storage contains the whole file: only its summary is logged
+            if (object instanceof FileVariableReference reference)
+                return ReferenceSummary.summarize(reference);
+            if (object instanceof StorageDefinition storageDefinition)
+                return storageDefinition.getInformation();
+        } catch (Exception e) {
+            // the trace never fails the job
+        }
+        return String.valueOf(object);
+    }
+
+    private void clear() {
+        // the values are not kept until the next job of the thread
+        Arrays.fill(objects, 0, size, null);
+        size = 0;
+        message.setLength(0);
+        // a large batch does not keep a large buffer for the life of the thread
+        if (message.capacity() > MAXIMUM_KEPT_MESSAGE)
+            message.trimToSize();
+    }
+}
@@ -0,0 +1,81 @@
+/* ******************************************************************** */
+/*                                                                      */
+/*  ExecutorToolbox                                                     */
+/*                                                                      */
+/*  Executors used by sub-functions to run operations in parallel.      */
+/*  Virtual threads are used when the JVM provides them (Java 21+).     */
+/* ******************************************************************** */
+package io.camunda.connector.filestorage.toolbox;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ExecutorToolbox {
+    private static final Logger logger = LoggerFactory.getLogger(ExecutorToolbox.class.getName());
+
+    /**
+     * Executors.newVirtualThreadPerTaskExecutor(), null if the JVM does not have virtual threads
+     */
+    private static final Method VIRTUAL_THREAD_EXECUTOR = searchVirtualThreadExecutor();
+
+    /**
+     * This is a toolbox, only static method
+     */
+    private ExecutorToolbox() {
+    }
+
+    /**
+     * Return an executor. The caller bounds the concurrency by the number of tasks it submits.
+     *
+     * @param parallelism maximum number of tasks running at the same time (used if virtual threads are not available)
+     * @param threadName  prefix of the threads name
+     * @return an executor, to shut down by the caller
+     */
+    public static ExecutorService newExecutor(int parallelism, String threadName) {
+        if (VIRTUAL_THREAD_EXECUTOR != null) {
+            try {
+                return (ExecutorService) VIRTUAL_THREAD_EXECUTOR.invoke(null);
+            } catch (Exception e) {
+                logger.debug("Can't create a virtual thread executor, use platform threads : {}", e.toString());
+            }
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, threadName + "-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return Executors.newFixedThreadPool(Math.max(1, parallelism), threadFactory);
+    }
+
+    /**
+     * Shutdown the executor and wait for the running tasks
+     *
+     * @param executorService executor to shut down
+     */
+    public static void shutdown(ExecutorService executorService) {
+        executorService.shutdown();
+        try {
+            if (!executorService.awaitTermination(1, TimeUnit.MINUTES))
+                executorService.shutdownNow();
+        } catch (InterruptedException e) {
+            executorService.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Method searchVirtualThreadExecutor() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/* ******************************************************************** */
+/*                                                                      */
+/*  FileHandleBudget                                                    */
+/*                                                                      */
+/*  Limit the number of streams open at the same time by all jobs. When */
+/*  the budget is used, a job waits for a stream to be closed instead   */
+/*  of failing with "too many open files".                              */
+/*  A stream is owned by the sub-function which opens it: it is closed  */
+/*  when the handle is closed.                                          */
+/*  An operation opening several channels (source, target) reserves    */
+/*  one slot per channel, all at once: two jobs each holding half of   */
+/*  their slots can't block each other.                                */
+/* ******************************************************************** */
+package io.camunda.connector.filestorage.toolbox;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class FileHandleBudget {
+
+    /**
+     * Maximum number of streams open at the same time. May be overridden by the system property
+     */
+    public static final String PROPERTY_MAXIMUM_HANDLES = "filestorage.openHandles.maximum";
+    public static final int DEFAULT_MAXIMUM_HANDLES = 512;
+
+    private static final FileHandleBudget INSTANCE = new FileHandleBudget(
+            Integer.getInteger(PROPERTY_MAXIMUM_HANDLES, DEFAULT_MAXIMUM_HANDLES));
+    private static final Logger logger = LoggerFactory.getLogger(FileHandleBudget.class.getName());
+
+    private final int maximumHandles;
+    private final Semaphore semaphore;
+    private final AtomicLong waitCount = new AtomicLong();
+
+    public FileHandleBudget(int maximumHandles) {
+        this.maximumHandles = Math.max(1, maximumHandles);
+        this.semaphore = new Semaphore(this.maximumHandles, true);
+    }
+
+    public static FileHandleBudget getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Reserve one handle. Wait if the budget is used.
+     *
+     * @return the handle, to close when the stream is closed
+     * @throws InterruptedException the thread is interrupted during the wait
+     */
+    public Handle acquire() throws InterruptedException {
+        return acquire(1);
+    }
+
+    /**
+     * Reserve one slot per channel the operation opens. Wait if the budget is used.
+     * An operation asking for more than the budget gets the whole budget.
+     *
+     * @param handles number of channels open at the same time by the operation
+     * @return the handle, to close when the streams are closed
+     * @throws InterruptedException the thread is interrupted during the wait
+     */
+    public Handle acquire(int handles) throws InterruptedException {
+        int permits = Math.min(Math.max(1, handles), maximumHandles);
+        if (!semaphore.tryAcquire(permits)) {
+            waitCount.incrementAndGet();
+            logger.debug("FileHandleBudget: {} handles open, wait for {} handles", maximumHandles, permits);
+            semaphore.acquire(permits);
+        }
+        return new Handle(permits);
+    }
+
+    /**
+     * @return number of handles currently open
+     */
+    public int getOpenHandles() {
+        return maximumHandles - semaphore.availablePermits();
+    }
+
+    public int getMaximumHandles() {
+        return maximumHandles;
+    }
+
+    /**
+     * @return number of times a job waited for a handle
+     */
+    public long getWaitCount() {
+        return waitCount.get();
+    }
+
+    /**
+     * Reserved slots of an operation. Closing it closes the attached stream, then gives the slots back. Close is idempotent.
+     */
+    public class Handle implements AutoCloseable {
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private final int permits;
+        private InputStream stream;
+
+        private Handle(int permits) {
+            this.permits = permits;
+        }
+
+        /**
+         * Attach the stream owned by this handle. When a stream wraps the attached one, attach the wrapper: closing it
+         * closes the chain.
+         *
+         * @param stream stream, may be null
+         * @param <T>    type of stream
+         * @return the stream
+         */
+        public <T extends InputStream> T attach(T stream) {
+            this.stream = stream;
+            return stream;
+        }
+
+        @Override
+        public void close() {
+            if (!closed.compareAndSet(false, true))
+                return;
+            try {
+                if (stream != null)
+                    stream.close();
+            } catch (IOException e) {
+                logger.debug("FileHandleBudget: error when closing a stream : {}", e.toString());
+            } finally {
+                semaphore.release(permits);
+            }
+        }
+    }
+}
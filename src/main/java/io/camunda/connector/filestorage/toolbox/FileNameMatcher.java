@@ -0,0 +1,68 @@
+/* ******************************************************************** */
+/*                                                                      */
+/*  FileNameMatcher                                                     */
+/*                                                                      */
+/*  Filter on a file name, compiled once. Accept the syntax             */
+/*  "glob:*.txt", "regex:.*\.txt", or a value without prefix: a regular */
+/*  expression if it compiles, else a glob (*.txt)                      */
+/* ******************************************************************** */
+package io.camunda.connector.filestorage.toolbox;
+
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+public class FileNameMatcher {
+
+    public static final String GLOB_PREFIX = "glob:";
+    public static final String REGEX_PREFIX = "regex:";
+    public static final String ACCEPT_ALL = "*.*";
+
+    /**
+     * null means all files are accepted
+     */
+    private final PathMatcher pathMatcher;
+
+    private FileNameMatcher(PathMatcher pathMatcher) {
+        this.pathMatcher = pathMatcher;
+    }
+
+    /**
+     * Compile the filter
+     *
+     * @param filter filter, may be null or empty: all files are accepted
+     * @return a matcher
+     */
+    public static FileNameMatcher getInstance(String filter) {
+        if (filter == null || filter.isEmpty() || ACCEPT_ALL.equals(filter))
+            return new FileNameMatcher(null);
+        if (filter.startsWith(GLOB_PREFIX) || filter.startsWith(REGEX_PREFIX))
+            return new FileNameMatcher(FileSystems.getDefault().getPathMatcher(filter));
+        try {
+            Pattern pattern = Pattern.compile(filter);
+            return new FileNameMatcher(path -> pattern.matcher(path.toString()).matches());
+        } catch (PatternSyntaxException e) {
+            // *.txt is not a regular expression
+            return new FileNameMatcher(FileSystems.getDefault().getPathMatcher(GLOB_PREFIX + filter));
+        }
+    }
+
+    /**
+     * Check the name of the file (not the complete path)
+     *
+     * @param path path to check
+     * @return true if the file name matches
+     */
+    public boolean matches(Path path) {
+        if (pathMatcher == null)
+            return true;
+        Path fileName = path.getFileName();
+        return fileName != null && pathMatcher.matches(fileName);
+    }
+
+    public boolean isAcceptAll() {
+        return pathMatcher == null;
+    }
+}
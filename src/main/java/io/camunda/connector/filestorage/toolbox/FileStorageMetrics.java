@@ -0,0 +1,277 @@
+/* ******************************************************************** */
+/*                                                                      */
+/*  FileStorageMetrics                                                  */
+/*                                                                      */
+/*  Micrometer meters of the connector: one timer per job (function,   */
+/*  storage, outcome, BPMN error), one timer per storage operation,    */
+/*  bytes transferred and files per job. The file handle budget and    */
+/*  the CMIS session pool are published as gauges.                      */
+/*  Meters are registered in the Micrometer global registry: Spring    */
+/*  Boot adds the actuator registries to it.                            */
+/* ******************************************************************** */
+package io.camunda.connector.filestorage.toolbox;
+
+import io.camunda.connector.api.error.ConnectorException;
+import io.camunda.connector.filestorage.FileStorageInput;
+import io.camunda.connector.filestorage.FileStorageOutput;
+import io.camunda.connector.filestorage.cmis.CmisSessionPool;
+import io.camunda.connector.filestorage.copy.LocalFileCopy;
+import io.camunda.filestorage.FileVariableReference;
+import io.camunda.filestorage.storage.StorageDefinition;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+public class FileStorageMetrics {
+
+    public static final String METRIC_FUNCTION = "filestorage.function";
+    public static final String METRIC_OPERATION = "filestorage.operation";
+    public static final String METRIC_BYTES = "filestorage.bytes";
+    public static final String METRIC_FILES = "filestorage.files";
+
+    public static final String TAG_FUNCTION = "function";
+    public static final String TAG_STORAGE = "storage";
+    public static final String TAG_OUTCOME = "outcome";
+    public static final String TAG_ERROR = "error";
+    public static final String TAG_OPERATION = "operation";
+    public static final String TAG_WRITE_MODE = "writeMode";
+
+    public static final String OUTCOME_SUCCESS = "success";
+    public static final String OUTCOME_ERROR = "error";
+    public static final String NO_ERROR = "none";
+    /**
+     * Write mode of an operation which is not a write
+     */
+    public static final String NO_WRITE_MODE = "none";
+    /**
+     * Error which is not a BPMN error: the tag does not contain the message, to keep the number of series bounded
+     */
+    public static final String UNEXPECTED_ERROR = "UNEXPECTED";
+    public static final String UNKNOWN_STORAGE = "UNKNOWN";
+    /**
+     * Function tag of a job asking for a function which does not exist: the tag does not contain the name given
+     */
+    public static final String UNKNOWN_FUNCTION = "unknown";
+    /**
+     * A local file, outside a storage (the file written by a download)
+     */
+    public static final String LOCAL_STORAGE = "LOCAL";
+
+    public static final String OPERATION_LOAD = "load";
+    public static final String OPERATION_SAVE = "save";
+    public static final String OPERATION_COPY = "copy";
+    public static final String OPERATION_WRITE = "write";
+    public static final String OPERATION_PURGE = "purge";
+
+    private static volatile MeterRegistry meterRegistry = Metrics.globalRegistry;
+    /**
+     * Registry where the gauges are bound
+     */
+    private static volatile MeterRegistry gaugeRegistry = null;
+
+    /**
+     * This is a toolbox, only static method
+     */
+    private FileStorageMetrics() {
+    }
+
+    /**
+     * A runtime which does not use the global registry gives its own
+     *
+     * @param registry registry to use
+     */
+    public static void setMeterRegistry(MeterRegistry registry) {
+        meterRegistry = registry;
+    }
+
+    public static MeterRegistry getMeterRegistry() {
+        MeterRegistry registry = meterRegistry;
+        if (gaugeRegistry != registry)
+            bindGauges(registry);
+        return registry;
+    }
+
+    /**
+     * Record one job
+     *
+     * @param function      type of the sub-function (upload, download, copy, delete)
+     * @param storage       storage type, see getStorageType()
+     * @param output        result of the job, null if it failed
+     * @param error         error of the job, null if it succeeded
+     * @param durationNanos duration of the job
+     */
+    public static void recordFunction(String function, String storage, FileStorageOutput output, Throwable error,
+                                      long durationNanos) {
+        MeterRegistry registry = getMeterRegistry();
+        Timer.builder(METRIC_FUNCTION)
+                .description("Duration of one job")
+                .tag(TAG_FUNCTION, function)
+                .tag(TAG_STORAGE, storage)
+                .tag(TAG_OUTCOME, error == null ? OUTCOME_SUCCESS : OUTCOME_ERROR)
+                .tag(TAG_ERROR, getErrorCode(error))
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+        if (output == null)
+            return;
+        DistributionSummary.builder(METRIC_FILES)
+                .description("Files processed per job")
+                .tag(TAG_FUNCTION, function)
+                .tag(TAG_STORAGE, storage)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(output.nbFilesProcessed);
+        if (output.bytesTransferred > 0)
+            Counter.builder(METRIC_BYTES)
+                    .description("Bytes transferred")
+                    .baseUnit("bytes")
+                    .tag(TAG_FUNCTION, function)
+                    .tag(TAG_STORAGE, storage)
+                    .register(registry)
+                    .increment(output.bytesTransferred);
+    }
+
+    /**
+     * Record one operation on a storage, inside a job
+     *
+     * @param function      type of the sub-function
+     * @param storage       storage accessed
+     * @param operation     load, save, copy, write, purge
+     * @param durationNanos duration of the operation
+     */
+    public static void recordOperation(String function, StorageDefinition storage, String operation,
+                                       long durationNanos) {
+        recordOperation(function, getStorageType(storage), operation, durationNanos);
+    }
+
+    /**
+     * @param function      type of the sub-function
+     * @param storageType   storage type, or LOCAL_STORAGE
+     * @param operation     load, save, copy, write, purge
+     * @param durationNanos duration of the operation
+     */
+    public static void recordOperation(String function, String storageType, String operation, long durationNanos) {
+        recordOperation(function, storageType, operation, NO_WRITE_MODE, durationNanos);
+    }
+
+    /**
+     * @param function      type of the sub-function
+     * @param storageType   storage type, or LOCAL_STORAGE
+     * @param operation     load, save, copy, write, purge
+     * @param writeMode     DIRECT, ATOMIC, DURABLE, GROUP_COMMIT for a write, else NO_WRITE_MODE
+     * @param durationNanos duration of the operation
+     */
+    public static void recordOperation(String function, String storageType, String operation, String writeMode,
+                                       long durationNanos) {
+        Timer.builder(METRIC_OPERATION)
+                .description("Duration of one operation on a storage")
+                .tag(TAG_FUNCTION, function)
+                .tag(TAG_STORAGE, storageType)
+                .tag(TAG_OPERATION, operation)
+                .tag(TAG_WRITE_MODE, writeMode)
+                .publishPercentileHistogram()
+                .register(getMeterRegistry())
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param error error of the job, may be null
+     * @return the BPMN error code, NO_ERROR or UNEXPECTED_ERROR
+     */
+    public static String getErrorCode(Throwable error) {
+        if (error == null)
+            return NO_ERROR;
+        if (error instanceof ConnectorException connectorException && connectorException.getErrorCode() != null)
+            return connectorException.getErrorCode();
+        return UNEXPECTED_ERROR;
+    }
+
+    /**
+     * The storage of a job: the storage of the source file for a download or a delete, else the storage given
+     *
+     * @param input    input of the job
+     * @param function type of the sub-function
+     * @return the storage type, UNKNOWN_STORAGE if it can't be read
+     */
+    public static String getStorageType(FileStorageInput input, String function) {
+        try {
+            if (("download".equals(function) || "delete".equals(function)) && input.getSourceFile() != null)
+                return getStorageType(getStorageDefinition(FileVariableReference.fromObject(input.getSourceFile())));
+            String storageDefinition = input.getCompleteStorageDefinition();
+            if (storageDefinition == null || storageDefinition.isEmpty())
+                return UNKNOWN_STORAGE;
+            return getStorageType(input.getStorageDefinitionObject());
+        } catch (Exception e) {
+            return UNKNOWN_STORAGE;
+        }
+    }
+
+    /**
+     * @param fileVariableReference reference
+     * @return the storage of the reference, null if it can't be read: a metric never fails a job
+     */
+    public static StorageDefinition getStorageDefinition(FileVariableReference fileVariableReference) {
+        try {
+            return fileVariableReference == null ? null : LocalFileCopy.getStorageDefinition(fileVariableReference);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static String getStorageType(StorageDefinition storageDefinition) {
+        return storageDefinition == null || storageDefinition.type == null ? UNKNOWN_STORAGE :
+                storageDefinition.type.toString();
+    }
+
+    private static synchronized void bindGauges(MeterRegistry registry) {
+        if (gaugeRegistry == registry)
+            return;
+        gaugeRegistry = registry;
+        FileHandleBudget fileHandleBudget = FileHandleBudget.getInstance();
+        Gauge.builder("filestorage.handles.open", fileHandleBudget, FileHandleBudget::getOpenHandles)
+                .description("File handles held by the jobs")
+                .register(registry);
+        Gauge.builder("filestorage.handles.maximum", fileHandleBudget, FileHandleBudget::getMaximumHandles)
+                .description("Maximum file handles held by the jobs")
+                .register(registry);
+        FunctionCounter.builder("filestorage.handles.waits", fileHandleBudget, FileHandleBudget::getWaitCount)
+                .description("Jobs which waited for a file handle")
+                .register(registry);
+
+        CmisSessionPool cmisSessionPool = CmisSessionPool.getInstance();
+        Gauge.builder("filestorage.cmis.sessions", cmisSessionPool, CmisSessionPool::size)
+                .description("CMIS sessions kept in the pool")
+                .register(registry);
+        Gauge.builder("filestorage.cmis.leases", cmisSessionPool, CmisSessionPool::getActiveLeases)
+                .description("CMIS sessions in use")
+                .register(registry);
+        FunctionCounter.builder("filestorage.cmis.sessions.created", cmisSessionPool, CmisSessionPool::getCreatedCount)
+                .register(registry);
+        FunctionCounter.builder("filestorage.cmis.sessions.reused", cmisSessionPool, CmisSessionPool::getReusedCount)
+                .register(registry);
+        FunctionCounter.builder("filestorage.cmis.sessions.evicted", cmisSessionPool, CmisSessionPool::getEvictedCount)
+                .register(registry);
+        FunctionCounter.builder("filestorage.cmis.sessions.healthCheckFailures", cmisSessionPool,
+                        CmisSessionPool::getHealthCheckFailureCount)
+                .register(registry);
+
+        StorageDefinitionCache storageDefinitionCache = StorageDefinitionCache.getInstance();
+        Gauge.builder("filestorage.storageDefinitionCache.size", storageDefinitionCache, StorageDefinitionCache::size)
+                .description("Storage definitions kept in the cache")
+                .register(registry);
+        FunctionCounter.builder("filestorage.storageDefinitionCache.hits", storageDefinitionCache,
+                        StorageDefinitionCache::getHitCount)
+                .description("Storage definitions found in the cache")
+                .register(registry);
+        FunctionCounter.builder("filestorage.storageDefinitionCache.misses", storageDefinitionCache,
+                        StorageDefinitionCache::getMissCount)
+                .description("Storage definitions parsed")
+                .register(registry);
+    }
+}
@@ -0,0 +1,105 @@
+/* ******************************************************************** */
+/*                                                                      */
+/*  FileStorageSubFunctionRegistry                                      */
+/*                                                                      */
+/*  Collect all sub-functions once, at startup, via the ServiceLoader   */
+/*  (META-INF/services/...FileStorageSubFunction). Sub-functions are    */
+/*  stateless, so one instance is shared by all jobs.                   */
+/* ******************************************************************** */
+package io.camunda.connector.filestorage.toolbox;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+public class FileStorageSubFunctionRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(FileStorageSubFunctionRegistry.class.getName());
+
+    private final List<FileStorageSubFunction> listSubFunctions;
+    private final Map<String, FileStorageSubFunction> mapSubFunctions;
+    private final Map<String, String> bpmnErrors;
+    private final String description;
+
+    private FileStorageSubFunctionRegistry(List<FileStorageSubFunction> listSubFunctions) {
+        Map<String, FileStorageSubFunction> mapByType = new HashMap<>();
+        Map<String, String> allErrors = new HashMap<>();
+        for (FileStorageSubFunction subFunction : listSubFunctions) {
+            FileStorageSubFunction previous = mapByType.putIfAbsent(subFunction.getSubFunctionType(), subFunction);
+            if (previous != null) {
+                logger.error("SubFunction type [{}] declared by {} and {}: keep the first one", subFunction.getSubFunctionType(),
+                        previous.getClass().getName(), subFunction.getClass().getName());
+            }
+            allErrors.putAll(subFunction.getBpmnErrors());
+        }
+        this.listSubFunctions = List.copyOf(listSubFunctions);
+        this.mapSubFunctions = Map.copyOf(mapByType);
+        this.bpmnErrors = Map.copyOf(allErrors);
+        this.description = listSubFunctions.stream()
+                .map(FileStorageSubFunction::getSubFunctionDescription)
+                .collect(Collectors.joining(","));
+    }
+
+    public static FileStorageSubFunctionRegistry getInstance() {
+        return RegistryHolder.INSTANCE;
+    }
+
+    /**
+     * Discover the sub-functions declared in the service file. Order of the file is kept: it is the order of the
+     * functions in the template.
+     *
+     * @return list of sub-functions
+     */
+    private static List<FileStorageSubFunction> discoverSubFunctions() {
+        List<FileStorageSubFunction> listSubFunctions = new ArrayList<>();
+        ServiceLoader<FileStorageSubFunction> serviceLoader = ServiceLoader.load(FileStorageSubFunction.class,
+                FileStorageSubFunction.class.getClassLoader());
+        for (FileStorageSubFunction subFunction : serviceLoader) {
+            listSubFunctions.add(subFunction);
+        }
+        if (listSubFunctions.isEmpty())
+            logger.error("No FileStorageSubFunction detected: check META-INF/services/{}",
+                    FileStorageSubFunction.class.getName());
+        logger.debug("FileStorageSubFunctionRegistry detected {}", listSubFunctions.stream()
+                .map(FileStorageSubFunction::getSubFunctionType).toList());
+        return listSubFunctions;
+    }
+
+    /**
+     * Return the sub-function for a type
+     *
+     * @param subFunctionType type of the sub-function (upload, download...)
+     * @return the sub-function, null if the type is unknown
+     */
+    public FileStorageSubFunction getSubFunction(String subFunctionType) {
+        if (subFunctionType == null)
+            return null;
+        return mapSubFunctions.get(subFunctionType);
+    }
+
+    /**
+     * @return immutable list of sub-functions, in the declaration order
+     */
+    public List<FileStorageSubFunction> getListSubFunctions() {
+        return listSubFunctions;
+    }
+
+    /**
+     * @return immutable map of all BPMN errors declared by sub-functions
+     */
+    public Map<String, String> getBpmnErrors() {
+        return bpmnErrors;
+    }
+
+    /**
+     * @return description of all sub-functions, separated by a comma
+     */
+    public String getDescription() {
+        return description;
+    }
+
+    private static class RegistryHolder {
+        private static final FileStorageSubFunctionRegistry INSTANCE = new FileStorageSubFunctionRegistry(discoverSubFunctions());
+    }
+}
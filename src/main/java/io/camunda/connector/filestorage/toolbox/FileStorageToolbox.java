@@ -1,5 +1,14 @@
 package io.camunda.connector.filestorage.toolbox;
 
+import io.camunda.connector.api.error.ConnectorException;
+import io.camunda.connector.api.outbound.OutboundConnectorContext;
+import io.camunda.connector.filestorage.FileStorageError;
+import io.camunda.connector.filestorage.cmis.CmisFileRepository;
+import io.camunda.connector.filestorage.copy.LocalFileCopy;
+import io.camunda.filestorage.FileRepoFactory;
+import io.camunda.filestorage.FileVariable;
+import io.camunda.filestorage.FileVariableReference;
+import io.camunda.filestorage.storage.StorageDefinition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -30,16 +39,146 @@ public class FileStorageToolbox {
 
 
     /**
-     * Keep the trace compact
+     * Return the checksum algorithm asked by the process
      *
-     * @param traceExecution string builder to add
-     * @param label          label
-     * @param value          value
+     * @param checksumAlgorithm value given by the process
+     * @param workerName        worker, for the error message
+     * @return the algorithm, null if no checksum is asked
+     * @throws ConnectorException if the algorithm is unknown
      */
-    public static void traceValue(StringBuilder traceExecution, String label, Object value) {
-        traceExecution.append(label + "[");
-        traceExecution.append(value);
-        traceExecution.append("];");
+    public static ChecksumInputStream.Algorithm getChecksumAlgorithm(String checksumAlgorithm, String workerName)
+            throws ConnectorException {
+        try {
+            return ChecksumInputStream.Algorithm.fromValue(checksumAlgorithm);
+        } catch (IllegalArgumentException e) {
+            throw new ConnectorException(FileStorageError.BPMNERROR_INCORRECT_CHECKSUM_ALGORITHM,
+                    "Worker [" + workerName + "] unknown checksumAlgorithm[" + checksumAlgorithm + "]");
+        }
+    }
+
+    /**
+     * Return the compression asked by the process for a storage
+     *
+     * @param compression       value given by the process
+     * @param storageDefinition storage where the content is saved
+     * @param workerName        worker, for the error message
+     * @return the compression, NONE if no compression is asked
+     * @throws ConnectorException if the compression is unknown, or the storage can't save a compressed content
+     */
+    public static CompressionToolbox.Compression getCompression(String compression,
+                                                                StorageDefinition storageDefinition,
+                                                                String workerName) throws ConnectorException {
+        CompressionToolbox.Compression result;
+        try {
+            result = CompressionToolbox.Compression.fromValue(compression);
+        } catch (IllegalArgumentException e) {
+            throw new ConnectorException(FileStorageError.BPMNERROR_INCORRECT_COMPRESSION,
+                    "Worker [" + workerName + "] unknown compression[" + compression + "]");
+        }
+        if (result != CompressionToolbox.Compression.NONE && !CompressionToolbox.isCompressionSupported(storageDefinition))
+            throw new ConnectorException(FileStorageError.BPMNERROR_INCORRECT_COMPRESSION,
+                    "Worker [" + workerName + "] compression[" + result + "] is not supported by storage["
+                            + storageDefinition.type + "]: FOLDER or TEMPFOLDER expected");
+        return result;
+    }
+
+    /**
+     * Return the tier of a JSON storage: large contents are spilled to a file storage
+     *
+     * @param storageDefinition      storage asked by the job
+     * @param spillStorageDefinition spill storage given by the job, may be null
+     * @param spillFolder            folder of a FOLDER spill storage, may be null
+     * @param spillThresholdKb       threshold given by the job, may be null
+     * @param workerName             worker, for the error message
+     * @return the tier, null if the storage is not JSON or no spill storage is configured
+     * @throws ConnectorException if the spill storage is incorrect
+     */
+    public static StorageTier getStorageTier(StorageDefinition storageDefinition,
+                                             String spillStorageDefinition,
+                                             String spillFolder,
+                                             Integer spillThresholdKb,
+                                             String workerName) throws ConnectorException {
+        String definition = StorageTier.getSpillStorageDefinition(spillStorageDefinition);
+        if (!StorageTier.isInline(storageDefinition) || definition == null)
+            return null;
+        StorageDefinition spillStorage;
+        try {
+            spillStorage = StorageDefinitionCache.getInstance().get(definition, StorageTier.getSpillFolder(spillFolder), null);
+        } catch (Exception e) {
+            throw new ConnectorException(FileStorageError.ERROR_INCORRECT_STORAGEDEFINITION,
+                    "Worker [" + workerName + "] incorrect spillStorageDefinition[" + definition + "] : " + e);
+        }
+        if (StorageTier.isInline(spillStorage))
+            throw new ConnectorException(FileStorageError.ERROR_INCORRECT_STORAGEDEFINITION,
+                    "Worker [" + workerName + "] spillStorageDefinition[" + definition + "] must not be JSON");
+        return new StorageTier(storageDefinition, spillStorage, 1024L * StorageTier.getThresholdKb(spillThresholdKb));
+    }
+
+    /**
+     * Save a file variable. A CMIS storage is saved with a session of the CmisSessionPool, the other storages by the
+     * library.
+     *
+     * @param fileVariable             name, mime type and content
+     * @param storageDefinition        storage where the content is saved
+     * @param outboundConnectorContext context
+     * @return the reference
+     * @throws Exception if the content can't be saved
+     */
+    public static FileVariableReference saveFileVariable(FileVariable fileVariable,
+                                                         StorageDefinition storageDefinition,
+                                                         OutboundConnectorContext outboundConnectorContext) throws Exception {
+        if (CmisFileRepository.isCmis(storageDefinition))
+            return CmisFileRepository.getInstance().saveFileVariable(fileVariable, storageDefinition);
+        fileVariable.setStorageDefinition(storageDefinition);
+        return FileRepoFactory.getInstance().saveFileVariable(fileVariable, outboundConnectorContext);
+    }
+
+    /**
+     * Load a file variable. A CMIS document is read with a session of the CmisSessionPool.
+     *
+     * @param fileVariableReference    reference
+     * @param outboundConnectorContext context
+     * @return the file variable, null if it does not exist
+     * @throws Exception if the storage can't be read
+     */
+    public static FileVariable loadFileVariable(FileVariableReference fileVariableReference,
+                                                OutboundConnectorContext outboundConnectorContext) throws Exception {
+        if (CmisFileRepository.isCmis(LocalFileCopy.getStorageDefinition(fileVariableReference)))
+            return CmisFileRepository.getInstance().loadFileVariable(fileVariableReference);
+        return FileRepoFactory.getInstance().loadFileVariable(fileVariableReference, outboundConnectorContext);
+    }
+
+    /**
+     * Purge a file variable. A CMIS document is deleted with a session of the CmisSessionPool.
+     *
+     * @param fileVariableReference    reference
+     * @param outboundConnectorContext context
+     * @return true if the file is purged
+     * @throws Exception if the storage can't be reached
+     */
+    public static boolean purgeFileVariable(FileVariableReference fileVariableReference,
+                                            OutboundConnectorContext outboundConnectorContext) throws Exception {
+        if (CmisFileRepository.isCmis(LocalFileCopy.getStorageDefinition(fileVariableReference)))
+            return CmisFileRepository.getInstance().purgeFileVariable(fileVariableReference);
+        return FileRepoFactory.getInstance().purgeFileVariable(fileVariableReference, outboundConnectorContext);
+    }
+
+    /**
+     * Reserve the handles in the FileHandleBudget before opening the streams. Wait if too many streams are open.
+     *
+     * @param workerName name of the sub-function, for the error
+     * @param handles    number of channels the sub-function opens at the same time
+     * @return the handle, to close with the streams
+     * @throws ConnectorException if the thread is interrupted during the wait
+     */
+    public static FileHandleBudget.Handle acquireFileHandles(String workerName, int handles) throws ConnectorException {
+        try {
+            return FileHandleBudget.getInstance().acquire(handles);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConnectorException(FileStorageError.BPMNERROR_LOAD_FILE_ERROR,
+                    "Worker [" + workerName + "] interrupted while waiting for a file handle");
+        }
     }
 
 }
@@ -1,12 +1,10 @@
 package io.camunda.connector.filestorage.toolbox;
 
 import io.camunda.connector.cherrytemplate.RunnerParameter;
-import io.camunda.connector.filestorage.FileStorageFunction;
 import io.camunda.connector.filestorage.FileStorageInput;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.lang.reflect.Constructor;
 import java.util.*;
 
 public class ParameterToolbox {
@@ -18,88 +16,73 @@ public class ParameterToolbox {
     private ParameterToolbox() {
     }
 
+    /**
+     * The parameters are computed once: sub-functions does not change after the startup
+     *
+     * @return list of input parameters, immutable
+     */
     public static List<Map<String, Object>> getInputParameters() {
-        return getParameters(true);
+        return InputParametersHolder.INPUT_PARAMETERS;
     }
 
+    /**
+     * @return list of output parameters, immutable
+     */
     public static List<Map<String, Object>> getOutputParameters() {
-        return getParameters(false);
+        return OutputParametersHolder.OUTPUT_PARAMETERS;
     }
 
     /**
-     * Return the list of parameters
+     * Build the list of parameters
      *
      * @param inputParameters type of parameters (INPUT, OUTPUT)
      * @return list of parameters on a list of MAP
      */
-    private static List<Map<String, Object>> getParameters(boolean inputParameters) {
-
-        List<RunnerParameter> runnerParametersCollectList = new ArrayList<>();
-        logger.info("getParameters input? {}", inputParameters);
+    private static List<Map<String, Object>> buildParameters(boolean inputParameters) {
+        List<FileStorageSubFunction> listSubFunctions = FileStorageSubFunctionRegistry.getInstance().getListSubFunctions();
 
         // add the "choose the function" parameters
         RunnerParameter chooseFunction = new RunnerParameter(FileStorageInput.INPUT_FILESTORAGEFUNCTION,
                 "FileStorage Function", String.class, RunnerParameter.Level.REQUIRED, "Choose the function to execute");
         chooseFunction.setAttribute("priority", -1);
 
-        // add the input only at the INPUT parameters
-        if (inputParameters) {
-            runnerParametersCollectList.add(chooseFunction);
-        }
-
+        // one parameter may be used by multiple functions, and we want to create only one, but play on condition to show it
+        // The map keeps the order of the first declaration
+        Map<String, RunnerParameter> mapParameters = new LinkedHashMap<>();
         // We keep a list of parameters per type. Then, we will add a condition according to the type
         Map<String, List<String>> mapParameterSubType = new HashMap<>();
 
         //  now, we collect all functions, and for each function, we collect parameters
-        for (Class<?> classFunction : FileStorageFunction.allFunctions) {
+        for (FileStorageSubFunction subFunction : listSubFunctions) {
             try {
-                Constructor<?> constructor = classFunction.getConstructor();
-                FileStorageSubFunction inputSubFunction = (FileStorageSubFunction) constructor.newInstance();
-
                 List<RunnerParameter> subFunctionsParametersList = inputParameters ?
-                        inputSubFunction.getInputsParameter() :
-                        inputSubFunction.getOutputsParameter();
+                        subFunction.getInputsParameter() :
+                        subFunction.getOutputsParameter();
 
-                chooseFunction.addChoice(inputSubFunction.getSubFunctionType(), inputSubFunction.getSubFunctionName());
-                logger.info("FileStorage SubFunctionName[{}] TypeChoice [{}] parameterList.size={}",
-                        inputSubFunction.getSubFunctionName(), inputSubFunction.getSubFunctionType(),
-                        subFunctionsParametersList.size());
+                chooseFunction.addChoice(subFunction.getSubFunctionType(), subFunction.getSubFunctionName());
 
                 for (RunnerParameter parameter : subFunctionsParametersList) {
-
                     // Record where the parameter is involved
-                    List<String> listSubFunctionForThisParameter = mapParameterSubType.getOrDefault(parameter.getName(), new ArrayList<>());
-                    listSubFunctionForThisParameter.add(inputSubFunction.getSubFunctionType());
-                    mapParameterSubType.put(parameter.getName(), listSubFunctionForThisParameter);
-
-                    // one parameter may be used by multiple functions, and we want to create only one, but play on condition to show it
-                    Optional<RunnerParameter> parameterInList = runnerParametersCollectList.stream()
-                            .filter(t -> t.getName().equals(parameter.getName()))
-                            .findFirst();
-                    if (parameterInList.isEmpty()) {
-                        // We search where to add this parameter. It is at the end of the group with the same priority
-                        int positionToAdd = 0;
-                        for (RunnerParameter indexParameter : runnerParametersCollectList) {
-                            if (indexParameter.getAttributeInteger("priority", 0) <= parameter.getAttributeInteger("priority", 0))
-                                positionToAdd++;
-                        }
-                        runnerParametersCollectList.add(positionToAdd, parameter);
-                        logger.info("  check parameter[{}.{}] : New Add at [{}] newSize[{}] - registered in[{}]",
-                                inputSubFunction.getSubFunctionName(), parameter.getName(), positionToAdd,
-                                runnerParametersCollectList.size(), parameter.getAttribute("ret"));
-                        // Already exist
-                    } else {
-                        // Register this function in that parameter
-                        logger.info("  check parameter[{}.{}] : Already exist - registered in[{}]",
-                                inputSubFunction.getSubFunctionName(), parameter.getName(), inputSubFunction.getSubFunctionType());
-                    }
+                    mapParameterSubType.computeIfAbsent(parameter.getName(), k -> new ArrayList<>())
+                            .add(subFunction.getSubFunctionType());
+                    mapParameters.putIfAbsent(parameter.getName(), parameter);
                 }
-
             } catch (Exception e) {
-                logger.error("Exception during the getInputParameters functions {}", e.toString());
+                logger.error("Exception during the getParameters on function {} : {}", subFunction.getSubFunctionName(),
+                        e.toString());
             }
         }
 
+        List<RunnerParameter> runnerParametersCollectList = new ArrayList<>(mapParameters.size() + 1);
+        // add the input only at the INPUT parameters
+        if (inputParameters) {
+            runnerParametersCollectList.add(chooseFunction);
+        }
+        runnerParametersCollectList.addAll(mapParameters.values());
+        // a parameter is placed at the end of the group with the same priority: the sort is stable, so the declaration
+        // order is kept inside a group
+        runnerParametersCollectList.sort(Comparator.comparingInt(t -> t.getAttributeInteger("priority", 0)));
+
         // Now, build the list from all parameters collected
         // We add a condition for each parameter
         for (RunnerParameter parameter : runnerParametersCollectList) {
@@ -113,20 +96,25 @@ public class ParameterToolbox {
 
             List<String> listFunctionForThisParameter = mapParameterSubType.get(parameter.getName());
 
-            if (listFunctionForThisParameter == null || listFunctionForThisParameter.isEmpty()
-                    || listFunctionForThisParameter.size() == FileStorageFunction.allFunctions.size()) {
-                logger.info("parameter [{}] Register in NO or ALL functions", parameter.getName());
-            } else {
-                logger.info("parameter [{}] Register in some functions [{}]", parameter.getName(),
-                        listFunctionForThisParameter);
+            // Register in NO or ALL functions: no condition
+            if (listFunctionForThisParameter != null && !listFunctionForThisParameter.isEmpty()
+                    && listFunctionForThisParameter.size() != listSubFunctions.size()) {
                 parameter.addCondition(chooseFunction.getName(), listFunctionForThisParameter);
             }
         }
-        // first, the function selection
-        logger.info(" FileStorageParameter => Map Size={}", runnerParametersCollectList.size());
+        logger.debug("FileStorageParameter input? {} => Map Size={}", inputParameters, runnerParametersCollectList.size());
 
-        return runnerParametersCollectList.stream().map(t -> t.toMap(FileStorageInput.INPUT_FILESTORAGEFUNCTION)).toList();
+        return runnerParametersCollectList.stream()
+                .map(t -> Collections.unmodifiableMap(t.toMap(FileStorageInput.INPUT_FILESTORAGEFUNCTION)))
+                .toList();
+    }
+
+    private static class InputParametersHolder {
+        private static final List<Map<String, Object>> INPUT_PARAMETERS = buildParameters(true);
+    }
 
+    private static class OutputParametersHolder {
+        private static final List<Map<String, Object>> OUTPUT_PARAMETERS = buildParameters(false);
     }
 
 }
@@ -0,0 +1,190 @@
+/* ******************************************************************** */
+/*                                                                      */
+/*  RangedTransfer                                                      */
+/*                                                                      */
+/*  Copy a large content to a local file as byte ranges fetched at the */
+/*  same time. One stream on a high-latency link can't fill it; several*/
+/*  ranges in flight can. Each range is written at its position in the */
+/*  file (positional write): the ranges may complete in any order.     */
+/* ******************************************************************** */
+package io.camunda.connector.filestorage.toolbox;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class RangedTransfer {
+
+    /**
+     * Size of one range, in MB, when the job does not give one
+     */
+    public static final String PROPERTY_RANGE_SIZE_MB = "filestorage.range.sizeMb";
+    public static final int DEFAULT_RANGE_SIZE_MB = 8;
+    /**
+     * Maximum number of ranges fetched at the same time
+     */
+    public static final int MAXIMUM_RANGE_COUNT = 64;
+
+    /**
+     * This is a toolbox, only static method
+     */
+    private RangedTransfer() {
+    }
+
+    /**
+     * @param rangeSizeMb range size given by the job, may be null
+     * @return the range size in bytes
+     */
+    public static long getRangeSize(Integer rangeSizeMb) {
+        int sizeMb = rangeSizeMb != null && rangeSizeMb > 0 ? rangeSizeMb :
+                Integer.getInteger(PROPERTY_RANGE_SIZE_MB, DEFAULT_RANGE_SIZE_MB);
+        return 1024L * 1024 * sizeMb;
+    }
+
+    /**
+     * Copy the source to the target, rangeCount ranges at a time
+     *
+     * @param source     content to copy. Not closed
+     * @param target     file to write. Its position is not used
+     * @param rangeCount number of ranges fetched at the same time
+     * @param rangeSize  size of one range, in bytes
+     * @return the transfer done
+     * @throws IOException if a range fails: the target is partially written
+     */
+    public static TransferToolbox.TransferResult copy(RangeSource source, FileChannel target, int rangeCount,
+                                                      long rangeSize) throws IOException {
+        long size = source.size();
+        long effectiveRangeSize = Math.max(1, rangeSize);
+        int nbWorkers = (int) Math.max(1, Math.min(Math.min(rangeCount, MAXIMUM_RANGE_COUNT),
+                (size + effectiveRangeSize - 1) / effectiveRangeSize));
+        // the file has its final size first: transferFrom writes nothing after the end of the file
+        target.truncate(size);
+        if (size > 0 && target.size() < size)
+            target.write(ByteBuffer.allocate(1), size - 1);
+        AtomicLong nextOffset = new AtomicLong();
+        AtomicBoolean failed = new AtomicBoolean();
+        ExecutorService executorService = ExecutorToolbox.newExecutor(nbWorkers, "filestorage-range");
+        List<Future<Long>> workers = new ArrayList<>(nbWorkers);
+        try {
+            // each worker takes the next range: a slow range does not hold the others
+            for (int i = 0; i < nbWorkers; i++) {
+                workers.add(executorService.submit(() -> {
+                    long transferred = 0;
+                    while (!failed.get()) {
+                        long offset = nextOffset.getAndAdd(effectiveRangeSize);
+                        if (offset >= size)
+                            break;
+                        long length = Math.min(effectiveRangeSize, size - offset);
+                        try {
+                            transferred += copyRange(source, target, offset, length);
+                        } catch (IOException | RuntimeException e) {
+                            failed.set(true);
+                            throw e;
+                        }
+                    }
+                    return transferred;
+                }));
+            }
+            long transferred = 0;
+            IOException failure = null;
+            for (Future<Long> worker : workers) {
+                try {
+                    transferred += worker.get();
+                } catch (ExecutionException e) {
+                    if (failure == null)
+                        failure = e.getCause() instanceof IOException ioException ? ioException :
+                                new IOException("Range transfer failed", e.getCause());
+                } catch (InterruptedException e) {
+                    failed.set(true);
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted during the range transfer", e);
+                }
+            }
+            if (failure != null)
+                throw failure;
+            return new TransferToolbox.TransferResult(TransferToolbox.TransferMode.PARALLEL_RANGES, transferred);
+        } finally {
+            ExecutorToolbox.shutdown(executorService);
+        }
+    }
+
+    private static long copyRange(RangeSource source, FileChannel target, long offset, long length) throws IOException {
+        try (ReadableByteChannel rangeChannel = source.open(offset, length)) {
+            long transferred = 0;
+            // transferFrom writes at the given position, and does not move the position of the target
+            while (transferred < length) {
+                long count = target.transferFrom(rangeChannel, offset + transferred, length - transferred);
+                if (count <= 0)
+                    break;
+                transferred += count;
+            }
+            if (transferred != length)
+                throw new IOException("Range at offset " + offset + ": " + transferred + " bytes received, " + length
+                        + " expected");
+            return transferred;
+        }
+    }
+
+    /**
+     * A content which can be read by ranges
+     */
+    public interface RangeSource extends AutoCloseable {
+        /**
+         * @return the name of the content, null if the storage does not give it
+         */
+        String name();
+
+        /**
+         * @return the size of the content
+         * @throws IOException if the size is not known
+         */
+        long size() throws IOException;
+
+        /**
+         * Called by several threads at the same time
+         *
+         * @param offset first byte of the range
+         * @param length number of bytes
+         * @return the bytes of the range, closed by the caller
+         * @throws IOException if the range can't be read
+         */
+        ReadableByteChannel open(long offset, long length) throws IOException;
+
+        @Override
+        default void close() throws IOException {
+        }
+    }
+
+    /**
+     * A local file (FOLDER, TEMPFOLDER storage): each range has its own channel, read by the kernel
+     */
+    public record LocalFileSource(Path file) implements RangeSource {
+        @Override
+        public String name() {
+            return file.getFileName().toString();
+        }
+
+        @Override
+        public long size() throws IOException {
+            return Files.size(file);
+        }
+
+        @Override
+        public ReadableByteChannel open(long offset, long length) throws IOException {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+            channel.position(offset);
+            return channel;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/* ******************************************************************** */
+/*                                                                      */
+/*  ReferenceSummary                                                    */
+/*                                                                      */
+/*  Bounded description of a file reference, for traces and error      */
+/*  messages: storage type, name, length and a short hash of the       */
+/*  content. A reference on a JSON storage carries the whole file in   */
+/*  base64: it is never serialized into a log line, and the hash reads */
+/*  a sample of blocks spread over the whole content.                  */
+/* ******************************************************************** */
+package io.camunda.connector.filestorage.toolbox;
+
+import io.camunda.connector.filestorage.copy.LocalFileCopy;
+import io.camunda.filestorage.FileVariableReference;
+import io.camunda.filestorage.storage.StorageDefinition;
+
+import java.util.Map;
+
+public class ReferenceSummary {
+
+    /**
+     * Maximum number of characters of the name in the summary
+     */
+    public static final int MAXIMUM_NAME_LENGTH = 64;
+    /**
+     * Bound of a summary: storage type, name, length and hash
+     */
+    public static final int MAXIMUM_SUMMARY_LENGTH = 160;
+    /**
+     * The name of an embedded file is searched in the first characters of the content only
+     */
+    private static final int NAME_SCAN_LIMIT = 4096;
+    private static final String NAME_KEY = "\"name\"";
+    /**
+     * The hash of a long content reads this number of blocks, spread from its beginning to its end, and its length
+     */
+    private static final int HASH_SAMPLE_BLOCKS = 64;
+    private static final int HASH_BLOCK_LENGTH = 64;
+
+    /**
+     * This is a toolbox, only static method
+     */
+    private ReferenceSummary() {
+    }
+
+    /**
+     * @param reference a FileVariableReference, or the value given by the process (JSON, map)
+     * @return a summary, bounded whatever the size of the content
+     */
+    public static String summarize(Object reference) {
+        if (reference == null)
+            return "null";
+        if (reference instanceof FileVariableReference fileVariableReference)
+            return summarize(getStorageType(fileVariableReference), fileVariableReference.content);
+        return summarize(null, reference);
+    }
+
+    private static String summarize(String storageType, Object content) {
+        StringBuilder summary = new StringBuilder(MAXIMUM_NAME_LENGTH + 48);
+        if (storageType != null)
+            summary.append(storageType).append(':');
+        if (content instanceof CharSequence text) {
+            appendBounded(summary, text.length() <= MAXIMUM_NAME_LENGTH ? text : getEmbeddedName(text));
+            summary.append("(length=").append(text.length());
+        } else if (content instanceof Map<?, ?> map) {
+            Object name = map.get("name");
+            appendBounded(summary, name instanceof CharSequence nameText ? nameText : "Map");
+            summary.append("(keys=").append(map.size());
+        } else {
+            summary.append("?(type=").append(content == null ? "null" : content.getClass().getSimpleName());
+        }
+        summary.append(",hash=").append(Integer.toHexString(getHash(content))).append(')');
+        return summary.toString();
+    }
+
+    /**
+     * @param content content of the reference
+     * @return a hash computed on a bounded part of the content: the summary of a large reference is as fast as the one
+     * of a small reference
+     */
+    private static int getHash(Object content) {
+        if (content instanceof CharSequence text)
+            return getBoundedHash(text);
+        if (content instanceof Map<?, ?> map) {
+            Object name = map.get("name");
+            return 31 * map.keySet().hashCode() + (name instanceof CharSequence nameText ? getBoundedHash(nameText) : 0);
+        }
+        return content == null ? 0 : content.hashCode();
+    }
+
+    /**
+     * @param text content
+     * @return a hash of the whole content when it is short, else of a sample: blocks at a regular stride, the first one
+     * at the beginning, the last one at the end. Two contents differing between the blocks have the same hash.
+     */
+    private static int getBoundedHash(CharSequence text) {
+        int length = text.length();
+        int hash = 0;
+        if (length <= HASH_SAMPLE_BLOCKS * HASH_BLOCK_LENGTH) {
+            for (int i = 0; i < length; i++)
+                hash = 31 * hash + text.charAt(i);
+            return 31 * hash + length;
+        }
+        long stride = (long) (length - HASH_BLOCK_LENGTH) / (HASH_SAMPLE_BLOCKS - 1);
+        for (int block = 0; block < HASH_SAMPLE_BLOCKS; block++) {
+            int blockStart = block == HASH_SAMPLE_BLOCKS - 1 ? length - HASH_BLOCK_LENGTH : (int) (block * stride);
+            for (int i = blockStart; i < blockStart + HASH_BLOCK_LENGTH; i++)
+                hash = 31 * hash + text.charAt(i);
+        }
+        return 31 * hash + length;
+    }
+
+    /**
+     * @param text a long content
+     * @return the name given in the JSON content, or the beginning of the content
+     */
+    private static CharSequence getEmbeddedName(CharSequence text) {
+        int limit = Math.min(text.length(), NAME_SCAN_LIMIT);
+        for (int i = 0; i + NAME_KEY.length() <= limit; i++) {
+            if (!regionMatches(text, i, NAME_KEY))
+                continue;
+            int position = i + NAME_KEY.length();
+            while (position < limit && (text.charAt(position) == ' ' || text.charAt(position) == ':'))
+                position++;
+            if (position >= limit || text.charAt(position) != '"')
+                break;
+            int end = position + 1;
+            while (end < limit && text.charAt(end) != '"')
+                end++;
+            // one more character: a truncated name is marked
+            return text.subSequence(position + 1, Math.min(end, position + 2 + MAXIMUM_NAME_LENGTH));
+        }
+        return text.subSequence(0, MAXIMUM_NAME_LENGTH + 1);
+    }
+
+    private static boolean regionMatches(CharSequence text, int offset, String key) {
+        for (int i = 0; i < key.length(); i++) {
+            if (text.charAt(offset + i) != key.charAt(i))
+                return false;
+        }
+        return true;
+    }
+
+    private static void appendBounded(StringBuilder summary, CharSequence value) {
+        if (value.length() <= MAXIMUM_NAME_LENGTH) {
+            summary.append(value);
+            return;
+        }
+        summary.append(value, 0, MAXIMUM_NAME_LENGTH).append("...");
+    }
+
+    private static String getStorageType(FileVariableReference fileVariableReference) {
+        try {
+            StorageDefinition storageDefinition = LocalFileCopy.getStorageDefinition(fileVariableReference);
+            return storageDefinition == null || storageDefinition.type == null ? null : storageDefinition.type.toString();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
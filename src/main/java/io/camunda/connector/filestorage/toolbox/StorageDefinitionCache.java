@@ -0,0 +1,116 @@
+/* ******************************************************************** */
+/*                                                                      */
+/*  StorageDefinitionCache                                              */
+/*                                                                      */
+/*  Processes reuse a few storage definitions: keep the parsed version */
+/*  in a bounded LRU cache, so the parsing is not done on every job.    */
+/* ******************************************************************** */
+package io.camunda.connector.filestorage.toolbox;
+
+import io.camunda.filestorage.storage.StorageDefinition;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class StorageDefinitionCache {
+
+    /**
+     * Maximum number of storage definitions kept. May be overridden by the system property
+     */
+    public static final String PROPERTY_MAXIMUM_SIZE = "filestorage.storageDefinitionCache.maximumSize";
+    public static final int DEFAULT_MAXIMUM_SIZE = 256;
+
+    private static final StorageDefinitionCache INSTANCE = new StorageDefinitionCache(
+            Integer.getInteger(PROPERTY_MAXIMUM_SIZE, DEFAULT_MAXIMUM_SIZE));
+
+    private final int maximumSize;
+    private final Map<CacheKey, StorageDefinition> cache;
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    public StorageDefinitionCache(int maximumSize) {
+        this.maximumSize = Math.max(1, maximumSize);
+        // access-order: the eldest entry is the least recently used
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CacheKey, StorageDefinition> eldest) {
+                return size() > StorageDefinitionCache.this.maximumSize;
+            }
+        };
+    }
+
+    public static StorageDefinitionCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Return the storage definition. The cache keeps the parsed definition, and each caller gets its own copy: a job
+     * can change it without impacting the other jobs.
+     *
+     * @param definition       storage definition (JSON or simple form)
+     * @param folderComplement FOLDER complement, may be null
+     * @param cmisComplement   CMIS complement, may be null
+     * @return the storage definition, with the complements
+     * @throws Exception if the definition can't be parsed. Nothing is kept in the cache in this case.
+     */
+    public StorageDefinition get(String definition, String folderComplement, String cmisComplement) throws Exception {
+        CacheKey key = new CacheKey(definition, folderComplement, cmisComplement);
+        synchronized (cache) {
+            StorageDefinition storageDefinition = cache.get(key);
+            if (storageDefinition != null) {
+                hitCount.incrementAndGet();
+                return copy(storageDefinition);
+            }
+        }
+        missCount.incrementAndGet();
+        // parse outside the lock: two threads may parse the same definition, the last one wins
+        StorageDefinition storageDefinition = parse(key);
+        synchronized (cache) {
+            cache.put(key, storageDefinition);
+        }
+        return copy(storageDefinition);
+    }
+
+    private StorageDefinition copy(StorageDefinition storageDefinition) {
+        StorageDefinition copy = new StorageDefinition();
+        copy.type = storageDefinition.type;
+        copy.complement = storageDefinition.complement;
+        copy.complementInObject = storageDefinition.complementInObject;
+        return copy;
+    }
+
+    private StorageDefinition parse(CacheKey key) throws Exception {
+        StorageDefinition storageDefinition = StorageDefinition.getFromString(key.definition());
+
+        storageDefinition.complement = key.folderComplement();
+        if (storageDefinition.complement != null && storageDefinition.complement.isEmpty())
+            storageDefinition.complement = null;
+
+        storageDefinition.complementInObject = key.cmisComplement();
+        return storageDefinition;
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    public void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    private record CacheKey(String definition, String folderComplement, String cmisComplement) {
+    }
+}
@@ -0,0 +1,126 @@
+/* ******************************************************************** */
+/*                                                                      */
+/*  StorageTier                                                         */
+/*                                                                      */
+/*  JSON storage keeps the content in the process variable: convenient */
+/*  for small files, expensive for the engine with large ones. A tier  */
+/*  keeps the content inline under a threshold, and spills a larger    */
+/*  content to a file storage (FOLDER, TEMPFOLDER, CAMUNDA...).         */
+/*  The reference carries its storage: Download and Copy read both     */
+/*  kinds of reference without knowing the tier.                        */
+/* ******************************************************************** */
+package io.camunda.connector.filestorage.toolbox;
+
+import io.camunda.filestorage.storage.StorageDefinition;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+
+public class StorageTier {
+
+    /**
+     * Storage used to spill the large contents when the job does not give one. May be overridden by the system property
+     */
+    public static final String PROPERTY_SPILL_STORAGE_DEFINITION = "filestorage.spill.storageDefinition";
+    /**
+     * Folder of a FOLDER spill storage, when the job does not give one
+     */
+    public static final String PROPERTY_SPILL_FOLDER = "filestorage.spill.folder";
+    /**
+     * Contents larger than this size (in KB) are spilled, when the job does not give a threshold
+     */
+    public static final String PROPERTY_SPILL_THRESHOLD_KB = "filestorage.spill.thresholdKb";
+    public static final int DEFAULT_SPILL_THRESHOLD_KB = 256;
+
+    private final StorageDefinition inlineStorageDefinition;
+    private final StorageDefinition spillStorageDefinition;
+    private final long thresholdBytes;
+
+    public StorageTier(StorageDefinition inlineStorageDefinition,
+                       StorageDefinition spillStorageDefinition,
+                       long thresholdBytes) {
+        this.inlineStorageDefinition = inlineStorageDefinition;
+        this.spillStorageDefinition = spillStorageDefinition;
+        this.thresholdBytes = Math.max(0, thresholdBytes);
+    }
+
+    /**
+     * @param storageDefinition storage asked by the job
+     * @return true if the storage keeps the content in the process variable
+     */
+    public static boolean isInline(StorageDefinition storageDefinition) {
+        return storageDefinition != null && storageDefinition.type == StorageDefinition.StorageDefinitionType.JSON;
+    }
+
+    /**
+     * @param thresholdKb threshold given by the job, may be null
+     * @return the threshold in KB
+     */
+    public static int getThresholdKb(Integer thresholdKb) {
+        return thresholdKb != null ? thresholdKb : Integer.getInteger(PROPERTY_SPILL_THRESHOLD_KB, DEFAULT_SPILL_THRESHOLD_KB);
+    }
+
+    /**
+     * @param spillStorageDefinition spill storage given by the job, may be null
+     * @return the spill storage, given by the job or by the system property. Null if no spill storage is configured
+     */
+    public static String getSpillStorageDefinition(String spillStorageDefinition) {
+        return getValueOrProperty(spillStorageDefinition, PROPERTY_SPILL_STORAGE_DEFINITION);
+    }
+
+    /**
+     * @param spillFolder folder given by the job, may be null
+     * @return the folder of a FOLDER spill storage, given by the job or by the system property. May be null
+     */
+    public static String getSpillFolder(String spillFolder) {
+        return getValueOrProperty(spillFolder, PROPERTY_SPILL_FOLDER);
+    }
+
+    private static String getValueOrProperty(String value, String property) {
+        String result = value == null || value.trim().isEmpty() ? System.getProperty(property) : value;
+        return result == null || result.trim().isEmpty() ? null : result.trim();
+    }
+
+    /**
+     * Select the storage for a content whose size is known
+     *
+     * @param size size of the content
+     * @return the storage to save this content
+     */
+    public StorageDefinition select(long size) {
+        return size > thresholdBytes ? spillStorageDefinition : inlineStorageDefinition;
+    }
+
+    /**
+     * Select the storage for a stream. At most threshold + 1 bytes are read in memory to decide: the returned stream
+     * gives the complete content.
+     *
+     * @param content content to save, not closed
+     * @return the storage and the content to save
+     * @throws IOException in case of error when the content is read
+     */
+    public Selection select(InputStream content) throws IOException {
+        byte[] head = content.readNBytes((int) Math.min(Integer.MAX_VALUE - 8, thresholdBytes + 1));
+        if (head.length <= thresholdBytes)
+            return new Selection(inlineStorageDefinition, new ByteArrayInputStream(head), false);
+        return new Selection(spillStorageDefinition, new SequenceInputStream(new ByteArrayInputStream(head), content), true);
+    }
+
+    public StorageDefinition getSpillStorageDefinition() {
+        return spillStorageDefinition;
+    }
+
+    public long getThresholdBytes() {
+        return thresholdBytes;
+    }
+
+    /**
+     * @param storageDefinition storage selected
+     * @param content           content to save
+     * @param spilled           true if the content goes to the spill storage
+     */
+    public record Selection(StorageDefinition storageDefinition, InputStream content, boolean spilled) {
+    }
+}
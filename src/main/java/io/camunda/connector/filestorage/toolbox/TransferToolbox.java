@@ -0,0 +1,127 @@
+/* ******************************************************************** */
+/*                                                                      */
+/*  TransferToolbox                                                     */
+/*                                                                      */
+/*  Copy a stored content to a local file. When the content is a local */
+/*  file (FOLDER, TEMPFOLDER storage), the copy is done by the kernel   */
+/*  (FileChannel.transferTo), without user-space copy. Else, the stream */
+/*  is read in large heap buffers, kept in a pool.                      */
+/* ******************************************************************** */
+package io.camunda.connector.filestorage.toolbox;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+public class TransferToolbox {
+
+    /**
+     * Size of one buffer, and maximum number of buffers kept in the pool. May be overridden by the system properties
+     */
+    public static final String PROPERTY_BUFFER_SIZE = "filestorage.transfer.bufferSize";
+    public static final String PROPERTY_MAXIMUM_POOLED_BUFFERS = "filestorage.transfer.maximumPooledBuffers";
+    public static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+    public static final int DEFAULT_MAXIMUM_POOLED_BUFFERS = 16;
+
+    private static final int BUFFER_SIZE = Math.max(8192, Integer.getInteger(PROPERTY_BUFFER_SIZE, DEFAULT_BUFFER_SIZE));
+    private static final BlockingQueue<ByteBuffer> bufferPool = new ArrayBlockingQueue<>(
+            Math.max(1, Integer.getInteger(PROPERTY_MAXIMUM_POOLED_BUFFERS, DEFAULT_MAXIMUM_POOLED_BUFFERS)));
+
+    /**
+     * This is a toolbox, only static method
+     */
+    private TransferToolbox() {
+    }
+
+    /**
+     * Copy the content to the target. The source is not closed.
+     *
+     * @param source content to copy
+     * @param target channel to write, at its current position
+     * @return the transfer done
+     * @throws IOException in case of error
+     */
+    public static TransferResult copy(InputStream source, FileChannel target) throws IOException {
+        return new TransferResult(TransferMode.BUFFERED_COPY, bufferedCopy(source, target));
+    }
+
+    /**
+     * Copy a local file to the target, by the kernel. The local file is given by the reference of the content, not by
+     * the stream of the storage.
+     *
+     * @param sourceFile file to copy
+     * @param target     channel to write, at its current position
+     * @return the transfer done
+     * @throws IOException in case of error
+     */
+    public static TransferResult copy(Path sourceFile, FileChannel target) throws IOException {
+        try (FileChannel source = FileChannel.open(sourceFile, StandardOpenOption.READ)) {
+            return new TransferResult(TransferMode.CHANNEL_TRANSFER, transfer(source, target));
+        }
+    }
+
+    /**
+     * Kernel copy: sendfile / copy_file_range on Linux. The source is read from its current position.
+     */
+    private static long transfer(FileChannel source, FileChannel target) throws IOException {
+        long position = source.position();
+        long size = source.size();
+        long transferred = 0;
+        // transferTo may copy less than requested (2 GB maximum per call on some systems)
+        while (position + transferred < size) {
+            long count = source.transferTo(position + transferred, size - position - transferred, target);
+            if (count <= 0)
+                break;
+            transferred += count;
+        }
+        source.position(position + transferred);
+        return transferred;
+    }
+
+    /**
+     * The stream is read directly in the array of the buffer: a channel on the stream (Channels.newChannel) would
+     * copy it through its own 8 KB array.
+     */
+    private static long bufferedCopy(InputStream source, FileChannel target) throws IOException {
+        ByteBuffer buffer = acquireBuffer();
+        try {
+            byte[] array = buffer.array();
+            long transferred = 0;
+            int count;
+            while ((count = source.read(array, 0, array.length)) != -1) {
+                buffer.position(0).limit(count);
+                while (buffer.hasRemaining()) {
+                    transferred += target.write(buffer);
+                }
+            }
+            return transferred;
+        } finally {
+            releaseBuffer(buffer);
+        }
+    }
+
+    private static ByteBuffer acquireBuffer() {
+        ByteBuffer buffer = bufferPool.poll();
+        return buffer == null ? ByteBuffer.wrap(new byte[BUFFER_SIZE]) : buffer;
+    }
+
+    private static void releaseBuffer(ByteBuffer buffer) {
+        buffer.clear();
+        // pool full: the buffer is released by the GC
+        bufferPool.offer(buffer);
+    }
+
+    public enum TransferMode {CHANNEL_TRANSFER, BUFFERED_COPY, PARALLEL_RANGES}
+
+    /**
+     * @param mode how the content is copied
+     * @param size number of bytes copied
+     */
+    public record TransferResult(TransferMode mode, long size) {
+    }
+}
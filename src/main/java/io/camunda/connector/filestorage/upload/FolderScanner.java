@@ -0,0 +1,306 @@
+/* ******************************************************************** */
+/*                                                                      */
+/*  FolderScanner                                                       */
+/*                                                                      */
+/* Search the files to upload in a folder. The folder is streamed, and  */
+/* the scan stops when the maximum number of files is reached: a folder */
+/* with a large number of files is never loaded in memory.              */
+/* In recursive mode, sub-folders are walked in parallel (fork-join)    */
+/* and each file is given to a consumer as soon as it is found. The     */
+/* consumer may block: the pool then adds a thread (managed blocker).   */
+/* ******************************************************************** */
+package io.camunda.connector.filestorage.upload;
+
+import io.camunda.connector.filestorage.toolbox.FileNameMatcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class FolderScanner {
+
+    /**
+     * Pool used to walk trees. Shared by all jobs: the walk is IO bound, the pool is small. A consumer blocked on a
+     * full queue is a managed blocker, so one slow job does not hold the threads needed by the walks of the others.
+     */
+    private static final ForkJoinPool WALK_POOL = new ForkJoinPool(Math.min(8,
+            Math.max(2, Runtime.getRuntime().availableProcessors())));
+
+    private final Logger logger = LoggerFactory.getLogger(FolderScanner.class.getName());
+
+    private final String fileName;
+    private final FileNameMatcher fileNameMatcher;
+    private final FileNameMatcher excludeMatcher;
+    private final int maximumFiles;
+    private final int maximumDepth;
+    private final AtomicInteger nbEntriesScanned = new AtomicInteger();
+    private final AtomicInteger nbFilesAccepted = new AtomicInteger();
+    private final AtomicInteger nbFilesAlreadyProcessed = new AtomicInteger();
+    private final AtomicBoolean stopWalk = new AtomicBoolean();
+    private ProcessedFileIndex processedFileIndex;
+
+    /**
+     * @param fileName     if not null, only this file is searched
+     * @param filterFile   filter on the file name, see FileNameMatcher
+     * @param maximumFiles maximum number of files returned. 0 or less means no limit
+     */
+    public FolderScanner(String fileName, String filterFile, int maximumFiles) {
+        this(fileName, filterFile, null, maximumFiles, 0);
+    }
+
+    /**
+     * @param fileName      if not null, only this file is searched
+     * @param filterFile    filter on the file name, see FileNameMatcher
+     * @param excludeFilter files and folders matching this filter are ignored. May be null
+     * @param maximumFiles  maximum number of files returned. 0 or less means no limit
+     * @param maximumDepth  recursive walk: number of sub-folder levels explored. 0 or less means no limit
+     */
+    public FolderScanner(String fileName, String filterFile, String excludeFilter, int maximumFiles, int maximumDepth) {
+        this.fileName = fileName;
+        this.fileNameMatcher = FileNameMatcher.getInstance(filterFile);
+        this.excludeMatcher = excludeFilter == null || excludeFilter.isEmpty() ? null : FileNameMatcher.getInstance(excludeFilter);
+        this.maximumFiles = maximumFiles;
+        this.maximumDepth = maximumDepth;
+    }
+
+    /**
+     * Files registered in this index are ignored
+     *
+     * @param processedFileIndex index, may be null
+     * @return this scanner
+     */
+    public FolderScanner setProcessedFileIndex(ProcessedFileIndex processedFileIndex) {
+        this.processedFileIndex = processedFileIndex;
+        return this;
+    }
+
+    /**
+     * Return the files to process
+     *
+     * @param folder folder to scan
+     * @return list of files, no more than maximumFiles
+     * @throws IOException if the folder can't be read
+     */
+    public List<File> scan(Path folder) throws IOException {
+        List<File> listFiles = new ArrayList<>();
+        if (fileName != null) {
+            // no need to scan the folder: check the file directly
+            Path file = folder.resolve(fileName).normalize();
+            nbEntriesScanned.set(1);
+            if (folder.normalize().equals(file.getParent()) && Files.isRegularFile(file) && !isAlreadyProcessed(file))
+                listFiles.add(file.toFile());
+            return listFiles;
+        }
+
+        try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(folder)) {
+            for (Path entry : directoryStream) {
+                nbEntriesScanned.incrementAndGet();
+                if (isExcluded(entry) || !fileNameMatcher.matches(entry) || !Files.isRegularFile(entry)
+                        || isAlreadyProcessed(entry))
+                    continue;
+                listFiles.add(entry.toFile());
+                if (maximumFiles > 0 && listFiles.size() >= maximumFiles)
+                    break;
+            }
+        }
+        nbFilesAccepted.set(listFiles.size());
+        return listFiles;
+    }
+
+    /**
+     * Walk the folder and its sub-folders in parallel. Each file is given to the consumer as soon as it is found, so
+     * the consumer must be thread safe. The method returns when the walk is finished, or stopped.
+     *
+     * @param folder   root folder
+     * @param consumer receive files
+     */
+    public void walk(Path folder, FileConsumer consumer) {
+        WALK_POOL.invoke(new FolderWalkTask(folder, 0, consumer));
+    }
+
+    /**
+     * @return number of entries read during the last scan or walk
+     */
+    public int getNbEntriesScanned() {
+        return nbEntriesScanned.get();
+    }
+
+    /**
+     * @return number of files given during the last scan or walk
+     */
+    public int getNbFilesAccepted() {
+        return nbFilesAccepted.get();
+    }
+
+    /**
+     * @return number of files ignored because they are in the processed index
+     */
+    public int getNbFilesAlreadyProcessed() {
+        return nbFilesAlreadyProcessed.get();
+    }
+
+    /**
+     * @param file file to check
+     * @return true if the file is in the processed index, or if it was removed since the folder was listed: in both
+     * cases, the file is skipped
+     * @throws IOException the file can't be read
+     */
+    private boolean isAlreadyProcessed(Path file) throws IOException {
+        if (processedFileIndex == null)
+            return false;
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return true;
+        }
+        if (processedFileIndex.isProcessed(file, attributes)) {
+            nbFilesAlreadyProcessed.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    private boolean isExcluded(Path entry) {
+        return excludeMatcher != null && excludeMatcher.matches(entry);
+    }
+
+    private boolean isFileAccepted(Path entry) {
+        if (fileName != null)
+            return fileName.equals(entry.getFileName().toString());
+        return fileNameMatcher.matches(entry);
+    }
+
+    /**
+     * Reserve a place for a file
+     *
+     * @return false if the maximum is reached
+     */
+    private boolean reserveFile() {
+        int nbFiles = nbFilesAccepted.incrementAndGet();
+        if (maximumFiles > 0 && nbFiles > maximumFiles) {
+            nbFilesAccepted.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Receive the files found during a walk
+     */
+    public interface FileConsumer {
+        /**
+         * @param file file found
+         * @return false to stop the walk
+         * @throws InterruptedException the walk is stopped
+         */
+        boolean accept(File file) throws InterruptedException;
+    }
+
+    private class FolderWalkTask extends RecursiveAction {
+        private final Path folder;
+        private final int depth;
+        private final FileConsumer consumer;
+
+        FolderWalkTask(Path folder, int depth, FileConsumer consumer) {
+            this.folder = folder;
+            this.depth = depth;
+            this.consumer = consumer;
+        }
+
+        @Override
+        protected void compute() {
+            List<FolderWalkTask> listSubFolders = new ArrayList<>();
+            try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(folder)) {
+                for (Path entry : directoryStream) {
+                    if (stopWalk.get())
+                        return;
+                    nbEntriesScanned.incrementAndGet();
+                    if (isExcluded(entry))
+                        continue;
+                    // Links on folders are not followed, to avoid loops
+                    BasicFileAttributes attributes;
+                    try {
+                        attributes = Files.readAttributes(entry, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                    } catch (NoSuchFileException e) {
+                        // the entry was removed since the folder was listed
+                        continue;
+                    }
+                    if (attributes.isDirectory()) {
+                        if (maximumDepth <= 0 || depth < maximumDepth)
+                            listSubFolders.add(new FolderWalkTask(entry, depth + 1, consumer));
+                        continue;
+                    }
+                    boolean isRegularFile = attributes.isSymbolicLink() ? Files.isRegularFile(entry) : attributes.isRegularFile();
+                    if (!isRegularFile || !isFileAccepted(entry) || isAlreadyProcessed(entry))
+                        continue;
+                    if (!reserveFile() || !deliver(entry.toFile())) {
+                        stopWalk.set(true);
+                        return;
+                    }
+                }
+            } catch (IOException e) {
+                // one folder can't be read: the rest of the tree is still processed
+                logger.error("Can't read folder[{}] : {}", folder, e.toString());
+            } catch (InterruptedException e) {
+                stopWalk.set(true);
+                Thread.currentThread().interrupt();
+                return;
+            }
+            invokeAll(listSubFolders);
+        }
+
+        /**
+         * Give the file to the consumer. The consumer may wait for a place in a queue: the wait is declared to the pool
+         *
+         * @param file file found
+         * @return false to stop the walk
+         * @throws InterruptedException the walk is stopped
+         */
+        private boolean deliver(File file) throws InterruptedException {
+            FileDelivery fileDelivery = new FileDelivery(file, consumer);
+            ForkJoinPool.managedBlock(fileDelivery);
+            return fileDelivery.accepted;
+        }
+    }
+
+    /**
+     * Call to a consumer, seen by the fork-join pool as a blocking operation
+     */
+    private static class FileDelivery implements ForkJoinPool.ManagedBlocker {
+        private final File file;
+        private final FileConsumer consumer;
+        private boolean delivered = false;
+        private boolean accepted = false;
+
+        FileDelivery(File file, FileConsumer consumer) {
+            this.file = file;
+            this.consumer = consumer;
+        }
+
+        @Override
+        public boolean block() throws InterruptedException {
+            accepted = consumer.accept(file);
+            delivered = true;
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return delivered;
+        }
+    }
+}
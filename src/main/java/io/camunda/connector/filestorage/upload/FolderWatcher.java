@@ -0,0 +1,245 @@
+/* ******************************************************************** */
+/*                                                                      */
+/*  FolderWatcher                                                       */
+/*                                                                      */
+/* Watch a folder with the WatchService, and give each new file to a    */
+/* listener. A file is given only when it is stable: its size and last  */
+/* modification did not change during the stability delay, so a file    */
+/* still written by a producer is not uploaded partially.               */
+/* ******************************************************************** */
+package io.camunda.connector.filestorage.upload;
+
+import io.camunda.connector.filestorage.toolbox.FileNameMatcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public class FolderWatcher implements Closeable {
+
+    /**
+     * Minimum time between two checks of the pending files
+     */
+    private static final long MINIMUM_CHECK_INTERVAL_MS = 50;
+    private final Logger logger = LoggerFactory.getLogger(FolderWatcher.class.getName());
+
+    private final Path folder;
+    private final FileNameMatcher fileNameMatcher;
+    private final FileNameMatcher excludeMatcher;
+    private final long stabilityDelayMs;
+    private final StableFileListener listener;
+    /**
+     * Files seen, waiting to be stable. Accessed only by the watch thread
+     */
+    private final Map<Path, PendingFile> pendingFiles = new LinkedHashMap<>();
+    private WatchService watchService;
+    private Thread watchThread;
+    private volatile boolean running = false;
+
+    /**
+     * @param folder           folder to watch
+     * @param filterFile       filter on the file name, see FileNameMatcher
+     * @param excludeFilter    files matching this filter are ignored. May be null
+     * @param stabilityDelayMs a file is given when it did not change during this delay
+     * @param listener         receive stable files
+     */
+    public FolderWatcher(Path folder, String filterFile, String excludeFilter, long stabilityDelayMs,
+                         StableFileListener listener) {
+        this.folder = folder;
+        this.fileNameMatcher = FileNameMatcher.getInstance(filterFile);
+        this.excludeMatcher = excludeFilter == null || excludeFilter.isEmpty() ? null : FileNameMatcher.getInstance(excludeFilter);
+        this.stabilityDelayMs = Math.max(0, stabilityDelayMs);
+        this.listener = listener;
+    }
+
+    /**
+     * Start to watch the folder. The watch runs in a dedicated thread, and the listener is called from this thread.
+     *
+     * @param existingFiles files already present in the folder, to process as new files
+     * @throws IOException the folder can't be watched
+     */
+    public synchronized void start(List<Path> existingFiles) throws IOException {
+        watchService = folder.getFileSystem().newWatchService();
+        folder.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        // registered before the watch thread starts: it is the only one to access the map after that
+        for (Path file : existingFiles) {
+            pendingFiles.put(file, null);
+        }
+        running = true;
+        watchThread = new Thread(this::watch, "filestorage-watch-" + folder.getFileName());
+        watchThread.setDaemon(true);
+        watchThread.start();
+        logger.info("FolderWatcher: watch folder[{}] stabilityDelay {} ms, {} existing files", folder, stabilityDelayMs,
+                existingFiles.size());
+    }
+
+    /**
+     * Stop the watch. Files not stable yet are ignored.
+     */
+    @Override
+    public synchronized void close() {
+        running = false;
+        if (watchService != null) {
+            try {
+                // a thread waiting in take() receives a ClosedWatchServiceException
+                watchService.close();
+            } catch (IOException e) {
+                logger.error("FolderWatcher: error when closing the watch on folder[{}] : {}", folder, e.toString());
+            }
+        }
+        if (watchThread != null && watchThread != Thread.currentThread()) {
+            try {
+                watchThread.join(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        logger.info("FolderWatcher: stop watching folder[{}]", folder);
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void watch() {
+        long checkInterval = Math.max(MINIMUM_CHECK_INTERVAL_MS, stabilityDelayMs / 2);
+        try {
+            while (running) {
+                // nothing pending: wait for the next event. Else, wake up to check the pending files
+                WatchKey watchKey = pendingFiles.isEmpty() ? watchService.take() : watchService.poll(checkInterval,
+                        TimeUnit.MILLISECONDS);
+                if (watchKey != null) {
+                    collectEvents(watchKey);
+                    if (!watchKey.reset()) {
+                        // the folder is deleted, or not accessible anymore
+                        throw new IOException("Folder[" + folder + "] is not accessible anymore");
+                    }
+                }
+                checkPendingFiles();
+            }
+        } catch (ClosedWatchServiceException e) {
+            // close() is called
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.error("FolderWatcher: watch on folder[{}] stopped : {}", folder, e.toString());
+            running = false;
+            listener.onWatchError(e);
+        }
+    }
+
+    private void collectEvents(WatchKey watchKey) throws IOException {
+        for (WatchEvent<?> event : watchKey.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                // some events are lost: the folder is read again
+                logger.info("FolderWatcher: events lost on folder[{}], rescan the folder", folder);
+                rescanFolder();
+                continue;
+            }
+            Path file = folder.resolve((Path) event.context());
+            if (isAccepted(file))
+                pendingFiles.putIfAbsent(file, null);
+        }
+    }
+
+    private void rescanFolder() throws IOException {
+        try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(folder)) {
+            for (Path entry : directoryStream) {
+                if (isAccepted(entry) && Files.isRegularFile(entry))
+                    pendingFiles.putIfAbsent(entry, null);
+            }
+        }
+    }
+
+    /**
+     * Give the files which did not change during the stability delay
+     */
+    private void checkPendingFiles() {
+        long now = System.currentTimeMillis();
+        Iterator<Map.Entry<Path, PendingFile>> iterator = pendingFiles.entrySet().iterator();
+        while (iterator.hasNext() && running) {
+            Map.Entry<Path, PendingFile> entry = iterator.next();
+            BasicFileAttributes attributes;
+            try {
+                attributes = Files.readAttributes(entry.getKey(), BasicFileAttributes.class);
+            } catch (NoSuchFileException e) {
+                // deleted or renamed by the producer
+                iterator.remove();
+                continue;
+            } catch (IOException e) {
+                logger.error("FolderWatcher: can't read file[{}] : {}", entry.getKey(), e.toString());
+                iterator.remove();
+                continue;
+            }
+            if (!attributes.isRegularFile()) {
+                iterator.remove();
+                continue;
+            }
+            PendingFile observed = new PendingFile(attributes.size(), attributes.lastModifiedTime().toMillis(), now);
+            PendingFile previous = entry.getValue();
+            if (previous == null || !previous.isSameContent(observed)) {
+                // first observation, or the file is still written
+                entry.setValue(observed);
+                continue;
+            }
+            if (now - previous.stableSince() < stabilityDelayMs)
+                continue;
+            iterator.remove();
+            try {
+                listener.onStableFile(entry.getKey(), attributes);
+            } catch (RuntimeException e) {
+                // one file in error must not stop the watch
+                logger.error("FolderWatcher: error when processing file[{}] : {}", entry.getKey(), e.toString());
+            }
+        }
+    }
+
+    private boolean isAccepted(Path file) {
+        return fileNameMatcher.matches(file) && (excludeMatcher == null || !excludeMatcher.matches(file));
+    }
+
+    /**
+     * Receive the stable files
+     */
+    public interface StableFileListener {
+        /**
+         * A new file is present and stable
+         *
+         * @param file       the file
+         * @param attributes attributes read during the last check
+         */
+        void onStableFile(Path file, BasicFileAttributes attributes);
+
+        /**
+         * The watch stopped on an error: no more file will be given
+         *
+         * @param e the error
+         */
+        void onWatchError(Exception e);
+    }
+
+    /**
+     * Last observation of a pending file
+     */
+    private record PendingFile(long size, long lastModified, long stableSince) {
+        boolean isSameContent(PendingFile other) {
+            return size == other.size && lastModified == other.lastModified;
+        }
+    }
+}
@@ -0,0 +1,333 @@
+/* ******************************************************************** */
+/*                                                                      */
+/*  ProcessedFileIndex                                                  */
+/*                                                                      */
+/* Remember the files already uploaded, to not upload them again when  */
+/* the policy is UNCHANGE. A file is identified by path + size + last   */
+/* modification: a modified file is uploaded again.                     */
+/* On disk, the index is a snapshot file plus an append-only log        */
+/* (<index>.log). The log is merged in the snapshot when it grows, in   */
+/* the background. Several runtimes may share the index: the files are  */
+/* read and written under a file lock (<index>.lock). A file not known  */
+/* in memory is checked again after reading the end of the log, and a   */
+/* compaction by an other runtime reloads the snapshot. Two runtimes    */
+/* checking the same file at the same time may both process it.         */
+/* The index is loaded once per runtime, then followed in memory.       */
+/* ******************************************************************** */
+package io.camunda.connector.filestorage.upload;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class ProcessedFileIndex {
+
+    /**
+     * Number of entries in the log before a compaction
+     */
+    public static final int LOG_COMPACT_THRESHOLD = 10000;
+    private static final String LOG_SUFFIX = ".log";
+    private static final String LOCK_SUFFIX = ".lock";
+    private static final String SEPARATOR = "\t";
+    private static final Map<Path, ProcessedFileIndex> allIndexes = new ConcurrentHashMap<>();
+    private static final Logger logger = LoggerFactory.getLogger(ProcessedFileIndex.class.getName());
+    /**
+     * Compactions run outside the jobs: the search of the removed files is long on a large index
+     */
+    private static final ExecutorService compactExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ProcessedFileIndex-compact");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Path snapshotFile;
+    private final Path logFile;
+    private final Path lockFile;
+    private final Set<ProcessedEntry> entries = ConcurrentHashMap.newKeySet();
+    private FileChannel lockChannel;
+    private int nbEntriesInLog = 0;
+    /**
+     * Position in the log of the first entry not read yet
+     */
+    private long logPosition = 0;
+    /**
+     * Identify the snapshot read: a new snapshot means an other runtime compacted the index
+     */
+    private String snapshotStamp;
+    private boolean compactScheduled = false;
+
+    private ProcessedFileIndex(Path snapshotFile) {
+        this.snapshotFile = snapshotFile;
+        this.logFile = snapshotFile.resolveSibling(snapshotFile.getFileName() + LOG_SUFFIX);
+        this.lockFile = snapshotFile.resolveSibling(snapshotFile.getFileName() + LOCK_SUFFIX);
+    }
+
+    /**
+     * Return the index saved in this file. The index is loaded the first time.
+     *
+     * @param indexFile file to save the index
+     * @return the index
+     * @throws IOException if the index can't be read
+     */
+    public static ProcessedFileIndex getInstance(Path indexFile) throws IOException {
+        Path key = indexFile.toAbsolutePath().normalize();
+        ProcessedFileIndex index = allIndexes.get(key);
+        if (index != null)
+            return index;
+        synchronized (allIndexes) {
+            index = allIndexes.get(key);
+            if (index == null) {
+                index = new ProcessedFileIndex(key);
+                index.load();
+                allIndexes.put(key, index);
+            }
+            return index;
+        }
+    }
+
+    /**
+     * Check if the file was already processed, with the same size and the same last modification. A file not known
+     * in memory is checked again with the entries written by the other runtimes since the last read.
+     *
+     * @param file       file to check
+     * @param attributes attributes of the file
+     * @return true if the file was processed
+     */
+    public boolean isProcessed(Path file, BasicFileAttributes attributes) {
+        ProcessedEntry entry = ProcessedEntry.of(file, attributes);
+        if (entries.contains(entry))
+            return true;
+        synchronized (this) {
+            try (FileLock ignored = lock()) {
+                refresh();
+            } catch (IOException e) {
+                logger.error("ProcessedFileIndex[{}] can't be read : {}", snapshotFile, e.toString());
+            }
+        }
+        return entries.contains(entry);
+    }
+
+    /**
+     * Register the file as processed
+     *
+     * @param file file processed
+     * @throws IOException the index can't be written
+     */
+    public void markProcessed(Path file) throws IOException {
+        ProcessedEntry entry = ProcessedEntry.of(file, Files.readAttributes(file, BasicFileAttributes.class));
+        if (entries.contains(entry))
+            return;
+        synchronized (this) {
+            try (FileLock ignored = lock()) {
+                refresh();
+                if (entries.contains(entry))
+                    return;
+                // the log is opened at each write: an other runtime may have compacted the index and removed it
+                try (BufferedWriter logWriter = Files.newBufferedWriter(logFile, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                    logWriter.write(entry.toLine());
+                    logWriter.newLine();
+                }
+                // the entry is known in memory once it is on disk: reading the tail of the log adds it
+                readLogTail();
+            }
+            if (nbEntriesInLog >= LOG_COMPACT_THRESHOLD && !compactScheduled) {
+                compactScheduled = true;
+                compactExecutor.submit(this::compactInBackground);
+            }
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Write all entries in the snapshot, and reset the log. The entries written by the other runtimes sharing the
+     * index are merged first. Files which do not exist anymore are removed.
+     *
+     * @throws IOException the index can't be written
+     */
+    public void compact() throws IOException {
+        // the search of the removed files is the long part: it runs without the lock
+        Set<ProcessedEntry> removedEntries = new HashSet<>();
+        for (ProcessedEntry entry : entries) {
+            if (!Files.exists(Path.of(entry.path())))
+                removedEntries.add(entry);
+        }
+        synchronized (this) {
+            try (FileLock ignored = lock()) {
+                refresh();
+                entries.removeAll(removedEntries);
+                Path tempFile = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+                try (BufferedWriter writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+                    for (ProcessedEntry entry : entries) {
+                        writer.write(entry.toLine());
+                        writer.newLine();
+                    }
+                }
+                Files.move(tempFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+                Files.deleteIfExists(logFile);
+                snapshotStamp = getStamp(snapshotFile);
+                logPosition = 0;
+                nbEntriesInLog = 0;
+            }
+        }
+        logger.debug("ProcessedFileIndex[{}] compacted, {} entries, {} removed", snapshotFile, entries.size(),
+                removedEntries.size());
+    }
+
+    private void compactInBackground() {
+        try {
+            compact();
+        } catch (IOException e) {
+            logger.error("ProcessedFileIndex[{}] can't be compacted : {}", snapshotFile, e.toString());
+        } finally {
+            synchronized (this) {
+                compactScheduled = false;
+            }
+        }
+    }
+
+    private synchronized void load() throws IOException {
+        try (FileLock ignored = lock()) {
+            refresh();
+        }
+        logger.info("ProcessedFileIndex[{}] loaded, {} entries", snapshotFile, entries.size());
+    }
+
+    /**
+     * Lock the index against the other runtimes. Called under the monitor of the index: in a runtime, only one
+     * thread asks for the lock.
+     *
+     * @return the lock to release
+     * @throws IOException the lock file can't be created
+     */
+    private FileLock lock() throws IOException {
+        if (lockChannel == null)
+            lockChannel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        return lockChannel.lock();
+    }
+
+    /**
+     * Read what the other runtimes wrote since the last read. Called under the lock.
+     *
+     * @throws IOException the index can't be read
+     */
+    private void refresh() throws IOException {
+        String stamp = getStamp(snapshotFile);
+        if (stamp != null && !stamp.equals(snapshotStamp)) {
+            // a new snapshot: the log was merged in it, and restarts
+            readSnapshot();
+            snapshotStamp = stamp;
+            logPosition = 0;
+            nbEntriesInLog = 0;
+        }
+        readLogTail();
+    }
+
+    private void readSnapshot() throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(snapshotFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                ProcessedEntry entry = ProcessedEntry.fromLine(line);
+                if (entry != null)
+                    entries.add(entry);
+            }
+        }
+    }
+
+    /**
+     * Read the complete lines written in the log after the last position read
+     *
+     * @throws IOException the log can't be read
+     */
+    private void readLogTail() throws IOException {
+        if (!Files.exists(logFile)) {
+            logPosition = 0;
+            nbEntriesInLog = 0;
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < logPosition) {
+                logPosition = 0;
+                nbEntriesInLog = 0;
+            }
+            if (size == logPosition)
+                return;
+            ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(size - logPosition));
+            channel.position(logPosition);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0)
+                    break;
+            }
+            byte[] content = buffer.array();
+            int lineStart = 0;
+            for (int i = 0; i < buffer.position(); i++) {
+                if (content[i] != '\n')
+                    continue;
+                int lineEnd = i > lineStart && content[i - 1] == '\r' ? i - 1 : i;
+                ProcessedEntry entry = ProcessedEntry.fromLine(
+                        new String(content, lineStart, lineEnd - lineStart, StandardCharsets.UTF_8));
+                // a partial line may be written if the runtime stopped during a write
+                if (entry != null) {
+                    entries.add(entry);
+                    nbEntriesInLog++;
+                }
+                lineStart = i + 1;
+            }
+            // a line without its end is read again next time
+            logPosition += lineStart;
+        }
+    }
+
+    private static String getStamp(Path file) throws IOException {
+        if (!Files.exists(file))
+            return null;
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        return attributes.fileKey() + "/" + attributes.lastModifiedTime().toMillis() + "/" + attributes.size();
+    }
+
+    private record ProcessedEntry(String path, long size, long lastModified) {
+
+        static ProcessedEntry of(Path file, BasicFileAttributes attributes) {
+            return new ProcessedEntry(file.toAbsolutePath().normalize().toString(), attributes.size(),
+                    attributes.lastModifiedTime().toMillis());
+        }
+
+        static ProcessedEntry fromLine(String line) {
+            String[] parts = line.split(SEPARATOR, 3);
+            if (parts.length != 3)
+                return null;
+            try {
+                return new ProcessedEntry(parts[2], Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        String toLine() {
+            return size + SEPARATOR + lastModified + SEPARATOR + path;
+        }
+    }
+}
@@ -14,9 +14,18 @@ import io.camunda.connector.cherrytemplate.RunnerParameter;
 import io.camunda.connector.filestorage.FileStorageError;
 import io.camunda.connector.filestorage.FileStorageInput;
 import io.camunda.connector.filestorage.FileStorageOutput;
+import io.camunda.connector.filestorage.cmis.CmisChunkedUpload;
+import io.camunda.connector.filestorage.toolbox.ChecksumInputStream;
+import io.camunda.connector.filestorage.toolbox.CompressingInputStream;
+import io.camunda.connector.filestorage.toolbox.CompressionToolbox;
+import io.camunda.connector.filestorage.toolbox.ContentAddressedStore;
+import io.camunda.connector.filestorage.toolbox.ExecutionTrace;
+import io.camunda.connector.filestorage.toolbox.ExecutorToolbox;
+import io.camunda.connector.filestorage.toolbox.FileHandleBudget;
+import io.camunda.connector.filestorage.toolbox.FileStorageMetrics;
 import io.camunda.connector.filestorage.toolbox.FileStorageSubFunction;
 import io.camunda.connector.filestorage.toolbox.FileStorageToolbox;
-import io.camunda.filestorage.FileRepoFactory;
+import io.camunda.connector.filestorage.toolbox.StorageTier;
 import io.camunda.filestorage.FileVariable;
 import io.camunda.filestorage.FileVariableReference;
 import io.camunda.filestorage.cmis.CmisParameters;
@@ -31,10 +40,20 @@ import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class UploadFile implements FileStorageSubFunction {
 
@@ -63,54 +82,139 @@ public class UploadFile implements FileStorageSubFunction {
     public FileStorageOutput executeSubFunction(FileStorageInput input,
                                                 OutboundConnectorContext outboundConnectorContext) {
 
-        StringBuilder traceExecution = new StringBuilder();
-        traceExecution.append("---UploadFile:");
-
-        //--- get the list of files
-        List<File> listFilesFiltered = getListOfFiles(input, traceExecution, outboundConnectorContext);
+        ExecutionTrace traceExecution = ExecutionTrace.start(logger, "UploadFile");
 
         FileStorageOutput fileStorageOutput = new FileStorageOutput();
-        if (listFilesFiltered.isEmpty()) {
+        // no maximum given is the same as 0: nothing to process, the folder is not scanned
+        int maximumFilesToProcess = input.getMaximumFilesToProcess() == null ? 0 :
+                Math.max(0, input.getMaximumFilesToProcess());
+        if (maximumFilesToProcess == 0) {
+            traceExecution.value("maximumFiles", maximumFilesToProcess);
             fileStorageOutput.nbFilesProcessed = 0;
-            logger.info(traceExecution.toString());
+            traceExecution.log();
             return fileStorageOutput;
         }
 
+        //--- get the folder
+        File folder = getFolderToRead(input, traceExecution);
+
+        //--- files already uploaded are ignored
+        ProcessedFileIndex processedFileIndex = getProcessedFileIndex(input, traceExecution);
+
+        List<File> listFilesFiltered = Collections.emptyList();
+        if (!input.isRecursive()) {
+            //--- get the list of files. In recursive mode, files are uploaded during the walk
+            listFilesFiltered = getListOfFiles(folder, input, maximumFilesToProcess, processedFileIndex,
+                    traceExecution);
+            if (listFilesFiltered.isEmpty()) {
+                fileStorageOutput.nbFilesProcessed = 0;
+                traceExecution.log();
+                return fileStorageOutput;
+            }
+        }
+
         //------ Storage Definition
         // Copy to the FileStorage
         StorageDefinition storageDefinition = input.getStorageDefinitionObject();
         // Move to the file storage
-        FileStorageToolbox.traceValue(traceExecution, "Storage Definition", storageDefinition.getInformation());
+        traceExecution.context("storageDefinition", storageDefinition);
 
         //------ Policy after operation Definition
         // Apply the policy
         File archiveFolder = FileStorageToolbox.getFolderFileFromName(input.getArchiveFolder());
         String policy = input.getPolicy();
-        FileStorageToolbox.traceValue(traceExecution, "PolicyArchive", policy);
-
+        traceExecution.value("policy", policy);
+        ContentAddressedStore contentAddressedStore = getContentAddressedStore(input, storageDefinition, traceExecution);
+        ChecksumInputStream.Algorithm checksumAlgorithm = FileStorageToolbox.getChecksumAlgorithm(input.getChecksumAlgorithm(),
+                getSubFunctionName());
+        // a JSON storage keeps the small files inline, and spills the large ones to a file storage
+        StorageTier storageTier = FileStorageToolbox.getStorageTier(storageDefinition, input.getSpillStorageDefinition(),
+                input.getSpillFolder(), input.getSpillThreshold(), getSubFunctionName());
+        if (storageTier != null) {
+            traceExecution.value("spillThreshold", storageTier.getThresholdBytes());
+            traceExecution.value("spillStorage", storageTier.getSpillStorageDefinition().type);
+        }
+        // a deduplicated content is shared as it is: it is not compressed
+        CompressionToolbox.Compression compression = contentAddressedStore != null ? CompressionToolbox.Compression.NONE :
+                FileStorageToolbox.getCompression(input.getCompression(),
+                        storageTier != null ? storageTier.getSpillStorageDefinition() : storageDefinition,
+                        getSubFunctionName());
+        if (compression != CompressionToolbox.Compression.NONE)
+            traceExecution.value("compression", compression);
+        // a large file to CMIS is sent in chunks
+        int chunkSize = input.isChunkedUpload() ? CmisChunkedUpload.getChunkSize(input.getChunkSize()) : 0;
+        if (chunkSize > 0)
+            traceExecution.value("chunkSize", chunkSize);
+        LoadOptions loadOptions = new LoadOptions(contentAddressedStore, checksumAlgorithm, compression,
+                input.getCompressionLevel(), storageTier, chunkSize);
+        UploadParameters uploadParameters = new UploadParameters(storageDefinition, policy, archiveFolder,
+                processedFileIndex, loadOptions, outboundConnectorContext);
+        long beginUpload = System.nanoTime();
 
         fileStorageOutput.fileLoaded = null;
         fileStorageOutput.fileNameLoaded = null;
         fileStorageOutput.fileMimeTypeLoaded = null;
         fileStorageOutput.nbFilesProcessed = 0;
 
-        for (File fileToProcess : listFilesFiltered) {
-            if (fileStorageOutput.nbFilesProcessed >= input.getMaximumFilesToProcess()) {
-                FileStorageToolbox.traceValue(traceExecution, "Maximum number is reach", input.getMaximumFilesToProcess());
-                break;
+        if (listFilesFiltered.size() > maximumFilesToProcess) {
+            traceExecution.value("maximumReached", maximumFilesToProcess);
+            listFilesFiltered = listFilesFiltered.subList(0, maximumFilesToProcess);
+        }
+
+        List<FileLoadedRecord> listFilesLoaded;
+        if (input.isRecursive()) {
+            FolderScanner folderScanner = new FolderScanner(input.getFileName(), input.getFilterFile(),
+                    input.getExcludeFilter(), maximumFilesToProcess, input.getMaximumDepth())
+                    .setProcessedFileIndex(processedFileIndex);
+            traceExecution.value("maximumDepth", input.getMaximumDepth());
+            listFilesLoaded = loadFiles(new FolderTreeSource(folderScanner, folder.toPath(), input.getParallelism()),
+                    input.getParallelism(), uploadParameters, traceExecution);
+            traceExecution.value("scannedEntries", folderScanner.getNbEntriesScanned());
+            traceExecution.value("alreadyProcessed", folderScanner.getNbFilesAlreadyProcessed());
+        } else if (input.getParallelism() > 1 && listFilesFiltered.size() > 1) {
+            traceExecution.value("parallelism", input.getParallelism());
+            listFilesLoaded = loadFiles(new FileListSource(listFilesFiltered), input.getParallelism(), uploadParameters,
+                    traceExecution);
+        } else {
+            listFilesLoaded = new ArrayList<>();
+            for (File fileToProcess : listFilesFiltered) {
+                listFilesLoaded.add(processFile(fileToProcess, uploadParameters, traceExecution));
             }
-            // load all files
-            FileLoadedRecord fileLoaded = loadFile(fileToProcess, storageDefinition, traceExecution, outboundConnectorContext);
+        }
 
-            // The storage will contain only the last file
+        // the lists are sized once: a batch may contain hundreds of files
+        fileStorageOutput.listFilesLoaded = new ArrayList<>(listFilesLoaded.size());
+        fileStorageOutput.listFileNamesLoaded = new ArrayList<>(listFilesLoaded.size());
+        fileStorageOutput.listFileMimeTypesLoaded = new ArrayList<>(listFilesLoaded.size());
+        fileStorageOutput.listChecksums = new ArrayList<>(checksumAlgorithm == null ? 0 : listFilesLoaded.size());
+        long totalSize = 0;
+        long totalStoredSize = 0;
+        for (FileLoadedRecord fileLoaded : listFilesLoaded) {
+            // The single values contain the last file
             fileStorageOutput.fileLoaded = fileLoaded.fileVariableReference;
             fileStorageOutput.nbFilesProcessed++;
+            if (fileLoaded.deduplicated)
+                fileStorageOutput.nbFilesDeduplicated++;
+            if (fileLoaded.spilled)
+                fileStorageOutput.nbFilesSpilled++;
             fileStorageOutput.fileNameLoaded = fileLoaded.fileVariable.getName();
             fileStorageOutput.fileMimeTypeLoaded = fileLoaded.fileVariable.getMimeType();
-            // according to the policy, move the file
-            applyPolicy(fileToProcess, policy, archiveFolder, traceExecution);
+            fileStorageOutput.listFilesLoaded.add(fileLoaded.fileVariableReferenceJson);
+            fileStorageOutput.listFileNamesLoaded.add(fileLoaded.fileVariable.getName());
+            fileStorageOutput.listFileMimeTypesLoaded.add(fileLoaded.fileVariable.getMimeType());
+            if (checksumAlgorithm != null) {
+                fileStorageOutput.checksum = fileLoaded.checksum;
+                fileStorageOutput.listChecksums.add(fileLoaded.checksum);
+            }
+            totalSize += fileLoaded.size;
+            totalStoredSize += fileLoaded.storedSize;
+        }
+        fileStorageOutput.bytesTransferred = totalSize;
+        if (compression != CompressionToolbox.Compression.NONE && !listFilesLoaded.isEmpty()) {
+            fileStorageOutput.setCompressionStatistics(totalSize, totalStoredSize, System.nanoTime() - beginUpload);
+            traceExecution.value("compressionRatio", fileStorageOutput.compressionRatio);
         }
-        logger.info(traceExecution.toString());
+        traceExecution.log();
         return fileStorageOutput;
     }
 
@@ -139,6 +243,23 @@ public class UploadFile implements FileStorageSubFunction {
                         .setDefaultValue("*.*") //
                         .setGroup(GROUP_SOURCE),
 
+                RunnerParameter.getInstance(FileStorageInput.INPUT_EXCLUDE_FILTER, "Exclude filter", String.class,
+                                RunnerParameter.Level.OPTIONAL, // level
+                                "Files and sub-folders matching this filter are ignored. Maybe *.tmp") //
+                        .setGroup(GROUP_SOURCE),
+
+                RunnerParameter.getInstance(FileStorageInput.INPUT_RECURSIVE, "Recursive", Boolean.class,
+                                RunnerParameter.Level.OPTIONAL, // level
+                                "Search files in sub-folders too. Files are uploaded during the search") //
+                        .setDefaultValue(Boolean.FALSE) //
+                        .setGroup(GROUP_SOURCE),
+
+                RunnerParameter.getInstance(FileStorageInput.INPUT_MAXIMUM_DEPTH, "Maximum depth", Integer.class,
+                                RunnerParameter.Level.OPTIONAL, // level
+                                "In recursive mode, number of sub-folder levels explored. 0 means no limit") //
+                        .setDefaultValue(0) //
+                        .setGroup(GROUP_SOURCE),
+
                 RunnerParameter.getInstance(FileStorageInput.INPUT_ZEEBE_DOCUMENT, // name
                                 "Zeebe Document", // label
                                 String.class, // class
@@ -155,6 +276,15 @@ public class UploadFile implements FileStorageSubFunction {
                         .setDefaultValue(1) //
                         .setGroup(GROUP_SOURCE),
 
+                RunnerParameter.getInstance(FileStorageInput.INPUT_PARALLELISM,
+                                "Parallelism",
+                                Integer.class,
+                                // class
+                                RunnerParameter.Level.OPTIONAL, // level
+                                "Number of files uploaded at the same time. With 1, files are uploaded one after the other") //
+                        .setDefaultValue(1) //
+                        .setGroup(GROUP_SOURCE),
+
                 RunnerParameter.getInstance(FileStorageInput.INPUT_POLICY, "Policy", String.class,
                                 RunnerParameter.Level.OPTIONAL,
                                 // level
@@ -177,6 +307,81 @@ public class UploadFile implements FileStorageSubFunction {
                         .addCondition(FileStorageInput.INPUT_POLICY, Collections.singletonList(FileStorageInput.POLICY_V_ARCHIVE)),
 
 
+                RunnerParameter.getInstance(FileStorageInput.INPUT_PROCESSED_INDEX_FILE,
+                                "Processed index file",
+                                String.class,
+                                RunnerParameter.Level.OPTIONAL, // level
+                                "With the policy " + FileStorageInput.POLICY_V_UNCHANGE
+                                        + ". Uploaded files are registered in this file, and are not uploaded again until they change") //
+                        .addCondition(FileStorageInput.INPUT_POLICY, Collections.singletonList(FileStorageInput.POLICY_V_UNCHANGE))
+                        .setGroup(GROUP_PROCESS_FILE),
+
+                RunnerParameter.getInstance(FileStorageInput.INPUT_DEDUPLICATE, "Deduplicate", Boolean.class,
+                                RunnerParameter.Level.OPTIONAL, // level
+                                "A content already present in the storage is not saved again: the file references share it") //
+                        .setDefaultValue(Boolean.FALSE) //
+                        .addCondition(FileStorageInput.INPUT_STORAGEDEFINITION,
+                                Arrays.asList(StorageDefinition.StorageDefinitionType.FOLDER.toString(),
+                                        StorageDefinition.StorageDefinitionType.TEMPFOLDER.toString()))
+                        .setGroup(GROUP_STORAGE_DEFINITION),
+
+                RunnerParameter.getInstance(FileStorageInput.INPUT_COMPRESSION, "Compression", String.class,
+                                RunnerParameter.Level.OPTIONAL, // level
+                                "Content compressed while it is saved in the storage. Already compressed contents (zip, pdf, images...) are saved as they are") //
+                        .addChoice("", "None")
+                        .addChoice(CompressionToolbox.Compression.GZIP.toString(), "GZIP")
+                        .addChoice(CompressionToolbox.Compression.DEFLATE.toString(), "Deflate")
+                        .addCondition(FileStorageInput.INPUT_STORAGEDEFINITION,
+                                Arrays.asList(StorageDefinition.StorageDefinitionType.FOLDER.toString(),
+                                        StorageDefinition.StorageDefinitionType.TEMPFOLDER.toString()))
+                        .setGroup(GROUP_STORAGE_DEFINITION),
+
+                RunnerParameter.getInstance(FileStorageInput.INPUT_COMPRESSION_LEVEL, "Compression level", Integer.class,
+                                RunnerParameter.Level.OPTIONAL, // level
+                                "0 (fastest) to 9 (smallest)") //
+                        .setDefaultValue(CompressionToolbox.DEFAULT_COMPRESSION_LEVEL) //
+                        .addCondition(FileStorageInput.INPUT_STORAGEDEFINITION,
+                                Arrays.asList(StorageDefinition.StorageDefinitionType.FOLDER.toString(),
+                                        StorageDefinition.StorageDefinitionType.TEMPFOLDER.toString()))
+                        .setGroup(GROUP_STORAGE_DEFINITION),
+
+                RunnerParameter.getInstance(FileStorageInput.INPUT_SPILL_STORAGEDEFINITION, "Spill storage", String.class,
+                                RunnerParameter.Level.OPTIONAL, // level
+                                "JSON storage: a content larger than the spill threshold is saved in this storage, not in the process variable") //
+                        .addChoice("", "None")
+                        .addChoice(StorageDefinition.StorageDefinitionType.TEMPFOLDER.toString(),
+                                StorageDefinition.StorageDefinitionType.TEMPFOLDER.toString())
+                        .addChoice(StorageDefinition.StorageDefinitionType.FOLDER.toString(),
+                                StorageDefinition.StorageDefinitionType.FOLDER.toString())
+                        .addChoice(StorageDefinition.StorageDefinitionType.CAMUNDA.toString(),
+                                StorageDefinition.StorageDefinitionType.CAMUNDA.toString())
+                        .addCondition(FileStorageInput.INPUT_STORAGEDEFINITION,
+                                Collections.singletonList(StorageDefinition.StorageDefinitionType.JSON.toString()))
+                        .setGroup(GROUP_STORAGE_DEFINITION),
+
+                RunnerParameter.getInstance(FileStorageInput.INPUT_SPILL_FOLDER, "Spill folder", String.class,
+                                RunnerParameter.Level.OPTIONAL, // level
+                                "Folder of the FOLDER spill storage") //
+                        .addCondition(FileStorageInput.INPUT_SPILL_STORAGEDEFINITION,
+                                Collections.singletonList(StorageDefinition.StorageDefinitionType.FOLDER.toString()))
+                        .setGroup(GROUP_STORAGE_DEFINITION),
+
+                RunnerParameter.getInstance(FileStorageInput.INPUT_SPILL_THRESHOLD, "Spill threshold (KB)", Integer.class,
+                                RunnerParameter.Level.OPTIONAL, // level
+                                "A content larger than this size is saved in the spill storage") //
+                        .setDefaultValue(StorageTier.DEFAULT_SPILL_THRESHOLD_KB) //
+                        .addCondition(FileStorageInput.INPUT_STORAGEDEFINITION,
+                                Collections.singletonList(StorageDefinition.StorageDefinitionType.JSON.toString()))
+                        .setGroup(GROUP_STORAGE_DEFINITION),
+
+                RunnerParameter.getInstance(FileStorageInput.INPUT_CHECKSUM_ALGORITHM, "Checksum algorithm", String.class,
+                                RunnerParameter.Level.OPTIONAL, // level
+                                "Checksum computed during the upload, to verify the content later. With the deduplication, the checksum is always SHA256") //
+                        .addChoice("", "None")
+                        .addChoice(ChecksumInputStream.Algorithm.SHA256.toString(), "SHA-256")
+                        .addChoice(ChecksumInputStream.Algorithm.CRC32C.toString(), "CRC32C")
+                        .setGroup(GROUP_PROCESS_FILE),
+
                 RunnerParameter.getInstance(FileStorageInput.INPUT_STORAGEDEFINITION,
                                 "Storage definition",
                                 String.class,
@@ -219,6 +424,21 @@ public class UploadFile implements FileStorageSubFunction {
                                 Collections.singletonList(StorageDefinition.StorageDefinitionType.CMIS.toString()))
                         .setGroup(GROUP_STORAGE_DEFINITION),
 
+                RunnerParameter.getInstance(FileStorageInput.INPUT_CHUNKED_UPLOAD, "Chunked upload", Boolean.class,
+                                RunnerParameter.Level.OPTIONAL, // level
+                                "A file larger than one chunk is sent in chunks (CMIS 1.1 append). A failed chunk is sent again, not the whole file") //
+                        .setDefaultValue(Boolean.FALSE) //
+                        .addCondition(FileStorageInput.INPUT_STORAGEDEFINITION,
+                                Collections.singletonList(StorageDefinition.StorageDefinitionType.CMIS.toString()))
+                        .setGroup(GROUP_STORAGE_DEFINITION),
+
+                RunnerParameter.getInstance(FileStorageInput.INPUT_CHUNK_SIZE, "Chunk size (MB)", Integer.class,
+                                RunnerParameter.Level.OPTIONAL, // level
+                                "Size of one chunk. Two chunks are in memory per file") //
+                        .setDefaultValue(CmisChunkedUpload.DEFAULT_CHUNK_SIZE_MB) //
+                        .addCondition(FileStorageInput.INPUT_CHUNKED_UPLOAD, Collections.singletonList(Boolean.TRUE.toString()))
+                        .setGroup(GROUP_STORAGE_DEFINITION),
+
                 RunnerParameter.getInstance(FileStorageInput.INPUT_JSONSTORAGEDEFINITION, "Json Storage definition", String.class,
                                 RunnerParameter.Level.OPTIONAL,
                                 // level
@@ -250,13 +470,61 @@ public class UploadFile implements FileStorageSubFunction {
                         "Nb files processed", //
                         String.class, //
                         RunnerParameter.Level.OPTIONAL, //
-                        "Number of files processed. May be 1 or 0 (no file found)"),
+                        "Number of files processed. 0 if no file is found, up to the maximum file to process"),
 
                 RunnerParameter.getInstance(FileStorageOutput.OUTPUT_LIST_FILE_LOADED, //
                         "List Files loaded", //
                         List.class, //
                         RunnerParameter.Level.OPTIONAL, //
-                        "Name of the variable to save the list of file loaded. Content is a JSON which depend of the storage definition"));
+                        "Name of the variable to save the list of file loaded. Content is a JSON which depend of the storage definition"),
+
+                RunnerParameter.getInstance(FileStorageOutput.OUTPUT_LIST_FILE_NAME_LOADED, //
+                        "List File names", //
+                        List.class, //
+                        RunnerParameter.Level.OPTIONAL, //
+                        "Name of each file loaded, in the same order as the list of files loaded"),
+
+                RunnerParameter.getInstance(FileStorageOutput.OUTPUT_LIST_FILE_MIMETYPE_LOADED, //
+                        "List File Mime types", //
+                        List.class, //
+                        RunnerParameter.Level.OPTIONAL, //
+                        "MimeType of each file loaded, in the same order as the list of files loaded"),
+
+                RunnerParameter.getInstance(FileStorageOutput.OUTPUT_NB_FILES_DEDUPLICATED, //
+                        "Nb files deduplicated", //
+                        Integer.class, //
+                        RunnerParameter.Level.OPTIONAL, //
+                        "Number of files whose content was already in the storage, with the deduplication"),
+
+                RunnerParameter.getInstance(FileStorageOutput.OUTPUT_CHECKSUM, //
+                        "Checksum", //
+                        String.class, //
+                        RunnerParameter.Level.OPTIONAL, //
+                        "Checksum of the content, algorithm:hex. In case of a list, this value contains the LAST in the list"),
+
+                RunnerParameter.getInstance(FileStorageOutput.OUTPUT_LIST_CHECKSUMS, //
+                        "List Checksums", //
+                        List.class, //
+                        RunnerParameter.Level.OPTIONAL, //
+                        "Checksum of each file loaded, in the same order as the list of files loaded"),
+
+                RunnerParameter.getInstance(FileStorageOutput.OUTPUT_COMPRESSION_RATIO, //
+                        "Compression ratio", //
+                        Double.class, //
+                        RunnerParameter.Level.OPTIONAL, //
+                        "Original size / stored size of all files loaded. Empty if no compression is asked"),
+
+                RunnerParameter.getInstance(FileStorageOutput.OUTPUT_COMPRESSION_THROUGHPUT, //
+                        "Compression throughput", //
+                        Double.class, //
+                        RunnerParameter.Level.OPTIONAL, //
+                        "Original content compressed and saved per second, in MB/s. Empty if no compression is asked"),
+
+                RunnerParameter.getInstance(FileStorageOutput.OUTPUT_NB_FILES_SPILLED, //
+                        "Nb files spilled", //
+                        Integer.class, //
+                        RunnerParameter.Level.OPTIONAL, //
+                        "Number of files saved in the spill storage, because they are larger than the spill threshold"));
     }
 
     public Map<String, String> getBpmnErrors() {
@@ -264,23 +532,23 @@ public class UploadFile implements FileStorageSubFunction {
                 FileStorageError.BPMNERROR_LOAD_FILE_ERROR, FileStorageError.BPMNERROR_LOAD_FILE_ERROR_EXPL, //
                 FileStorageError.BPMNERROR_MOVE_FILE_ERROR, FileStorageError.BPMNERROR_MOVE_FILE_ERROR_EXPL, //
                 FileStorageError.ERROR_INCORRECT_STORAGEDEFINITION, FileStorageError.ERROR_INCORRECT_STORAGEDEFINITION_EXPL, //
-                FileStorageError.BPMNERROR_BAD_CMIS_PARAMETERS, FileStorageError.BPMNERROR_BAD_CMIS_PARAMETERS_EXPL); //
+                FileStorageError.BPMNERROR_BAD_CMIS_PARAMETERS, FileStorageError.BPMNERROR_BAD_CMIS_PARAMETERS_EXPL, //
+                FileStorageError.BPMNERROR_PROCESSED_INDEX_ERROR, FileStorageError.BPMNERROR_PROCESSED_INDEX_ERROR_EXPL, //
+                FileStorageError.BPMNERROR_INCORRECT_CHECKSUM_ALGORITHM, FileStorageError.BPMNERROR_INCORRECT_CHECKSUM_ALGORITHM_EXPL, //
+                FileStorageError.BPMNERROR_INCORRECT_COMPRESSION, FileStorageError.BPMNERROR_INCORRECT_COMPRESSION_EXPL); //
 
     }
 
 
     /**
-     * Return the list of files
+     * Return the folder to read
      *
-     * @param input file storage
+     * @param input          file storage
      * @param traceExecution trace to log
-     * @param outboundConnectorContext context
-     * @return the list of file
-     * @throws ConnectorException
+     * @return the folder
+     * @throws ConnectorException if the folder does not exist
      */
-    private List<File> getListOfFiles(FileStorageInput input,
-                                      StringBuilder traceExecution,
-                                      OutboundConnectorContext outboundConnectorContext) throws ConnectorException {
+    private File getFolderToRead(FileStorageInput input, ExecutionTrace traceExecution) throws ConnectorException {
         // ------------ source folder
         File folder = FileStorageToolbox.getFolderFileFromName(input.getFolderToRead());
         if (folder == null) {
@@ -296,36 +564,88 @@ public class UploadFile implements FileStorageSubFunction {
             throw new ConnectorException(FileStorageError.BPMNERROR_FOLDER_NOT_EXIST,
                     "Worker [" + getSubFunctionName() + "] folder[" + folderName + "] does not exist");
         }
-        traceExecution.append("Folder:[");
-        traceExecution.append(folder.getAbsolutePath());
-        traceExecution.append("], ");
-
-        // list of files to process
-        String filterFile = input.getFilterFile();
-        String fileName = input.getFileName();
-        if (folder.listFiles() == null) {
+        traceExecution.context("folder", folder);
+        return folder;
+    }
+
+    /**
+     * Return the index of processed files, if the input gives one. The index is used only with the policy UNCHANGE:
+     * with other policies, the file leaves the folder.
+     *
+     * @param input          file storage
+     * @param traceExecution trace to log
+     * @return the index, null if no index is used
+     * @throws ConnectorException if the index can't be read
+     */
+    private ProcessedFileIndex getProcessedFileIndex(FileStorageInput input, ExecutionTrace traceExecution)
+            throws ConnectorException {
+        if (input.getProcessedIndexFile() == null || !FileStorageInput.POLICY_V_UNCHANGE.equals(input.getPolicy()))
+            return null;
+        try {
+            ProcessedFileIndex processedFileIndex = ProcessedFileIndex.getInstance(Path.of(input.getProcessedIndexFile()));
+            traceExecution.value("processedIndex", processedFileIndex.size());
+            return processedFileIndex;
+        } catch (Exception e) {
+            logger.error("Cannot read processed index[{}] {} : {}", input.getProcessedIndexFile(), traceExecution, e);
+            throw new ConnectorException(FileStorageError.BPMNERROR_PROCESSED_INDEX_ERROR,
+                    "Worker [" + getSubFunctionName() + "] cannot read processed index[" + input.getProcessedIndexFile()
+                            + "] : " + e);
+        }
+    }
+
+    /**
+     * Return the store to deduplicate the files, if the input asks it
+     *
+     * @param input             file storage
+     * @param storageDefinition storage to save the files
+     * @param traceExecution    trace to log
+     * @return the store, null if there is no deduplication
+     */
+    private ContentAddressedStore getContentAddressedStore(FileStorageInput input,
+                                                           StorageDefinition storageDefinition,
+                                                           ExecutionTrace traceExecution) {
+        if (!input.isDeduplicate())
+            return null;
+        ContentAddressedStore contentAddressedStore = ContentAddressedStore.getInstance(storageDefinition);
+        traceExecution.value("deduplicate", contentAddressedStore != null);
+        return contentAddressedStore;
+    }
+
+    /**
+     * Return the list of files
+     *
+     * @param folder             folder to read
+     * @param input              file storage
+     * @param maximumFiles       maximum number of files to process, more than 0
+     * @param processedFileIndex files already processed are ignored. May be null
+     * @param traceExecution     trace to log
+     * @return the list of file
+     */
+    private List<File> getListOfFiles(File folder,
+                                      FileStorageInput input,
+                                      int maximumFiles,
+                                      ProcessedFileIndex processedFileIndex,
+                                      ExecutionTrace traceExecution) {
+        // list of files to process: the folder is streamed, and the scan stops at the maximum
+        FolderScanner folderScanner = new FolderScanner(input.getFileName(), input.getFilterFile(),
+                input.getExcludeFilter(), maximumFiles, 0)
+                .setProcessedFileIndex(processedFileIndex);
+        List<File> listFilesFiltered;
+        try {
+            listFilesFiltered = folderScanner.scan(folder.toPath());
+        } catch (IOException e) {
+            // same as an empty folder
+            logger.error("Folder[{}] can't be read {} : {}", folder.getAbsolutePath(), traceExecution, e);
             return Collections.emptyList();
-        } else {
-            List<File> listFilesFiltered = Arrays.stream(folder.listFiles()).filter(t -> {
-                if (fileName != null)
-                    return t.getName().equals(fileName);
-                if ("*.*".equals(filterFile))
-                    return true;
-                if (filterFile == null || filterFile.isEmpty())
-                    return true;
-                return t.getName().matches(filterFile);
-            }).toList();
-
-            FileStorageToolbox.traceValue(traceExecution, "Found files", String.valueOf(folder.listFiles().length));
-            FileStorageToolbox.traceValue(traceExecution, "Filterby", fileName);
-            FileStorageToolbox.traceValue(traceExecution, "listFitererd", String.valueOf(listFilesFiltered.size()));
-
-            if (input.getMaximumFilesToProcess() > 0 && listFilesFiltered.size() > input.getMaximumFilesToProcess())
-                listFilesFiltered = listFilesFiltered.subList(0, input.getMaximumFilesToProcess());
-            FileStorageToolbox.traceValue(traceExecution, "Max", String.valueOf(input.getMaximumFilesToProcess()));
-
-            return listFilesFiltered;
         }
+        traceExecution.value("scannedEntries", folderScanner.getNbEntriesScanned());
+        if (processedFileIndex != null)
+            traceExecution.value("alreadyProcessed", folderScanner.getNbFilesAlreadyProcessed());
+        traceExecution.value("filter", input.getFileName() == null ? input.getFilterFile() : input.getFileName());
+        traceExecution.value("filesFiltered", listFilesFiltered.size());
+        traceExecution.value("maximumFiles", maximumFiles);
+
+        return listFilesFiltered;
     }
 
     /**
@@ -338,40 +658,244 @@ public class UploadFile implements FileStorageSubFunction {
      * @return a records containing different information
      * @throws ConnectorException in case of error
      */
-    private FileLoadedRecord loadFile(File fileToProcess, StorageDefinition storageDefinition, StringBuilder traceExecution, OutboundConnectorContext outboundConnectorContext) throws ConnectorException {
-        FileVariable fileVariable = new FileVariable();
+    public FileLoadedRecord loadFile(File fileToProcess, StorageDefinition storageDefinition, ExecutionTrace traceExecution, OutboundConnectorContext outboundConnectorContext) throws ConnectorException {
+        return loadFile(fileToProcess, storageDefinition, LoadOptions.DEFAULT, traceExecution, outboundConnectorContext);
+    }
 
-        try {
-            // not possible to put the fileInputStream in the try() : we want the inputstream accessible AFTER this method
-            InputStream fileInputStream = new FileInputStream(fileToProcess);
-            fileVariable.setName(fileToProcess.getName());
-            fileVariable.setMimeType(FileVariable.getMimeTypeFromName(fileVariable.getName()));
-            fileVariable.setValueStream(fileInputStream);
-        } catch (Exception e) {
-            logger.error("Cannot read file[{}] {} : {}", fileToProcess.getAbsolutePath(), traceExecution, e);
-            throw new ConnectorException(FileStorageError.BPMNERROR_LOAD_FILE_ERROR,
-                    "Worker [" + getSubFunctionName() + "]  cannot read file[" + fileToProcess.getAbsolutePath() + "] : " + e);
+    /**
+     * Load file into the storage
+     *
+     * @param fileToProcess            File to load
+     * @param storageDefinition        storage to save the file
+     * @param loadOptions              how the content is saved
+     * @param traceExecution           trace the current execution
+     * @param outboundConnectorContext context needed to save in the Camunda Storage
+     * @return a records containing different information
+     * @throws ConnectorException in case of error
+     */
+    public FileLoadedRecord loadFile(File fileToProcess, StorageDefinition storageDefinition, LoadOptions loadOptions,
+                                     ExecutionTrace traceExecution,
+                                     OutboundConnectorContext outboundConnectorContext) throws ConnectorException {
+        if (loadOptions.contentAddressedStore() != null) {
+            return loadFileDeduplicated(fileToProcess, storageDefinition, loadOptions.contentAddressedStore(),
+                    traceExecution, outboundConnectorContext);
         }
-        FileStorageToolbox.traceValue(traceExecution, "Read FileName", fileToProcess.getName());
-        FileStorageToolbox.traceValue(traceExecution, "size", String.valueOf(fileToProcess.length()));
+        // a JSON storage may send a large file to its spill storage
+        StorageDefinition targetStorageDefinition = loadOptions.storageTier() == null ? storageDefinition :
+                loadOptions.storageTier().select(fileToProcess.length());
+        boolean spilled = targetStorageDefinition != storageDefinition;
+        if (spilled)
+            traceExecution.value("spilledTo", targetStorageDefinition.type);
+        FileVariable fileVariable = new FileVariable();
+        // the storage may receive a compressed version of the file
+        FileVariable storedFileVariable = fileVariable;
+        ChecksumInputStream checksumStream;
+        CompressingInputStream compressingStream = null;
 
-        try {
-            fileVariable.setStorageDefinition(storageDefinition);
-            FileRepoFactory fileRepoFactory = FileRepoFactory.getInstance();
+        // the storage reads the stream during the save: the stream is closed when the save is done
+        // two channels: the file read, the content written by the storage
+        try (FileHandleBudget.Handle fileHandle = FileStorageToolbox.acquireFileHandles(getSubFunctionName(), 2)) {
+            try {
+                fileVariable.setName(fileToProcess.getName());
+                fileVariable.setMimeType(FileVariable.getMimeTypeFromName(fileVariable.getName()));
+                InputStream fileStream = fileHandle.attach(new FileInputStream(fileToProcess));
+                // the checksum is computed while the storage reads the file
+                checksumStream = loadOptions.checksumAlgorithm() == null ? null :
+                        new ChecksumInputStream(fileStream, loadOptions.checksumAlgorithm());
+                fileVariable.setValueStream(checksumStream == null ? fileStream : checksumStream);
+                if (loadOptions.compression() != CompressionToolbox.Compression.NONE
+                        && CompressionToolbox.isCompressionSupported(targetStorageDefinition)
+                        && CompressionToolbox.isCompressible(fileVariable.getMimeType())) {
+                    // compressed while the storage reads it. The checksum is the one of the original content
+                    compressingStream = CompressionToolbox.compress(fileVariable.getValueStream(), loadOptions.compression(),
+                            loadOptions.compressionLevel());
+                    fileHandle.attach(compressingStream);
+                    storedFileVariable = new FileVariable();
+                    storedFileVariable.setName(fileVariable.getName() + loadOptions.compression().getSuffix());
+                    storedFileVariable.setMimeType(loadOptions.compression().getMimeType());
+                    storedFileVariable.setValueStream(compressingStream);
+                }
+            } catch (Exception e) {
+                logger.error("Cannot read file[{}] {} : {}", fileToProcess.getAbsolutePath(), traceExecution, e);
+                throw new ConnectorException(FileStorageError.BPMNERROR_LOAD_FILE_ERROR,
+                        "Worker [" + getSubFunctionName() + "]  cannot read file[" + fileToProcess.getAbsolutePath() + "] : " + e);
+            }
+            traceExecution.context("fileName", fileToProcess.getName());
+            traceExecution.value("size", fileToProcess.length());
+
+            try {
+                long beginOperation = System.nanoTime();
+                FileVariableReference fileVariableReference = null;
+                if (loadOptions.chunkSize() > 0 && compressingStream == null
+                        && fileToProcess.length() > loadOptions.chunkSize()) {
+                    CmisChunkedUpload.ChunkedResult chunkedResult = CmisChunkedUpload.save(storedFileVariable,
+                            targetStorageDefinition, loadOptions.chunkSize());
+                    if (chunkedResult != null) {
+                        fileVariableReference = chunkedResult.fileVariableReference();
+                        traceExecution.value("chunks", chunkedResult.nbChunks());
+                        if (chunkedResult.nbRetries() > 0)
+                            traceExecution.value("chunksRetried", chunkedResult.nbRetries());
+                    }
+                }
+                // not CMIS: the content is not read yet
+                if (fileVariableReference == null)
+                    fileVariableReference = FileStorageToolbox.saveFileVariable(storedFileVariable,
+                            targetStorageDefinition, outboundConnectorContext);
+                long operationNanos = System.nanoTime() - beginOperation;
+                traceExecution.value("loadedMs", operationNanos / 1_000_000);
+                FileStorageMetrics.recordOperation(getSubFunctionType(), targetStorageDefinition,
+                        FileStorageMetrics.OPERATION_SAVE, operationNanos);
+                String checksum = checksumStream == null ? null : checksumStream.getChecksum();
+                if (checksum != null)
+                    traceExecution.value("checksum", checksum);
+                long size = fileToProcess.length();
+                long storedSize = size;
+                if (compressingStream != null) {
+                    size = compressingStream.getInputSize();
+                    storedSize = compressingStream.getOutputSize();
+                    traceExecution.value("storedSize", storedSize);
+                }
+                return new FileLoadedRecord(fileVariable, fileVariableReference, fileVariableReference.toJson(), false,
+                        checksum, size, storedSize, spilled);
 
-            long beginOperation = System.currentTimeMillis();
-            FileVariableReference fileVariableReference = fileRepoFactory.saveFileVariable(fileVariable, outboundConnectorContext);
-            FileStorageToolbox.traceValue(traceExecution, "Loaded in (ms)", String.valueOf(System.currentTimeMillis() - beginOperation));
-            return new FileLoadedRecord(fileVariable, fileVariableReference, fileVariableReference.toJson());
+            } catch (Exception e) {
+                logger.error("Error during setFileVariableReference: {} : {} ", traceExecution, e);
+                throw new ConnectorException(FileStorageError.BPMNERROR_SAVE_FILEVARIABLE,
+                        "Worker [" + getSubFunctionName() + "] error during access storageDefinition[" + targetStorageDefinition + "] :"
+                                + e);
+            }
+        }
+    }
 
+    /**
+     * Load file into the storage: the file is hashed while it is saved, and the copy is not kept if the storage already
+     * contains the content
+     */
+    private FileLoadedRecord loadFileDeduplicated(File fileToProcess, StorageDefinition storageDefinition,
+                                                  ContentAddressedStore contentAddressedStore, ExecutionTrace traceExecution,
+                                                  OutboundConnectorContext outboundConnectorContext) throws ConnectorException {
+        FileVariable fileVariable = new FileVariable();
+        fileVariable.setName(fileToProcess.getName());
+        fileVariable.setMimeType(FileVariable.getMimeTypeFromName(fileVariable.getName()));
+        traceExecution.context("fileName", fileToProcess.getName());
+        traceExecution.value("size", fileToProcess.length());
+
+        // two channels: the file read, the content written by the storage
+        try (FileHandleBudget.Handle fileHandle = FileStorageToolbox.acquireFileHandles(getSubFunctionName(), 2)) {
+            long beginOperation = System.nanoTime();
+            fileVariable.setValueStream(fileHandle.attach(new FileInputStream(fileToProcess)));
+            ContentAddressedStore.StoreResult storeResult = contentAddressedStore.save(fileVariable, storageDefinition,
+                    outboundConnectorContext);
+            long operationNanos = System.nanoTime() - beginOperation;
+            traceExecution.value("deduplicated", storeResult.deduplicated());
+            traceExecution.value("loadedMs", operationNanos / 1_000_000);
+            FileStorageMetrics.recordOperation(getSubFunctionType(), storageDefinition, FileStorageMetrics.OPERATION_SAVE,
+                    operationNanos);
+            long size = fileToProcess.length();
+            return new FileLoadedRecord(fileVariable, storeResult.fileVariableReference(),
+                    storeResult.fileVariableReference().toJson(), storeResult.deduplicated(), storeResult.getChecksum(),
+                    size, storeResult.deduplicated() ? 0 : size, false);
+        } catch (ConnectorException e) {
+            throw e;
         } catch (Exception e) {
-            logger.error("Error during setFileVariableReference: {} : {} ", traceExecution, e);
+            logger.error("Error during deduplicated save: {} : {} ", traceExecution, e);
             throw new ConnectorException(FileStorageError.BPMNERROR_SAVE_FILEVARIABLE,
                     "Worker [" + getSubFunctionName() + "] error during access storageDefinition[" + storageDefinition + "] :"
                             + e);
         }
     }
 
+    /**
+     * Load one file, register it in the processed index, then apply the policy
+     *
+     * @param fileToProcess    File to load
+     * @param uploadParameters parameters of the upload
+     * @param traceExecution   trace the current execution
+     * @return a records containing different information
+     * @throws ConnectorException in case of error
+     */
+    private FileLoadedRecord processFile(File fileToProcess, UploadParameters uploadParameters, ExecutionTrace traceExecution)
+            throws ConnectorException {
+        FileLoadedRecord fileLoadedRecord = loadFile(fileToProcess, uploadParameters.storageDefinition(),
+                uploadParameters.loadOptions(), traceExecution, uploadParameters.outboundConnectorContext());
+        if (uploadParameters.processedFileIndex() != null) {
+            try {
+                uploadParameters.processedFileIndex().markProcessed(fileToProcess.toPath());
+            } catch (IOException e) {
+                // the file is uploaded: the job must not fail. The file will be uploaded again the next time
+                logger.error("Cannot register file[{}] in the processed index : {}", fileToProcess.getAbsolutePath(), e);
+            }
+        }
+        // according to the policy, move the file
+        applyPolicy(fileToProcess, uploadParameters.policy(), uploadParameters.archiveFolder(), traceExecution);
+        return fileLoadedRecord;
+    }
+
+    /**
+     * Load files into the storage, using multiple threads. Each file is loaded, then the policy is applied on it: a file
+     * is moved or deleted only when it is correctly saved.
+     *
+     * @param fileSource               give the files to load
+     * @param parallelism      maximum number of files loaded at the same time
+     * @param uploadParameters parameters of the upload
+     * @param traceExecution   trace the current execution
+     * @return records, in the order given by the source
+     * @throws ConnectorException the first error met. Other files are not started after an error.
+     */
+    private List<FileLoadedRecord> loadFiles(FileSource fileSource,
+                                             int parallelism,
+                                             UploadParameters uploadParameters,
+                                             ExecutionTrace traceExecution) throws ConnectorException {
+        int nbWorkers = Math.max(1, parallelism);
+        Map<Integer, FileLoadedRecord> filesLoaded = new ConcurrentSkipListMap<>();
+        Map<Integer, ExecutionTrace> tracesFile = new ConcurrentSkipListMap<>();
+        AtomicReference<RuntimeException> firstError = new AtomicReference<>();
+
+        // Each worker takes the next file from the source: no more than nbWorkers files are loaded at the same time
+        // One more thread is reserved for the source, which may produce files in the background
+        ExecutorService executorService = ExecutorToolbox.newExecutor(nbWorkers + 1, "filestorage-upload");
+        try {
+            fileSource.start(executorService, firstError);
+            List<Future<?>> listWorkers = new ArrayList<>();
+            for (int i = 0; i < nbWorkers; i++) {
+                listWorkers.add(executorService.submit(() -> {
+                    IndexedFile indexedFile;
+                    while (firstError.get() == null && (indexedFile = fileSource.next()) != null) {
+                        ExecutionTrace traceFile = traceExecution.newChild();
+                        tracesFile.put(indexedFile.index(), traceFile);
+                        try {
+                            filesLoaded.put(indexedFile.index(), processFile(indexedFile.file(), uploadParameters, traceFile));
+                        } catch (RuntimeException e) {
+                            firstError.compareAndSet(null, e);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> worker : listWorkers) {
+                worker.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            firstError.compareAndSet(null, new ConnectorException(FileStorageError.BPMNERROR_LOAD_FILE_ERROR,
+                    "Worker [" + getSubFunctionName() + "] interrupted during the upload"));
+        } catch (ExecutionException e) {
+            firstError.compareAndSet(null, new ConnectorException(FileStorageError.BPMNERROR_LOAD_FILE_ERROR,
+                    "Worker [" + getSubFunctionName() + "] error during the upload : " + e.getCause()));
+        } finally {
+            ExecutorToolbox.shutdown(executorService);
+        }
+
+        for (ExecutionTrace traceFile : tracesFile.values()) {
+            traceExecution.append(traceFile);
+        }
+        if (firstError.get() != null) {
+            logger.error("Error during upload {} : {}", traceExecution, firstError.get().getMessage());
+            throw firstError.get();
+        }
+        return new ArrayList<>(filesLoaded.values());
+    }
+
     /**
      * What do we do with the original file?
      *
@@ -380,13 +904,13 @@ public class UploadFile implements FileStorageSubFunction {
      * @param archiveFolder  Archive folder
      * @param traceExecution trace the execution
      */
-    private void applyPolicy(File fileToProcess, String policy, File archiveFolder, StringBuilder traceExecution) {
+    public void applyPolicy(File fileToProcess, String policy, File archiveFolder, ExecutionTrace traceExecution) {
         if (FileStorageInput.POLICY_V_UNCHANGE.equals(policy)) {
             // Nothing to do here
         } else if (FileStorageInput.POLICY_V_DELETE.equals(policy)) {
             fileToProcess.delete();
         } else if (FileStorageInput.POLICY_V_ARCHIVE.equals(policy)) {
-            FileStorageToolbox.traceValue(traceExecution, "ArchiveFolder", archiveFolder.getAbsolutePath());
+            traceExecution.value("archiveFolder", archiveFolder);
 
             if (archiveFolder == null) {
                 // Can't archive the file, archive folder does not exist
@@ -420,15 +944,154 @@ public class UploadFile implements FileStorageSubFunction {
         }
     }
 
+    /**
+     * Parameters shared by all files of one upload
+     */
+    private record UploadParameters(StorageDefinition storageDefinition, String policy, File archiveFolder,
+                                    ProcessedFileIndex processedFileIndex,
+                                    LoadOptions loadOptions,
+                                    OutboundConnectorContext outboundConnectorContext) {
+    }
+
+    /**
+     * How the content of a file is saved
+     *
+     * @param contentAddressedStore store to deduplicate the content. May be null
+     * @param checksumAlgorithm     checksum computed while the file is read. May be null
+     * @param compression           compression of the content in the storage
+     * @param compressionLevel      compression level, 0 to 9
+     * @param storageTier           a JSON storage spills the large files to this tier. May be null
+     * @param chunkSize             a file larger than this size is sent to CMIS in chunks of this size. 0: no chunk
+     */
+    public record LoadOptions(ContentAddressedStore contentAddressedStore,
+                              ChecksumInputStream.Algorithm checksumAlgorithm,
+                              CompressionToolbox.Compression compression,
+                              int compressionLevel,
+                              StorageTier storageTier,
+                              int chunkSize) {
+        public static final LoadOptions DEFAULT = new LoadOptions(null, null, CompressionToolbox.Compression.NONE,
+                CompressionToolbox.DEFAULT_COMPRESSION_LEVEL, null, 0);
+    }
+
+    /**
+     * A file, and its position in the source
+     */
+    private record IndexedFile(int index, File file) {
+    }
+
+    /**
+     * Give the files to the upload workers. Called by multiple workers at the same time.
+     */
+    private interface FileSource {
+        /**
+         * Called before the workers start: the source may start a producer on the executor
+         *
+         * @param executorService executor, with one thread reserved for the source
+         * @param firstError      error met by a worker: the producer must stop
+         */
+        default void start(ExecutorService executorService, AtomicReference<RuntimeException> firstError) {
+        }
+
+        /**
+         * @return the next file, null when there is no more file
+         * @throws InterruptedException the thread is interrupted
+         */
+        IndexedFile next() throws InterruptedException;
+    }
+
+    /**
+     * Files are known in advance
+     */
+    private static class FileListSource implements FileSource {
+        private final List<File> listFiles;
+        private final AtomicInteger nextFile = new AtomicInteger();
+
+        FileListSource(List<File> listFiles) {
+            this.listFiles = listFiles;
+        }
+
+        @Override
+        public IndexedFile next() {
+            int index = nextFile.getAndIncrement();
+            return index < listFiles.size() ? new IndexedFile(index, listFiles.get(index)) : null;
+        }
+    }
+
+    /**
+     * Files are found by walking the folder tree: the walk runs in the background, and each file is uploaded as soon as
+     * it is found. The queue is bounded, so the walk waits for the upload.
+     */
+    private static class FolderTreeSource implements FileSource {
+        private static final File END_OF_WALK = new File("");
+        private final FolderScanner folderScanner;
+        private final Path folder;
+        private final BlockingQueue<File> queue;
+        private final AtomicInteger nextIndex = new AtomicInteger();
+
+        FolderTreeSource(FolderScanner folderScanner, Path folder, int parallelism) {
+            this.folderScanner = folderScanner;
+            this.folder = folder;
+            this.queue = new ArrayBlockingQueue<>(Math.max(16, parallelism * 4));
+        }
+
+        @Override
+        public void start(ExecutorService executorService, AtomicReference<RuntimeException> firstError) {
+            executorService.submit(() -> {
+                try {
+                    folderScanner.walk(folder, file -> offer(file, firstError));
+                } catch (RuntimeException e) {
+                    firstError.compareAndSet(null, new ConnectorException(FileStorageError.BPMNERROR_LOAD_FILE_ERROR,
+                            "Error during the walk of folder[" + folder + "] : " + e));
+                } finally {
+                    try {
+                        offer(END_OF_WALK, firstError);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+        }
+
+        @Override
+        public IndexedFile next() throws InterruptedException {
+            File file = queue.take();
+            if (file == END_OF_WALK) {
+                // give it back for the other workers
+                queue.put(END_OF_WALK);
+                return null;
+            }
+            return new IndexedFile(nextIndex.getAndIncrement(), file);
+        }
+
+        /**
+         * Wait for a place in the queue, except if the workers stopped on an error
+         *
+         * @return false if the workers stopped
+         */
+        private boolean offer(File file, AtomicReference<RuntimeException> firstError) throws InterruptedException {
+            while (!queue.offer(file, 100, TimeUnit.MILLISECONDS)) {
+                if (firstError.get() != null)
+                    return false;
+            }
+            return firstError.get() == null;
+        }
+    }
+
     /**
      * Result of the function. Json is here because the generation can throw an exception
      *
      * @param fileVariable
      * @param fileVariableReference
      * @param fileVariableReferenceJson
+     * @param deduplicated              the content was already in the storage
+     * @param checksum                  checksum of the content, null if no checksum is asked
+     * @param size                      size of the file
+     * @param storedSize                size written in the storage: smaller when the content is compressed
+     * @param spilled                   true if the file is saved in the spill storage instead of the JSON storage
      */
     public record FileLoadedRecord(FileVariable fileVariable, FileVariableReference fileVariableReference,
-                                   String fileVariableReferenceJson) {
+                                   String fileVariableReferenceJson, boolean deduplicated, String checksum,
+                                   long size, long storedSize, boolean spilled) {
     }
 
 
@@ -0,0 +1,60 @@
+/* ******************************************************************** */
+/*                                                                      */
+/*  FileStorageTestToolbox                                              */
+/*                                                                      */
+/*  Fixtures shared by the tests and the benchmarks: the input of a    */
+/*  job on a storage, the purge of a reference, and the number of file */
+/*  descriptors open by the JVM.                                        */
+/* ******************************************************************** */
+package io.camunda.connector.filestorage;
+
+import com.sun.management.UnixOperatingSystemMXBean;
+import io.camunda.filestorage.FileRepoFactory;
+import io.camunda.filestorage.FileVariableReference;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.nio.file.Path;
+
+public class FileStorageTestToolbox {
+
+    /**
+     * This is a toolbox, only static method
+     */
+    private FileStorageTestToolbox() {
+    }
+
+    /**
+     * @param function          sub-function type (upload, download, copy, delete)
+     * @param storageDefinition JSON, TEMPFOLDER, FOLDER...
+     * @param storageFolder     folder of a FOLDER storage
+     * @return the input of a job saving in the storage
+     */
+    public static FileStorageInput getStorageInput(String function, String storageDefinition, Path storageFolder) {
+        FileStorageInput input = new FileStorageInput();
+        input.fileStorageFunction = function;
+        input.storageDefinition = storageDefinition;
+        input.storageDefinitionFolderCompletement = "FOLDER".equals(storageDefinition) ? storageFolder.toString() : null;
+        return input;
+    }
+
+    /**
+     * Remove a file from its storage, so the storage does not grow between two jobs
+     *
+     * @param reference reference given by a job
+     * @throws Exception if the reference can't be read or purged
+     */
+    public static void purge(Object reference) throws Exception {
+        FileRepoFactory.getInstance().purgeFileVariable(FileVariableReference.fromObject(reference), null);
+    }
+
+    /**
+     * @return number of file descriptors open by the JVM, -1 if the system does not give it
+     */
+    public static long getOpenFileDescriptors() {
+        OperatingSystemMXBean operatingSystem = ManagementFactory.getOperatingSystemMXBean();
+        if (operatingSystem instanceof UnixOperatingSystemMXBean unixOperatingSystem)
+            return unixOperatingSystem.getOpenFileDescriptorCount();
+        return -1;
+    }
+}
@@ -0,0 +1,39 @@
+/* ******************************************************************** */
+/*                                                                      */
+/*  StubOutboundConnectorContext                                        */
+/*                                                                      */
+/*  Context of a job without a runtime, for the tests and the          */
+/*  benchmarks: the variables are the input given, there is no Zeebe   */
+/*  job. The JSON, TEMPFOLDER and FOLDER storages do not create        */
+/*  documents.                                                          */
+/* ******************************************************************** */
+package io.camunda.connector.filestorage;
+
+import io.camunda.connector.api.outbound.JobContext;
+import io.camunda.connector.api.outbound.OutboundConnectorContext;
+import io.camunda.document.Document;
+import io.camunda.document.reference.DocumentReference;
+import io.camunda.document.store.DocumentCreationRequest;
+
+public record StubOutboundConnectorContext(FileStorageInput input) implements OutboundConnectorContext {
+
+    @Override
+    public JobContext getJobContext() {
+        throw new UnsupportedOperationException("No job without a runtime");
+    }
+
+    @Override
+    public <T> T bindVariables(Class<T> cls) {
+        return cls.cast(input);
+    }
+
+    @Override
+    public Document resolve(DocumentReference reference) {
+        throw new UnsupportedOperationException("No document store without a runtime");
+    }
+
+    @Override
+    public Document create(DocumentCreationRequest request) {
+        throw new UnsupportedOperationException("No document store without a runtime");
+    }
+}
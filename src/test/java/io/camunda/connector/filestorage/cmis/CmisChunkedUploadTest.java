@@ -0,0 +1,204 @@
+/* ******************************************************************** */
+/*                                                                      */
+/*  CmisChunkedUploadTest                                               */
+/*                                                                      */
+/*  Chunked upload to the in-memory CmisStandIn, with appends failing  */
+/*  before or after the chunk is committed: the document must contain  */
+/*  exactly the content. A committed length which does not match a    */
+/*  chunk stops the upload. The latency is the                          */
+/*  CmisChunkedUploadBenchmark.                                         */
+/* ******************************************************************** */
+package io.camunda.connector.filestorage.cmis;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CmisChunkedUploadTest {
+
+    private static final int CHUNK_SIZE = 1024;
+    /**
+     * Ten chunks, the last one not full
+     */
+    private static final int CONTENT_SIZE = 9 * CHUNK_SIZE + 100;
+    private static final int MAXIMUM_RETRIES = 3;
+
+    private final CmisConnectionParameters parameters = new CmisConnectionParameters(
+            "http://localhost:8099/cmis/browser", "default", "test", "test", "/storage");
+    private final byte[] content = new byte[CONTENT_SIZE];
+
+    private CmisStandIn cmisStandIn;
+    private CmisSessionPool cmisSessionPool;
+
+    @BeforeEach
+    void setup() {
+        cmisStandIn = new CmisStandIn(0, 0);
+        cmisSessionPool = new CmisSessionPool(cmisStandIn, CmisSessionPool.DEFAULT_MAXIMUM_SIZE,
+                CmisSessionPool.DEFAULT_IDLE_TIMEOUT_MS, CmisSessionPool.DEFAULT_VALIDATION_INTERVAL_MS);
+        new Random(42).nextBytes(content);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cmisSessionPool.clear();
+    }
+
+    @Test
+    void uploadWithoutFailure() throws Exception {
+        String documentId = cmisStandIn.createDocument();
+        CmisChunkedUpload chunkedUpload = upload(documentId);
+
+        assertEquals(10, chunkedUpload.getNbChunks());
+        assertEquals(0, chunkedUpload.getNbRetries());
+        assertEquals(documentId, chunkedUpload.getDocumentId());
+        assertArrayEquals(content, cmisStandIn.getContent(documentId));
+    }
+
+    @Test
+    void chunkIsSentAgainWhenTheAppendFailsBeforeTheCommit() throws Exception {
+        String documentId = cmisStandIn.createDocument();
+        cmisStandIn.failNextAppend(CmisStandIn.AppendFailure.BEFORE_COMMIT);
+        CmisChunkedUpload chunkedUpload = upload(documentId);
+
+        assertEquals(10, chunkedUpload.getNbChunks());
+        assertEquals(1, chunkedUpload.getNbRetries());
+        assertEquals(1, cmisStandIn.getFailureCount());
+        assertArrayEquals(content, cmisStandIn.getContent(documentId));
+        // the session which failed is not given again
+        assertEquals(2, cmisSessionPool.getCreatedCount());
+    }
+
+    @Test
+    void chunkIsNotSentAgainWhenTheAppendFailsAfterTheCommit() throws Exception {
+        String documentId = cmisStandIn.createDocument();
+        cmisStandIn.failNextAppend(CmisStandIn.AppendFailure.AFTER_COMMIT);
+        CmisChunkedUpload chunkedUpload = upload(documentId);
+
+        assertEquals(10, chunkedUpload.getNbChunks());
+        assertEquals(1, chunkedUpload.getNbRetries());
+        assertArrayEquals(content, cmisStandIn.getContent(documentId), "Chunk committed twice");
+    }
+
+    @Test
+    void uploadWithRandomFailures() throws Exception {
+        cmisStandIn.setAppendFailureRate(0.3);
+        for (int i = 0; i < 20; i++) {
+            String documentId = cmisStandIn.createDocument();
+            // a chunk may fail several times in a row
+            CmisChunkedUpload chunkedUpload = new CmisChunkedUpload(cmisSessionPool, parameters, CHUNK_SIZE, 20, 0);
+            try {
+                assertEquals(CONTENT_SIZE, chunkedUpload.append(documentId, "large.bin", "application/octet-stream",
+                        new ByteArrayInputStream(content)));
+            } finally {
+                chunkedUpload.close();
+            }
+            assertArrayEquals(content, cmisStandIn.getContent(documentId));
+            cmisStandIn.deleteDocument(documentId);
+        }
+        assertEquals(0, cmisSessionPool.getActiveLeases());
+    }
+
+    @Test
+    void uploadStopsWhenTheCommittedLengthDoesNotMatch() {
+        String documentId = cmisStandIn.createDocument();
+        cmisStandIn.failNextAppend(CmisStandIn.AppendFailure.PARTIAL_COMMIT);
+
+        IOException exception = assertThrows(IOException.class, () -> upload(documentId));
+        assertTrue(exception.getMessage().contains("can't resume"), exception.getMessage());
+        assertEquals(CHUNK_SIZE / 2, cmisStandIn.getContent(documentId).length);
+        assertEquals(0, cmisSessionPool.getActiveLeases());
+    }
+
+    @Test
+    void uploadStopsAfterTheRetries() {
+        String documentId = cmisStandIn.createDocument();
+        for (int i = 0; i <= MAXIMUM_RETRIES; i++)
+            cmisStandIn.failNextAppend(CmisStandIn.AppendFailure.BEFORE_COMMIT);
+
+        IOException exception = assertThrows(IOException.class, () -> upload(documentId));
+        assertTrue(exception.getMessage().contains("not saved after " + MAXIMUM_RETRIES + " retries"),
+                exception.getMessage());
+        assertEquals(0, cmisStandIn.getContent(documentId).length);
+    }
+
+    @Test
+    void documentIdIsTheLastVersion() throws Exception {
+        cmisStandIn.setVersioned(true);
+        String documentId = cmisStandIn.createDocument();
+        CmisChunkedUpload chunkedUpload = upload(documentId);
+
+        String lastVersionId = chunkedUpload.getDocumentId();
+        assertNotEquals(documentId, lastVersionId);
+        assertArrayEquals(content, cmisStandIn.getContent(lastVersionId));
+
+        // the purge of the upload uses this id: the first one leaves the content in the repository
+        cmisStandIn.deleteDocument(documentId);
+        assertTrue(cmisStandIn.containsDocument(lastVersionId));
+        cmisStandIn.deleteDocument(lastVersionId);
+        assertFalse(cmisStandIn.containsDocument(lastVersionId));
+    }
+
+    @Test
+    void documentIdIsTheLastVersionWhenTheUploadFails() {
+        cmisStandIn.setVersioned(true);
+        String documentId = cmisStandIn.createDocument();
+        // the first chunks are saved, each one in a new version, then the upload stops
+        CmisChunkedUpload chunkedUpload = new CmisChunkedUpload(cmisSessionPool, parameters, CHUNK_SIZE, 0, 0);
+        try {
+            assertThrows(IOException.class, () -> chunkedUpload.append(documentId, "large.bin",
+                    "application/octet-stream", new FailingAfterInputStream(content, 3 * CHUNK_SIZE)));
+        } finally {
+            chunkedUpload.close();
+        }
+        assertNotEquals(documentId, chunkedUpload.getDocumentId());
+        assertTrue(cmisStandIn.containsDocument(chunkedUpload.getDocumentId()));
+        assertEquals(2, chunkedUpload.getNbChunks());
+    }
+
+    private CmisChunkedUpload upload(String documentId) throws IOException {
+        CmisChunkedUpload chunkedUpload = new CmisChunkedUpload(cmisSessionPool, parameters, CHUNK_SIZE,
+                MAXIMUM_RETRIES, 0);
+        try {
+            assertEquals(CONTENT_SIZE, chunkedUpload.append(documentId, "large.bin", "application/octet-stream",
+                    new ByteArrayInputStream(content)));
+            return chunkedUpload;
+        } finally {
+            chunkedUpload.close();
+        }
+    }
+
+    /**
+     * The source of the upload fails after some bytes, as a connection lost on the download side
+     */
+    private static class FailingAfterInputStream extends FilterInputStream {
+        private final int failAfter;
+        private int position = 0;
+
+        FailingAfterInputStream(byte[] content, int failAfter) {
+            super(new ByteArrayInputStream(content));
+            this.failAfter = failAfter;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (position >= failAfter)
+                throw new IOException("Source lost at " + position);
+            int count = super.read(buffer, offset, Math.min(length, failAfter - position));
+            if (count > 0)
+                position += count;
+            return count;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/* ******************************************************************** */
+/*                                                                      */
+/*  CmisFileRepositoryTest                                              */
+/*                                                                      */
+/*  Save, load and purge documents against the in-memory CmisStandIn:  */
+/*  each job takes the session of the pool, the second job reuses the  */
+/*  session of the first one, and every lease is given back.           */
+/* ******************************************************************** */
+package io.camunda.connector.filestorage.cmis;
+
+import io.camunda.filestorage.FileVariable;
+import io.camunda.filestorage.FileVariableReference;
+import io.camunda.filestorage.storage.StorageDefinition;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CmisFileRepositoryTest {
+
+    private static final long NO_TIMEOUT_MS = 60_000;
+
+    private final CmisStandIn standIn = new CmisStandIn(0, 0);
+    private final CmisSessionPool pool = new CmisSessionPool(standIn, 4, NO_TIMEOUT_MS, NO_TIMEOUT_MS);
+    private final CmisFileRepository cmisFileRepository = new CmisFileRepository(pool);
+
+    @Test
+    void saveLoadPurge() throws Exception {
+        byte[] content = "CMIS content".getBytes(StandardCharsets.UTF_8);
+        FileVariableReference fileVariableReference = cmisFileRepository.saveFileVariable(
+                getFileVariable("report.txt", content), getStorageDefinition());
+        String documentId = String.valueOf(fileVariableReference.content);
+        assertArrayEquals(content, standIn.getContent(documentId));
+
+        FileVariable fileVariable = cmisFileRepository.loadFileVariable(fileVariableReference);
+        assertEquals("report.txt", fileVariable.getName());
+        assertEquals("text/plain", fileVariable.getMimeType());
+        // the session is kept until the content is read
+        assertEquals(1, pool.getActiveLeases());
+        try (InputStream in = fileVariable.getValueStream()) {
+            assertArrayEquals(content, in.readAllBytes());
+        }
+        assertEquals(0, pool.getActiveLeases());
+
+        assertTrue(cmisFileRepository.purgeFileVariable(fileVariableReference));
+        assertFalse(standIn.containsDocument(documentId));
+        assertNull(cmisFileRepository.loadFileVariable(fileVariableReference));
+        // purge an already purged document
+        assertTrue(cmisFileRepository.purgeFileVariable(fileVariableReference));
+        assertEquals(0, pool.getActiveLeases());
+    }
+
+    @Test
+    void secondJobReusesTheSession() throws Exception {
+        FileVariableReference first = cmisFileRepository.saveFileVariable(
+                getFileVariable("first.txt", new byte[]{1}), getStorageDefinition());
+        FileVariableReference second = cmisFileRepository.saveFileVariable(
+                getFileVariable("second.txt", new byte[]{2}), getStorageDefinition());
+
+        assertEquals(1, standIn.getSessionCount());
+        assertEquals(1, pool.getCreatedCount());
+        assertEquals(1, pool.getReusedCount());
+
+        cmisFileRepository.purgeFileVariable(first);
+        cmisFileRepository.purgeFileVariable(second);
+        assertEquals(1, standIn.getSessionCount());
+        assertEquals(3, pool.getReusedCount());
+        assertEquals(0, pool.getActiveLeases());
+    }
+
+    private static FileVariable getFileVariable(String name, byte[] content) {
+        FileVariable fileVariable = new FileVariable();
+        fileVariable.setName(name);
+        fileVariable.setMimeType("text/plain");
+        fileVariable.setValueStream(new ByteArrayInputStream(content));
+        return fileVariable;
+    }
+
+    private static StorageDefinition getStorageDefinition() {
+        StorageDefinition storageDefinition = new StorageDefinition();
+        storageDefinition.type = StorageDefinition.StorageDefinitionType.CMIS;
+        storageDefinition.complementInObject = Map.of("url", "http://localhost:8099/cmis/browser",
+                "repositoryName", "default", "userName", "test", "password", "test",
+                "storageDefinitionFolder", "/storage");
+        return storageDefinition;
+    }
+}
@@ -0,0 +1,186 @@
+/* ******************************************************************** */
+/*                                                                      */
+/*  CmisSessionPoolTest                                                 */
+/*                                                                      */
+/*  The pool against the in-memory CmisStandIn: a session is reused,  */
+/*  closed when idle for too long, replaced when its check fails, and  */
+/*  the counters follow. The latency is the CmisSessionPoolBenchmark.  */
+/* ******************************************************************** */
+package io.camunda.connector.filestorage.cmis;
+
+import org.apache.chemistry.opencmis.client.api.Session;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CmisSessionPoolTest {
+
+    private static final long NO_TIMEOUT_MS = 60_000;
+    private static final long SHORT_TIMEOUT_MS = 50;
+
+    private final CmisConnectionParameters parameters = new CmisConnectionParameters(
+            "http://localhost:8099/cmis/browser", "default", "test", "test", "/storage");
+
+    @Test
+    void sessionIsReused() throws Exception {
+        RecordingStandIn standIn = new RecordingStandIn();
+        CmisSessionPool pool = new CmisSessionPool(standIn, 4, NO_TIMEOUT_MS, NO_TIMEOUT_MS);
+
+        Session first;
+        try (CmisSessionPool.Lease lease = pool.acquire(parameters)) {
+            first = lease.getSession();
+            assertEquals(1, pool.getActiveLeases());
+        }
+        try (CmisSessionPool.Lease lease = pool.acquire(parameters)) {
+            assertSame(first, lease.getSession());
+        }
+
+        assertEquals(1, standIn.getSessionCount());
+        assertEquals(1, pool.getCreatedCount());
+        assertEquals(1, pool.getReusedCount());
+        assertEquals(0, pool.getEvictedCount());
+        assertEquals(1, pool.size());
+        assertEquals(0, pool.getActiveLeases());
+        assertTrue(standIn.closedSessions.isEmpty());
+    }
+
+    @Test
+    void idleSessionIsEvicted() throws Exception {
+        RecordingStandIn standIn = new RecordingStandIn();
+        CmisSessionPool pool = new CmisSessionPool(standIn, 4, SHORT_TIMEOUT_MS, NO_TIMEOUT_MS);
+
+        Session first;
+        try (CmisSessionPool.Lease lease = pool.acquire(parameters)) {
+            first = lease.getSession();
+        }
+        Thread.sleep(SHORT_TIMEOUT_MS * 3);
+        pool.evictIdle();
+
+        assertEquals(0, pool.size());
+        assertEquals(1, pool.getEvictedCount());
+        assertEquals(List.of(first), standIn.closedSessions);
+
+        try (CmisSessionPool.Lease lease = pool.acquire(parameters)) {
+            assertNotSame(first, lease.getSession());
+        }
+        assertEquals(2, pool.getCreatedCount());
+        assertEquals(0, pool.getReusedCount());
+    }
+
+    @Test
+    void sessionInUseIsNotEvicted() throws Exception {
+        RecordingStandIn standIn = new RecordingStandIn();
+        CmisSessionPool pool = new CmisSessionPool(standIn, 4, SHORT_TIMEOUT_MS, NO_TIMEOUT_MS);
+
+        try (CmisSessionPool.Lease lease = pool.acquire(parameters)) {
+            Thread.sleep(SHORT_TIMEOUT_MS * 3);
+            pool.evictIdle();
+            assertEquals(1, pool.size());
+            assertEquals(0, pool.getEvictedCount());
+        }
+        assertTrue(standIn.closedSessions.isEmpty());
+    }
+
+    @Test
+    void unhealthySessionIsReplaced() throws Exception {
+        RecordingStandIn standIn = new RecordingStandIn();
+        // validation interval 0: the session is checked at each acquire
+        CmisSessionPool pool = new CmisSessionPool(standIn, 4, NO_TIMEOUT_MS, 0);
+
+        Session first;
+        try (CmisSessionPool.Lease lease = pool.acquire(parameters)) {
+            first = lease.getSession();
+        }
+        Thread.sleep(5);
+        try (CmisSessionPool.Lease lease = pool.acquire(parameters)) {
+            assertSame(first, lease.getSession());
+        }
+        assertEquals(1, pool.getReusedCount());
+
+        standIn.healthy = false;
+        Thread.sleep(5);
+        Session second;
+        try (CmisSessionPool.Lease lease = pool.acquire(parameters)) {
+            second = lease.getSession();
+            assertNotSame(first, second);
+        }
+
+        assertEquals(1, pool.getHealthCheckFailureCount());
+        assertEquals(2, pool.getCreatedCount());
+        assertEquals(1, pool.getReusedCount());
+        assertEquals(List.of(first), standIn.closedSessions);
+        assertEquals(1, pool.size());
+        assertEquals(0, pool.getActiveLeases());
+    }
+
+    @Test
+    void leastRecentlyUsedSessionIsEvictedOverTheMaximum() throws Exception {
+        RecordingStandIn standIn = new RecordingStandIn();
+        CmisSessionPool pool = new CmisSessionPool(standIn, 1, NO_TIMEOUT_MS, NO_TIMEOUT_MS);
+        CmisConnectionParameters otherParameters = new CmisConnectionParameters(
+                "http://localhost:8099/cmis/browser", "default", "other", "other", "/storage");
+
+        Session first;
+        try (CmisSessionPool.Lease lease = pool.acquire(parameters)) {
+            first = lease.getSession();
+        }
+        try (CmisSessionPool.Lease lease = pool.acquire(otherParameters)) {
+            assertNotSame(first, lease.getSession());
+        }
+
+        assertEquals(1, pool.size());
+        assertEquals(1, pool.getEvictedCount());
+        assertEquals(2, pool.getCreatedCount());
+        assertEquals(List.of(first), standIn.closedSessions);
+    }
+
+    @Test
+    void invalidatedSessionIsClosedAtTheEndOfTheLastLease() throws Exception {
+        RecordingStandIn standIn = new RecordingStandIn();
+        CmisSessionPool pool = new CmisSessionPool(standIn, 4, NO_TIMEOUT_MS, NO_TIMEOUT_MS);
+
+        CmisSessionPool.Lease firstLease = pool.acquire(parameters);
+        CmisSessionPool.Lease secondLease = pool.acquire(parameters);
+        assertSame(firstLease.getSession(), secondLease.getSession());
+        assertEquals(2, pool.getActiveLeases());
+
+        firstLease.invalidate();
+        assertEquals(0, pool.size());
+        assertTrue(standIn.closedSessions.isEmpty(), "Session closed while a job uses it");
+
+        secondLease.close();
+        secondLease.close();
+        assertEquals(List.of(secondLease.getSession()), standIn.closedSessions);
+    }
+
+    /**
+     * The stand-in, with a health check which can fail, and the list of the closed sessions
+     */
+    private static class RecordingStandIn extends CmisStandIn {
+        private final List<Session> closedSessions = new ArrayList<>();
+        private volatile boolean healthy = true;
+
+        RecordingStandIn() {
+            super(0, 0);
+        }
+
+        @Override
+        public boolean isHealthy(Session session) {
+            call();
+            return healthy;
+        }
+
+        @Override
+        public void close(Session session) {
+            synchronized (closedSessions) {
+                closedSessions.add(session);
+            }
+        }
+    }
+}
@@ -0,0 +1,402 @@
+/* ******************************************************************** */
+/*                                                                      */
+/*  CmisStandIn                                                         */
+/*                                                                      */
+/*  In-memory CMIS repository for the tests and the benchmarks: no     */
+/*  server is needed. Each session creation and each repository call  */
+/*  waits a given time, to simulate the network round trips of a real  */
+/*  repository. Documents are kept in memory: a folder creates them,   */
+/*  a session reads and deletes them by id. An append may fail, before */
+/*  or after the chunk is committed, to simulate an interrupted        */
+/*  connection. A content stream is read at a limited rate, as one TCP */
+/*  stream on a high-latency link; a range is a new stream. A          */
+/*  versioned repository gives a new id at each append.                */
+/* ******************************************************************** */
+package io.camunda.connector.filestorage.cmis;
+
+import org.apache.chemistry.opencmis.client.api.Document;
+import org.apache.chemistry.opencmis.client.api.Folder;
+import org.apache.chemistry.opencmis.client.api.Session;
+import org.apache.chemistry.opencmis.client.runtime.OperationContextImpl;
+import org.apache.chemistry.opencmis.commons.PropertyIds;
+import org.apache.chemistry.opencmis.commons.data.ContentStream;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisConnectionException;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisObjectNotFoundException;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.ContentStreamImpl;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.PartialContentStreamImpl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Proxy;
+import java.math.BigInteger;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+public class CmisStandIn implements CmisSessionFactory {
+
+    /**
+     * How an append fails
+     */
+    public enum AppendFailure {
+        /**
+         * Nothing is saved
+         */
+        BEFORE_COMMIT,
+        /**
+         * The chunk is saved, the answer is lost
+         */
+        AFTER_COMMIT,
+        /**
+         * Half of the chunk is saved: the upload can't be resumed
+         */
+        PARTIAL_COMMIT
+    }
+
+    private final long connectLatencyMs;
+    private final long callLatencyMs;
+    private final AtomicLong sessionCount = new AtomicLong();
+    private final AtomicLong callCount = new AtomicLong();
+    private final AtomicLong failureCount = new AtomicLong();
+    private final AtomicLong documentSequence = new AtomicLong();
+    private final Map<String, ByteArrayOutputStream> documents = new ConcurrentHashMap<>();
+    /**
+     * File name and mime type of the content of each document
+     */
+    private final Map<String, String[]> contentNames = new ConcurrentHashMap<>();
+    /**
+     * Failures of the next appends, before the random ones
+     */
+    private final Queue<AppendFailure> scheduledFailures = new ConcurrentLinkedQueue<>();
+    /**
+     * Probability of an append to fail
+     */
+    private volatile double appendFailureRate = 0;
+    /**
+     * Bytes per second of one content stream, 0: no limit
+     */
+    private volatile long streamBytesPerSecond = 0;
+    /**
+     * Each append gives a new id to the document
+     */
+    private volatile boolean versioned = false;
+
+    /**
+     * @param connectLatencyMs time to open a session (repositories, repository info)
+     * @param callLatencyMs    time of one call to the repository
+     */
+    public CmisStandIn(long connectLatencyMs, long callLatencyMs) {
+        this.connectLatencyMs = connectLatencyMs;
+        this.callLatencyMs = callLatencyMs;
+    }
+
+    @Override
+    public Session create(CmisConnectionParameters parameters) {
+        waitMs(connectLatencyMs);
+        sessionCount.incrementAndGet();
+        // every call of the session is one round trip
+        return (Session) Proxy.newProxyInstance(Session.class.getClassLoader(), new Class<?>[]{Session.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "CmisStandIn session " + parameters;
+                    case "createOperationContext" -> new OperationContextImpl();
+                    case "getObjectByPath" -> {
+                        call();
+                        yield getFolder(String.valueOf(args[0]));
+                    }
+                    case "getObject" -> {
+                        call();
+                        String id = String.valueOf(args[0]);
+                        if (!documents.containsKey(id))
+                            throw new CmisObjectNotFoundException("Document [" + id + "] does not exist");
+                        yield getDocument(id);
+                    }
+                    default -> {
+                        call();
+                        yield null;
+                    }
+                });
+    }
+
+    @Override
+    public boolean isHealthy(Session session) {
+        call();
+        return true;
+    }
+
+    @Override
+    public void close(Session session) {
+        // nothing is kept by the stand-in
+    }
+
+    /**
+     * @return the id of a new empty document
+     */
+    public String createDocument() {
+        String id = "doc-" + documentSequence.incrementAndGet();
+        documents.put(id, new ByteArrayOutputStream());
+        return id;
+    }
+
+    /**
+     * @param content content of the document
+     * @return the id of a new document
+     */
+    public String createDocument(byte[] content) {
+        String id = createDocument();
+        documents.get(id).writeBytes(content);
+        return id;
+    }
+
+    public byte[] getContent(String id) {
+        ByteArrayOutputStream content = documents.get(id);
+        synchronized (content) {
+            return content.toByteArray();
+        }
+    }
+
+    /**
+     * @param appendFailureRate probability of an append to fail: half of the failures happen after the chunk is
+     *                          committed, as a connection lost before the answer
+     */
+    public void setAppendFailureRate(double appendFailureRate) {
+        this.appendFailureRate = appendFailureRate;
+    }
+
+    /**
+     * @param failure failure of the next append not already failing
+     */
+    public void failNextAppend(AppendFailure failure) {
+        scheduledFailures.add(failure);
+    }
+
+    /**
+     * @param versioned true: an append gives a new id (a new version). Every id of the document gives the latest
+     *                  content, and a delete removes only the id given.
+     */
+    public void setVersioned(boolean versioned) {
+        this.versioned = versioned;
+    }
+
+    /**
+     * @param streamBytesPerSecond bytes per second of one content stream, 0: no limit
+     */
+    public void setStreamBytesPerSecond(long streamBytesPerSecond) {
+        this.streamBytesPerSecond = streamBytesPerSecond;
+    }
+
+    /**
+     * @param id id of a document, or of one of its versions
+     * @return true if the id is known
+     */
+    public boolean containsDocument(String id) {
+        return documents.containsKey(id);
+    }
+
+    public void deleteDocument(String id) {
+        documents.remove(id);
+        contentNames.remove(id);
+    }
+
+    private Folder getFolder(String path) {
+        return (Folder) Proxy.newProxyInstance(Folder.class.getClassLoader(), new Class<?>[]{Folder.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "CmisStandIn folder " + path;
+                    case "getPath" -> path;
+                    case "createDocument" -> {
+                        // createDocument(properties, contentStream, versioningState, ...)
+                        call();
+                        Map<?, ?> properties = (Map<?, ?>) args[0];
+                        ContentStream contentStream = (ContentStream) args[1];
+                        String id = createDocument(readAll(contentStream));
+                        contentNames.put(id, new String[]{
+                                contentStream.getFileName() != null ? contentStream.getFileName() :
+                                        String.valueOf(properties.get(PropertyIds.NAME)),
+                                contentStream.getMimeType()});
+                        yield getDocument(id);
+                    }
+                    default -> {
+                        call();
+                        yield null;
+                    }
+                });
+    }
+
+    private Document getDocument(String id) {
+        ByteArrayOutputStream content = documents.get(id);
+        String[] contentName = contentNames.getOrDefault(id, new String[]{id, "application/octet-stream"});
+        return (Document) Proxy.newProxyInstance(Document.class.getClassLoader(), new Class<?>[]{Document.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "CmisStandIn document " + id;
+                    case "getId" -> id;
+                    case "getName", "getContentStreamFileName" -> contentName[0];
+                    case "getContentStreamMimeType" -> contentName[1];
+                    case "getContentStreamLength" -> {
+                        synchronized (content) {
+                            yield (long) content.size();
+                        }
+                    }
+                    case "getContentStream" -> {
+                        // the first byte comes after one round trip
+                        call();
+                        yield getContentStream(content, contentName, args);
+                    }
+                    case "appendContentStream" -> {
+                        call();
+                        AppendFailure failure = scheduledFailures.poll();
+                        if (failure == null) {
+                            double draw = ThreadLocalRandom.current().nextDouble();
+                            if (draw < appendFailureRate / 2)
+                                failure = AppendFailure.BEFORE_COMMIT;
+                            else if (draw < appendFailureRate)
+                                failure = AppendFailure.AFTER_COMMIT;
+                        }
+                        if (failure == AppendFailure.BEFORE_COMMIT) {
+                            failureCount.incrementAndGet();
+                            throw new CmisConnectionException("CmisStandIn: connection lost before the append");
+                        }
+                        append(content, (ContentStream) args[0], failure == AppendFailure.PARTIAL_COMMIT);
+                        if (failure != null) {
+                            failureCount.incrementAndGet();
+                            throw new CmisConnectionException("CmisStandIn: connection lost after the append");
+                        }
+                        if (!versioned)
+                            // the Document, or its ObjectId
+                            yield proxy;
+                        String versionId = "doc-" + documentSequence.incrementAndGet();
+                        documents.put(versionId, content);
+                        contentNames.put(versionId, contentName);
+                        yield getDocument(versionId);
+                    }
+                    case "delete" -> {
+                        call();
+                        deleteDocument(id);
+                        yield null;
+                    }
+                    default -> {
+                        call();
+                        yield null;
+                    }
+                });
+    }
+
+    /**
+     * getContentStream(), (streamId), (offset, length) or (streamId, offset, length)
+     */
+    private ContentStream getContentStream(ByteArrayOutputStream content, String[] contentName, Object[] args) {
+        byte[] bytes;
+        synchronized (content) {
+            bytes = content.toByteArray();
+        }
+        BigInteger offsetArg = null;
+        BigInteger lengthArg = null;
+        if (args != null && args.length >= 2) {
+            offsetArg = (BigInteger) args[args.length - 2];
+            lengthArg = (BigInteger) args[args.length - 1];
+        }
+        if (offsetArg == null && lengthArg == null)
+            return new ContentStreamImpl(contentName[0], BigInteger.valueOf(bytes.length), contentName[1],
+                    new ThrottledInputStream(new ByteArrayInputStream(bytes), streamBytesPerSecond));
+        int offset = offsetArg == null ? 0 : (int) Math.min(offsetArg.longValue(), bytes.length);
+        int length = lengthArg == null ? bytes.length - offset :
+                (int) Math.min(lengthArg.longValue(), bytes.length - offset);
+        PartialContentStreamImpl partialContentStream = new PartialContentStreamImpl();
+        partialContentStream.setFileName(contentName[0]);
+        partialContentStream.setLength(BigInteger.valueOf(length));
+        partialContentStream.setMimeType(contentName[1]);
+        partialContentStream.setStream(new ThrottledInputStream(new ByteArrayInputStream(bytes, offset, length),
+                streamBytesPerSecond));
+        return partialContentStream;
+    }
+
+    private static void append(ByteArrayOutputStream content, ContentStream contentStream, boolean partial) {
+        try {
+            byte[] chunk = contentStream.getStream().readAllBytes();
+            synchronized (content) {
+                content.write(chunk, 0, partial ? chunk.length / 2 : chunk.length);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] readAll(ContentStream contentStream) {
+        try {
+            return contentStream.getStream().readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * One round trip to the repository
+     */
+    public void call() {
+        waitMs(callLatencyMs);
+        callCount.incrementAndGet();
+    }
+
+    /**
+     * A stream read at a limited rate
+     */
+    private static class ThrottledInputStream extends FilterInputStream {
+        private final long bytesPerSecond;
+        private final long begin = System.nanoTime();
+        private long bytesRead = 0;
+
+        ThrottledInputStream(InputStream in, long bytesPerSecond) {
+            super(in);
+            this.bytesPerSecond = bytesPerSecond;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) == -1 ? -1 : one[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int count = super.read(buffer, offset, length);
+            if (count > 0 && bytesPerSecond > 0) {
+                bytesRead += count;
+                long expectedNanos = bytesRead * 1_000_000_000L / bytesPerSecond;
+                long aheadNanos = expectedNanos - (System.nanoTime() - begin);
+                if (aheadNanos > 0)
+                    LockSupport.parkNanos(aheadNanos);
+            }
+            return count;
+        }
+    }
+
+    private static void waitMs(long delayMs) {
+        if (delayMs > 0)
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(delayMs));
+    }
+
+    public long getSessionCount() {
+        return sessionCount.get();
+    }
+
+    public long getCallCount() {
+        return callCount.get();
+    }
+
+    public long getFailureCount() {
+        return failureCount.get();
+    }
+}
@@ -0,0 +1,135 @@
+/* ******************************************************************** */
+/*                                                                      */
+/*  FileHandleBudgetTest                                                */
+/*                                                                      */
+/*  Run upload, download and copy jobs on the local storages, and check */
+/*  each job gives back its handles to the budget and closes its file  */
+/*  descriptors. The long run is the FileHandleSoakBenchmark.          */
+/* ******************************************************************** */
+package io.camunda.connector.filestorage.toolbox;
+
+import io.camunda.connector.filestorage.FileStorageFunction;
+import io.camunda.connector.filestorage.FileStorageInput;
+import io.camunda.connector.filestorage.FileStorageOutput;
+import io.camunda.connector.filestorage.StubOutboundConnectorContext;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static io.camunda.connector.filestorage.FileStorageTestToolbox.getOpenFileDescriptors;
+import static io.camunda.connector.filestorage.FileStorageTestToolbox.getStorageInput;
+import static io.camunda.connector.filestorage.FileStorageTestToolbox.purge;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FileHandleBudgetTest {
+
+    private static final int NUMBER_OF_JOBS = 200;
+    /**
+     * Descriptors opened by the JVM itself during the run (class loading, JIT logs...)
+     */
+    private static final long TOLERANCE = 16;
+
+    private final FileStorageFunction fileStorageFunction = new FileStorageFunction();
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void tempFolderJobsCloseTheirHandles() throws Exception {
+        runJobs("TEMPFOLDER");
+    }
+
+    @Test
+    void folderJobsCloseTheirHandles() throws Exception {
+        runJobs("FOLDER");
+    }
+
+    @Test
+    void handleIsGivenBackWhenTheStreamIsClosedTwice() throws Exception {
+        FileHandleBudget budget = new FileHandleBudget(2);
+        FileHandleBudget.Handle handle = budget.acquire();
+        assertEquals(1, budget.getOpenHandles());
+        handle.close();
+        handle.close();
+        assertEquals(0, budget.getOpenHandles());
+    }
+
+    @Test
+    void handlesOfAnOperationAreReservedAndGivenBackTogether() throws Exception {
+        FileHandleBudget budget = new FileHandleBudget(4);
+        FileHandleBudget.Handle handle = budget.acquire(3);
+        assertEquals(3, budget.getOpenHandles());
+        handle.close();
+        assertEquals(0, budget.getOpenHandles());
+
+        // more than the budget: the operation gets the whole budget, and does not wait forever
+        FileHandleBudget.Handle largeHandle = budget.acquire(10);
+        assertEquals(4, budget.getOpenHandles());
+        largeHandle.close();
+        assertEquals(0, budget.getOpenHandles());
+    }
+
+    private void runJobs(String storageDefinition) throws Exception {
+        Path folderToRead = Files.createDirectories(folder.resolve("read"));
+        Path folderToSave = Files.createDirectories(folder.resolve("save"));
+        Path storageFolder = Files.createDirectories(folder.resolve("storage"));
+        for (int i = 0; i < 4; i++) {
+            Files.writeString(folderToRead.resolve("file_" + i + ".txt"), "content of the file " + i);
+        }
+
+        FileStorageInput uploadInput = getStorageInput("upload", storageDefinition, storageFolder);
+        uploadInput.folderToRead = folderToRead.toString();
+        uploadInput.filterFile = "*.*";
+        uploadInput.maximumFilesToProcess = 4;
+        uploadInput.policy = FileStorageInput.POLICY_V_UNCHANGE;
+
+        // first jobs: classes are loaded, pools are created
+        runJob(uploadInput, folderToSave, storageDefinition, storageFolder);
+        long openFileDescriptorsAtStart = getOpenFileDescriptors();
+
+        for (int i = 0; i < NUMBER_OF_JOBS; i++) {
+            runJob(uploadInput, folderToSave, storageDefinition, storageFolder);
+        }
+
+        assertEquals(0, FileHandleBudget.getInstance().getOpenHandles(), "Handles not given back to the budget");
+        long openFileDescriptorsAtEnd = getOpenFileDescriptors();
+        if (openFileDescriptorsAtStart >= 0)
+            assertTrue(openFileDescriptorsAtEnd <= openFileDescriptorsAtStart + TOLERANCE,
+                    "File descriptors leak: " + openFileDescriptorsAtStart + " -> " + openFileDescriptorsAtEnd);
+    }
+
+    /**
+     * Upload the files, download the last one, copy it, then purge the references: the storage does not grow
+     */
+    private void runJob(FileStorageInput uploadInput, Path folderToSave, String storageDefinition, Path storageFolder)
+            throws Exception {
+        FileStorageOutput uploadOutput = execute(uploadInput);
+        assertEquals(4, uploadOutput.nbFilesProcessed);
+        assertNotNull(uploadOutput.fileLoaded);
+
+        FileStorageInput downloadInput = new FileStorageInput();
+        downloadInput.fileStorageFunction = "download";
+        downloadInput.sourceFile = uploadOutput.fileLoaded;
+        downloadInput.folderToSave = folderToSave.toString();
+        downloadInput.fileNameToWrite = "downloaded.txt";
+        assertTrue(execute(downloadInput).fileIsDownloaded);
+
+        FileStorageInput copyInput = getStorageInput("copy", storageDefinition, storageFolder);
+        copyInput.sourceFile = uploadOutput.fileLoaded;
+        FileStorageOutput copyOutput = execute(copyInput);
+        assertNotNull(copyOutput.fileLoaded);
+
+        purge(copyOutput.fileLoaded);
+        for (Object reference : uploadOutput.listFilesLoaded)
+            purge(reference);
+    }
+
+    private FileStorageOutput execute(FileStorageInput input) throws Exception {
+        return fileStorageFunction.execute(new StubOutboundConnectorContext(input));
+    }
+
+}
@@ -0,0 +1,108 @@
+/* ******************************************************************** */
+/*                                                                      */
+/*  ReferenceSummaryTest                                                */
+/*                                                                      */
+/*  A reference on a JSON storage carries the whole file: its summary  */
+/*  must be bounded whatever the file size, as the trace giving it,    */
+/*  and still tell two contents apart, even when they differ only in   */
+/*  the middle. The cost is the ReferenceSummaryBenchmark.             */
+/* ******************************************************************** */
+package io.camunda.connector.filestorage.toolbox;
+
+import io.camunda.connector.filestorage.upload.UploadFile;
+import io.camunda.filestorage.FileVariableReference;
+import io.camunda.filestorage.storage.StorageDefinition;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReferenceSummaryTest {
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void summaryOfAJsonReferenceIsBounded() throws Exception {
+        for (int fileSizeKb : new int[]{1, 1024, 16384}) {
+            FileVariableReference reference = getJsonReference(fileSizeKb);
+            String summary = ReferenceSummary.summarize(reference);
+            assertTrue(summary.length() <= ReferenceSummary.MAXIMUM_SUMMARY_LENGTH,
+                    "Summary of a " + fileSizeKb + " Kb file has " + summary.length() + " characters");
+            assertTrue(summary.startsWith("JSON:"), summary);
+        }
+    }
+
+    @Test
+    void traceSizeDoesNotDependOnTheFileSize() throws Exception {
+        int smallTraceLength = getTraceLength(getJsonReference(1));
+        for (int fileSizeKb : new int[]{1024, 16384}) {
+            int traceLength = getTraceLength(getJsonReference(fileSizeKb));
+            // only the digits of the length and of the hash differ
+            assertTrue(Math.abs(traceLength - smallTraceLength) <= 32,
+                    "Trace of a " + fileSizeKb + " Kb file has " + traceLength + " characters, " + smallTraceLength
+                            + " for 1 Kb");
+        }
+    }
+
+    @Test
+    void shortReferenceIsKept() {
+        assertTrue(ReferenceSummary.summarize("invoice.pdf").startsWith("invoice.pdf(length=11,hash="));
+        assertEquals("null", ReferenceSummary.summarize(null));
+    }
+
+    @Test
+    void nameIsFoundInTheContent() {
+        String content = "{\"name\": \"invoice.pdf\", \"value\":\"" + "A".repeat(100_000) + "\"}";
+        String summary = ReferenceSummary.summarize(content);
+        assertTrue(summary.startsWith("invoice.pdf(length=" + content.length() + ","), summary);
+    }
+
+    @Test
+    void mapGivesItsName() {
+        String summary = ReferenceSummary.summarize(Map.of("name", "invoice.pdf", "value", "A".repeat(100_000)));
+        assertTrue(summary.startsWith("invoice.pdf(keys=2,"), summary);
+    }
+
+    @Test
+    void hashTellsContentsApart() {
+        String content = "B".repeat(1_000_000);
+        assertEquals(ReferenceSummary.summarize(content), ReferenceSummary.summarize(new String(content)));
+        // same beginning, a different end or length
+        assertNotEquals(ReferenceSummary.summarize(content), ReferenceSummary.summarize(content.substring(1) + "C"));
+        assertNotEquals(ReferenceSummary.summarize(content), ReferenceSummary.summarize(content + "B"));
+    }
+
+    @Test
+    void hashTellsContentsDifferingInTheMiddleApart() {
+        String content = "B".repeat(1_000_000);
+        // same beginning, same end, same length
+        String middleChanged = content.substring(0, 400_000) + "C".repeat(200_000) + content.substring(600_000);
+        assertNotEquals(ReferenceSummary.summarize(content), ReferenceSummary.summarize(middleChanged));
+    }
+
+    private static int getTraceLength(FileVariableReference reference) {
+        ExecutionTrace trace = ExecutionTrace.start(LoggerFactory.getLogger(ReferenceSummaryTest.class), "test");
+        trace.context("fileReference", reference);
+        trace.value("fileLoaded", reference);
+        return trace.toString().length();
+    }
+
+    private FileVariableReference getJsonReference(int fileSizeKb) throws Exception {
+        Path file = folder.resolve("file_" + fileSizeKb + ".bin");
+        byte[] content = new byte[fileSizeKb * 1024];
+        new Random(1).nextBytes(content);
+        Files.write(file, content);
+        return new UploadFile().loadFile(file.toFile(), StorageDefinition.getFromString("JSON"),
+                ExecutionTrace.start(LoggerFactory.getLogger(ReferenceSummaryTest.class), "test"),
+                null).fileVariableReference();
+    }
+}
@@ -0,0 +1,90 @@
+/* ******************************************************************** */
+/*                                                                      */
+/*  ChecksumBenchmark                                                   */
+/*                                                                      */
+/*  Cost of the inline checksum, for 1 GB written to a local file.      */
+/*  NONE goes through the same stream copy without a checksum: the      */
+/*  difference with SHA256 / CRC32C is the hashing overhead per GB.      */
+/* ******************************************************************** */
+package io.camunda.filestorage.benchmark;
+
+import io.camunda.connector.filestorage.toolbox.ChecksumInputStream;
+import io.camunda.connector.filestorage.toolbox.TransferToolbox;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ChecksumBenchmark {
+
+    @Param({"NONE", "SHA256", "CRC32C"})
+    public String algorithm;
+
+    @Param({"1073741824"})
+    public long fileSize;
+
+    private Path folder;
+    private Path storedFile;
+    private Path targetFile;
+    private ChecksumInputStream.Algorithm checksumAlgorithm;
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder().include(ChecksumBenchmark.class.getSimpleName()).build();
+        new Runner(options).run();
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        checksumAlgorithm = "NONE".equals(algorithm) ? null : ChecksumInputStream.Algorithm.valueOf(algorithm);
+        folder = Files.createTempDirectory("checksumBenchmark");
+        storedFile = folder.resolve("stored.bin");
+        targetFile = folder.resolve("target.bin");
+        byte[] chunk = new byte[1024 * 1024];
+        new Random(1).nextBytes(chunk);
+        try (OutputStream outputStream = Files.newOutputStream(storedFile)) {
+            for (long written = 0; written < fileSize; written += chunk.length) {
+                outputStream.write(chunk, 0, (int) Math.min(chunk.length, fileSize - written));
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(storedFile);
+        Files.deleteIfExists(targetFile);
+        Files.deleteIfExists(folder);
+    }
+
+    @Benchmark
+    public long copy() throws IOException {
+        try (InputStream fileStream = new FileInputStream(storedFile.toFile());
+             FileChannel outputChannel = FileChannel.open(targetFile, StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            // both paths hide the FileInputStream: the copy is the same, only the checksum differs
+            InputStream source = checksumAlgorithm == null ? new FilterInputStream(fileStream) {
+            } : new ChecksumInputStream(fileStream, checksumAlgorithm);
+            long size = TransferToolbox.copy(source, outputChannel).size();
+            if (source instanceof ChecksumInputStream checksumStream && checksumStream.getChecksum() == null)
+                throw new IllegalStateException("No checksum");
+            return size;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/* ******************************************************************** */
+/*                                                                      */
+/*  CmisChunkedUploadBenchmark                                          */
+/*                                                                      */
+/*  Chunked upload of a large content to the in-memory CMIS stand-in,  */
+/*  with interrupted appends. The content of the document, whatever   */
+/*  the failures, is checked by the CmisChunkedUploadTest.              */
+/* ******************************************************************** */
+package io.camunda.filestorage.benchmark;
+
+import io.camunda.connector.filestorage.cmis.CmisChunkedUpload;
+import io.camunda.connector.filestorage.cmis.CmisConnectionParameters;
+import io.camunda.connector.filestorage.cmis.CmisSessionPool;
+import io.camunda.connector.filestorage.cmis.CmisStandIn;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx1g"})
+public class CmisChunkedUploadBenchmark {
+
+    @Param({"64"})
+    public int contentSizeMb;
+
+    @Param({"1", "8"})
+    public int chunkSizeMb;
+
+    @Param({"0", "0.1"})
+    public double appendFailureRate;
+
+    private CmisStandIn cmisStandIn;
+    private CmisSessionPool cmisSessionPool;
+    private CmisConnectionParameters parameters;
+    private byte[] content;
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder().include(CmisChunkedUploadBenchmark.class.getSimpleName()).build();
+        new Runner(options).run();
+    }
+
+    @Setup
+    public void setup() {
+        cmisStandIn = new CmisStandIn(20, 1);
+        cmisStandIn.setAppendFailureRate(appendFailureRate);
+        cmisSessionPool = new CmisSessionPool(cmisStandIn, CmisSessionPool.DEFAULT_MAXIMUM_SIZE,
+                CmisSessionPool.DEFAULT_IDLE_TIMEOUT_MS, CmisSessionPool.DEFAULT_VALIDATION_INTERVAL_MS);
+        parameters = new CmisConnectionParameters("http://localhost:8099/cmis/browser", "default", "test", "test",
+                "/storage");
+        content = new byte[contentSizeMb * 1024 * 1024];
+        new Random(42).nextBytes(content);
+    }
+
+    @TearDown
+    public void tearDown() {
+        cmisSessionPool.clear();
+    }
+
+    @Benchmark
+    public long chunkedUpload() throws Exception {
+        String documentId = cmisStandIn.createDocument();
+        // retries are not delayed: the benchmark measures the resume, not the back-off
+        CmisChunkedUpload chunkedUpload = new CmisChunkedUpload(cmisSessionPool, parameters,
+                CmisChunkedUpload.getChunkSize(chunkSizeMb), 20, 0);
+        try {
+            return chunkedUpload.append(documentId, "large.bin", "application/octet-stream",
+                    new ByteArrayInputStream(content));
+        } finally {
+            chunkedUpload.close();
+            cmisStandIn.deleteDocument(documentId);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/* ******************************************************************** */
+/*                                                                      */
+/*  CmisSessionPoolBenchmark                                            */
+/*                                                                      */
+/*  Latency of one CMIS job against the in-memory stand-in: a new      */
+/*  session per job (the behavior without the pool) against a session  */
+/*  kept in the CmisSessionPool. The job is one repository call; the   */
+/*  difference is the cost of opening the session.                      */
+/* ******************************************************************** */
+package io.camunda.filestorage.benchmark;
+
+import io.camunda.connector.filestorage.cmis.CmisConnectionParameters;
+import io.camunda.connector.filestorage.cmis.CmisSessionPool;
+import io.camunda.connector.filestorage.cmis.CmisStandIn;
+import org.apache.chemistry.opencmis.client.api.Session;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@Threads(4)
+public class CmisSessionPoolBenchmark {
+
+    @Param({"20"})
+    public long connectLatencyMs;
+
+    @Param({"2"})
+    public long callLatencyMs;
+
+    private CmisStandIn cmisStandIn;
+    private CmisSessionPool cmisSessionPool;
+    private CmisConnectionParameters parameters;
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder().include(CmisSessionPoolBenchmark.class.getSimpleName()).build();
+        new Runner(options).run();
+    }
+
+    @Setup
+    public void setup() {
+        cmisStandIn = new CmisStandIn(connectLatencyMs, callLatencyMs);
+        cmisSessionPool = new CmisSessionPool(cmisStandIn, CmisSessionPool.DEFAULT_MAXIMUM_SIZE,
+                CmisSessionPool.DEFAULT_IDLE_TIMEOUT_MS, CmisSessionPool.DEFAULT_VALIDATION_INTERVAL_MS);
+        parameters = new CmisConnectionParameters("http://localhost:8099/cmis/browser", "default", "test", "test",
+                "/storage");
+    }
+
+    @TearDown
+    public void tearDown() {
+        cmisSessionPool.clear();
+    }
+
+    @Benchmark
+    public Object newSessionPerJob() throws Exception {
+        Session session = cmisStandIn.create(parameters);
+        try {
+            return session.getRootFolder();
+        } finally {
+            cmisStandIn.close(session);
+        }
+    }
+
+    @Benchmark
+    public Object pooledSession() throws Exception {
+        try (CmisSessionPool.Lease lease = cmisSessionPool.acquire(parameters)) {
+            return lease.getSession().getRootFolder();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/* ******************************************************************** */
+/*                                                                      */
+/*  DispatchBenchmark                                                   */
+/*                                                                      */
+/*  Cost to find the sub-function for one job: the previous dispatch   */
+/*  (reflection + linear scan) against the registry lookup.             */
+/* ******************************************************************** */
+package io.camunda.filestorage.benchmark;
+
+import io.camunda.connector.filestorage.FileStorageFunction;
+import io.camunda.connector.filestorage.copy.CopyFile;
+import io.camunda.connector.filestorage.delete.DeleteFile;
+import io.camunda.connector.filestorage.download.DownloadFile;
+import io.camunda.connector.filestorage.toolbox.FileStorageSubFunction;
+import io.camunda.connector.filestorage.toolbox.FileStorageSubFunctionRegistry;
+import io.camunda.connector.filestorage.upload.UploadFile;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.reflect.Constructor;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatchBenchmark {
+
+    private static final List<Class<?>> LEGACY_FUNCTIONS = List.of(UploadFile.class, DownloadFile.class,
+            DeleteFile.class, CopyFile.class);
+
+    @Param({"upload", "copy"})
+    public String function;
+
+    private FileStorageFunction fileStorageFunction;
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder().include(DispatchBenchmark.class.getSimpleName()).build();
+        new Runner(options).run();
+    }
+
+    @Setup
+    public void setup() {
+        fileStorageFunction = new FileStorageFunction();
+        // registry is built before the measure, as at the connector startup
+        FileStorageSubFunctionRegistry.getInstance();
+    }
+
+    @Benchmark
+    public FileStorageSubFunction legacyDispatch() throws Exception {
+        for (Class<?> classFunction : LEGACY_FUNCTIONS) {
+            Constructor<?> constructor = classFunction.getConstructor();
+            FileStorageSubFunction subFunction = (FileStorageSubFunction) constructor.newInstance();
+            if (subFunction.getSubFunctionType().equals(function))
+                return subFunction;
+        }
+        return null;
+    }
+
+    @Benchmark
+    public FileStorageSubFunction registryDispatch() {
+        return FileStorageSubFunctionRegistry.getInstance().getSubFunction(function);
+    }
+
+    @Benchmark
+    public Map<String, String> listBpmnErrors() {
+        return fileStorageFunction.getListBpmnErrors();
+    }
+}
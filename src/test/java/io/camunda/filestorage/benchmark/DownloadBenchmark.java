@@ -0,0 +1,118 @@
+/* ******************************************************************** */
+/*                                                                      */
+/*  DownloadBenchmark                                                   */
+/*                                                                      */
+/*  Write a stored content to a local file: the previous 8 KB loop      */
+/*  against the kernel transfer (content is a local file: FOLDER,       */
+/*  TEMPFOLDER storage) and the pooled heap buffer copy (other          */
+/*  storages).                                                          */
+/* ******************************************************************** */
+package io.camunda.filestorage.benchmark;
+
+import io.camunda.connector.filestorage.toolbox.TransferToolbox;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DownloadBenchmark {
+
+    @Param({"1048576", "104857600", "2147483648"})
+    public long fileSize;
+
+    private Path folder;
+    private Path storedFile;
+    private Path targetFile;
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder().include(DownloadBenchmark.class.getSimpleName()).build();
+        new Runner(options).run();
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        folder = Files.createTempDirectory("downloadBenchmark");
+        storedFile = folder.resolve("stored.bin");
+        targetFile = folder.resolve("target.bin");
+        // real content: a sparse file would not be read from the disk
+        byte[] chunk = new byte[1024 * 1024];
+        new Random(1).nextBytes(chunk);
+        try (OutputStream outputStream = Files.newOutputStream(storedFile)) {
+            for (long written = 0; written < fileSize; written += chunk.length) {
+                outputStream.write(chunk, 0, (int) Math.min(chunk.length, fileSize - written));
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(storedFile);
+        Files.deleteIfExists(targetFile);
+        Files.deleteIfExists(folder);
+    }
+
+    /**
+     * The copy as it was done before the TransferToolbox
+     */
+    @Benchmark
+    public long legacyCopy() throws IOException {
+        long total = 0;
+        try (InputStream inputStream = new FileInputStream(storedFile.toFile());
+             OutputStream outputStream = new FileOutputStream(targetFile.toFile())) {
+            byte[] buffer = new byte[8192];
+            int bytesRead;
+            while ((bytesRead = inputStream.read(buffer)) != -1) {
+                outputStream.write(buffer, 0, bytesRead);
+                total += bytesRead;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Content is a local file, found from the reference
+     */
+    @Benchmark
+    public long channelTransfer() throws IOException {
+        try (FileChannel outputChannel = FileChannel.open(targetFile, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            return TransferToolbox.copy(storedFile, outputChannel).size();
+        }
+    }
+
+    /**
+     * Content is a stream (JSON, CMIS storage)
+     */
+    @Benchmark
+    public long bufferedCopy() throws IOException {
+        try (InputStream inputStream = new BufferedInputStream(new FileInputStream(storedFile.toFile()))) {
+            return copy(inputStream);
+        }
+    }
+
+    private long copy(InputStream inputStream) throws IOException {
+        try (FileChannel outputChannel = FileChannel.open(targetFile, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            return TransferToolbox.copy(inputStream, outputChannel).size();
+        }
+    }
+}
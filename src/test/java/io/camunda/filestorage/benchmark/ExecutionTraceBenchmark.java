@@ -0,0 +1,152 @@
+/* ******************************************************************** */
+/*                                                                      */
+/*  ExecutionTraceBenchmark                                             */
+/*                                                                      */
+/*  Trace of one upload job: the previous StringBuilder trace, always  */
+/*  built, against the ExecutionTrace. Run with the GC profiler: the   */
+/*  gc.alloc.rate.norm line gives the bytes allocated per job, INFO    */
+/*  disabled and INFO enabled.                                          */
+/* ******************************************************************** */
+package io.camunda.filestorage.benchmark;
+
+import io.camunda.connector.filestorage.toolbox.ExecutionTrace;
+import io.camunda.filestorage.storage.StorageDefinition;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.Logger;
+import org.slf4j.Marker;
+import org.slf4j.event.Level;
+import org.slf4j.helpers.LegacyAbstractLogger;
+import org.slf4j.helpers.NOPLogger;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExecutionTraceBenchmark {
+
+    @Param({"false", "true"})
+    public boolean infoEnabled;
+
+    private Logger logger;
+    private StorageDefinition storageDefinition;
+    private File folder;
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder().include(ExecutionTraceBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+
+    @Setup
+    public void setup(Blackhole blackhole) {
+        logger = infoEnabled ? new BlackholeLogger(blackhole) : NOPLogger.NOP_LOGGER;
+        storageDefinition = new StorageDefinition();
+        storageDefinition.type = StorageDefinition.StorageDefinitionType.FOLDER;
+        storageDefinition.complement = "/tmp/storage";
+        folder = new File("/tmp/upload");
+    }
+
+    /**
+     * The trace before: the StringBuilder is built and logged, even when INFO is disabled
+     */
+    @Benchmark
+    public void stringBuilderTrace() {
+        StringBuilder traceExecution = new StringBuilder();
+        traceExecution.append("---UploadFile:");
+        traceExecution.append("Folder:[");
+        traceExecution.append(folder.getAbsolutePath());
+        traceExecution.append("], ");
+        traceValue(traceExecution, "Storage Definition", storageDefinition.getInformation());
+        traceValue(traceExecution, "PolicyArchive", "UNCHANGE");
+        traceValue(traceExecution, "Deduplicate", false);
+        traceValue(traceExecution, "listFiltered", 1);
+        traceValue(traceExecution, "Max", 10);
+        traceValue(traceExecution, "Read FileName", "invoice.pdf");
+        traceValue(traceExecution, "size", String.valueOf(123_456L));
+        traceValue(traceExecution, "Loaded in (ms)", 12L);
+        traceValue(traceExecution, "storedSize", 123_456L);
+        logger.info(traceExecution.toString());
+    }
+
+    @Benchmark
+    public void executionTrace() {
+        ExecutionTrace traceExecution = ExecutionTrace.start(logger, "UploadFile");
+        traceExecution.context("folder", folder);
+        traceExecution.context("storageDefinition", storageDefinition);
+        traceExecution.value("policy", "UNCHANGE");
+        traceExecution.value("deduplicate", false);
+        traceExecution.value("filesFiltered", 1);
+        traceExecution.value("maximumFiles", 10);
+        traceExecution.context("fileName", "invoice.pdf");
+        traceExecution.value("size", 123_456L);
+        traceExecution.value("loadedMs", 12L);
+        traceExecution.value("storedSize", 123_456L);
+        traceExecution.log();
+    }
+
+    private static void traceValue(StringBuilder traceExecution, String label, Object value) {
+        traceExecution.append(label + "[");
+        traceExecution.append(value);
+        traceExecution.append("];");
+    }
+
+    /**
+     * A logger at INFO which writes nothing: the event is given to the blackhole
+     */
+    private static class BlackholeLogger extends LegacyAbstractLogger {
+        private final transient Blackhole blackhole;
+
+        BlackholeLogger(Blackhole blackhole) {
+            this.blackhole = blackhole;
+            this.name = "benchmark";
+        }
+
+        @Override
+        public boolean isTraceEnabled() {
+            return false;
+        }
+
+        @Override
+        public boolean isDebugEnabled() {
+            return false;
+        }
+
+        @Override
+        public boolean isInfoEnabled() {
+            return true;
+        }
+
+        @Override
+        public boolean isWarnEnabled() {
+            return true;
+        }
+
+        @Override
+        public boolean isErrorEnabled() {
+            return true;
+        }
+
+        @Override
+        protected String getFullyQualifiedCallerName() {
+            return null;
+        }
+
+        @Override
+        protected void handleNormalizedLoggingCall(Level level, Marker marker, String messagePattern, Object[] arguments,
+                                                   Throwable throwable) {
+            blackhole.consume(messagePattern);
+            blackhole.consume(arguments);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/* ******************************************************************** */
+/*                                                                      */
+/*  FileHandleSoakBenchmark                                             */
+/*                                                                      */
+/*  Run 100 000 upload jobs, and check the number of file descriptors   */
+/*  of the JVM does not grow: each stream is closed by the job. The     */
+/*  trial fails if the count grows more than the tolerance.             */
+/* ******************************************************************** */
+package io.camunda.filestorage.benchmark;
+
+import io.camunda.connector.filestorage.FileStorageInput;
+import io.camunda.connector.filestorage.FileStorageOutput;
+import io.camunda.connector.filestorage.toolbox.FileHandleBudget;
+import io.camunda.connector.filestorage.upload.UploadFile;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static io.camunda.connector.filestorage.FileStorageTestToolbox.getOpenFileDescriptors;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1, batchSize = 100000)
+@Fork(1)
+public class FileHandleSoakBenchmark {
+
+    /**
+     * Descriptors opened by the JVM itself during the run (class loading, JIT logs...)
+     */
+    private static final long TOLERANCE = 16;
+    private static final Logger logger = LoggerFactory.getLogger(FileHandleSoakBenchmark.class.getName());
+
+    @Param({"JSON"})
+    public String storageDefinition;
+
+    private Path folderToRead;
+    private UploadFile uploadFile;
+    private FileStorageInput input;
+    private long openFileDescriptorsAtStart;
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder().include(FileHandleSoakBenchmark.class.getSimpleName()).build();
+        new Runner(options).run();
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        folderToRead = Files.createTempDirectory("fileHandleSoak");
+        for (int i = 0; i < 4; i++) {
+            Files.writeString(folderToRead.resolve("file_" + i + ".txt"), "content of the file " + i);
+        }
+        uploadFile = new UploadFile();
+
+        input = new FileStorageInput();
+        input.fileStorageFunction = uploadFile.getSubFunctionType();
+        input.folderToRead = folderToRead.toString();
+        input.filterFile = "*.*";
+        input.maximumFilesToProcess = 4;
+        input.policy = FileStorageInput.POLICY_V_UNCHANGE;
+        input.storageDefinition = storageDefinition;
+
+        // first job: classes are loaded, pools are created
+        uploadFile.executeSubFunction(input, null);
+        openFileDescriptorsAtStart = getOpenFileDescriptors();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        long openFileDescriptorsAtEnd = getOpenFileDescriptors();
+        logger.info("Open file descriptors: start {} end {}, handles in the budget {}, waits {}",
+                openFileDescriptorsAtStart, openFileDescriptorsAtEnd, FileHandleBudget.getInstance().getOpenHandles(),
+                FileHandleBudget.getInstance().getWaitCount());
+        try (var files = Files.list(folderToRead)) {
+            for (Path file : files.toList())
+                Files.delete(file);
+        }
+        Files.delete(folderToRead);
+        if (FileHandleBudget.getInstance().getOpenHandles() != 0)
+            throw new IllegalStateException("Handles are not given back to the budget");
+        if (openFileDescriptorsAtStart >= 0 && openFileDescriptorsAtEnd > openFileDescriptorsAtStart + TOLERANCE)
+            throw new IllegalStateException("File descriptors leak: " + openFileDescriptorsAtStart + " -> "
+                    + openFileDescriptorsAtEnd);
+    }
+
+    /**
+     * One invocation is one job uploading 4 files
+     */
+    @Benchmark
+    public FileStorageOutput uploadJob() {
+        return uploadFile.executeSubFunction(input, null);
+    }
+}
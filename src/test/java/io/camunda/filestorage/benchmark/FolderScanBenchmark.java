@@ -0,0 +1,91 @@
+/* ******************************************************************** */
+/*                                                                      */
+/*  FolderScanBenchmark                                                 */
+/*                                                                      */
+/*  Search files to upload in a large folder (100 000 files): the       */
+/*  previous scan (listFiles + String.matches, then truncate) against   */
+/*  the streamed scan which stops at the maximum.                       */
+/* ******************************************************************** */
+package io.camunda.filestorage.benchmark;
+
+import io.camunda.connector.filestorage.upload.FolderScanner;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FolderScanBenchmark {
+
+    @Param({"100000"})
+    public int nbFiles;
+
+    @Param({"1", "100", "0"})
+    public int maximumFilesToProcess;
+
+    @Param({"*.*", "file_9.*\\.txt"})
+    public String filterFile;
+
+    private Path folder;
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder().include(FolderScanBenchmark.class.getSimpleName()).build();
+        new Runner(options).run();
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        folder = Files.createTempDirectory("folderScanBenchmark");
+        for (int i = 0; i < nbFiles; i++) {
+            Files.createFile(folder.resolve("file_" + i + (i % 2 == 0 ? ".txt" : ".csv")));
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> walk = Files.walk(folder)) {
+            walk.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    /**
+     * The scan as it was done before the FolderScanner
+     */
+    @Benchmark
+    public List<File> legacyScan() {
+        File folderFile = folder.toFile();
+        if (folderFile.listFiles() == null)
+            return Collections.emptyList();
+        List<File> listFilesFiltered = Arrays.stream(folderFile.listFiles()).filter(t -> {
+            if ("*.*".equals(filterFile))
+                return true;
+            return t.getName().matches(filterFile);
+        }).toList();
+        // the trace accessed the folder a third time
+        int nbFilesInFolder = folderFile.listFiles().length;
+        if (maximumFilesToProcess > 0 && listFilesFiltered.size() > maximumFilesToProcess && nbFilesInFolder > 0)
+            listFilesFiltered = listFilesFiltered.subList(0, maximumFilesToProcess);
+        return listFilesFiltered;
+    }
+
+    @Benchmark
+    public List<File> streamedScan() throws IOException {
+        return new FolderScanner(null, filterFile, maximumFilesToProcess).scan(folder);
+    }
+}
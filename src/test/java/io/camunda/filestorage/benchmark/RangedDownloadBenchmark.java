@@ -0,0 +1,112 @@
+/* ******************************************************************** */
+/*                                                                      */
+/*  RangedDownloadBenchmark                                             */
+/*                                                                      */
+/*  Download of a large CMIS content to a local file: one stream       */
+/*  against ranges fetched at the same time. The stand-in adds a round */
+/*  trip before the first byte and limits the rate of each stream, as  */
+/*  a high-latency link where one TCP stream can't fill the link.       */
+/* ******************************************************************** */
+package io.camunda.filestorage.benchmark;
+
+import io.camunda.connector.filestorage.cmis.CmisConnectionParameters;
+import io.camunda.connector.filestorage.cmis.CmisRangeSource;
+import io.camunda.connector.filestorage.cmis.CmisSessionPool;
+import io.camunda.connector.filestorage.cmis.CmisStandIn;
+import io.camunda.connector.filestorage.toolbox.RangedTransfer;
+import io.camunda.connector.filestorage.toolbox.TransferToolbox;
+import org.apache.chemistry.opencmis.client.api.Document;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx1g"})
+public class RangedDownloadBenchmark {
+
+    @Param({"64"})
+    public int contentSizeMb;
+
+    @Param({"20"})
+    public long latencyMs;
+
+    /**
+     * Rate of one stream
+     */
+    @Param({"32"})
+    public int streamMbPerSecond;
+
+    @Param({"4", "8"})
+    public int rangeCount;
+
+    @Param({"4"})
+    public int rangeSizeMb;
+
+    private CmisStandIn cmisStandIn;
+    private CmisSessionPool cmisSessionPool;
+    private CmisConnectionParameters parameters;
+    private String documentId;
+    private Path target;
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder().include(RangedDownloadBenchmark.class.getSimpleName()).build();
+        new Runner(options).run();
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        cmisStandIn = new CmisStandIn(latencyMs, latencyMs);
+        cmisStandIn.setStreamBytesPerSecond(streamMbPerSecond * 1024L * 1024);
+        cmisSessionPool = new CmisSessionPool(cmisStandIn, CmisSessionPool.DEFAULT_MAXIMUM_SIZE,
+                CmisSessionPool.DEFAULT_IDLE_TIMEOUT_MS, CmisSessionPool.DEFAULT_VALIDATION_INTERVAL_MS);
+        parameters = new CmisConnectionParameters("http://localhost:8099/cmis/browser", "default", "test", "test",
+                "/storage");
+        byte[] content = new byte[contentSizeMb * 1024 * 1024];
+        new Random(42).nextBytes(content);
+        documentId = cmisStandIn.createDocument(content);
+        target = Files.createTempFile("rangedDownload", ".bin");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        cmisSessionPool.clear();
+        Files.deleteIfExists(target);
+    }
+
+    /**
+     * The behavior without ranges: one stream
+     */
+    @Benchmark
+    public long singleStream() throws Exception {
+        try (CmisSessionPool.Lease lease = cmisSessionPool.acquire(parameters);
+             InputStream content = ((Document) lease.getSession().getObject(documentId)).getContentStream().getStream();
+             FileChannel channel = FileChannel.open(target, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            return TransferToolbox.copy(content, channel).size();
+        }
+    }
+
+    @Benchmark
+    public long parallelRanges() throws Exception {
+        try (CmisRangeSource rangeSource = new CmisRangeSource(cmisSessionPool, parameters, documentId);
+             FileChannel channel = FileChannel.open(target, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long size = RangedTransfer.copy(rangeSource, channel, rangeCount, rangeSizeMb * 1024L * 1024).size();
+            if (size != rangeSource.size())
+                throw new IllegalStateException("Ranges copied " + size + " bytes, expected " + rangeSource.size());
+            return size;
+        }
+    }
+}
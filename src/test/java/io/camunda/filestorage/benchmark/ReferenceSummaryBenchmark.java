@@ -0,0 +1,75 @@
+/* ******************************************************************** */
+/*                                                                      */
+/*  ReferenceSummaryBenchmark                                           */
+/*                                                                      */
+/*  A reference on a JSON storage carries the whole file. The          */
+/*  benchmarks compare the JSON serialization logged before with the   */
+/*  summary; the ReferenceSummaryTest checks the summary is bounded.   */
+/* ******************************************************************** */
+package io.camunda.filestorage.benchmark;
+
+import io.camunda.connector.filestorage.toolbox.ExecutionTrace;
+import io.camunda.connector.filestorage.toolbox.ReferenceSummary;
+import io.camunda.connector.filestorage.upload.UploadFile;
+import io.camunda.filestorage.FileVariableReference;
+import io.camunda.filestorage.storage.StorageDefinition;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReferenceSummaryBenchmark {
+
+    @Param({"1", "1024", "16384"})
+    public int fileSizeKb;
+
+    private FileVariableReference reference;
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder().include(ReferenceSummaryBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+
+    @Setup
+    public void setup() throws Exception {
+        Path file = Files.createTempFile("referenceSummary", ".bin");
+        byte[] content = new byte[fileSizeKb * 1024];
+        new Random(1).nextBytes(content);
+        Files.write(file, content);
+        try {
+            reference = new UploadFile().loadFile(file.toFile(), StorageDefinition.getFromString("JSON"),
+                    ExecutionTrace.start(LoggerFactory.getLogger(ReferenceSummaryBenchmark.class), "benchmark"),
+                    null).fileVariableReference();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * What the trace and the error messages logged before
+     */
+    @Benchmark
+    public String referenceJson() throws Exception {
+        return reference.toJson();
+    }
+
+    @Benchmark
+    public String referenceSummary() {
+        return ReferenceSummary.summarize(reference);
+    }
+}
@@ -0,0 +1,264 @@
+/* ******************************************************************** */
+/*                                                                      */
+/*  SubFunctionBenchmark                                                */
+/*                                                                      */
+/*  One job of each sub-function (upload, download, copy, delete),     */
+/*  executed through the FileStorageFunction dispatch with a stub       */
+/*  context, per storage type and file size. Run main() or the         */
+/*  benchmark profile: each storage and thread count is a run, and the */
+/*  report gives the throughput, the latency percentiles (sample mode) */
+/*  and the allocation rate (gc profiler).                              */
+/* ******************************************************************** */
+package io.camunda.filestorage.benchmark;
+
+import io.camunda.connector.filestorage.FileStorageFunction;
+import io.camunda.connector.filestorage.FileStorageInput;
+import io.camunda.connector.filestorage.FileStorageOutput;
+import io.camunda.connector.filestorage.FileStorageTestToolbox;
+import io.camunda.connector.filestorage.StubOutboundConnectorContext;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class SubFunctionBenchmark {
+
+    public static final int[] THREAD_COUNTS = {1, 4, 16, 64};
+
+    /**
+     * The JSON storage keeps the file in a process variable, in base64: a larger file is not a realistic case,
+     * and does not fit in the heap
+     */
+    public static final long JSON_MAXIMUM_SIZE = 64L * 1024 * 1024;
+
+    /**
+     * @param args JMH options (-p storageDefinition=FOLDER, -t 16...). Without -t, one run per thread count. Each
+     *             storage is a run: the JSON storage runs only the file sizes up to JSON_MAXIMUM_SIZE
+     */
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        int[] threadCounts = commandLineOptions.getThreads().hasValue() ?
+                new int[]{commandLineOptions.getThreads().get()} : THREAD_COUNTS;
+        List<String> fileSizes = getParameter(commandLineOptions, "fileSize");
+        for (int threads : threadCounts) {
+            for (String storageDefinition : getParameter(commandLineOptions, "storageDefinition")) {
+                String[] storageFileSizes = fileSizes.stream()
+                        .filter(fileSize -> !"JSON".equals(storageDefinition) || Long.parseLong(fileSize) <= JSON_MAXIMUM_SIZE)
+                        .toArray(String[]::new);
+                if (storageFileSizes.length == 0)
+                    continue;
+                Options options = new OptionsBuilder().parent(commandLineOptions)
+                        .include(SubFunctionBenchmark.class.getSimpleName())
+                        .threads(threads)
+                        .param("storageDefinition", storageDefinition)
+                        .param("fileSize", storageFileSizes)
+                        .addProfiler(GCProfiler.class)
+                        .resultFormat(ResultFormatType.JSON)
+                        .result("target/jmh-subfunction-" + storageDefinition.toLowerCase() + "-" + threads
+                                + "-threads.json")
+                        .build();
+                new Runner(options).run();
+            }
+        }
+    }
+
+    /**
+     * @return the values given on the command line, else the values of the @Param of the Storage
+     */
+    private static List<String> getParameter(CommandLineOptions commandLineOptions, String name)
+            throws NoSuchFieldException {
+        org.openjdk.jmh.util.Optional<Collection<String>> values = commandLineOptions.getParameter(name);
+        if (values.hasValue())
+            return new ArrayList<>(values.get());
+        return Arrays.asList(Storage.class.getField(name).getAnnotation(Param.class).value());
+    }
+
+    /**
+     * The storage and the stored file, shared by the threads
+     */
+    @State(Scope.Benchmark)
+    public static class Storage {
+
+        @Param({"JSON", "TEMPFOLDER", "FOLDER"})
+        public String storageDefinition;
+
+        @Param({"1024", "1048576", "67108864", "1073741824"})
+        public long fileSize;
+
+        private Path folderToRead;
+        private Path storageFolder;
+        private FileStorageFunction fileStorageFunction;
+        private Object storedReference;
+        /**
+         * References created during an iteration, purged after it: the storage does not grow during the run
+         */
+        private final Queue<Object> createdReferences = new ConcurrentLinkedQueue<>();
+
+        @Setup
+        public void setup() throws Exception {
+            // main() does not run this combination; a run with -p may ask for it
+            if ("JSON".equals(storageDefinition) && fileSize > JSON_MAXIMUM_SIZE)
+                throw new IllegalStateException("A " + fileSize + " bytes file is not stored in a JSON storage");
+            fileStorageFunction = new FileStorageFunction();
+            folderToRead = Files.createTempDirectory("subFunctionBenchmark");
+            storageFolder = Files.createTempDirectory("subFunctionStorage");
+            // real content: a sparse file would not be read from the disk
+            byte[] chunk = new byte[1024 * 1024];
+            new Random(1).nextBytes(chunk);
+            try (OutputStream outputStream = Files.newOutputStream(folderToRead.resolve("benchmark.bin"))) {
+                for (long written = 0; written < fileSize; written += chunk.length) {
+                    outputStream.write(chunk, 0, (int) Math.min(chunk.length, fileSize - written));
+                }
+            }
+            storedReference = execute(getUploadInput()).fileLoaded;
+        }
+
+        @TearDown(Level.Iteration)
+        public void purgeCreatedReferences() throws Exception {
+            Object reference;
+            while ((reference = createdReferences.poll()) != null)
+                purge(reference);
+        }
+
+        @TearDown
+        public void tearDown() throws Exception {
+            purgeCreatedReferences();
+            purge(storedReference);
+            deleteFolder(folderToRead);
+            deleteFolder(storageFolder);
+        }
+
+        FileStorageOutput execute(FileStorageInput input) throws Exception {
+            return fileStorageFunction.execute(new StubOutboundConnectorContext(input));
+        }
+
+        FileStorageInput getUploadInput() {
+            FileStorageInput input = getStorageInput("upload");
+            input.folderToRead = folderToRead.toString();
+            input.filterFile = "*.*";
+            input.maximumFilesToProcess = 1;
+            input.parallelism = 1;
+            input.policy = FileStorageInput.POLICY_V_UNCHANGE;
+            return input;
+        }
+
+        FileStorageInput getStorageInput(String function) {
+            return FileStorageTestToolbox.getStorageInput(function, storageDefinition, storageFolder);
+        }
+
+        private static void purge(Object reference) throws Exception {
+            if (reference != null)
+                FileStorageTestToolbox.purge(reference);
+        }
+    }
+
+    /**
+     * The inputs of one thread: the downloaded file belongs to the thread
+     */
+    @State(Scope.Thread)
+    public static class Worker {
+        private FileStorageInput uploadInput;
+        private FileStorageInput downloadInput;
+        private FileStorageInput copyInput;
+        private Path folderToSave;
+
+        @Setup
+        public void setup(Storage storage) throws IOException {
+            uploadInput = storage.getUploadInput();
+
+            folderToSave = Files.createTempDirectory("subFunctionDownload");
+            downloadInput = new FileStorageInput();
+            downloadInput.fileStorageFunction = "download";
+            downloadInput.sourceFile = storage.storedReference;
+            downloadInput.folderToSave = folderToSave.toString();
+            downloadInput.fileNameToWrite = "benchmark.bin";
+
+            copyInput = storage.getStorageInput("copy");
+            copyInput.sourceFile = storage.storedReference;
+        }
+
+        @TearDown
+        public void tearDown() throws IOException {
+            deleteFolder(folderToSave);
+        }
+    }
+
+    /**
+     * Each delete needs its own reference, created by a copy before the invocation. The copy is not measured.
+     * This state is used only by the delete: the other operations have no invocation level setup.
+     */
+    @State(Scope.Thread)
+    public static class DeleteWorker {
+        private FileStorageInput copyInput;
+        private FileStorageInput deleteInput;
+
+        @Setup
+        public void setup(Storage storage) {
+            copyInput = storage.getStorageInput("copy");
+            copyInput.sourceFile = storage.storedReference;
+            deleteInput = new FileStorageInput();
+            deleteInput.fileStorageFunction = "delete";
+        }
+
+        @Setup(Level.Invocation)
+        public void prepareReference(Storage storage) throws Exception {
+            deleteInput.sourceFile = storage.execute(copyInput).fileLoaded;
+        }
+    }
+
+    @Benchmark
+    public FileStorageOutput upload(Storage storage, Worker worker) throws Exception {
+        FileStorageOutput output = storage.execute(worker.uploadInput);
+        storage.createdReferences.add(output.fileLoaded);
+        return output;
+    }
+
+    @Benchmark
+    public FileStorageOutput download(Storage storage, Worker worker) throws Exception {
+        return storage.execute(worker.downloadInput);
+    }
+
+    @Benchmark
+    public FileStorageOutput copy(Storage storage, Worker worker) throws Exception {
+        FileStorageOutput output = storage.execute(worker.copyInput);
+        storage.createdReferences.add(output.fileLoaded);
+        return output;
+    }
+
+    @Benchmark
+    public FileStorageOutput delete(Storage storage, DeleteWorker deleteWorker) throws Exception {
+        return storage.execute(deleteWorker.deleteInput);
+    }
+
+    private static void deleteFolder(Path folder) throws IOException {
+        if (folder == null || !Files.exists(folder))
+            return;
+        try (Stream<Path> walk = Files.walk(folder)) {
+            walk.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+}
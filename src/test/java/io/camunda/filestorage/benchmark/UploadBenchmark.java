@@ -0,0 +1,96 @@
+/* ******************************************************************** */
+/*                                                                      */
+/*  UploadBenchmark                                                     */
+/*                                                                      */
+/*  Throughput of one upload job loading a folder, according to the    */
+/*  parallelism. Use -p storageDefinition=FOLDER -p folderComplement=   */
+/*  to measure against a remote volume (NFS...), where the latency of   */
+/*  one file limits the sequential upload.                              */
+/* ******************************************************************** */
+package io.camunda.filestorage.benchmark;
+
+import io.camunda.connector.filestorage.FileStorageInput;
+import io.camunda.connector.filestorage.FileStorageOutput;
+import io.camunda.connector.filestorage.upload.UploadFile;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UploadBenchmark {
+
+    @Param({"1", "4", "16"})
+    public int parallelism;
+
+    @Param({"64"})
+    public int nbFiles;
+
+    @Param({"65536"})
+    public int fileSize;
+
+    @Param({"TEMPFOLDER"})
+    public String storageDefinition;
+
+    @Param({""})
+    public String folderComplement;
+
+    private Path folderToRead;
+    private UploadFile uploadFile;
+    private FileStorageInput input;
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder().include(UploadBenchmark.class.getSimpleName()).build();
+        new Runner(options).run();
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        folderToRead = Files.createTempDirectory("uploadBenchmark");
+        byte[] content = new byte[fileSize];
+        new Random(1).nextBytes(content);
+        for (int i = 0; i < nbFiles; i++) {
+            Files.write(folderToRead.resolve("file_" + i + ".bin"), content);
+        }
+        uploadFile = new UploadFile();
+
+        input = new FileStorageInput();
+        input.fileStorageFunction = uploadFile.getSubFunctionType();
+        input.folderToRead = folderToRead.toString();
+        input.filterFile = "*.*";
+        input.maximumFilesToProcess = nbFiles;
+        input.parallelism = parallelism;
+        input.policy = FileStorageInput.POLICY_V_UNCHANGE;
+        input.storageDefinition = storageDefinition;
+        input.storageDefinitionFolderCompletement = folderComplement;
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> walk = Files.walk(folderToRead)) {
+            walk.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    /**
+     * One operation is one job: files per second is the score multiplied by nbFiles
+     */
+    @Benchmark
+    public FileStorageOutput uploadFolder() {
+        return uploadFile.executeSubFunction(input, null);
+    }
+}
@@ -0,0 +1,82 @@
+/* ******************************************************************** */
+/*                                                                      */
+/*  WriteModeBenchmark                                                  */
+/*                                                                      */
+/*  Latency of one download according to the write mode. The cost of a  */
+/*  sync depends on the volume: run it on the target volume with        */
+/*  -p folder=/mnt/target to choose the cheapest safe mode.             */
+/*  GROUP_COMMIT is measured with 8 threads writing at the same time.   */
+/* ******************************************************************** */
+package io.camunda.filestorage.benchmark;
+
+import io.camunda.connector.filestorage.download.DurableFileWriter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WriteModeBenchmark {
+
+    @Param({"DIRECT", "ATOMIC", "DURABLE", "GROUP_COMMIT"})
+    public String writeMode;
+
+    @Param({"65536"})
+    public int fileSize;
+
+    /**
+     * Empty: a temporary folder is used
+     */
+    @Param({""})
+    public String folder;
+
+    private Path targetFolder;
+    private byte[] content;
+    private DurableFileWriter.WriteMode mode;
+    private final AtomicInteger fileCounter = new AtomicInteger();
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder().include(WriteModeBenchmark.class.getSimpleName()).build();
+        new Runner(options).run();
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        targetFolder = folder.isEmpty() ? Files.createTempDirectory("writeModeBenchmark")
+                : Files.createTempDirectory(Path.of(folder), "writeModeBenchmark");
+        content = new byte[fileSize];
+        new Random(1).nextBytes(content);
+        mode = DurableFileWriter.WriteMode.valueOf(writeMode);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> walk = Files.walk(targetFolder)) {
+            walk.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Benchmark
+    @Threads(8)
+    public long write() throws IOException {
+        // a few names are reused: the folder does not grow during the measure
+        Path target = targetFolder.resolve("file_" + (fileCounter.incrementAndGet() % 256) + ".bin");
+        return DurableFileWriter.write(new ByteArrayInputStream(content), target, mode).size();
+    }
+}
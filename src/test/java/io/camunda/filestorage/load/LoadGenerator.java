@@ -0,0 +1,417 @@
+/* ******************************************************************** */
+/*                                                                      */
+/*  LoadGenerator                                                       */
+/*                                                                      */
+/*  How many file jobs per second one connector runtime sustains.      */
+/*  A mocked job source gives upload/download/copy/delete jobs at a    */
+/*  fixed rate to a LoadJobHandler: the ConnectorJobHandler of the     */
+/*  runtime, which binds the variables and builds the output. The jobs */
+/*  run on a ThreadPoolExecutor sized as the execution threads of the  */
+/*  runtime. No runtime is started and no cluster is needed.           */
+/*  The latency of a job is measured from the time it was scheduled:  */
+/*  when the rate is over the capacity, the time waiting for a thread  */
+/*  is in the latency, as it is for a job waiting in Zeebe.            */
+/*  The reports are written by the LoadReport.                         */
+/* ******************************************************************** */
+package io.camunda.filestorage.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.camunda.connector.api.json.ConnectorsObjectMapperSupplier;
+import io.camunda.connector.filestorage.FileStorageFunction;
+import io.camunda.connector.filestorage.FileStorageInput;
+import io.camunda.connector.filestorage.FileStorageOutput;
+import io.camunda.connector.filestorage.FileStorageTestToolbox;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+public class LoadGenerator {
+
+    /**
+     * Jobs per second given by the job source
+     */
+    public static final String PROPERTY_RATE = "filestorage.load.rate";
+    public static final int DEFAULT_RATE = 50;
+    public static final String PROPERTY_DURATION_SECONDS = "filestorage.load.durationSeconds";
+    public static final int DEFAULT_DURATION_SECONDS = 60;
+    /**
+     * Intervals during the warmup are in the throughput report, not in the summary
+     */
+    public static final String PROPERTY_WARMUP_SECONDS = "filestorage.load.warmupSeconds";
+    public static final int DEFAULT_WARMUP_SECONDS = 10;
+    public static final String PROPERTY_REPORT_INTERVAL_SECONDS = "filestorage.load.reportIntervalSeconds";
+    public static final int DEFAULT_REPORT_INTERVAL_SECONDS = 1;
+    /**
+     * Execution threads of the runtime (camunda.client.zeebe.executionThreads in application.yaml)
+     */
+    public static final String PROPERTY_THREADS = "filestorage.load.threads";
+    public static final int DEFAULT_THREADS = 32;
+    /**
+     * Operations and their weight: "upload:1,download:4,copy:2,delete:1"
+     */
+    public static final String PROPERTY_MIX = "filestorage.load.mix";
+    public static final String DEFAULT_MIX = "upload:1,download:4,copy:2,delete:1";
+    /**
+     * File sizes in bytes and their weight: "1024:70,1048576:25,16777216:5"
+     */
+    public static final String PROPERTY_SIZES = "filestorage.load.sizes";
+    public static final String DEFAULT_SIZES = "1024:70,1048576:25,16777216:5";
+    /**
+     * JSON, TEMPFOLDER or FOLDER
+     */
+    public static final String PROPERTY_STORAGE = "filestorage.load.storage";
+    public static final String DEFAULT_STORAGE = "FOLDER";
+    /**
+     * Seed of the choice of the operation and the size: the same seed gives the same sequence of jobs
+     */
+    public static final String PROPERTY_SEED = "filestorage.load.seed";
+    public static final int DEFAULT_SEED = 1;
+    public static final String PROPERTY_OUTPUT_FOLDER = "filestorage.load.outputFolder";
+    public static final String DEFAULT_OUTPUT_FOLDER = "target/load";
+
+    public static final String OPERATION_UPLOAD = "upload";
+    public static final String OPERATION_DOWNLOAD = "download";
+    public static final String OPERATION_COPY = "copy";
+    public static final String OPERATION_DELETE = "delete";
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadGenerator.class.getName());
+
+    private final int rate;
+    private final int durationSeconds;
+    private final int warmupSeconds;
+    private final int reportIntervalSeconds;
+    private final int threads;
+    private final WeightedChoice<String> operations;
+    private final WeightedChoice<Long> sizes;
+    private final String storageDefinition;
+    private final long seed;
+    private final Path outputFolder;
+
+    private final ObjectMapper objectMapper = ConnectorsObjectMapperSupplier.getCopy();
+    private final LoadJobHandler jobHandler = new LoadJobHandler(new FileStorageFunction());
+    private final AtomicInteger jobKey = new AtomicInteger();
+
+    private Path workFolder;
+    private Path storageFolder;
+    private Path downloadFolder;
+    /**
+     * Per size: the folder with the file to upload, the reference read by the downloads and the copies
+     */
+    private final Map<Long, Path> folderToRead = new HashMap<>();
+    private final Map<Long, Object> storedReferences = new HashMap<>();
+    /**
+     * Per size: the references created by the uploads and the copies, deleted by the deletes
+     */
+    private final Map<Long, Queue<Object>> createdReferences = new ConcurrentHashMap<>();
+
+    public LoadGenerator() {
+        rate = Integer.getInteger(PROPERTY_RATE, DEFAULT_RATE);
+        durationSeconds = Integer.getInteger(PROPERTY_DURATION_SECONDS, DEFAULT_DURATION_SECONDS);
+        warmupSeconds = Integer.getInteger(PROPERTY_WARMUP_SECONDS, DEFAULT_WARMUP_SECONDS);
+        reportIntervalSeconds = Math.max(1,
+                Integer.getInteger(PROPERTY_REPORT_INTERVAL_SECONDS, DEFAULT_REPORT_INTERVAL_SECONDS));
+        threads = Integer.getInteger(PROPERTY_THREADS, DEFAULT_THREADS);
+        operations = WeightedChoice.parse(System.getProperty(PROPERTY_MIX, DEFAULT_MIX), value -> value);
+        sizes = WeightedChoice.parse(System.getProperty(PROPERTY_SIZES, DEFAULT_SIZES), Long::valueOf);
+        storageDefinition = System.getProperty(PROPERTY_STORAGE, DEFAULT_STORAGE);
+        seed = Integer.getInteger(PROPERTY_SEED, DEFAULT_SEED);
+        outputFolder = Path.of(System.getProperty(PROPERTY_OUTPUT_FOLDER, DEFAULT_OUTPUT_FOLDER));
+        if (rate <= 0 || durationSeconds <= 0 || threads <= 0)
+            throw new IllegalArgumentException(
+                    "Rate[" + rate + "], duration[" + durationSeconds + "] and threads[" + threads + "] must be positive");
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadGenerator loadGenerator = new LoadGenerator();
+        try {
+            loadGenerator.prepare();
+            loadGenerator.run();
+        } finally {
+            loadGenerator.cleanUp();
+        }
+    }
+
+    /**
+     * Create the files to upload and store one reference per size, for the downloads and the copies
+     *
+     * @throws IOException a file can't be created
+     */
+    public void prepare() throws IOException {
+        workFolder = Files.createTempDirectory("loadGenerator");
+        storageFolder = Files.createDirectories(workFolder.resolve("storage"));
+        downloadFolder = Files.createDirectories(workFolder.resolve("download"));
+        byte[] chunk = new byte[1024 * 1024];
+        new Random(seed).nextBytes(chunk);
+        for (Long size : sizes.getValues()) {
+            Path folder = Files.createDirectories(workFolder.resolve("read-" + size));
+            // real content: a sparse file would not be read from the disk
+            try (OutputStream outputStream = Files.newOutputStream(folder.resolve("load-" + size + ".bin"))) {
+                for (long written = 0; written < size; written += chunk.length) {
+                    outputStream.write(chunk, 0, (int) Math.min(chunk.length, size - written));
+                }
+            }
+            folderToRead.put(size, folder);
+            createdReferences.put(size, new ConcurrentLinkedQueue<>());
+            LoadJob job = newJob(OPERATION_UPLOAD, size, System.nanoTime());
+            jobHandler.handle(job);
+            if (job.isFailed())
+                throw new IllegalStateException("Can't store the file of " + size + " bytes: " + job.getErrorMessage());
+            storedReferences.put(size, getFileLoaded(job));
+        }
+        logger.info("LoadGenerator: storage[{}] sizes{} mix{} rate[{}/s] threads[{}] duration[{}s] warmup[{}s]",
+                storageDefinition, sizes.getValues(), operations.getValues(), rate, threads, durationSeconds,
+                warmupSeconds);
+    }
+
+    /**
+     * Give the jobs at the rate, for the warmup and the duration, then write the reports
+     *
+     * @throws Exception the load can't run or the reports can't be written
+     */
+    public void run() throws Exception {
+        ThreadPoolExecutor executionThreads = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>());
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor();
+
+        long startNanos = System.nanoTime();
+        LoadReport loadReport = new LoadReport(outputFolder, operations.getValues(), startNanos);
+        long warmupIntervals = (warmupSeconds + reportIntervalSeconds - 1) / reportIntervalSeconds;
+        AtomicInteger intervalNumber = new AtomicInteger();
+        reporter.scheduleAtFixedRate(() -> loadReport.writeInterval(System.nanoTime(),
+                        intervalNumber.incrementAndGet() > warmupIntervals, executionThreads.getQueue().size()),
+                reportIntervalSeconds, reportIntervalSeconds, TimeUnit.SECONDS);
+
+        // the schedule: job N starts at start + N/rate, whatever the time the previous jobs took
+        Random random = new Random(seed);
+        long endNanos = startNanos + TimeUnit.SECONDS.toNanos((long) warmupIntervals * reportIntervalSeconds
+                + durationSeconds);
+        for (long index = 0; ; index++) {
+            long intendedStartNanos = startNanos + (long) (index * 1e9 / rate);
+            if (intendedStartNanos >= endNanos)
+                break;
+            long waitNanos = intendedStartNanos - System.nanoTime();
+            if (waitNanos > 0)
+                LockSupport.parkNanos(waitNanos);
+            String operation = operations.choose(random);
+            long size = sizes.choose(random);
+            executionThreads.execute(() -> executeJob(loadReport, operation, size, intendedStartNanos));
+        }
+
+        executionThreads.shutdown();
+        if (!executionThreads.awaitTermination(1, TimeUnit.HOURS))
+            logger.error("LoadGenerator: jobs still running after one hour");
+        reporter.shutdown();
+        reporter.awaitTermination(1, TimeUnit.MINUTES);
+        // the last jobs, finished after the schedule
+        loadReport.writeInterval(System.nanoTime(), true, 0);
+        String summary = loadReport.writeSummary();
+        logger.info("LoadGenerator: reports in [{}]{}{}", outputFolder.toAbsolutePath(), System.lineSeparator(),
+                summary);
+    }
+
+    /**
+     * Remove the references still stored and the files of the load
+     */
+    public void cleanUp() {
+        for (Queue<Object> references : createdReferences.values()) {
+            Object reference;
+            while ((reference = references.poll()) != null)
+                purge(reference);
+        }
+        storedReferences.values().forEach(LoadGenerator::purge);
+        if (workFolder == null)
+            return;
+        try (Stream<Path> walk = Files.walk(workFolder)) {
+            walk.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        } catch (IOException e) {
+            logger.error("LoadGenerator: can't delete [{}]: {}", workFolder, e.getMessage());
+        }
+    }
+
+    /* ******************************************************************** */
+    /*                                                                      */
+    /*  Jobs                                                                */
+    /*                                                                      */
+    /* ******************************************************************** */
+
+    private void executeJob(LoadReport loadReport, String operation, long size, long intendedStartNanos) {
+        Object referenceToDelete = null;
+        if (OPERATION_DELETE.equals(operation)) {
+            referenceToDelete = createdReferences.get(size).poll();
+            if (referenceToDelete == null) {
+                loadReport.skip(operation);
+                return;
+            }
+        }
+        String errorMessage;
+        LoadJob job = null;
+        try {
+            // the job is activated on the execution thread: the variables are serialized as Zeebe gives them
+            job = OPERATION_DELETE.equals(operation) ?
+                    newDeleteJob(referenceToDelete, intendedStartNanos) :
+                    newJob(operation, size, intendedStartNanos);
+            jobHandler.handle(job);
+            errorMessage = job.getErrorMessage();
+        } catch (Exception e) {
+            errorMessage = e.getClass().getSimpleName() + ": " + e.getMessage();
+        }
+        loadReport.record(operation, System.nanoTime() - intendedStartNanos, errorMessage);
+        if (job == null || job.isFailed())
+            return;
+
+        // after the measure: keep the created reference, remove the downloaded file
+        if (OPERATION_UPLOAD.equals(operation) || OPERATION_COPY.equals(operation)) {
+            Object fileLoaded = getFileLoaded(job);
+            if (fileLoaded != null)
+                createdReferences.get(size).add(fileLoaded);
+        } else if (OPERATION_DOWNLOAD.equals(operation)) {
+            try {
+                Files.deleteIfExists(downloadFolder.resolve(getDownloadFileName(job.getKey())));
+            } catch (IOException e) {
+                logger.error("LoadGenerator: can't delete the downloaded file: {}", e.getMessage());
+            }
+        }
+    }
+
+    private LoadJob newJob(String operation, long size, long intendedStartNanos) throws IOException {
+        long key = jobKey.incrementAndGet();
+        Map<String, Object> variables = new LinkedHashMap<>();
+        variables.put(FileStorageInput.INPUT_FILESTORAGEFUNCTION, operation);
+        switch (operation) {
+            case OPERATION_UPLOAD -> {
+                putStorage(variables);
+                variables.put(FileStorageInput.INPUT_FOLDER_TO_READ, folderToRead.get(size).toString());
+                variables.put(FileStorageInput.INPUT_FILTER_FILE, "*.*");
+                variables.put(FileStorageInput.INPUT_MAXIMUM_FILES_TO_PROCESS, 1);
+                variables.put(FileStorageInput.INPUT_POLICY, FileStorageInput.POLICY_V_UNCHANGE);
+            }
+            case OPERATION_DOWNLOAD -> {
+                variables.put(FileStorageInput.INPUT_SOURCE_FILE, storedReferences.get(size));
+                variables.put(FileStorageInput.INPUT_FOLDER_TO_SAVE, downloadFolder.toString());
+                variables.put(FileStorageInput.INPUT_FILE_NAME_TOWRITE, getDownloadFileName(key));
+            }
+            case OPERATION_COPY -> {
+                putStorage(variables);
+                variables.put(FileStorageInput.INPUT_SOURCE_FILE, storedReferences.get(size));
+            }
+            default -> throw new IllegalArgumentException("Unknown operation [" + operation
+                    + "]: upload, download, copy or delete expected");
+        }
+        return new LoadJob(key, operation, size, objectMapper.writeValueAsString(variables), intendedStartNanos);
+    }
+
+    private LoadJob newDeleteJob(Object reference, long intendedStartNanos) throws IOException {
+        Map<String, Object> variables = new LinkedHashMap<>();
+        variables.put(FileStorageInput.INPUT_FILESTORAGEFUNCTION, OPERATION_DELETE);
+        variables.put(FileStorageInput.INPUT_SOURCE_FILE, reference);
+        return new LoadJob(jobKey.incrementAndGet(), OPERATION_DELETE, 0, objectMapper.writeValueAsString(variables),
+                intendedStartNanos);
+    }
+
+    private void putStorage(Map<String, Object> variables) {
+        variables.put(FileStorageInput.INPUT_STORAGEDEFINITION, storageDefinition);
+        if ("FOLDER".equals(storageDefinition))
+            variables.put(FileStorageInput.INPUT_STORAGEDEFINITION_FOLDER_COMPLEMENT, storageFolder.toString());
+    }
+
+    /**
+     * @param job job completed
+     * @return the reference of the file in the output variables, null if there is none
+     */
+    private Object getFileLoaded(LoadJob job) {
+        Object result = job.getResultVariables() == null ? null : job.getResultVariables().get(LoadJob.RESULT_VARIABLE);
+        if (result instanceof FileStorageOutput fileStorageOutput)
+            return fileStorageOutput.fileLoaded;
+        if (result instanceof Map<?, ?> output)
+            return output.get(FileStorageOutput.OUTPUT_FILE_LOADED);
+        return result == null ? null : objectMapper.convertValue(result, Map.class).get(FileStorageOutput.OUTPUT_FILE_LOADED);
+    }
+
+    private static String getDownloadFileName(long key) {
+        return "job-" + key + ".bin";
+    }
+
+    private static void purge(Object reference) {
+        try {
+            FileStorageTestToolbox.purge(reference);
+        } catch (Exception e) {
+            logger.error("LoadGenerator: can't purge a reference: {}", e.getMessage());
+        }
+    }
+
+    /* ******************************************************************** */
+    /*                                                                      */
+    /*  WeightedChoice                                                      */
+    /*                                                                      */
+    /* ******************************************************************** */
+
+    /**
+     * A value chosen at random, in proportion of its weight
+     *
+     * @param <T> type of the values
+     */
+    private static class WeightedChoice<T> {
+        private final List<T> values = new ArrayList<>();
+        private final List<Integer> cumulatedWeights = new ArrayList<>();
+        private int totalWeight = 0;
+
+        /**
+         * @param definition "value:weight,value:weight". A value without weight has the weight 1
+         * @param parser     from the text to the value
+         */
+        static <T> WeightedChoice<T> parse(String definition, Function<String, T> parser) {
+            WeightedChoice<T> choice = new WeightedChoice<>();
+            for (String item : definition.split(",")) {
+                if (item.isBlank())
+                    continue;
+                String[] valueWeight = item.trim().split(":");
+                int weight = valueWeight.length > 1 ? Integer.parseInt(valueWeight[1].trim()) : 1;
+                if (weight <= 0)
+                    continue;
+                choice.totalWeight += weight;
+                choice.values.add(parser.apply(valueWeight[0].trim()));
+                choice.cumulatedWeights.add(choice.totalWeight);
+            }
+            if (choice.values.isEmpty())
+                throw new IllegalArgumentException("No value with a positive weight in [" + definition + "]");
+            return choice;
+        }
+
+        T choose(Random random) {
+            int draw = random.nextInt(totalWeight);
+            for (int i = 0; i < values.size(); i++) {
+                if (draw < cumulatedWeights.get(i))
+                    return values.get(i);
+            }
+            return values.get(values.size() - 1);
+        }
+
+        List<T> getValues() {
+            return values;
+        }
+    }
+}
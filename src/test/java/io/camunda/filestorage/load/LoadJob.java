@@ -0,0 +1,171 @@
+/* ******************************************************************** */
+/*                                                                      */
+/*  LoadJob                                                             */
+/*                                                                      */
+/*  A job given by the mocked job source: the variables of one         */
+/*  sub-function, and the outcome recorded by the LoadJobHandler in    */
+/*  place of the complete/fail command sent to Zeebe.                   */
+/* ******************************************************************** */
+package io.camunda.filestorage.load;
+
+import io.camunda.zeebe.client.api.response.ActivatedJob;
+
+import java.util.Map;
+
+public class LoadJob implements ActivatedJob {
+
+    public static final String JOB_TYPE = "c-filestorage";
+    public static final String RESULT_VARIABLE = "result";
+
+    private final long key;
+    private final String operation;
+    private final long fileSize;
+    private final String variables;
+    /**
+     * Time the job should start, from the schedule: the latency includes the time the job waited for a thread
+     */
+    private final long intendedStartNanos;
+
+    private Map<String, Object> resultVariables;
+    private String errorMessage;
+
+    public LoadJob(long key, String operation, long fileSize, String variables, long intendedStartNanos) {
+        this.key = key;
+        this.operation = operation;
+        this.fileSize = fileSize;
+        this.variables = variables;
+        this.intendedStartNanos = intendedStartNanos;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public long getFileSize() {
+        return fileSize;
+    }
+
+    public long getIntendedStartNanos() {
+        return intendedStartNanos;
+    }
+
+    /**
+     * @return the variables given to the complete command, null if the job failed
+     */
+    public Map<String, Object> getResultVariables() {
+        return resultVariables;
+    }
+
+    public void setResultVariables(Map<String, Object> resultVariables) {
+        this.resultVariables = resultVariables;
+    }
+
+    public boolean isFailed() {
+        return errorMessage != null;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage == null ? "Job failed" : errorMessage;
+    }
+
+    /* ******************************************************************** */
+    /*                                                                      */
+    /*  ActivatedJob                                                        */
+    /*                                                                      */
+    /* ******************************************************************** */
+
+    @Override
+    public long getKey() {
+        return key;
+    }
+
+    @Override
+    public String getType() {
+        return JOB_TYPE;
+    }
+
+    @Override
+    public long getProcessInstanceKey() {
+        return key;
+    }
+
+    @Override
+    public String getBpmnProcessId() {
+        return "LoadGenerator";
+    }
+
+    @Override
+    public int getProcessDefinitionVersion() {
+        return 1;
+    }
+
+    @Override
+    public long getProcessDefinitionKey() {
+        return 1;
+    }
+
+    @Override
+    public String getElementId() {
+        return operation;
+    }
+
+    @Override
+    public long getElementInstanceKey() {
+        return key;
+    }
+
+    @Override
+    public Map<String, String> getCustomHeaders() {
+        return Map.of("resultVariable", RESULT_VARIABLE);
+    }
+
+    @Override
+    public String getWorker() {
+        return "LoadGenerator";
+    }
+
+    @Override
+    public int getRetries() {
+        // a failure is reported, not retried: the retry would be a new job of the load
+        return 1;
+    }
+
+    @Override
+    public long getDeadline() {
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public String getVariables() {
+        return variables;
+    }
+
+    @Override
+    public Map<String, Object> getVariablesAsMap() {
+        throw new UnsupportedOperationException("The connector runtime reads the variables as JSON");
+    }
+
+    @Override
+    public <T> T getVariablesAsType(Class<T> variableType) {
+        throw new UnsupportedOperationException("The connector runtime reads the variables as JSON");
+    }
+
+    @Override
+    public Object getVariable(String name) {
+        throw new UnsupportedOperationException("The connector runtime reads the variables as JSON");
+    }
+
+    @Override
+    public String toJson() {
+        return "{\"key\":" + key + ",\"type\":\"" + JOB_TYPE + "\",\"elementId\":\"" + operation + "\"}";
+    }
+
+    @Override
+    public String getTenantId() {
+        return "<default>";
+    }
+}
@@ -0,0 +1,56 @@
+/* ******************************************************************** */
+/*                                                                      */
+/*  LoadJobHandler                                                      */
+/*                                                                      */
+/*  The job handler of the connector runtime: variables bound with the */
+/*  runtime object mapper, secrets replaced, output variables built    */
+/*  from the result variable. The complete, fail and BPMN error        */
+/*  commands are recorded on the LoadJob instead of sent to Zeebe.     */
+/* ******************************************************************** */
+package io.camunda.filestorage.load;
+
+import io.camunda.connector.api.json.ConnectorsObjectMapperSupplier;
+import io.camunda.connector.api.outbound.OutboundConnectorFunction;
+import io.camunda.connector.runtime.core.error.BpmnError;
+import io.camunda.connector.runtime.core.outbound.ConnectorJobHandler;
+import io.camunda.connector.runtime.core.outbound.ConnectorResult;
+import io.camunda.document.factory.DocumentFactoryImpl;
+import io.camunda.document.store.InMemoryDocumentStore;
+import io.camunda.zeebe.client.api.response.ActivatedJob;
+import io.camunda.zeebe.client.api.worker.JobClient;
+
+public class LoadJobHandler extends ConnectorJobHandler {
+
+    /**
+     * @param function the connector function, as registered by the runtime
+     */
+    public LoadJobHandler(OutboundConnectorFunction function) {
+        // secret provider null: the handler discovers the providers, as the runtime does
+        super(function, null, object -> {
+        }, new DocumentFactoryImpl(InMemoryDocumentStore.INSTANCE), ConnectorsObjectMapperSupplier.getCopy());
+    }
+
+    /**
+     * Execute the job on the calling thread. The outcome is in the job when the method returns.
+     *
+     * @param job job to execute
+     */
+    public void handle(LoadJob job) {
+        handle(null, job);
+    }
+
+    @Override
+    protected void completeJob(JobClient client, ActivatedJob job, ConnectorResult.SuccessResult result) {
+        ((LoadJob) job).setResultVariables(result.variables());
+    }
+
+    @Override
+    protected void failJob(JobClient client, ActivatedJob job, ConnectorResult.ErrorResult result) {
+        ((LoadJob) job).setErrorMessage(result.exception() == null ? null : result.exception().getMessage());
+    }
+
+    @Override
+    protected void throwBpmnError(JobClient client, ActivatedJob job, BpmnError error) {
+        ((LoadJob) job).setErrorMessage(error.code() + ": " + error.message());
+    }
+}
@@ -0,0 +1,163 @@
+/* ******************************************************************** */
+/*                                                                      */
+/*  LoadReport                                                          */
+/*                                                                      */
+/*  Latencies of the load, per operation, in HdrHistogram recorders.   */
+/*  Each interval is a line of throughput.csv; the intervals after the */
+/*  warmup are added to the total, written at the end as one .hgrm    */
+/*  percentile distribution per operation and a summary.csv.           */
+/* ******************************************************************** */
+package io.camunda.filestorage.load;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+public class LoadReport {
+
+    public static final String THROUGHPUT_FILE = "throughput.csv";
+    public static final String SUMMARY_FILE = "summary.csv";
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.HOURS.toMicros(1);
+    private static final int SIGNIFICANT_DIGITS = 3;
+    /**
+     * Values are recorded in microseconds, reported in milliseconds
+     */
+    private static final double MICROS_PER_MS = 1000.0;
+
+    private final Path outputFolder;
+    private final Map<String, OperationStatistics> statistics = new LinkedHashMap<>();
+    private final PrintWriter throughputWriter;
+    private final long startNanos;
+    private long lastIntervalNanos;
+    private double measuredSeconds = 0;
+
+    private static class OperationStatistics {
+        private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder skipped = new LongAdder();
+        private final Histogram total = new Histogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+        private Histogram interval;
+        private long totalErrors = 0;
+        private long totalSkipped = 0;
+        private volatile String firstError;
+    }
+
+    /**
+     * @param outputFolder folder of the reports, created if needed
+     * @param operations   operations of the load: the order of the reports
+     * @param startNanos   start of the load (System.nanoTime())
+     * @throws IOException the throughput file can't be created
+     */
+    public LoadReport(Path outputFolder, Collection<String> operations, long startNanos) throws IOException {
+        this.outputFolder = Files.createDirectories(outputFolder);
+        for (String operation : operations)
+            statistics.put(operation, new OperationStatistics());
+        this.startNanos = startNanos;
+        this.lastIntervalNanos = startNanos;
+        throughputWriter = new PrintWriter(Files.newBufferedWriter(outputFolder.resolve(THROUGHPUT_FILE)));
+        throughputWriter.println(
+                "elapsedSeconds,phase,operation,jobs,errors,skipped,jobsPerSecond,p50Ms,p99Ms,maxMs,queuedJobs");
+    }
+
+    /**
+     * @param operation    operation of the job
+     * @param latencyNanos from the intended start of the job to its completion
+     * @param errorMessage null if the job succeeded
+     */
+    public void record(String operation, long latencyNanos, String errorMessage) {
+        OperationStatistics operationStatistics = statistics.get(operation);
+        long micros = TimeUnit.NANOSECONDS.toMicros(latencyNanos);
+        operationStatistics.recorder.recordValue(Math.max(1, Math.min(micros, HIGHEST_TRACKABLE_MICROS)));
+        if (errorMessage != null) {
+            operationStatistics.errors.increment();
+            if (operationStatistics.firstError == null)
+                operationStatistics.firstError = errorMessage;
+        }
+    }
+
+    /**
+     * A job of the schedule not executed: no reference was available to delete
+     *
+     * @param operation operation of the job
+     */
+    public void skip(String operation) {
+        statistics.get(operation).skipped.increment();
+    }
+
+    /**
+     * Write the interval since the previous call. Called by one thread only.
+     *
+     * @param nowNanos   end of the interval (System.nanoTime())
+     * @param measured   false during the warmup: the interval is not added to the total
+     * @param queuedJobs jobs waiting for a thread: a growing value means the rate is over the capacity
+     */
+    public void writeInterval(long nowNanos, boolean measured, int queuedJobs) {
+        double intervalSeconds = (nowNanos - lastIntervalNanos) / 1e9;
+        double elapsedSeconds = (nowNanos - startNanos) / 1e9;
+        lastIntervalNanos = nowNanos;
+        if (measured)
+            measuredSeconds += intervalSeconds;
+        for (Map.Entry<String, OperationStatistics> entry : statistics.entrySet()) {
+            OperationStatistics operationStatistics = entry.getValue();
+            operationStatistics.interval = operationStatistics.recorder.getIntervalHistogram(operationStatistics.interval);
+            Histogram interval = operationStatistics.interval;
+            long errors = operationStatistics.errors.sumThenReset();
+            long skipped = operationStatistics.skipped.sumThenReset();
+            if (measured) {
+                operationStatistics.total.add(interval);
+                operationStatistics.totalErrors += errors;
+                operationStatistics.totalSkipped += skipped;
+            }
+            throughputWriter.println(String.format(Locale.ROOT, "%.1f,%s,%s,%d,%d,%d,%.2f,%.3f,%.3f,%.3f,%d",
+                    elapsedSeconds, measured ? "measure" : "warmup", entry.getKey(), interval.getTotalCount(), errors,
+                    skipped, intervalSeconds > 0 ? interval.getTotalCount() / intervalSeconds : 0,
+                    toMs(interval, 50), toMs(interval, 99), interval.getMaxValue() / MICROS_PER_MS, queuedJobs));
+        }
+        throughputWriter.flush();
+    }
+
+    /**
+     * Write the percentile distribution of each operation (&lt;operation&gt;.hgrm) and the summary of the measured
+     * intervals
+     *
+     * @return the summary, one line per operation
+     * @throws IOException a file can't be written
+     */
+    public String writeSummary() throws IOException {
+        throughputWriter.close();
+        StringBuilder summary = new StringBuilder();
+        summary.append("operation,jobs,errors,skipped,jobsPerSecond,p50Ms,p90Ms,p99Ms,p999Ms,maxMs,firstError\n");
+        for (Map.Entry<String, OperationStatistics> entry : statistics.entrySet()) {
+            OperationStatistics operationStatistics = entry.getValue();
+            Histogram total = operationStatistics.total;
+            try (PrintStream histogramStream = new PrintStream(
+                    Files.newOutputStream(outputFolder.resolve(entry.getKey() + ".hgrm")))) {
+                total.outputPercentileDistribution(histogramStream, MICROS_PER_MS);
+            }
+            String firstError = operationStatistics.firstError;
+            summary.append(String.format(Locale.ROOT, "%s,%d,%d,%d,%.2f,%.3f,%.3f,%.3f,%.3f,%.3f,%s%n", entry.getKey(),
+                    total.getTotalCount(), operationStatistics.totalErrors, operationStatistics.totalSkipped,
+                    measuredSeconds > 0 ? total.getTotalCount() / measuredSeconds : 0, toMs(total, 50), toMs(total, 90),
+                    toMs(total, 99), toMs(total, 99.9), total.getMaxValue() / MICROS_PER_MS,
+                    firstError == null ? "" : "\"" + firstError.replace('"', '\'').replace('\n', ' ') + "\""));
+        }
+        Files.writeString(outputFolder.resolve(SUMMARY_FILE), summary);
+        return summary.toString();
+    }
+
+    private static double toMs(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / MICROS_PER_MS;
+    }
+}